@@ -16,6 +16,7 @@ import java.io.IOException;
 
 import androidx.exifinterface.media.ExifInterface;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import android.os.SystemClock;
@@ -24,10 +25,12 @@ import android.graphics.YuvImage;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CameraConstrainedHighSpeedCaptureSession;
 import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
 import android.hardware.camera2.TotalCaptureResult;
 import android.hardware.camera2.params.OutputConfiguration;
 import android.hardware.camera2.params.SessionConfiguration;
@@ -48,15 +51,35 @@ import android.util.Size;
 import android.view.Display;
 import android.view.Surface;
 
+import androidx.annotation.AnyThread;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 import io.flutter.BuildConfig;
 import io.flutter.embedding.engine.systemchannels.PlatformChannel;
+import io.flutter.plugins.camera.media.DatasetRecorder;
+import io.flutter.plugins.camera.media.DatasetWriter;
+import io.flutter.plugins.camera.media.EncodedEventSink;
+import io.flutter.plugins.camera.media.FrameEventChannel;
 import io.flutter.plugins.camera.media.ImageStreamReaderUtils;
+import io.flutter.plugins.camera.media.JpegBatchExporter;
 import io.flutter.plugins.camera.media.LastFrameStore;
+import io.flutter.plugins.camera.media.LumaStats;
+import io.flutter.plugins.camera.media.MotionGate;
+import io.flutter.plugins.camera.media.ParallelRows;
+import io.flutter.plugins.camera.media.RetainedFrames;
+import io.flutter.plugins.camera.media.SharpnessScorer;
+import io.flutter.plugins.camera.media.SharedFrameRing;
+import io.flutter.plugins.camera.media.TemporalDenoiser;
+import io.flutter.plugins.camera.media.TensorConverter;
+import io.flutter.plugins.camera.media.Thumbnails;
 import io.flutter.plugins.camera.media.FastYuv;
+import io.flutter.plugins.camera.media.ChromaInterleaver;
+import io.flutter.plugins.camera.media.FrameHistory;
+import io.flutter.plugins.camera.media.FrameImage;
+import io.flutter.plugins.camera.media.FrameMetrics;
 
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugins.camera.features.CameraFeature;
@@ -73,10 +96,13 @@ import io.flutter.plugins.camera.features.flash.FlashFeature;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.focuspoint.FocusPointFeature;
 import io.flutter.plugins.camera.features.fpsrange.FpsRangeFeature;
+import io.flutter.plugins.camera.features.fpsrange.HighSpeedVideoConfig;
 import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationManager;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomRamp;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomRampCurve;
 import io.flutter.plugins.camera.media.ImageStreamReader;
 import io.flutter.plugins.camera.media.MediaRecorderBuilder;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
@@ -95,6 +121,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -108,11 +136,25 @@ interface ErrorCallback {
     void onError(String errorCode, String errorMessage);
 }
 
+/**
+ * Controls a single camera device.
+ *
+ * <p>Threading: the capture session, request builders and frame stream bookkeeping are confined
+ * to the main (platform) thread; methods touching them are annotated {@link MainThread} and the
+ * frame stream bookkeeping checks it. Methods annotated {@link AnyThread} are called by the Pigeon
+ * handlers that run on a background task queue, so frame-sized messages are encoded and decoded
+ * off the UI thread. They hop to the main thread for confined state and build and reply
+ * frame-sized results on the IO thread.
+ */
 class Camera
         implements CameraCaptureCallback.CameraCaptureStateListener,
         ImageReader.OnImageAvailableListener {
     private static final String TAG = "Camera";
 
+    /** Target FPS range requested for the preview. */
+    private static final int PREVIEW_MIN_FPS = 15;
+    private static final int PREVIEW_MAX_FPS = 30;
+
     /**
      * Holds all of the camera features/settings and will be used to update the
      * request builder when
@@ -154,7 +196,7 @@ class Camera
     /**
      * A {@link Handler} for running tasks in the background.
      */
-    Handler backgroundHandler;
+    volatile Handler backgroundHandler;
 
     /**
      * An additional thread for running tasks that shouldn't block the UI.
@@ -165,7 +207,7 @@ class Camera
      * A {@link Handler} dedicated for IO-bound tasks (e.g., JPEG write), to avoid
      * blocking camera callbacks.
      */
-    Handler ioHandler;
+    volatile Handler ioHandler;
 
     /**
      * A dedicated thread for IO-bound tasks.
@@ -179,26 +221,140 @@ class Camera
     ImageStreamReader imageStreamReader;
     ImageReader frameStreamReader;
 
-    private EventChannel.EventSink frameStreamSink = null;
+    // Set by the stream handlers, which run on a background task queue.
+    private volatile EventChannel.EventSink frameStreamSink = null;
+    private volatile EventChannel.EventSink imageStreamSink = null;
+
+    /**
+     * Whether the image and frames streams encode frames on the thread converting them, see {@link
+     * EncodedEventSink}, rather than on the main thread. Applies to streams listened to afterwards.
+     */
+    private volatile boolean backgroundStreamEncoding = true;
+
+    /** How long a one-shot frame request waits for the frames output to deliver a frame. */
+    private static final long FRAME_WAIT_TIMEOUT_MS = 1000;
+
+    /**
+     * Number of users of {@link #frameStreamReader}: the frames stream and pending one-shot frame
+     * requests. The reader is only a target of the repeating request while this is non-zero, so
+     * the full-size YUV stream is not produced and converted when nobody consumes it. Only
+     * accessed on the main thread.
+     */
+    private int frameStreamUsers = 0;
+    private boolean frameStreamTargetAttached = false;
+    private boolean listeningFrames = false;
+
+    /**
+     * Recent full-resolution frames, used for zero shutter lag pictures and history lookups. Sized
+     * for the larger of both configurations; only accessed on the main thread except for
+     * recording.
+     */
+    private final FrameHistory frameHistory = new FrameHistory();
+    private volatile boolean recordingFrameHistory = false;
+    private boolean zeroShutterLag = false;
+    private int zeroShutterLagDepth = 0;
+    private long zeroShutterLagMaxBytes = 0;
+    private int frameHistoryDepth = 0;
+    private long frameHistoryMaxBytes = 0;
+    private static final int ZERO_SHUTTER_LAG_JPEG_QUALITY = 95;
+
+    /** Longer side of the thumbnails written next to saved pictures, or 0 for none. */
+    private volatile int thumbnailMaxSide = 0;
+
+    /**
+     * The configuration of constrained high speed sessions, or null for regular sessions. Their
+     * preview and frame pipeline are fed by {@link #highSpeedTap} at {@link
+     * #highSpeedAnalysisFps}, see {@link #setHighSpeedVideo}.
+     */
+    @Nullable private HighSpeedVideoConfig highSpeedVideo;
+    private int highSpeedAnalysisFps = 0;
+    @Nullable private HighSpeedFrameTap highSpeedTap;
+
+    /**
+     * Frames sent to Dart that can be encoded by handle; the oldest are evicted first. Frames of
+     * the frames stream are only retained while {@link #retainStreamFrames} is set.
+     */
+    private static final long RETAINED_FRAME_MAX_BYTES = 48L * 1024 * 1024;
+    private final RetainedFrames retainedFrames = new RetainedFrames(RETAINED_FRAME_MAX_BYTES);
+    private volatile boolean retainStreamFrames = false;
+
+    /** Whether accepted frames are scored for {@link #captureBestFrameJpeg}. */
+    private boolean sharpnessScoring = false;
+
     final ImageStreamReaderUtils imageStreamReaderUtils = new ImageStreamReaderUtils();
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private final LastFrameStore lastFrameStore = new LastFrameStore();
 
-    private final Object jpegScratchLock = new Object();
+    /** Latencies and dropped frames of the image and frame streams. */
+    @VisibleForTesting
+    final FrameMetrics frameMetrics = new FrameMetrics();
+
+    /** Rate-limits zoom, exposure offset and focus point updates to one request per frame. */
+    @VisibleForTesting
+    final ControlUpdateCoalescer controlUpdateCoalescer;
+
+    /** The running zoom ramp, if any. Only replaced on the main thread. */
+    @Nullable
+    private volatile ZoomRamp zoomRamp;
+    @Nullable
+    private Messages.VoidResult zoomRampResult;
+    private final AtomicBoolean zoomRampStepPosted = new AtomicBoolean(false);
+
+    /** Collects capture result statistics while the stats stream is listened to. */
+    @Nullable
+    private CaptureStatsBatcher captureStatsBatcher;
+    @Nullable
+    private EventChannel.EventSink captureStatsSink;
+
+    /** Whether luma statistics are collected for the luma stats stream. */
+    private boolean collectingLumaStats = false;
+    @Nullable
+    private volatile EventChannel.EventSink lumaStatsSink;
+
+    /** Whether accepted frames are converted for the tensor stream. */
+    private boolean streamingTensors = false;
+    @Nullable
+    private volatile EventChannel.EventSink tensorSink;
+
+    /** The ring accepted frames are written to for Dart FFI readers, if any. */
+    @Nullable
+    private SharedFrameRing frameRing;
+    @Nullable
+    private volatile EventChannel.EventSink frameRingSink;
+
+    /** Keeps the last accepted frames for denoised snapshots, if set. */
     @Nullable
-    private byte[] scratchNv21;
+    private TemporalDenoiser denoiser;
+
+    /** Records every frame of the frames output to local storage, if set. */
+    @Nullable
+    private volatile DatasetWriter datasetWriter;
+
+    /** The last stopped writer, until it is closed on the IO thread. */
     @Nullable
-    private byte[] scratchNv21Rot;
+    private volatile DatasetWriter closingDatasetWriter;
+
+    /** Guards {@link #jpegScratch}, used by the single frame JPEG saves. */
+    private final Object jpegScratchLock = new Object();
+    private final JpegBatchExporter.Scratch jpegScratch = new JpegBatchExporter.Scratch();
+
+    /**
+     * Guards {@link #jpegBatchExporter}, which is created on the task queue thread of the first
+     * {@link #saveAsJpegBatch} and shut down by {@link #dispose()} on the main thread.
+     */
+    private final Object jpegBatchExporterLock = new Object();
+
+    /** Encodes {@link #saveAsJpegBatch} frames in parallel, created on first use. */
+    @Nullable
+    private JpegBatchExporter jpegBatchExporter;
+
+    /** Set by {@link #dispose()}; later batches are refused. */
+    private boolean jpegBatchExporterDisposed;
 
     private static int nv21Size(int w, int h) {
         return (w * h * 3) / 2;
     }
 
-    private byte[] ensureNv21Scratch(@Nullable byte[] cur, int need) {
-        if (cur == null || cur.length < need) return new byte[need];
-        return cur;
-    }
-
     /**
      * {@link CaptureRequest.Builder} for the camera preview
      */
@@ -262,6 +418,18 @@ class Camera
             cameraDevice.createCaptureSession(outputs, callback, backgroundHandler);
         }
 
+        @TargetApi(VERSION_CODES.M)
+        @SuppressWarnings("deprecation")
+        @Override
+        public void createConstrainedHighSpeedCaptureSession(
+                @NonNull List<Surface> outputs,
+                @NonNull CameraCaptureSession.StateCallback callback,
+                @Nullable Handler handler)
+                throws CameraAccessException {
+            cameraDevice.createConstrainedHighSpeedCaptureSession(
+                    outputs, callback, backgroundHandler);
+        }
+
         @Override
         public void close() {
             cameraDevice.close();
@@ -330,6 +498,36 @@ class Camera
         captureTimeouts = new CaptureTimeoutsWrapper(3000, 3000);
         captureProps = new CameraCaptureProperties();
         cameraCaptureCallback = CameraCaptureCallback.create(this, captureTimeouts, captureProps);
+        controlUpdateCoalescer = new ControlUpdateCoalescer(
+                new ControlUpdateCoalescer.RequestSubmitter() {
+                    @Override
+                    public boolean hasPendingChanges() {
+                        return cameraFeatures.hasDirtyFeatures();
+                    }
+
+                    @Override
+                    public boolean submit(long generation) throws CameraAccessException {
+                        return submitControlUpdate(generation);
+                    }
+                },
+                mainHandler);
+        cameraCaptureCallback.addCaptureResultListener(controlUpdateCoalescer);
+        cameraCaptureCallback.addCaptureResultListener((request, result) -> {
+            if (recordingFrameHistory) {
+                frameHistory.recordResult(result);
+            }
+            final DatasetWriter writer = datasetWriter;
+            if (writer != null) {
+                recordDatasetMetadata(writer, result);
+            }
+        });
+        lastFrameStore.setFrameMetrics(frameMetrics);
+        cameraCaptureCallback.addCaptureResultListener((request, result) -> {
+            // Advance the zoom ramp once per delivered frame.
+            if (zoomRamp != null && zoomRampStepPosted.compareAndSet(false, true)) {
+                mainHandler.post(this::stepZoomRamp);
+            }
+        });
 
         startBackgroundThread();
     }
@@ -358,6 +556,23 @@ class Camera
         }
     }
 
+    /**
+     * Applies only the features that changed since they were last applied to the builder.
+     *
+     * @param requestBuilder request builder to update.
+     * @return true if at least one feature was applied.
+     */
+    private boolean applyDirtyFeatures(CaptureRequest.Builder requestBuilder) {
+        List<CameraFeature<?>> dirtyFeatures = cameraFeatures.takeDirtyFeatures();
+        for (CameraFeature<?> feature : dirtyFeatures) {
+            if (BuildConfig.DEBUG) {
+                Log.d(TAG, "Updating builder with changed feature: " + feature.getDebugName());
+            }
+            feature.updateBuilder(requestBuilder);
+        }
+        return !dirtyFeatures.isEmpty();
+    }
+
     private void prepareMediaRecorder(String outputFilePath) throws IOException {
         Log.i(TAG, "prepareMediaRecorder");
 
@@ -393,6 +608,12 @@ class Camera
                             videoCaptureSettings.audioBitrate));
         }
 
+        final HighSpeedVideoConfig highSpeed = highSpeedVideo;
+        if (highSpeed != null) {
+            mediaRecorderBuilder.setHighSpeed(
+                    highSpeed.getSize().getWidth(), highSpeed.getSize().getHeight(), highSpeed.getFps());
+        }
+
         mediaRecorder = mediaRecorderBuilder
                 .setEnableAudio(videoCaptureSettings.enableAudio)
                 .setMediaOrientation(
@@ -463,6 +684,7 @@ class Camera
                 resolutionFeature.getPreviewSize().getHeight(),
                 this.imageFormatGroup,
                 1);
+        imageStreamReader.setFrameMetrics(frameMetrics);
         frameStreamReader = ImageReader.newInstance(
                 resolutionFeature.getCaptureSize().getWidth(),
                 resolutionFeature.getCaptureSize().getHeight(),
@@ -477,6 +699,10 @@ class Camera
                 if (image == null)
                     return;
 
+                final DatasetWriter writer = datasetWriter;
+                if (writer != null) {
+                    recordDatasetFrame(writer, FrameImage.of(image));
+                }
                 lastFrameStore.accept(image);
                 image = null;
             } catch (Exception e) {
@@ -582,8 +808,15 @@ class Camera
     private void createCaptureSession(
             int templateType, Runnable onSuccessCallback, Surface... surfaces)
             throws CameraAccessException {
+        final HighSpeedVideoConfig highSpeed = highSpeedVideo;
+        if (highSpeed != null && SdkCapabilityChecker.supportsConstrainedHighSpeedSession()) {
+            createHighSpeedCaptureSession(highSpeed, onSuccessCallback, surfaces);
+            return;
+        }
+
         // Close any existing capture session.
         captureSession = null;
+        controlUpdateCoalescer.flush();
 
         // Create a new capture builder.
         previewRequestBuilder = cameraDevice.createCaptureRequest(templateType);
@@ -599,9 +832,19 @@ class Camera
 
         List<Surface> remainingSurfaces = new ArrayList<>(Arrays.asList(surfaces));
 
+        // The frames output is always part of the session so it can be attached to the
+        // repeating request later without reconfiguring; it only becomes a target while used.
+        Surface frameStreamSurface = null;
+        frameStreamTargetAttached = false;
         if (frameStreamReader != null) {
-            previewRequestBuilder.addTarget(frameStreamReader.getSurface());
-            remainingSurfaces.add(frameStreamReader.getSurface());
+            frameStreamSurface = frameStreamReader.getSurface();
+            if (!remainingSurfaces.contains(frameStreamSurface)) {
+                remainingSurfaces.add(frameStreamSurface);
+            }
+            if (frameStreamUsers > 0) {
+                previewRequestBuilder.addTarget(frameStreamSurface);
+                frameStreamTargetAttached = true;
+            }
         }
 
         if (templateType != CameraDevice.TEMPLATE_PREVIEW) {
@@ -610,7 +853,7 @@ class Camera
             // not be part of a repeating request.
             Surface pictureImageReaderSurface = pictureImageReader.getSurface();
             for (Surface surface : remainingSurfaces) {
-                if (surface == pictureImageReaderSurface) {
+                if (surface == pictureImageReaderSurface || surface == frameStreamSurface) {
                     continue;
                 }
                 previewRequestBuilder.addTarget(surface);
@@ -638,6 +881,7 @@ class Camera
 
                 Log.i(TAG, "Updating builder settings");
                 updateBuilderSettings(previewRequestBuilder);
+                cameraFeatures.markAllApplied();
 
                 previewRequestBuilder.set(CaptureRequest.CONTROL_AF_MODE,
                         CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
@@ -656,7 +900,8 @@ class Camera
 
 
                 previewRequestBuilder.set(CaptureRequest.CONTROL_AE_TARGET_FPS_RANGE,
-                        new Range<>(15, 30));
+                        new Range<>(PREVIEW_MIN_FPS, PREVIEW_MAX_FPS));
+                controlUpdateCoalescer.setFrameIntervalNs(1_000_000_000L / PREVIEW_MAX_FPS);
 
                 refreshPreviewCaptureSession(
                         onSuccessCallback, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
@@ -740,6 +985,173 @@ class Camera
         cameraDevice.createCaptureSession(surfaces, callback, backgroundHandler);
     }
 
+    /**
+     * Creates a constrained high speed session. It renders into {@link #highSpeedTap} instead of
+     * the Flutter texture, and {@code surfaces} may only hold the recorder surface, as such a
+     * session accepts neither the picture nor the frames output.
+     */
+    @TargetApi(VERSION_CODES.M)
+    private void createHighSpeedCaptureSession(
+            @NonNull HighSpeedVideoConfig config, @Nullable Runnable onSuccessCallback,
+            Surface... surfaces) throws CameraAccessException {
+        captureSession = null;
+        controlUpdateCoalescer.flush();
+
+        previewRequestBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_RECORD);
+
+        final HighSpeedFrameTap tap = getHighSpeedTap(config);
+        final Surface tapSurface;
+        try {
+            tapSurface = tap.getInputSurface();
+        } catch (InterruptedException | IllegalStateException e) {
+            dartMessenger.sendCameraErrorEvent(
+                    "Failed to start the high speed preview: " + e.getMessage());
+            return;
+        }
+        final List<Surface> outputs = new ArrayList<>();
+        outputs.add(tapSurface);
+        outputs.addAll(Arrays.asList(surfaces));
+        for (Surface surface : outputs) {
+            previewRequestBuilder.addTarget(surface);
+        }
+        frameStreamTargetAttached = frameStreamUsers > 0;
+        tap.setAnalysisEnabled(frameStreamTargetAttached);
+
+        Size cameraBoundaries = CameraRegionUtils.getCameraBoundaries(cameraProperties, previewRequestBuilder);
+        cameraFeatures.getExposurePoint().setCameraBoundaries(cameraBoundaries);
+        cameraFeatures.getFocusPoint().setCameraBoundaries(cameraBoundaries);
+
+        CameraCaptureSession.StateCallback callback = new CameraCaptureSession.StateCallback() {
+            boolean captureSessionClosed = false;
+
+            @Override
+            public void onConfigured(@NonNull CameraCaptureSession session) {
+                Log.i(TAG, "High speed CameraCaptureSession onConfigured");
+                if (cameraDevice == null || captureSessionClosed) {
+                    dartMessenger.sendCameraErrorEvent("The camera was closed during configuration.");
+                    return;
+                }
+                captureSession = session;
+
+                // The session only accepts the fixed range it was selected for, also while
+                // not recording.
+                final FpsRangeFeature fpsRange =
+                        cameraFeatureFactory.createFpsRangeFeature(cameraProperties);
+                fpsRange.setValue(config.getFpsRange());
+                cameraFeatures.setFpsRange(fpsRange);
+                updateBuilderSettings(previewRequestBuilder);
+                cameraFeatures.markAllApplied();
+                controlUpdateCoalescer.setFrameIntervalNs(1_000_000_000L / config.getFps());
+
+                refreshPreviewCaptureSession(
+                        onSuccessCallback, (code, message) -> dartMessenger.sendCameraErrorEvent(message));
+            }
+
+            @Override
+            public void onConfigureFailed(@NonNull CameraCaptureSession session) {
+                Log.i(TAG, "High speed CameraCaptureSession onConfigureFailed");
+                dartMessenger.sendCameraErrorEvent("Failed to configure high speed camera session.");
+            }
+
+            @Override
+            public void onClosed(@NonNull CameraCaptureSession session) {
+                captureSessionClosed = true;
+            }
+        };
+
+        if (SdkCapabilityChecker.supportsSessionConfiguration()) {
+            List<OutputConfiguration> configs = new ArrayList<>();
+            for (Surface surface : outputs) {
+                configs.add(new OutputConfiguration(surface));
+            }
+            cameraDevice.createCaptureSession(
+                    new SessionConfiguration(
+                            SessionConfiguration.SESSION_HIGH_SPEED,
+                            configs,
+                            backgroundHandler::post,
+                            callback));
+        } else {
+            cameraDevice.createConstrainedHighSpeedCaptureSession(outputs, callback, backgroundHandler);
+        }
+    }
+
+    /** Creates {@link #highSpeedTap} on the Flutter texture if there is none yet. */
+    @NonNull
+    private HighSpeedFrameTap getHighSpeedTap(@NonNull HighSpeedVideoConfig config) {
+        if (highSpeedTap == null) {
+            final Size previewSize = cameraFeatures.getResolution().getPreviewSize();
+            final SurfaceTexture surfaceTexture = flutterTexture.surfaceTexture();
+            surfaceTexture.setDefaultBufferSize(previewSize.getWidth(), previewSize.getHeight());
+            // The tap owns the surface and releases it when closed.
+            highSpeedTap = new HighSpeedFrameTap(
+                    new Surface(surfaceTexture),
+                    previewSize.getWidth(),
+                    previewSize.getHeight(),
+                    config.getSize().getWidth(),
+                    config.getSize().getHeight(),
+                    config.getFps(),
+                    highSpeedAnalysisFps,
+                    this::onHighSpeedFrame,
+                    backgroundHandler,
+                    (thread, e) -> dartMessenger.sendCameraErrorEvent(
+                            "The high speed preview failed: " + e.getMessage()));
+        }
+        return highSpeedTap;
+    }
+
+    /** Hands an analysis frame of {@link #highSpeedTap} to the frame pipeline. */
+    private void onHighSpeedFrame(@NonNull FrameImage frame) {
+        final DatasetWriter writer = datasetWriter;
+        if (writer != null) {
+            recordDatasetFrame(writer, frame);
+        }
+        // Already decimated to the analysis rate.
+        lastFrameStore.accept(frame, 0);
+    }
+
+    private void closeHighSpeedTap() {
+        if (highSpeedTap != null) {
+            highSpeedTap.close();
+            highSpeedTap = null;
+        }
+    }
+
+    /**
+     * Sends {@code request} as the repeating request; a constrained high speed session needs it as
+     * a burst of its high speed request list.
+     */
+    private void setRepeatingPreviewRequest(
+            @NonNull CaptureRequest request, @Nullable CameraCaptureSession.CaptureCallback callback)
+            throws CameraAccessException {
+        if (SdkCapabilityChecker.supportsConstrainedHighSpeedSession()
+                && captureSession instanceof CameraConstrainedHighSpeedCaptureSession) {
+            final CameraConstrainedHighSpeedCaptureSession session =
+                    (CameraConstrainedHighSpeedCaptureSession) captureSession;
+            session.setRepeatingBurst(
+                    session.createHighSpeedRequestList(request), callback, backgroundHandler);
+        } else {
+            captureSession.setRepeatingRequest(request, callback, backgroundHandler);
+        }
+    }
+
+    /**
+     * Sends {@code request} once, as a burst in a constrained high speed session, which keeps
+     * triggers in its first request only.
+     */
+    private void capturePreviewRequest(
+            @NonNull CaptureRequest request, @Nullable CameraCaptureSession.CaptureCallback callback)
+            throws CameraAccessException {
+        if (SdkCapabilityChecker.supportsConstrainedHighSpeedSession()
+                && captureSession instanceof CameraConstrainedHighSpeedCaptureSession) {
+            final CameraConstrainedHighSpeedCaptureSession session =
+                    (CameraConstrainedHighSpeedCaptureSession) captureSession;
+            session.captureBurst(
+                    session.createHighSpeedRequestList(request), callback, backgroundHandler);
+        } else {
+            captureSession.capture(request, callback, backgroundHandler);
+        }
+    }
+
     // Send a repeating request to refresh capture session.
     void refreshPreviewCaptureSession(
             @Nullable Runnable onSuccessCallback, @NonNull ErrorCallback onErrorCallback) {
@@ -755,8 +1167,7 @@ class Camera
 
         try {
             if (!pausedPreview) {
-                captureSession.setRepeatingRequest(
-                        previewRequestBuilder.build(), cameraCaptureCallback, backgroundHandler);
+                installPreviewRequest();
             }
 
             if (onSuccessCallback != null) {
@@ -764,12 +1175,66 @@ class Camera
             }
 
         } catch (IllegalStateException e) {
+            cameraFeatures.invalidateAppliedValues();
             onErrorCallback.onError("cameraAccess", "Camera is closed: " + e.getMessage());
         } catch (CameraAccessException e) {
+            cameraFeatures.invalidateAppliedValues();
             onErrorCallback.onError("cameraAccess", e.getMessage());
         }
     }
 
+    /**
+     * Sends the preview request as the repeating request, with {@link #cameraCaptureCallback} and
+     * tagged with the last submitted control generation, so capture results keep reaching the
+     * result listeners and control updates waiting for that generation.
+     */
+    private void installPreviewRequest() throws CameraAccessException {
+        previewRequestBuilder.setTag(controlUpdateCoalescer.getSubmittedGeneration());
+        setRepeatingPreviewRequest(previewRequestBuilder.build(), cameraCaptureCallback);
+    }
+
+    /**
+     * Sends the preview request carrying the coalesced control changes, tagged with the given
+     * generation so {@link ControlUpdateCoalescer} can tell when it reaches a capture result.
+     *
+     * @return false if no request was sent because there is no session or the preview is paused.
+     */
+    private boolean submitControlUpdate(long generation) throws CameraAccessException {
+        if (captureSession == null || previewRequestBuilder == null) {
+            return false;
+        }
+        applyDirtyFeatures(previewRequestBuilder);
+        if (pausedPreview) {
+            return false;
+        }
+        try {
+            previewRequestBuilder.setTag(generation);
+            setRepeatingPreviewRequest(previewRequestBuilder.build(), cameraCaptureCallback);
+            return true;
+        } catch (CameraAccessException | IllegalStateException e) {
+            cameraFeatures.invalidateAppliedValues();
+            throw e;
+        }
+    }
+
+    /**
+     * Applies the changed features to the preview request and sends it as the new repeating
+     * request. When no feature actually changed, the active repeating request is already identical
+     * to the one that would be built, so it is left in place and the success callback runs right
+     * away.
+     */
+    private void refreshPreviewFeatures(
+            @Nullable Runnable onSuccessCallback, @NonNull ErrorCallback onErrorCallback) {
+        boolean changed = previewRequestBuilder != null && applyDirtyFeatures(previewRequestBuilder);
+        if (!changed && captureSession != null) {
+            if (onSuccessCallback != null) {
+                onSuccessCallback.run();
+            }
+            return;
+        }
+        refreshPreviewCaptureSession(onSuccessCallback, onErrorCallback);
+    }
+
     private void startCapture(boolean record, boolean stream) throws CameraAccessException {
         List<Surface> surfaces = new ArrayList<>();
         Runnable successCallback = null;
@@ -782,15 +1247,25 @@ class Camera
         }
 
         // Add pictureImageReader surface to allow for still capture
-        // during recording/image streaming.
-        surfaces.add(pictureImageReader.getSurface());
-        surfaces.add(frameStreamReader.getSurface());
+        // during recording/image streaming, which high speed sessions do not support.
+        if (highSpeedVideo == null) {
+            surfaces.add(pictureImageReader.getSurface());
+        }
 
         createCaptureSession(
                 CameraDevice.TEMPLATE_RECORD, successCallback, surfaces.toArray(new Surface[0]));
     }
 
     public void takePicture(@NonNull final Messages.Result<String> result) {
+        if (highSpeedVideo != null) {
+            result.error(
+                    new Messages.FlutterError(
+                            "highSpeedVideoActive",
+                            "Pictures cannot be taken in a high speed session",
+                            null));
+            return;
+        }
+
         // Only take one picture at a time.
         if (cameraCaptureCallback.getCameraState() != CameraState.STATE_PREVIEW) {
             result.error(
@@ -799,6 +1274,10 @@ class Camera
             return;
         }
 
+        if (zeroShutterLag && takeZeroShutterLagPicture(result)) {
+            return;
+        }
+
         flutterResult = result;
 
         // Create temporary file.
@@ -823,6 +1302,273 @@ class Camera
         }
     }
 
+    /**
+     * Sets the size of the thumbnails written next to pictures saved by {@link #takePicture} and
+     * {@link #capturePreviewFrameJpeg}, at {@link Thumbnails#pathFor} the picture. Thumbnails are
+     * upright, with a longer side of at most {@code maxSide} pixels; 0 disables them.
+     */
+    public void setThumbnailSize(int maxSide) {
+        thumbnailMaxSide = Math.max(0, maxSide);
+    }
+
+    /**
+     * Switches to constrained high speed sessions at the supported frame rate closest to {@code
+     * fps}, or back to regular sessions if 0. Recordings then get every frame, while the preview
+     * and the frame pipeline run at {@code analysisFps}; pictures and image streams are not
+     * available.
+     *
+     * @return the width, height and frame rate of the session, or an empty list if disabled.
+     */
+    @NonNull
+    public List<Long> setHighSpeedVideo(int fps, int analysisFps) {
+        if (recordingVideo) {
+            throw new Messages.FlutterError(
+                    "highSpeedVideoFailed", "The session cannot be changed while recording", null);
+        }
+        HighSpeedVideoConfig config = null;
+        if (fps > 0) {
+            if (!SdkCapabilityChecker.supportsConstrainedHighSpeedSession()) {
+                throw new Messages.FlutterError(
+                        "highSpeedVideoUnsupported", "High speed video requires Android 6.0", null);
+            }
+            config = HighSpeedVideoConfig.select(
+                    cameraProperties, fps, cameraFeatures.getResolution().getCaptureSize());
+            if (config == null) {
+                throw new Messages.FlutterError(
+                        "highSpeedVideoUnsupported", "The camera does not support high speed video",
+                        null);
+            }
+        } else if (highSpeedVideo == null) {
+            return new ArrayList<>();
+        }
+
+        // The tap must have released the Flutter texture before a regular session renders into it.
+        closeCaptureSession();
+        closeHighSpeedTap();
+        highSpeedVideo = config;
+        highSpeedAnalysisFps = Math.max(0, analysisFps);
+        if (config == null) {
+            cameraFeatures.setFpsRange(cameraFeatureFactory.createFpsRangeFeature(cameraProperties));
+        }
+        if (cameraDevice != null) {
+            try {
+                startPreview(null);
+            } catch (CameraAccessException | InterruptedException | IllegalStateException e) {
+                throw new Messages.FlutterError("highSpeedVideoFailed", e.getMessage(), null);
+            }
+        }
+        if (config == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(
+                (long) config.getSize().getWidth(),
+                (long) config.getSize().getHeight(),
+                (long) config.getFps());
+    }
+
+    /**
+     * Enables or disables zero shutter lag pictures.
+     *
+     * <p>While enabled, the frames output stays attached and the last {@code depth} frames are
+     * kept in full resolution, limited to {@code maxBytes} of memory, so {@link #takePicture}
+     * can encode the frame closest to the shutter press instead of running the focus and
+     * precapture sequence.
+     */
+    public void setZeroShutterLag(boolean enabled, int depth, long maxBytes) {
+        zeroShutterLag = enabled;
+        zeroShutterLagDepth = enabled ? depth : 0;
+        zeroShutterLagMaxBytes = enabled ? maxBytes : 0;
+        updateFrameHistory();
+    }
+
+    /**
+     * Keeps the last {@code depth} full-resolution frames, limited to {@code maxBytes} of memory,
+     * for {@link #getFrameNearest}, {@link #getFrameById} and {@link #getFramesInRange}. A depth of
+     * 0 stops recording unless zero shutter lag needs the history.
+     */
+    public void setFrameHistory(int depth, long maxBytes) {
+        frameHistoryDepth = Math.max(0, depth);
+        frameHistoryMaxBytes = maxBytes;
+        updateFrameHistory();
+    }
+
+    private void updateFrameHistory() {
+        final int depth = Math.max(zeroShutterLagDepth, frameHistoryDepth);
+        final long maxBytes = Math.max(zeroShutterLagMaxBytes, frameHistoryMaxBytes);
+        frameHistory.configure(depth, maxBytes);
+
+        final boolean record = depth > 0;
+        if (record != recordingFrameHistory) {
+            recordingFrameHistory = record;
+            // Recorded by the frame store, which converts each frame once for both.
+            lastFrameStore.setFrameHistory(record ? frameHistory : null);
+            if (record) {
+                retainFrameStream();
+            } else {
+                releaseFrameStream();
+            }
+        }
+    }
+
+    /** Returns the history frame closest to {@code timestampNs}, or null if there is none. */
+    @AnyThread
+    public void getFrameNearest(
+            long timestampNs, @NonNull Messages.NullableResult<Map<String, Object>> result) {
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            final FrameHistory.Frame frame = frameHistory.findClosest(timestampNs);
+            // Replied from here, so the frame is encoded off the main thread.
+            result.success(frame == null ? null : historyFrameToMap(frame));
+        });
+    }
+
+    /** Returns the history frame with the given id, or null if it is no longer held. */
+    @AnyThread
+    public void getFrameById(
+            long frameId, @NonNull Messages.NullableResult<Map<String, Object>> result) {
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            final FrameHistory.Frame frame = frameHistory.findById(frameId);
+            // Replied from here, so the frame is encoded off the main thread.
+            result.success(frame == null ? null : historyFrameToMap(frame));
+        });
+    }
+
+    /** Returns all history frames with a sensor timestamp in {@code [startNs, endNs]}. */
+    @AnyThread
+    public void getFramesInRange(
+            long startNs, long endNs, @NonNull Messages.Result<List<Map<String, Object>>> result) {
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            final List<Map<String, Object>> maps = new ArrayList<>();
+            for (FrameHistory.Frame frame : frameHistory.findInRange(startNs, endNs)) {
+                maps.add(historyFrameToMap(frame));
+            }
+            result.success(maps);
+        });
+    }
+
+    /**
+     * Same layout as {@link LastFrameStore#getPreviewFrameMap}, plus the frame id, timestamp and
+     * retained handle.
+     */
+    private Map<String, Object> historyFrameToMap(@NonNull FrameHistory.Frame frame) {
+        Map<String, Object> plane = new HashMap<>();
+        plane.put("bytes", frame.nv21);
+        plane.put("bytesPerRow", frame.width);
+        plane.put("bytesPerPixel", 1);
+        plane.put("width", frame.width);
+        plane.put("height", frame.height);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("frameId", frame.frameId);
+        map.put("handle", retainedFrames.retain(frame.nv21, frame.width, frame.height));
+        map.put("sensorTimestamp", frame.sensorTimestampNs);
+        map.put("format", ImageFormat.NV21);
+        map.put("width", frame.width);
+        map.put("height", frame.height);
+        map.put("planes", Collections.singletonList(plane));
+
+        final CaptureResult captureResult = frame.captureResult;
+        map.put("lensAperture",
+                captureResult == null ? null : captureResult.get(CaptureResult.LENS_APERTURE));
+        map.put("sensorExposureTime",
+                captureResult == null ? null : captureResult.get(CaptureResult.SENSOR_EXPOSURE_TIME));
+        final Integer sensitivity =
+                captureResult == null ? null : captureResult.get(CaptureResult.SENSOR_SENSITIVITY);
+        map.put("sensorSensitivity", sensitivity == null ? null : (double) sensitivity);
+        return map;
+    }
+
+    /**
+     * Encodes the newest history frame, the last one exposed before the call, on the IO thread.
+     *
+     * @return false if there is no frame, in which case a regular capture should be made.
+     */
+    private boolean takeZeroShutterLagPicture(@NonNull final Messages.Result<String> result) {
+        final FrameHistory.Frame frame = frameHistory.takeNewest();
+        if (frame == null) {
+            return false;
+        }
+
+        final File file;
+        try {
+            file = File.createTempFile("CAP", ".jpg", applicationContext.getCacheDir());
+        } catch (IOException | SecurityException e) {
+            dartMessenger.error(result, "cannotCreateFile", e.getMessage(), null);
+            return true;
+        }
+
+        final PlatformChannel.DeviceOrientation lockedOrientation = cameraFeatures.getSensorOrientation()
+                .getLockedCaptureOrientation();
+        final int orientation = lockedOrientation == null
+                ? getDeviceOrientationManager().getPhotoOrientation()
+                : getDeviceOrientationManager().getPhotoOrientation(lockedOrientation);
+
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            try {
+                writeJpegFromNv21(frame.nv21, frame.width, frame.height, file.getAbsolutePath(),
+                        ZERO_SHUTTER_LAG_JPEG_QUALITY);
+                writeZeroShutterLagExif(file, orientation, frame);
+                final int maxSide = thumbnailMaxSide;
+                if (maxSide > 0) {
+                    try {
+                        // Rotated in pixels, as thumbnails carry no EXIF orientation.
+                        Thumbnails.writeFromNv21(frame.nv21, frame.width, frame.height,
+                                orientation, maxSide, Thumbnails.pathFor(file.getAbsolutePath()));
+                    } catch (IOException e) {
+                        Log.w(TAG, "Failed writing thumbnail", e);
+                    }
+                }
+                dartMessenger.finish(result, file.getAbsolutePath());
+            } catch (IOException e) {
+                dartMessenger.error(result, "IOError", "Failed saving image", null);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Records the orientation and exposure of a zero shutter lag picture in its EXIF data, as the
+     * pixels are stored in sensor orientation.
+     */
+    private static void writeZeroShutterLagExif(
+            @NonNull File file, int orientationDegrees, @NonNull FrameHistory.Frame frame)
+            throws IOException {
+        final ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+        final int exifOrientation;
+        switch ((orientationDegrees % 360 + 360) % 360) {
+            case 90:
+                exifOrientation = ExifInterface.ORIENTATION_ROTATE_90;
+                break;
+            case 180:
+                exifOrientation = ExifInterface.ORIENTATION_ROTATE_180;
+                break;
+            case 270:
+                exifOrientation = ExifInterface.ORIENTATION_ROTATE_270;
+                break;
+            default:
+                exifOrientation = ExifInterface.ORIENTATION_NORMAL;
+        }
+        exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(exifOrientation));
+
+        final CaptureResult captureResult = frame.captureResult;
+        if (captureResult != null) {
+            final Long exposureTime = captureResult.get(CaptureResult.SENSOR_EXPOSURE_TIME);
+            if (exposureTime != null) {
+                exif.setAttribute(ExifInterface.TAG_EXPOSURE_TIME,
+                        String.valueOf(exposureTime / 1_000_000_000.0));
+            }
+            final Integer sensitivity = captureResult.get(CaptureResult.SENSOR_SENSITIVITY);
+            if (sensitivity != null) {
+                exif.setAttribute(ExifInterface.TAG_PHOTOGRAPHIC_SENSITIVITY,
+                        String.valueOf(sensitivity));
+            }
+            final Float aperture = captureResult.get(CaptureResult.LENS_APERTURE);
+            if (aperture != null) {
+                exif.setAttribute(ExifInterface.TAG_F_NUMBER, String.valueOf(aperture));
+            }
+        }
+        exif.saveAttributes();
+    }
+
     private void saveJpegFromNV21(byte[] nv21, int width, int height,
             String outputPath, int rotationDegrees, int quality) throws IOException {
         if (rotationDegrees == 0) {
@@ -851,7 +1597,8 @@ class Camera
     }
 
     @SuppressWarnings("unchecked")
-    private byte[] convertYUV420ToNV21FromMap(Map<String, Object> imageData) {
+    private static byte[] convertYUV420ToNV21FromMap(
+            Map<String, Object> imageData, JpegBatchExporter.Scratch scratch) {
         final int width = ((Number) imageData.get("width")).intValue();
         final int height = ((Number) imageData.get("height")).intValue();
         final int need = nv21Size(width, height);
@@ -861,11 +1608,9 @@ class Camera
         // If NV21 already arrived as a single plane, just copy into our reusable buffer
         if (planes.size() == 1) {
             byte[] src = (byte[]) planes.get(0).get("bytes");
-            synchronized (jpegScratchLock) {
-                scratchNv21 = ensureNv21Scratch(scratchNv21, need);
-                System.arraycopy(src, 0, scratchNv21, 0, Math.min(src.length, need));
-                return scratchNv21;
-            }
+            final byte[] dst = scratch.nv21(need);
+            System.arraycopy(src, 0, dst, 0, Math.min(src.length, need));
+            return dst;
         }
 
         if (planes.size() != 3 && planes.size() != 2) {
@@ -897,60 +1642,154 @@ class Camera
             vPixelStride = 0;
         }
 
-        synchronized (jpegScratchLock) {
-            scratchNv21 = ensureNv21Scratch(scratchNv21, need);
-            final byte[] dst = scratchNv21;
+        final byte[] dst = scratch.nv21(need);
 
-            // Copy Y (assumes the Y plane buffer is tightly packed by rowStride across height rows)
-            for (int row = 0; row < height; row++) {
-                System.arraycopy(yPlane, row * yRowStride, dst, row * width, width);
-            }
+        // Copy Y (assumes the Y plane buffer is tightly packed by rowStride across height rows)
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(yPlane, row * yRowStride, dst, row * width, width);
+        }
 
-            // Copy interleaved VU (NV21 layout)
-            final int uvHeight = height / 2;
-            final int uvWidth = width / 2;
-            int d = width * height; // start of UV area in NV21
+        // Copy interleaved VU (NV21 layout)
+        final int uvHeight = height / 2;
+        final int uvWidth = width / 2;
+        int d = width * height; // start of UV area in NV21
 
-            for (int row = 0; row < uvHeight; row++) {
-                final int urow = row * uRowStride;
-                final int vrow = row * vRowStride;
-                for (int col = 0; col < uvWidth; col++) {
-                    final int uIndex = urow + col * uPixelStride;
-                    if (threePlanes) {
-                        final int vIndex = vrow + col * vPixelStride;
-                        dst[d++] = vPlane[vIndex]; // V
-                        dst[d++] = uPlane[uIndex]; // U
-                    } else {
-                        // NV12 case: U,V,U,V,... inside uPlane
-                        dst[d++] = uPlane[uIndex + 1]; // V
-                        dst[d++] = uPlane[uIndex];     // U
-                    }
+        for (int row = 0; row < uvHeight; row++) {
+            final int urow = row * uRowStride;
+            final int vrow = row * vRowStride;
+            if (threePlanes && uPixelStride == 1 && vPixelStride == 1) {
+                // Planar chroma: interleave the whole row at once
+                ChromaInterleaver.interleaveRow(vPlane, vrow, uPlane, urow, dst, d, uvWidth);
+                d += 2 * uvWidth;
+                continue;
+            }
+            for (int col = 0; col < uvWidth; col++) {
+                final int uIndex = urow + col * uPixelStride;
+                if (threePlanes) {
+                    final int vIndex = vrow + col * vPixelStride;
+                    dst[d++] = vPlane[vIndex]; // V
+                    dst[d++] = uPlane[uIndex]; // U
+                } else {
+                    // NV12 case: U,V,U,V,... inside uPlane
+                    dst[d++] = uPlane[uIndex + 1]; // V
+                    dst[d++] = uPlane[uIndex];     // U
                 }
             }
-            return dst;
         }
+        return dst;
     }
 
 
+    /**
+     * Replies with a copy of a current frame. The copy is made and sent from the IO thread, so the
+     * frame never touches the main thread.
+     */
+    @AnyThread
     public void capturePreviewFrame(@NonNull Messages.Result<Map<String, Object>> result) {
-        Map<String, Object> map = lastFrameStore.getPreviewFrameMap(this.captureProps, true);
-        if (map == null) {
-            result.error(new Messages.FlutterError("no_frame", "No frame available", null));
-        } else {
-            result.success(map);
-        }
+        runOnMainThread(() -> withFreshFrame(() ->
+                (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+                    Map<String, Object> map =
+                            lastFrameStore.getPreviewFrameMap(this.captureProps, true);
+                    if (map == null) {
+                        result.error(new Messages.FlutterError("no_frame", "No frame available", null));
+                    } else {
+                        retainFrameMap(map);
+                        result.success(map);
+                    }
+                })));
     }
 
     public void capturePreviewFrameJpeg(@NonNull String outputPath, int rotationDegrees, int quality,
             @NonNull Messages.Result<String> result) {
-        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+        withFreshFrame(() -> (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
             try {
                 if (!lastFrameStore.hasFrame()) {
                     mainHandler.post(
                             () -> result.error(new Messages.FlutterError("no_frame", "No frame available", null)));
                     return;
                 }
-                lastFrameStore.writeJpeg(outputPath, rotationDegrees, quality);
+                lastFrameStore.writeJpeg(outputPath, rotationDegrees, quality, thumbnailMaxSide);
+                mainHandler.post(() -> result.success(outputPath));
+            } catch (IOException e) {
+                mainHandler.post(() -> result.error(new Messages.FlutterError("save_failed", e.getMessage(), null)));
+            }
+        }));
+    }
+
+    /**
+     * Scores the sharpness of every accepted frame and keeps up to {@code maxFrames} candidates for
+     * {@link #captureBestFrameJpeg}. Keeps the frames output attached while enabled.
+     *
+     * @param step sampling stride of the scorer in pixels.
+     * @param roi region of interest as {@code [left, top, right, bottom]} fractions, or null for
+     *     the whole frame.
+     */
+    public void setSharpnessScoring(
+            boolean enabled, int maxFrames, int step, @Nullable List<Double> roi) {
+        SharpnessScorer scorer = null;
+        if (enabled) {
+            scorer = roi == null
+                    ? new SharpnessScorer(step)
+                    : new SharpnessScorer(step, roi.get(0).floatValue(), roi.get(1).floatValue(),
+                            roi.get(2).floatValue(), roi.get(3).floatValue());
+        }
+        lastFrameStore.setSharpnessScorer(scorer, maxFrames);
+        if (enabled != sharpnessScoring) {
+            sharpnessScoring = enabled;
+            if (enabled) {
+                retainFrameStream();
+            } else {
+                releaseFrameStream();
+            }
+        }
+    }
+
+    /**
+     * Keeps the last {@code frames} accepted frames for {@link #captureDenoisedFrameJpeg}, or
+     * stops keeping them if 0. Keeps the frames output attached while enabled.
+     */
+    public void setDenoiseHistory(int frames) {
+        if (frames > 0) {
+            final TemporalDenoiser current = denoiser;
+            if (current == null || current.getCapacity() != frames) {
+                final TemporalDenoiser next;
+                try {
+                    next = new TemporalDenoiser(frames, ParallelRows.getShared());
+                } catch (IllegalArgumentException e) {
+                    throw new Messages.FlutterError("denoiseFailed", e.getMessage(), null);
+                }
+                denoiser = next;
+                lastFrameStore.setDenoiser(next);
+            }
+            if (current == null) {
+                retainFrameStream();
+            }
+        } else if (denoiser != null) {
+            denoiser = null;
+            lastFrameStore.setDenoiser(null);
+            releaseFrameStream();
+        }
+    }
+
+    /**
+     * Saves the average of the last {@code frames} accepted frames, or of all kept frames if 0,
+     * as JPEG, optionally aligning them first, see {@link #setDenoiseHistory}.
+     */
+    public void captureDenoisedFrameJpeg(@NonNull String outputPath, int rotationDegrees,
+            int quality, int frames, boolean align, @NonNull Messages.Result<String> result) {
+        if (denoiser == null) {
+            result.error(new Messages.FlutterError(
+                    "no_frame", "The denoise history is not enabled", null));
+            return;
+        }
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            try {
+                if (!lastFrameStore.writeDenoisedJpeg(
+                        outputPath, rotationDegrees, quality, frames, align)) {
+                    mainHandler.post(() -> result.error(new Messages.FlutterError(
+                            "no_frame", "No frame available", null)));
+                    return;
+                }
                 mainHandler.post(() -> result.success(outputPath));
             } catch (IOException e) {
                 mainHandler.post(() -> result.error(new Messages.FlutterError("save_failed", e.getMessage(), null)));
@@ -958,6 +1797,120 @@ class Camera
         });
     }
 
+    /**
+     * Saves the sharpest frame accepted within the last {@code windowMs} as JPEG, see {@link
+     * #setSharpnessScoring}.
+     */
+    public void captureBestFrameJpeg(long windowMs, @NonNull String outputPath, int rotationDegrees,
+            int quality, @NonNull Messages.Result<String> result) {
+        if (!sharpnessScoring) {
+            result.error(new Messages.FlutterError(
+                    "no_frame", "Sharpness scoring is not enabled", null));
+            return;
+        }
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            try {
+                if (!lastFrameStore.writeBestJpeg(
+                        windowMs * 1_000_000L, outputPath, rotationDegrees, quality)) {
+                    mainHandler.post(() -> result.error(new Messages.FlutterError(
+                            "no_frame", "No frame scored within " + windowMs + " ms", null)));
+                    return;
+                }
+                mainHandler.post(() -> result.success(outputPath));
+            } catch (IOException e) {
+                mainHandler.post(() -> result.error(new Messages.FlutterError("save_failed", e.getMessage(), null)));
+            }
+        });
+    }
+
+    /**
+     * Runs {@code onReady} on the main thread once {@link #lastFrameStore} holds a current frame.
+     *
+     * <p>If the frames output is not attached, the latest frame may be arbitrarily old, so the
+     * output is attached until the next frame arrives or {@link #FRAME_WAIT_TIMEOUT_MS} passes;
+     * {@code onReady} then reports whatever is available.
+     */
+    @MainThread
+    private void withFreshFrame(@NonNull Runnable onReady) {
+        if (frameStreamTargetAttached && lastFrameStore.hasFrame()) {
+            onReady.run();
+            return;
+        }
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final Runnable finish = () -> {
+            if (done.compareAndSet(false, true)) {
+                onReady.run();
+                releaseFrameStream();
+            }
+        };
+        final Runnable onNextFrame = () -> mainHandler.post(finish);
+        lastFrameStore.runOnNextFrame(onNextFrame);
+        mainHandler.postDelayed(() -> {
+            lastFrameStore.cancelNextFrameCallback(onNextFrame);
+            finish.run();
+        }, FRAME_WAIT_TIMEOUT_MS);
+        retainFrameStream();
+    }
+
+    /** Registers a user of the frames output, attaching it for the first one. */
+    @MainThread
+    private void retainFrameStream() {
+        checkMainThread();
+        if (frameStreamUsers++ == 0) {
+            updateFrameStreamTarget();
+        }
+    }
+
+    /** Unregisters a user of the frames output, detaching it when the last one leaves. */
+    @MainThread
+    private void releaseFrameStream() {
+        checkMainThread();
+        if (frameStreamUsers > 0 && --frameStreamUsers == 0) {
+            updateFrameStreamTarget();
+        }
+    }
+
+    /** Runs {@code task} now if called on the main thread, else posts it there. */
+    private void runOnMainThread(@NonNull Runnable task) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            task.run();
+        } else {
+            mainHandler.post(task);
+        }
+    }
+
+    /** Throws if the frame stream bookkeeping is used off the main thread, see the class docs. */
+    private static void checkMainThread() {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            throw new IllegalStateException(
+                    "Camera state must be used on the main thread, not " + Thread.currentThread());
+        }
+    }
+
+    @MainThread
+    private void updateFrameStreamTarget() {
+        final boolean attach = frameStreamUsers > 0;
+        if (highSpeedTap != null) {
+            // High speed sessions feed the frame pipeline through the tap instead.
+            highSpeedTap.setAnalysisEnabled(attach);
+            frameStreamTargetAttached = attach;
+            return;
+        }
+        if (previewRequestBuilder == null || frameStreamReader == null
+                || attach == frameStreamTargetAttached) {
+            return;
+        }
+        if (attach) {
+            previewRequestBuilder.addTarget(frameStreamReader.getSurface());
+        } else {
+            previewRequestBuilder.removeTarget(frameStreamReader.getSurface());
+        }
+        frameStreamTargetAttached = attach;
+        refreshPreviewCaptureSession(
+                null, (code, message) -> Log.w(TAG, "Updating frames output failed: " + message));
+    }
+
+    @AnyThread
     public void saveAsJpeg(
             Map<String, Object> imageData,
             String outputPath,
@@ -970,46 +1923,149 @@ class Camera
                 final int width = ((Number) imageData.get("width")).intValue();
                 final int height = ((Number) imageData.get("height")).intValue();
 
-                final byte[] srcNv21 = convertYUV420ToNV21FromMap(imageData);
-
-                // No rotation → compress straight to JPEG
-                if ((rotationDegrees % 360) == 0) {
-                    writeJpegFromNv21(srcNv21, width, height, outputPath, quality);
-                    mainHandler.post(() -> result.success(outputPath));
-                    return;
+                synchronized (jpegScratchLock) {
+                    final byte[] srcNv21 = convertYUV420ToNV21FromMap(imageData, jpegScratch);
+                    writeRotatedJpegFromNv21(srcNv21, width, height, outputPath, rotationDegrees,
+                            quality, jpegScratch);
                 }
 
-                // For safety, skip rotation for odd dimensions (YUV420 is 2x2 chroma)
-                if (((width | height) & 1) != 0) {
-                    writeJpegFromNv21(srcNv21, width, height, outputPath, quality);
-                    mainHandler.post(() -> result.success(outputPath));
-                    return;
+                mainHandler.post(() -> result.success(outputPath));
+            } catch (Throwable e) {
+                e.printStackTrace();
+                mainHandler.post(() -> result.error(new Messages.FlutterError(
+                        "save_failed", e.getMessage() != null ? e.getMessage() : "error", null)));
+            }
+        });
+    }
+
+    /**
+     * Saves {@code frames}, frame maps as accepted by {@link #saveAsJpeg}, as JPEGs at the
+     * matching {@code outputPaths}, encoding them in parallel, and reports one entry per frame:
+     * null if it was saved, or the error message.
+     */
+    public void saveAsJpegBatch(
+            @NonNull List<Map<String, Object>> frames,
+            @NonNull List<String> outputPaths,
+            int rotationDegrees,
+            int quality,
+            @NonNull Messages.Result<List<String>> result) {
+        if (frames.size() != outputPaths.size()) {
+            result.error(new Messages.FlutterError(
+                    "save_failed", "Expected one output path per frame", null));
+            return;
+        }
+        final List<JpegBatchExporter.Item> items = new ArrayList<>(frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            final Map<String, Object> imageData = frames.get(i);
+            final String outputPath = outputPaths.get(i);
+            items.add(scratch -> {
+                final int width = ((Number) imageData.get("width")).intValue();
+                final int height = ((Number) imageData.get("height")).intValue();
+                final byte[] srcNv21 = convertYUV420ToNV21FromMap(imageData, scratch);
+                writeRotatedJpegFromNv21(srcNv21, width, height, outputPath, rotationDegrees,
+                        quality, scratch);
+            });
+        }
+        final JpegBatchExporter exporter;
+        synchronized (jpegBatchExporterLock) {
+            if (jpegBatchExporterDisposed) {
+                result.error(new Messages.FlutterError(
+                        "save_failed", "The camera is disposed", null));
+                return;
+            }
+            if (jpegBatchExporter == null) {
+                jpegBatchExporter =
+                        new JpegBatchExporter(Runtime.getRuntime().availableProcessors());
+            }
+            exporter = jpegBatchExporter;
+        }
+        // Items that lose a race with dispose() fail individually instead.
+        exporter.export(items, errors -> mainHandler.post(() -> result.success(errors)));
+    }
+
+    /**
+     * Encodes a frame retained by its handle, see {@link RetainedFrames}. Unlike {@link
+     * #saveAsJpeg}, the pixels never travel back from Dart and need no re-interleaving.
+     */
+    public void saveFrameAsJpeg(
+            long handle,
+            @NonNull String outputPath,
+            int rotationDegrees,
+            int quality,
+            @NonNull Messages.Result<String> result) {
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            final RetainedFrames.Frame frame = retainedFrames.get(handle);
+            if (frame == null) {
+                mainHandler.post(() -> result.error(new Messages.FlutterError(
+                        "invalid_handle", "Frame " + handle + " was released", null)));
+                return;
+            }
+            try {
+                synchronized (jpegScratchLock) {
+                    writeRotatedJpegFromNv21(frame.nv21, frame.width, frame.height, outputPath,
+                            rotationDegrees, quality, jpegScratch);
                 }
+                mainHandler.post(() -> result.success(outputPath));
+            } catch (Throwable e) {
+                mainHandler.post(() -> result.error(new Messages.FlutterError(
+                        "save_failed", e.getMessage() != null ? e.getMessage() : "error", null)));
+            }
+        });
+    }
+
+    /**
+     * Whether frames of the frames stream are retained for {@link #saveFrameAsJpeg}. Off by
+     * default, as the stream runs at capture size and most listeners never encode its frames.
+     */
+    public void setRetainStreamFrames(boolean retain) {
+        retainStreamFrames = retain;
+    }
 
-                final boolean swap = (rotationDegrees % 180 != 0);
-                final int outW = swap ? height : width;
-                final int outH = swap ? width : height;
-                final int outSize = nv21Size(outW, outH);
+    /** Releases a frame retained for {@link #saveFrameAsJpeg}. */
+    public void releaseFrame(long handle) {
+        retainedFrames.release(handle);
+    }
+
+    /** Makes the frame in {@code frameMap} addressable by a handle, stored under "handle". */
+    @SuppressWarnings("unchecked")
+    private void retainFrameMap(@NonNull Map<String, Object> frameMap) {
+        final List<Map<String, Object>> planes = (List<Map<String, Object>>) frameMap.get("planes");
+        final byte[] nv21 = (byte[]) planes.get(0).get("bytes");
+        final int width = ((Number) frameMap.get("width")).intValue();
+        final int height = ((Number) frameMap.get("height")).intValue();
+        frameMap.put("handle", retainedFrames.retain(nv21, width, height));
+    }
+
+    private static void writeRotatedJpegFromNv21(byte[] srcNv21, int width, int height,
+            String outputPath, int rotationDegrees, int quality, JpegBatchExporter.Scratch scratch)
+            throws IOException {
+        // No rotation → compress straight to JPEG
+        if ((rotationDegrees % 360) == 0) {
+            writeJpegFromNv21(srcNv21, width, height, outputPath, quality);
+            return;
+        }
+
+        // For safety, skip rotation for odd dimensions (YUV420 is 2x2 chroma)
+        if (((width | height) & 1) != 0) {
+            writeJpegFromNv21(srcNv21, width, height, outputPath, quality);
+            return;
+        }
 
-                synchronized (jpegScratchLock) {
-                    scratchNv21Rot = ensureNv21Scratch(scratchNv21Rot, outSize);
-                    // Uses FastYuv to rotate NV21 into the provided destination buffer
-                    FastYuv.rotateNv21Into(srcNv21, width, height, rotationDegrees, scratchNv21Rot);
-                    writeJpegFromNv21(scratchNv21Rot, outW, outH, outputPath, quality);
-                }
+        final boolean swap = (rotationDegrees % 180 != 0);
+        final int outW = swap ? height : width;
+        final int outH = swap ? width : height;
+        final int outSize = nv21Size(outW, outH);
 
-                mainHandler.post(() -> result.success(outputPath));
-            } catch (Throwable e) {
-                e.printStackTrace();
-                mainHandler.post(() -> result.error(new Messages.FlutterError(
-                        "save_failed", e.getMessage() != null ? e.getMessage() : "error", null)));
-            }
-        });
+        final byte[] rotated = scratch.rotated(outSize);
+        // Uses FastYuv to rotate NV21 into the provided destination buffer
+        FastYuv.rotateNv21Into(srcNv21, width, height, rotationDegrees, rotated);
+        writeJpegFromNv21(rotated, outW, outH, outputPath, quality);
     }
 
     
 
-    private void writeJpegFromNv21(byte[] nv21, int width, int height, String outputPath, int quality)
+    private static void writeJpegFromNv21(byte[] nv21, int width, int height, String outputPath,
+            int quality)
             throws IOException {
         // Clamp quality to [1..100] for safety.
         final int q = Math.max(1, Math.min(100, quality));
@@ -1028,26 +2084,444 @@ class Camera
         lastFrameStore.setOnFrameListener(frameMap -> {
             final EventChannel.EventSink sink = frameStreamSink;
             if (sink == null) return;
+            final long convertedNs = FrameMetrics.now();
+            if (retainStreamFrames) {
+                retainFrameMap(frameMap);
+            }
+            if (sink instanceof EncodedEventSink) {
+                ((EncodedEventSink) sink).sendFrame(frameMap, convertedNs);
+                return;
+            }
             // deliver on main thread
-            mainHandler.post(() -> sink.success(frameMap));
+            mainHandler.post(() -> {
+                final long sendNs = FrameMetrics.now();
+                sink.success(frameMap);
+                frameMetrics.recordLatency(
+                        FrameMetrics.Stage.MAIN_THREAD_SEND, sendNs, FrameMetrics.now());
+                frameMetrics.recordDelivered(convertedNs);
+            });
         }, /*copyBytesForCallback=*/true);
 
         frameStreamChannel.setStreamHandler(new EventChannel.StreamHandler() {
             @Override
             public void onListen(Object arguments, EventChannel.EventSink events) {
-                frameStreamSink = events;
+                frameStreamSink = frameEventSink(frameStreamChannel, events);
             }
 
             @Override
             public void onCancel(Object arguments) {
+                closeFrameEventSink(frameStreamSink);
                 frameStreamSink = null;
             }
         });
+
+        if (!listeningFrames) {
+            listeningFrames = true;
+            retainFrameStream();
+        }
     }
 
     public void stopListenFrames() {
         lastFrameStore.clearOnFrameListener();
+        closeFrameEventSink(frameStreamSink);
         frameStreamSink = null;
+
+        if (listeningFrames) {
+            listeningFrames = false;
+            releaseFrameStream();
+        }
+    }
+
+    /**
+     * Starts sending per-frame capture statistics to {@code captureStatsChannel}.
+     *
+     * <p>Results are packed by {@link CaptureStatsBatcher} and delivered as one {@code long[]} per
+     * {@code batchSize} frames, so no map is built per result.
+     */
+    public void startCaptureStats(@NonNull EventChannel captureStatsChannel, int batchSize) {
+        stopCaptureStats();
+
+        captureStatsChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                captureStatsSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                captureStatsSink = null;
+            }
+        });
+
+        captureStatsBatcher = new CaptureStatsBatcher(batchSize, batch -> {
+            final EventChannel.EventSink sink = captureStatsSink;
+            if (sink == null) return;
+            mainHandler.post(() -> sink.success(batch));
+        });
+        cameraCaptureCallback.addCaptureResultListener(captureStatsBatcher);
+    }
+
+    public void stopCaptureStats() {
+        final CaptureStatsBatcher batcher = captureStatsBatcher;
+        if (batcher == null) {
+            return;
+        }
+        cameraCaptureCallback.removeCaptureResultListener(batcher);
+        batcher.flush();
+        captureStatsBatcher = null;
+    }
+
+    /**
+     * Only converts and delivers frames whose luma differs from the last delivered frame by more
+     * than {@code threshold} in some block, or that arrive {@code keepAliveMs} after it, see
+     * {@link MotionGate}.
+     */
+    public void setMotionGate(boolean enabled, double threshold, long keepAliveMs) {
+        lastFrameStore.setMotionGate(
+                enabled ? new MotionGate(threshold, keepAliveMs * 1_000_000L) : null);
+    }
+
+    /**
+     * Starts sending luma statistics of every accepted frame to {@code lumaStatsChannel}, as
+     * packed by {@link LumaStats#toArray}. The statistics are collected while the frame is
+     * converted, so no pixels are sent; the frames output stays attached until {@link
+     * #stopLumaStats()}.
+     */
+    public void startLumaStats(
+            @NonNull EventChannel lumaStatsChannel, int tilesX, int tilesY, int step) {
+        final LumaStats stats = new LumaStats(tilesX, tilesY, step);
+
+        lumaStatsChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                lumaStatsSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                lumaStatsSink = null;
+            }
+        });
+
+        lastFrameStore.setLumaStats(stats, packed -> {
+            final EventChannel.EventSink sink = lumaStatsSink;
+            if (sink == null) return;
+            mainHandler.post(() -> sink.success(packed));
+        });
+        if (!collectingLumaStats) {
+            collectingLumaStats = true;
+            retainFrameStream();
+        }
+    }
+
+    public void stopLumaStats() {
+        if (!collectingLumaStats) {
+            return;
+        }
+        lastFrameStore.setLumaStats(null, null);
+        collectingLumaStats = false;
+        releaseFrameStream();
+    }
+
+    /**
+     * Starts sending every accepted frame to {@code tensorChannel} as model input, converted,
+     * rotated, resized and normalized in one pass by {@link TensorConverter}. Each event is a map
+     * with the output "width" and "height", the "sensorTimestamp" and the NHWC RGB "data", as
+     * bytes or, if {@code float32}, floats. Runs until {@link #stopTensorStream()}.
+     *
+     * @param fit "letterbox" or "centerCrop".
+     * @param mean per-channel (R, G, B) values subtracted for float output, or null for 0.
+     * @param std per-channel (R, G, B) divisors for float output, or null for 1.
+     */
+    public void startTensorStream(
+            @NonNull EventChannel tensorChannel,
+            int width,
+            int height,
+            boolean float32,
+            @NonNull String fit,
+            int rotation,
+            @Nullable List<Double> mean,
+            @Nullable List<Double> std) {
+        final TensorConverter.Fit tensorFit;
+        switch (fit) {
+            case "letterbox":
+                tensorFit = TensorConverter.Fit.LETTERBOX;
+                break;
+            case "centerCrop":
+                tensorFit = TensorConverter.Fit.CENTER_CROP;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown fit: " + fit);
+        }
+        final TensorConverter converter =
+                new TensorConverter(
+                        width,
+                        height,
+                        float32,
+                        tensorFit,
+                        rotation,
+                        toChannelValues(mean, 0f),
+                        toChannelValues(std, 1f));
+
+        tensorChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                tensorSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                tensorSink = null;
+            }
+        });
+
+        lastFrameStore.setTensorConverter(converter, (tensor, sensorTimestampNs) -> {
+            final EventChannel.EventSink sink = tensorSink;
+            if (sink == null) return;
+            // The buffer goes back to the pool once this returns, so copy it out for the channel
+            // into a pooled array, which the codec has copied again once success() returns.
+            final Object data = converter.toArray(tensor);
+            final Map<String, Object> event = new HashMap<>();
+            event.put("width", width);
+            event.put("height", height);
+            event.put("sensorTimestamp", sensorTimestampNs);
+            event.put("data", data);
+            mainHandler.post(() -> {
+                sink.success(event);
+                converter.recycleArray(data);
+            });
+        });
+        if (!streamingTensors) {
+            streamingTensors = true;
+            retainFrameStream();
+        }
+    }
+
+    public void stopTensorStream() {
+        if (!streamingTensors) {
+            return;
+        }
+        lastFrameStore.setTensorConverter(null, null);
+        streamingTensors = false;
+        releaseFrameStream();
+    }
+
+    /**
+     * Starts writing every accepted frame as NV21 into a {@link SharedFrameRing} of {@code
+     * slotCount} slots and returns the path of its file. Each event of {@code frameRingChannel}
+     * is a {@code long[]} of the slot and sequence number of a written frame, so no pixels are
+     * sent over the channel. Runs until {@link #stopFrameRing()}.
+     */
+    @NonNull
+    public String startFrameRing(@NonNull EventChannel frameRingChannel, int slotCount) {
+        if (frameStreamReader == null) {
+            throw new Messages.FlutterError("frameRingFailed", "Camera is not open", null);
+        }
+        stopFrameRing();
+        final int slotCapacity =
+                frameStreamReader.getWidth() * frameStreamReader.getHeight() * 3 / 2;
+        final SharedFrameRing ring;
+        try {
+            ring = new SharedFrameRing(
+                    File.createTempFile("frames", ".ring", applicationContext.getCacheDir()),
+                    slotCount,
+                    slotCapacity);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new Messages.FlutterError("frameRingFailed", e.getMessage(), null);
+        }
+
+        frameRingChannel.setStreamHandler(new EventChannel.StreamHandler() {
+            @Override
+            public void onListen(Object arguments, EventChannel.EventSink events) {
+                frameRingSink = events;
+            }
+
+            @Override
+            public void onCancel(Object arguments) {
+                frameRingSink = null;
+            }
+        });
+
+        lastFrameStore.setFrameRing(ring, (slot, sequence) -> {
+            final EventChannel.EventSink sink = frameRingSink;
+            if (sink == null) return;
+            final long[] event = {slot, sequence};
+            mainHandler.post(() -> sink.success(event));
+        });
+        frameRing = ring;
+        retainFrameStream();
+        return ring.getFile().getAbsolutePath();
+    }
+
+    public void stopFrameRing() {
+        if (frameRing == null) {
+            return;
+        }
+        lastFrameStore.setFrameRing(null, null);
+        final SharedFrameRing ring = frameRing;
+        frameRing = null;
+        // Unmapped on the thread accepting frames, after any write it had started.
+        final Handler handler = backgroundHandler;
+        if (handler == null || !handler.post(ring::close)) {
+            ring.close();
+        }
+        releaseFrameStream();
+    }
+
+    /**
+     * Starts recording every frame of the frames output, before any throttling, to segment files
+     * and an index in {@code directory}, see {@link DatasetRecorder}. Frames are written on a
+     * thread of their own, see {@link DatasetWriter}; frames arriving while it is behind are
+     * counted as {@link FrameMetrics.Drop#DATASET_WRITER_BUSY}. Replaces a running recording.
+     *
+     * @param format {@code nv21}, {@code yOnly} or {@code rgb}.
+     * @param segmentBytes the size of a segment file, or 0 for the default.
+     */
+    public void startDatasetRecording(
+            @NonNull String directory, @NonNull String format, long segmentBytes) {
+        final DatasetRecorder.Format recordFormat;
+        switch (format) {
+            case "nv21":
+                recordFormat = DatasetRecorder.Format.NV21;
+                break;
+            case "yOnly":
+                recordFormat = DatasetRecorder.Format.Y_ONLY;
+                break;
+            case "rgb":
+                recordFormat = DatasetRecorder.Format.RGB;
+                break;
+            default:
+                throw new Messages.FlutterError(
+                        "datasetRecordingFailed", "Unknown format " + format, null);
+        }
+        // The earlier recording may use the same directory, so it must be closed before the new
+        // one replaces its index and segments.
+        final boolean wasRecording = datasetWriter != null;
+        closeDatasetRecorder(null, false);
+        final DatasetWriter closing = closingDatasetWriter;
+        if (closing != null) {
+            try {
+                // Waits for the IO thread if it is closing the recorder already.
+                closing.close();
+            } catch (IOException e) {
+                Log.e(TAG, "closeDatasetRecorder", e);
+            }
+        }
+        final DatasetRecorder recorder;
+        try {
+            recorder = new DatasetRecorder(new File(directory), recordFormat,
+                    segmentBytes > 0 ? segmentBytes : DatasetRecorder.DEFAULT_SEGMENT_BYTES);
+        } catch (IOException | IllegalArgumentException e) {
+            if (wasRecording) {
+                releaseFrameStream();
+            }
+            throw new Messages.FlutterError("datasetRecordingFailed", e.getMessage(), null);
+        }
+        datasetWriter = new DatasetWriter(recorder, DatasetWriter.DEFAULT_QUEUE_DEPTH);
+        if (!wasRecording) {
+            retainFrameStream();
+        }
+    }
+
+    /**
+     * Stops the dataset recording and reports the number of recorded frames once the index and
+     * the last segment are written.
+     */
+    public void stopDatasetRecording(@NonNull Messages.Result<Long> result) {
+        if (datasetWriter == null) {
+            result.success(0L);
+            return;
+        }
+        closeDatasetRecorder(result, true);
+    }
+
+    /**
+     * Stops recording frames and closes the writer on the IO thread.
+     *
+     * @param releaseStream whether to release the frames output the recorder retained.
+     */
+    private void closeDatasetRecorder(
+            @Nullable Messages.Result<Long> result, boolean releaseStream) {
+        final DatasetWriter writer = datasetWriter;
+        if (writer == null) {
+            return;
+        }
+        datasetWriter = null;
+        closingDatasetWriter = writer;
+        if (releaseStream) {
+            releaseFrameStream();
+        }
+        // Closing writes the queued frames, flushes the index and forces the last segment to disk.
+        (ioHandler != null ? ioHandler : backgroundHandler).post(() -> {
+            try {
+                writer.close();
+                if (closingDatasetWriter == writer) {
+                    closingDatasetWriter = null;
+                }
+                final int dropped = writer.getDroppedFrameCount();
+                if (dropped > 0) {
+                    Log.w(TAG, "Dataset writer was behind, dropped " + dropped + " frames");
+                }
+                if (result != null) {
+                    final long frames = writer.getFrameCount();
+                    mainHandler.post(() -> result.success(frames));
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "closeDatasetRecorder", e);
+                if (result != null) {
+                    mainHandler.post(() -> result.error(new Messages.FlutterError(
+                            "datasetRecordingFailed", e.getMessage(), null)));
+                }
+            }
+        });
+    }
+
+    /** Keeps the exposure of {@code result} for the frame with the same sensor timestamp. */
+    private static void recordDatasetMetadata(
+            @NonNull DatasetWriter writer, @NonNull CaptureResult result) {
+        final Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+        if (timestamp == null) {
+            return;
+        }
+        final Long exposureTime = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
+        final Integer sensitivity = result.get(CaptureResult.SENSOR_SENSITIVITY);
+        writer.recordCaptureMetadata(timestamp,
+                exposureTime != null ? exposureTime : 0,
+                sensitivity != null ? sensitivity : 0);
+    }
+
+    /**
+     * Copies {@code image} for the dataset writer, which pairs it with its own capture result by
+     * sensor timestamp.
+     */
+    private void recordDatasetFrame(@NonNull DatasetWriter writer, @NonNull FrameImage image) {
+        if (!writer.offer(image)) {
+            frameMetrics.recordDrop(FrameMetrics.Drop.DATASET_WRITER_BUSY);
+        }
+    }
+
+    private static float[] toChannelValues(@Nullable List<Double> values, float fallback) {
+        final float[] out = {fallback, fallback, fallback};
+        if (values == null) {
+            return out;
+        }
+        if (values.size() != 3) {
+            throw new IllegalArgumentException("Expected one value per channel");
+        }
+        for (int i = 0; i < 3; i++) {
+            out[i] = values.get(i).floatValue();
+        }
+        return out;
+    }
+
+    /** Returns a snapshot of the frame pipeline metrics, see {@link FrameMetrics#toMap()}. */
+    @NonNull
+    public Map<String, Object> getFrameMetrics() {
+        return frameMetrics.toMap();
+    }
+
+    public void resetFrameMetrics() {
+        frameMetrics.reset();
     }
 
     /**
@@ -1217,7 +2691,7 @@ class Camera
                 CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_START);
 
         try {
-            captureSession.capture(previewRequestBuilder.build(), null, backgroundHandler);
+            capturePreviewRequest(previewRequestBuilder.build(), null);
         } catch (CameraAccessException e) {
             String message = (e.getMessage() == null)
                     ? "CameraAccessException occurred while locking autofocus."
@@ -1239,13 +2713,13 @@ class Camera
             // Cancel existing AF state.
             previewRequestBuilder.set(
                     CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_CANCEL);
-            captureSession.capture(previewRequestBuilder.build(), null, backgroundHandler);
+            capturePreviewRequest(previewRequestBuilder.build(), null);
 
             // Set AF state to idle again.
             previewRequestBuilder.set(
                     CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_IDLE);
 
-            captureSession.capture(previewRequestBuilder.build(), null, backgroundHandler);
+            capturePreviewRequest(previewRequestBuilder.build(), null);
         } catch (CameraAccessException e) {
             String message = (e.getMessage() == null)
                     ? "CameraAccessException occurred while unlocking autofocus."
@@ -1260,6 +2734,10 @@ class Camera
     }
 
     public void startVideoRecording(@Nullable EventChannel imageStreamChannel) {
+        if (highSpeedVideo != null && imageStreamChannel != null) {
+            throw new Messages.FlutterError(
+                    "highSpeedVideoActive", "Image streams are not available in a high speed session", null);
+        }
         prepareRecording();
 
         if (imageStreamChannel != null) {
@@ -1358,9 +2836,9 @@ class Camera
         // Save the new flash mode setting.
         final FlashFeature flashFeature = cameraFeatures.getFlash();
         flashFeature.setValue(newMode);
-        flashFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markDirty(flashFeature);
 
-        refreshPreviewCaptureSession(
+        refreshPreviewFeatures(
                 result::success,
                 (code, message) -> result.error(
                         new Messages.FlutterError(
@@ -1377,9 +2855,9 @@ class Camera
             @NonNull final Messages.VoidResult result, @NonNull ExposureMode newMode) {
         final ExposureLockFeature exposureLockFeature = cameraFeatures.getExposureLock();
         exposureLockFeature.setValue(newMode);
-        exposureLockFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markDirty(exposureLockFeature);
 
-        refreshPreviewCaptureSession(
+        refreshPreviewFeatures(
                 result::success,
                 (code, message) -> result.error(
                         new Messages.FlutterError(
@@ -1395,9 +2873,9 @@ class Camera
     public void setExposurePoint(@NonNull final Messages.VoidResult result, @Nullable Point point) {
         final ExposurePointFeature exposurePointFeature = cameraFeatures.getExposurePoint();
         exposurePointFeature.setValue(point);
-        exposurePointFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markDirty(exposurePointFeature);
 
-        refreshPreviewCaptureSession(
+        refreshPreviewFeatures(
                 result::success,
                 (code, message) -> result.error(
                         new Messages.FlutterError(
@@ -1433,7 +2911,10 @@ class Camera
     public void setFocusMode(@NonNull FocusMode newMode) {
         final AutoFocusFeature autoFocusFeature = cameraFeatures.getAutoFocus();
         autoFocusFeature.setValue(newMode);
-        autoFocusFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markDirty(autoFocusFeature);
+        if (previewRequestBuilder != null) {
+            applyDirtyFeatures(previewRequestBuilder);
+        }
 
         /*
          * For focus mode an extra step of actually locking/unlocking the
@@ -1454,9 +2935,9 @@ class Camera
                             CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_IDLE);
 
                     try {
-                        captureSession.setRepeatingRequest(
-                                previewRequestBuilder.build(), null, backgroundHandler);
+                        installPreviewRequest();
                     } catch (CameraAccessException e) {
+                        cameraFeatures.invalidateAppliedValues();
                         throw new Messages.FlutterError(
                                 "setFocusModeFailed", "Error setting focus mode: " + e.getMessage(), null);
                     }
@@ -1478,15 +2959,40 @@ class Camera
     public void setFocusPoint(@NonNull final Messages.VoidResult result, @Nullable Point point) {
         final FocusPointFeature focusPointFeature = cameraFeatures.getFocusPoint();
         focusPointFeature.setValue(point);
-        focusPointFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markDirty(focusPointFeature);
 
-        refreshPreviewCaptureSession(
-                result::success,
-                (code, message) -> result.error(
-                        new Messages.FlutterError(
-                                "setFocusPointFailed", "Could not set focus point.", null)));
+        controlUpdateCoalescer.requestUpdate(
+                () -> {
+                    dartMessenger.finish(result);
+                    mainHandler.post(this::refocus);
+                },
+                (code, message) -> dartMessenger.error(
+                        result, "setFocusPointFailed", "Could not set focus point.", null));
+    }
 
-        this.setFocusMode(cameraFeatures.getAutoFocus().getValue());
+    /**
+     * Restarts auto focus on the current focus region with a single trigger request, leaving the
+     * repeating request in place: a locked focus is triggered again, a continuous one is reset.
+     */
+    @MainThread
+    private void refocus() {
+        if (captureSession == null || previewRequestBuilder == null || pausedPreview) {
+            return;
+        }
+        final boolean locked = cameraFeatures.getAutoFocus().getValue() == FocusMode.locked;
+        previewRequestBuilder.set(
+                CaptureRequest.CONTROL_AF_TRIGGER,
+                locked
+                        ? CaptureRequest.CONTROL_AF_TRIGGER_START
+                        : CaptureRequest.CONTROL_AF_TRIGGER_CANCEL);
+        try {
+            capturePreviewRequest(previewRequestBuilder.build(), null);
+        } catch (CameraAccessException | IllegalStateException e) {
+            Log.w(TAG, "Refocusing failed: " + e.getMessage());
+        } finally {
+            previewRequestBuilder.set(
+                    CaptureRequest.CONTROL_AF_TRIGGER, CaptureRequest.CONTROL_AF_TRIGGER_IDLE);
+        }
     }
 
     /**
@@ -1500,13 +3006,12 @@ class Camera
     public void setExposureOffset(@NonNull final Messages.Result<Double> result, double offset) {
         final ExposureOffsetFeature exposureOffsetFeature = cameraFeatures.getExposureOffset();
         exposureOffsetFeature.setValue(offset);
-        exposureOffsetFeature.updateBuilder(previewRequestBuilder);
+        cameraFeatures.markDirty(exposureOffsetFeature);
 
-        refreshPreviewCaptureSession(
-                () -> result.success(exposureOffsetFeature.getValue()),
-                (code, message) -> result.error(
-                        new Messages.FlutterError(
-                                "setExposureOffsetFailed", "Could not set exposure offset.", null)));
+        controlUpdateCoalescer.requestUpdate(
+                () -> dartMessenger.finish(result, exposureOffsetFeature.getValue()),
+                (code, message) -> dartMessenger.error(
+                        result, "setExposureOffsetFailed", "Could not set exposure offset.", null));
     }
 
     public float getMaxZoomLevel() {
@@ -1544,27 +3049,131 @@ class Camera
      */
     public void setZoomLevel(@NonNull final Messages.VoidResult result, float zoom) {
         final ZoomLevelFeature zoomLevel = cameraFeatures.getZoomLevel();
+        String errorMessage = checkZoomLevelBounds(zoomLevel, zoom);
+        if (errorMessage != null) {
+            result.error(new Messages.FlutterError("ZOOM_ERROR", errorMessage, null));
+            return;
+        }
+
+        finishZoomRamp();
+        zoomLevel.setValue(zoom);
+        cameraFeatures.markDirty(zoomLevel);
+
+        controlUpdateCoalescer.requestUpdate(
+                () -> dartMessenger.finish(result),
+                (code, message) -> dartMessenger.error(
+                        result, "setZoomLevelFailed", "Could not set zoom level.", null));
+    }
+
+    @Nullable
+    private static String checkZoomLevelBounds(@NonNull ZoomLevelFeature zoomLevel, float zoom) {
         float maxZoom = zoomLevel.getMaximumZoomLevel();
         float minZoom = zoomLevel.getMinimumZoomLevel();
 
         if (zoom > maxZoom || zoom < minZoom) {
-            String errorMessage = String.format(
+            return String.format(
                     Locale.ENGLISH,
                     "Zoom level out of bounds (zoom level should be between %f and %f).",
                     minZoom,
                     maxZoom);
+        }
+        return null;
+    }
+
+    /**
+     * Smoothly moves the zoom level to {@code zoom} from dart.
+     *
+     * <p>The ramp advances once per capture result, so the zoom level changes exactly once per
+     * delivered frame without any round-trips to dart. Any later zoom change supersedes the ramp.
+     *
+     * @param result     Flutter result, completed once the target zoom level took effect.
+     * @param zoom       target zoom level.
+     * @param durationMs duration of the ramp in milliseconds.
+     * @param curve      easing applied to the ramp progress.
+     */
+    public void startZoomRamp(
+            @NonNull final Messages.VoidResult result,
+            float zoom,
+            long durationMs,
+            @NonNull ZoomRampCurve curve) {
+        final ZoomLevelFeature zoomLevel = cameraFeatures.getZoomLevel();
+        String errorMessage = checkZoomLevelBounds(zoomLevel, zoom);
+        if (errorMessage != null) {
             result.error(new Messages.FlutterError("ZOOM_ERROR", errorMessage, null));
             return;
         }
 
-        zoomLevel.setValue(zoom);
-        zoomLevel.updateBuilder(previewRequestBuilder);
+        if (durationMs <= 0 || captureSession == null || pausedPreview) {
+            // No frames to pace the ramp with; jump straight to the target.
+            setZoomLevel(result, zoom);
+            return;
+        }
 
-        refreshPreviewCaptureSession(
-                result::success,
-                (code, message) -> result.error(
-                        new Messages.FlutterError(
-                                "setZoomLevelFailed", "Could not set zoom level.", null)));
+        // Start from the level currently shown, also when superseding another ramp.
+        float from = zoomLevel.getValue();
+        finishZoomRamp();
+        zoomRampResult = result;
+        zoomRamp = new ZoomRamp(
+                from,
+                zoom,
+                SystemClock.elapsedRealtimeNanos(),
+                TimeUnit.MILLISECONDS.toNanos(durationMs),
+                curve);
+        stepZoomRamp();
+    }
+
+    private void stepZoomRamp() {
+        zoomRampStepPosted.set(false);
+        final ZoomRamp ramp = zoomRamp;
+        if (ramp == null) {
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtimeNanos();
+        final ZoomLevelFeature zoomLevel = cameraFeatures.getZoomLevel();
+        zoomLevel.setValue(ramp.valueAt(now));
+        cameraFeatures.markDirty(zoomLevel);
+
+        final Messages.VoidResult result = zoomRampResult;
+        if (ramp.isFinishedAt(now)) {
+            zoomRamp = null;
+            zoomRampResult = null;
+            controlUpdateCoalescer.requestUpdate(
+                    () -> dartMessenger.finish(result),
+                    (code, message) -> dartMessenger.error(
+                            result, "setZoomLevelFailed", "Could not set zoom level.", null));
+        } else {
+            controlUpdateCoalescer.requestUpdate(
+                    () -> {},
+                    (code, message) -> {
+                        if (zoomRamp == ramp) {
+                            zoomRamp = null;
+                            zoomRampResult = null;
+                            dartMessenger.error(
+                                    result, "setZoomLevelFailed", "Could not set zoom level.", null);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Ends the running zoom ramp, if any, at its target level and completes its result. Used when
+     * the ramp is superseded or no more frames will arrive to advance it.
+     */
+    private void finishZoomRamp() {
+        final ZoomRamp ramp = zoomRamp;
+        if (ramp == null) {
+            return;
+        }
+        final Messages.VoidResult result = zoomRampResult;
+        zoomRamp = null;
+        zoomRampResult = null;
+        final ZoomLevelFeature zoomLevel = cameraFeatures.getZoomLevel();
+        zoomLevel.setValue(ramp.getTarget());
+        cameraFeatures.markDirty(zoomLevel);
+        if (result != null) {
+            dartMessenger.finish(result);
+        }
     }
 
     /**
@@ -1593,6 +3202,8 @@ class Camera
             if (this.captureSession != null) {
                 this.captureSession.stopRepeating();
             }
+            finishZoomRamp();
+            controlUpdateCoalescer.flush();
         }
     }
 
@@ -1667,6 +3278,10 @@ class Camera
 
     public void startPreviewWithImageStream(EventChannel imageStreamChannel)
             throws CameraAccessException {
+        if (highSpeedVideo != null) {
+            throw new Messages.FlutterError(
+                    "highSpeedVideoActive", "Image streams are not available in a high speed session", null);
+        }
         setStreamHandler(imageStreamChannel);
 
         startCapture(false, true);
@@ -1702,7 +3317,8 @@ class Camera
                             public void onError(@NonNull String errorCode, @NonNull String errorMessage) {
                                 dartMessenger.error(flutterResult, errorCode, errorMessage, null);
                             }
-                        }));
+                        },
+                        thumbnailMaxSide));
         cameraCaptureCallback.setCameraState(CameraState.STATE_PREVIEW);
     }
 
@@ -1724,20 +3340,27 @@ class Camera
         // Re-create autofocus feature so it's using video focus mode now.
         cameraFeatures.setAutoFocus(
                 cameraFeatureFactory.createAutoFocusFeature(cameraProperties, true));
-        // Update camera features with the desired fps range
-        setFpsCameraFeatureForRecording(cameraProperties);
+        // Update camera features with the desired fps range; high speed sessions apply their own.
+        if (highSpeedVideo == null) {
+            setFpsCameraFeatureForRecording(cameraProperties);
+        }
     }
 
     private void setStreamHandler(EventChannel imageStreamChannel) {
         imageStreamChannel.setStreamHandler(
                 new EventChannel.StreamHandler() {
                     @Override
-                    public void onListen(Object o, EventChannel.EventSink imageStreamSink) {
-                        setImageStreamImageAvailableListener(imageStreamSink);
+                    public void onListen(Object o, EventChannel.EventSink events) {
+                        final EventChannel.EventSink sink =
+                                frameEventSink(imageStreamChannel, events);
+                        imageStreamSink = sink;
+                        setImageStreamImageAvailableListener(sink);
                     }
 
                     @Override
                     public void onCancel(Object o) {
+                        closeFrameEventSink(imageStreamSink);
+                        imageStreamSink = null;
                         if (imageStreamReader == null) {
                             return;
                         }
@@ -1747,6 +3370,34 @@ class Camera
                 });
     }
 
+    /**
+     * Sets whether the image and frames streams encode frames off the main thread. The main thread
+     * time per frame of both modes is reported as the {@code mainThreadSend} latency of {@link
+     * #getFrameMetrics()}.
+     */
+    public void setBackgroundStreamEncoding(boolean enabled) {
+        backgroundStreamEncoding = enabled;
+    }
+
+    /**
+     * Returns the sink frames of {@code channel} are sent to: an {@link EncodedEventSink} if
+     * background encoding is enabled and the channel supports it, otherwise {@code events}, which
+     * must then be called on the main thread.
+     */
+    private EventChannel.EventSink frameEventSink(
+            EventChannel channel, EventChannel.EventSink events) {
+        if (backgroundStreamEncoding && channel instanceof FrameEventChannel) {
+            return ((FrameEventChannel) channel).createEncodedSink(mainHandler, frameMetrics);
+        }
+        return events;
+    }
+
+    private static void closeFrameEventSink(@Nullable EventChannel.EventSink sink) {
+        if (sink instanceof EncodedEventSink) {
+            ((EncodedEventSink) sink).close();
+        }
+    }
+
     void setImageStreamImageAvailableListener(final EventChannel.EventSink imageStreamSink) {
         if (imageStreamReader == null) {
             return;
@@ -1755,6 +3406,23 @@ class Camera
         imageStreamReader.subscribeListener(this.captureProps, imageStreamSink, backgroundHandler);
     }
 
+    /**
+     * Changes the format of the image stream frames sent to Dart. YUV420, NV21 and RGBA8888 frames
+     * are all converted from the same camera stream, so they can be switched while streaming;
+     * switching to or from JPEG requires initializing the camera with that format.
+     */
+    public void setImageStreamFormat(int imageFormat) {
+        if (imageStreamReader == null || !imageStreamReader.setDartImageFormat(imageFormat)) {
+            throw new Messages.FlutterError(
+                    "unsupportedImageStreamFormat",
+                    "The image stream format cannot be changed to " + imageFormat
+                            + " without initializing the camera with it.",
+                    null);
+        }
+        // Keep the format when the camera is reopened.
+        imageFormatGroup = imageFormat;
+    }
+
     void closeCaptureSession() {
         if (captureSession != null) {
             Log.i(TAG, "closeCaptureSession");
@@ -1762,12 +3430,15 @@ class Camera
             captureSession.close();
             captureSession = null;
         }
+        finishZoomRamp();
+        controlUpdateCoalescer.flush();
     }
 
     public void close() {
         Log.i(TAG, "close");
 
         stopAndReleaseCamera();
+        closeHighSpeedTap();
 
         if (pictureImageReader != null) {
             pictureImageReader.close();
@@ -1824,6 +3495,7 @@ class Camera
                 resolutionFeature.getCaptureSize().getWidth(),
                 resolutionFeature.getCaptureSize().getHeight(),
                 videoRendererUncaughtExceptionHandler);
+        videoRenderer.setFrameMetrics(frameMetrics);
     }
 
     public void setDescriptionWhileRecording(CameraProperties properties) {
@@ -1833,6 +3505,13 @@ class Camera
                     "setDescriptionWhileRecordingFailed", "Device was not recording", null);
         }
 
+        if (highSpeedVideo != null) {
+            throw new Messages.FlutterError(
+                    "setDescriptionWhileRecordingFailed",
+                    "The camera cannot be switched while recording in a high speed session",
+                    null);
+        }
+
         // See VideoRenderer.java; support for this EGL extension is required to switch
         // camera while recording.
         if (!SdkCapabilityChecker.supportsEglRecordableAndroid()) {
@@ -1864,7 +3543,22 @@ class Camera
     public void dispose() {
         Log.i(TAG, "dispose");
 
+        stopCaptureStats();
+        stopLumaStats();
+        stopTensorStream();
+        stopFrameRing();
+        closeDatasetRecorder(null, true);
+        final JpegBatchExporter exporter;
+        synchronized (jpegBatchExporterLock) {
+            jpegBatchExporterDisposed = true;
+            exporter = jpegBatchExporter;
+            jpegBatchExporter = null;
+        }
+        if (exporter != null) {
+            exporter.shutdown();
+        }
         close();
+        retainedFrames.releaseAll();
         flutterTexture.release();
         getDeviceOrientationManager().stop();
     }
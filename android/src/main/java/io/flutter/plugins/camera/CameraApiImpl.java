@@ -19,6 +19,8 @@ import io.flutter.plugins.camera.features.Point;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomRampCurve;
+import io.flutter.plugins.camera.media.FrameEventChannel;
 import io.flutter.view.TextureRegistry;
 import java.util.Collections;
 import java.util.List;
@@ -32,7 +34,12 @@ final class CameraApiImpl implements Messages.CameraApi {
   private final TextureRegistry textureRegistry;
   private final EventChannel imageStreamChannel;
   private final EventChannel framesStreamChannel;
-  @VisibleForTesting @Nullable Camera camera;
+  private final EventChannel captureStatsChannel;
+  private final EventChannel lumaStatsChannel;
+  private final EventChannel tensorStreamChannel;
+  private final EventChannel frameRingChannel;
+  // Also read by the handlers running on the background task queue, see Camera.
+  @VisibleForTesting @Nullable volatile Camera camera;
 
   CameraApiImpl(
       Activity activity,
@@ -46,10 +53,17 @@ final class CameraApiImpl implements Messages.CameraApi {
     this.permissionsRegistry = permissionsAdder;
     this.textureRegistry = textureRegistry;
 
+    // Frames of these streams are encoded off the main thread, see FrameEventChannel.
     imageStreamChannel =
-        new EventChannel(messenger, "plugins.flutter.io/camera_android/imageStream");
+        new FrameEventChannel(messenger, "plugins.flutter.io/camera_android/imageStream");
     framesStreamChannel =
-        new EventChannel(messenger, "plugins.flutter.io/camera_android/framesStream");
+        new FrameEventChannel(messenger, "plugins.flutter.io/camera_android/framesStream");
+    captureStatsChannel =
+        new EventChannel(messenger, "plugins.flutter.io/camera_android/captureStats");
+    lumaStatsChannel = new EventChannel(messenger, "plugins.flutter.io/camera_android/lumaStats");
+    tensorStreamChannel =
+        new EventChannel(messenger, "plugins.flutter.io/camera_android/tensorStream");
+    frameRingChannel = new EventChannel(messenger, "plugins.flutter.io/camera_android/frameRing");
     Messages.CameraApi.setUp(messenger, this);
   }
 
@@ -334,6 +348,256 @@ final class CameraApiImpl implements Messages.CameraApi {
     camera.setZoomLevel(result, zoom.floatValue());
   }
 
+  @Override
+  public void startZoomRamp(
+      @NonNull Double zoom,
+      @NonNull Long durationMs,
+      @NonNull String curve,
+      @NonNull Messages.VoidResult result) {
+    assert camera != null;
+    ZoomRampCurve rampCurve = ZoomRampCurve.getValueForString(curve);
+    if (rampCurve == null) {
+      result.error(
+          new Messages.FlutterError("ZOOM_ERROR", "Unknown zoom ramp curve: " + curve, null));
+      return;
+    }
+    camera.startZoomRamp(result, zoom.floatValue(), durationMs, rampCurve);
+  }
+
+  @Override
+  public void startCaptureStats(@NonNull Long batchSize) {
+    assert camera != null;
+    camera.startCaptureStats(captureStatsChannel, batchSize.intValue());
+  }
+
+  @Override
+  public void stopCaptureStats() {
+    assert camera != null;
+    camera.stopCaptureStats();
+  }
+
+  @Override
+  public void startLumaStats(@NonNull Long tilesX, @NonNull Long tilesY, @NonNull Long step) {
+    assert camera != null;
+    camera.startLumaStats(lumaStatsChannel, tilesX.intValue(), tilesY.intValue(), step.intValue());
+  }
+
+  @Override
+  public void stopLumaStats() {
+    assert camera != null;
+    camera.stopLumaStats();
+  }
+
+  @Override
+  public void setMotionGate(
+      @NonNull Boolean enabled, @NonNull Double threshold, @NonNull Long keepAliveMs) {
+    assert camera != null;
+    camera.setMotionGate(enabled, threshold, keepAliveMs);
+  }
+
+  @Override
+  public void startTensorStream(
+      @NonNull Long width,
+      @NonNull Long height,
+      @NonNull Boolean float32,
+      @NonNull String fit,
+      @NonNull Long rotation,
+      @Nullable List<Double> mean,
+      @Nullable List<Double> std) {
+    assert camera != null;
+    camera.startTensorStream(
+        tensorStreamChannel,
+        width.intValue(),
+        height.intValue(),
+        float32,
+        fit,
+        rotation.intValue(),
+        mean,
+        std);
+  }
+
+  @Override
+  public void stopTensorStream() {
+    assert camera != null;
+    camera.stopTensorStream();
+  }
+
+  @Override
+  public void setImageStreamFormat(@NonNull Messages.PlatformImageFormatGroup format) {
+    assert camera != null;
+    camera.setImageStreamFormat(CameraUtils.imageFormatGroupFromPigeon(format));
+  }
+
+  @Override
+  public void setBackgroundStreamEncoding(@NonNull Boolean enabled) {
+    assert camera != null;
+    camera.setBackgroundStreamEncoding(enabled);
+  }
+
+  @NonNull
+  @Override
+  public String startFrameRing(@NonNull Long slotCount) {
+    assert camera != null;
+    return camera.startFrameRing(frameRingChannel, slotCount.intValue());
+  }
+
+  @Override
+  public void stopFrameRing() {
+    assert camera != null;
+    camera.stopFrameRing();
+  }
+
+  @Override
+  public void saveAsJpegBatch(
+      @NonNull List<Map<String, Object>> frames,
+      @NonNull List<String> outputPaths,
+      @NonNull Long rotation,
+      @NonNull Long quality,
+      @NonNull Messages.Result<List<String>> result) {
+    assert camera != null;
+    camera.saveAsJpegBatch(frames, outputPaths, rotation.intValue(), quality.intValue(), result);
+  }
+
+  @Override
+  public void setThumbnailSize(@NonNull Long maxSide) {
+    assert camera != null;
+    camera.setThumbnailSize(maxSide.intValue());
+  }
+
+  @Override
+  public void setDenoiseHistory(@NonNull Long frames) {
+    assert camera != null;
+    camera.setDenoiseHistory(frames.intValue());
+  }
+
+  @Override
+  public void captureDenoisedFrameJpeg(
+      @NonNull String outputPath,
+      @NonNull Long rotation,
+      @NonNull Long quality,
+      @NonNull Long frames,
+      @NonNull Boolean align,
+      @NonNull Messages.Result<String> result) {
+    assert camera != null;
+    camera.captureDenoisedFrameJpeg(
+        outputPath, rotation.intValue(), quality.intValue(), frames.intValue(), align, result);
+  }
+
+  @Override
+  public void setRetainStreamFrames(@NonNull Boolean retain) {
+    assert camera != null;
+    camera.setRetainStreamFrames(retain);
+  }
+
+  @NonNull
+  @Override
+  public List<Long> setHighSpeedVideo(@NonNull Long fps, @NonNull Long analysisFps) {
+    assert camera != null;
+    return camera.setHighSpeedVideo(fps.intValue(), analysisFps.intValue());
+  }
+
+  @Override
+  public void startDatasetRecording(
+      @NonNull String directory, @NonNull String format, @NonNull Long segmentBytes) {
+    assert camera != null;
+    camera.startDatasetRecording(directory, format, segmentBytes);
+  }
+
+  @Override
+  public void stopDatasetRecording(@NonNull Messages.Result<Long> result) {
+    assert camera != null;
+    camera.stopDatasetRecording(result);
+  }
+
+  @NonNull
+  @Override
+  public Map<String, Object> getFrameMetrics() {
+    assert camera != null;
+    return camera.getFrameMetrics();
+  }
+
+  @Override
+  public void resetFrameMetrics() {
+    assert camera != null;
+    camera.resetFrameMetrics();
+  }
+
+  @Override
+  public void setZeroShutterLag(
+      @NonNull Boolean enabled, @NonNull Long depth, @NonNull Long maxMemoryBytes) {
+    assert camera != null;
+    camera.setZeroShutterLag(enabled, depth.intValue(), maxMemoryBytes);
+  }
+
+  @Override
+  public void setFrameHistory(@NonNull Long depth, @NonNull Long maxMemoryBytes) {
+    assert camera != null;
+    camera.setFrameHistory(depth.intValue(), maxMemoryBytes);
+  }
+
+  @Override
+  public void getFrameNearest(
+      @NonNull Long timestampNs,
+      @NonNull Messages.NullableResult<Map<String, Object>> result) {
+    assert camera != null;
+    camera.getFrameNearest(timestampNs, result);
+  }
+
+  @Override
+  public void getFrameById(
+      @NonNull Long frameId, @NonNull Messages.NullableResult<Map<String, Object>> result) {
+    assert camera != null;
+    camera.getFrameById(frameId, result);
+  }
+
+  @Override
+  public void getFramesInRange(
+      @NonNull Long startNs,
+      @NonNull Long endNs,
+      @NonNull Messages.Result<List<Map<String, Object>>> result) {
+    assert camera != null;
+    camera.getFramesInRange(startNs, endNs, result);
+  }
+
+  @Override
+  public void saveFrameAsJpeg(
+      @NonNull Long handle,
+      @NonNull String outputPath,
+      @NonNull Long rotation,
+      @NonNull Long quality,
+      @NonNull Messages.Result<String> result) {
+    assert camera != null;
+    camera.saveFrameAsJpeg(handle, outputPath, rotation.intValue(), quality.intValue(), result);
+  }
+
+  @Override
+  public void releaseFrame(@NonNull Long handle) {
+    assert camera != null;
+    camera.releaseFrame(handle);
+  }
+
+  @Override
+  public void setSharpnessScoring(
+      @NonNull Boolean enabled,
+      @NonNull Long maxFrames,
+      @NonNull Long step,
+      @Nullable List<Double> roi) {
+    assert camera != null;
+    camera.setSharpnessScoring(enabled, maxFrames.intValue(), step.intValue(), roi);
+  }
+
+  @Override
+  public void captureBestFrameJpeg(
+      @NonNull Long windowMs,
+      @NonNull String outputPath,
+      @NonNull Long rotation,
+      @NonNull Long quality,
+      @NonNull Messages.Result<String> result) {
+    assert camera != null;
+    camera.captureBestFrameJpeg(
+        windowMs, outputPath, rotation.intValue(), quality.intValue(), result);
+  }
+
   @Override
   public void lockCaptureOrientation(
       @NonNull Messages.PlatformDeviceOrientation platformOrientation) {
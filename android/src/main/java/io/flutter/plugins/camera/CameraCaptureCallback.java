@@ -14,6 +14,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 import io.flutter.plugins.camera.types.CameraCaptureProperties;
 import io.flutter.plugins.camera.types.CaptureTimeoutsWrapper;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A callback object for tracking the progress of a {@link android.hardware.camera2.CaptureRequest}
@@ -25,6 +27,7 @@ class CameraCaptureCallback extends CaptureCallback {
   private CameraState cameraState;
   private final CaptureTimeoutsWrapper captureTimeouts;
   private final CameraCaptureProperties captureProps;
+  private final List<CaptureResultListener> captureResultListeners = new CopyOnWriteArrayList<>();
 
   // Lookup keys for state; overrideable for unit tests since Mockito can't mock them.
   @VisibleForTesting @NonNull
@@ -76,6 +79,25 @@ class CameraCaptureCallback extends CaptureCallback {
     cameraState = state;
   }
 
+  /**
+   * Registers a listener that is informed about every completed capture result.
+   *
+   * @param listener the listener to add.
+   */
+  public void addCaptureResultListener(@NonNull CaptureResultListener listener) {
+    captureResultListeners.add(listener);
+  }
+
+  /**
+   * Unregisters a listener previously added with {@link
+   * #addCaptureResultListener(CaptureResultListener)}.
+   *
+   * @param listener the listener to remove.
+   */
+  public void removeCaptureResultListener(@NonNull CaptureResultListener listener) {
+    captureResultListeners.remove(listener);
+  }
+
   private void process(CaptureResult result) {
     Integer aeState = result.get(aeStateKey);
     Integer afState = result.get(afStateKey);
@@ -175,6 +197,21 @@ class CameraCaptureCallback extends CaptureCallback {
       @NonNull CaptureRequest request,
       @NonNull TotalCaptureResult result) {
     process(result);
+    for (CaptureResultListener listener : captureResultListeners) {
+      listener.onCaptureResult(request, result);
+    }
+  }
+
+  /** An interface for components that follow the capture result timeline. */
+  interface CaptureResultListener {
+
+    /**
+     * Called on the camera background thread for every completed capture.
+     *
+     * @param request the request the result belongs to.
+     * @param result the completed capture result.
+     */
+    void onCaptureResult(@NonNull CaptureRequest request, @NonNull TotalCaptureResult result);
   }
 
   /** An interface that describes the different state changes implementers can be informed about. */
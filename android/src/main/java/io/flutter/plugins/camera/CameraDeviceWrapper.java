@@ -32,5 +32,13 @@ interface CameraDeviceWrapper {
       @Nullable Handler handler)
       throws CameraAccessException;
 
+  @SuppressLint("UseRequiresApi")
+  @TargetApi(Build.VERSION_CODES.M)
+  void createConstrainedHighSpeedCaptureSession(
+      @NonNull List<Surface> outputs,
+      @NonNull CameraCaptureSession.StateCallback callback,
+      @Nullable Handler handler)
+      throws CameraAccessException;
+
   void close();
 }
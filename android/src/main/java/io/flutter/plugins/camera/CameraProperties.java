@@ -273,4 +273,32 @@ public interface CameraProperties {
    */
   @NonNull
   int[] getAvailableNoiseReductionModes();
+
+  /**
+   * Returns the sizes supported by a constrained high speed capture session, see @see
+   * android.hardware.camera2.CameraDevice#createConstrainedHighSpeedCaptureSession.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getHighSpeedVideoSizes of the @see
+   * android.hardware.camera2.CameraCharacteristics#SCALER_STREAM_CONFIGURATION_MAP key.
+   *
+   * @return android.util.Size[] Supported high speed video sizes, empty if the camera device does
+   *     not support high speed video.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  @NonNull
+  Size[] getHighSpeedVideoSizes();
+
+  /**
+   * Returns the frame rate ranges supported by a constrained high speed capture session for
+   * {@code size}.
+   *
+   * <p>By default maps to @see
+   * android.hardware.camera2.params.StreamConfigurationMap#getHighSpeedVideoFpsRangesFor.
+   *
+   * @return android.util.Range<Integer>[] Supported frame rate ranges for the size.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  @NonNull
+  Range<Integer>[] getHighSpeedVideoFpsRangesFor(@NonNull Size size);
 }
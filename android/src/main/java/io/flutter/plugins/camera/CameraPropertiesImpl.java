@@ -8,6 +8,7 @@ import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.os.Build.VERSION_CODES;
 import android.util.Range;
 import android.util.Rational;
@@ -164,4 +165,31 @@ public class CameraPropertiesImpl implements CameraProperties {
     return cameraCharacteristics.get(
         CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
   }
+
+  @RequiresApi(api = VERSION_CODES.M)
+  @NonNull
+  @Override
+  public Size[] getHighSpeedVideoSizes() {
+    StreamConfigurationMap map =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    return map == null ? new Size[0] : map.getHighSpeedVideoSizes();
+  }
+
+  @RequiresApi(api = VERSION_CODES.M)
+  @NonNull
+  @Override
+  @SuppressWarnings("unchecked")
+  public Range<Integer>[] getHighSpeedVideoFpsRangesFor(@NonNull Size size) {
+    StreamConfigurationMap map =
+        cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+    if (map == null) {
+      return (Range<Integer>[]) new Range<?>[0];
+    }
+    try {
+      return map.getHighSpeedVideoFpsRangesFor(size);
+    } catch (IllegalArgumentException e) {
+      // Not a high speed video size.
+      return (Range<Integer>[]) new Range<?>[0];
+    }
+  }
 }
@@ -17,6 +17,7 @@ import io.flutter.plugins.camera.features.autofocus.FocusMode;
 import io.flutter.plugins.camera.features.exposurelock.ExposureMode;
 import io.flutter.plugins.camera.features.flash.FlashMode;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
+import io.flutter.plugins.camera.media.ImageStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -253,6 +254,8 @@ public final class CameraUtils {
         return ImageFormat.JPEG;
       case NV21:
         return ImageFormat.NV21;
+      case RGBA8888:
+        return ImageStreamReader.RGBA_8888;
     }
     throw new IllegalStateException("Unreachable code");
   }
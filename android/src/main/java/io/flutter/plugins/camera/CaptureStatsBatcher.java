@@ -0,0 +1,112 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Packs per-frame capture result statistics into flat {@code long[]} batches.
+ *
+ * <p>Every result occupies {@link #STRIDE} consecutive slots, in the order given by the {@code
+ * FIELD_*} constants. Values the device does not report are encoded as {@link #MISSING}. A single
+ * buffer is reused between batches, so collecting stats allocates only the array handed to the
+ * {@link BatchListener}.
+ */
+class CaptureStatsBatcher implements CameraCaptureCallback.CaptureResultListener {
+  static final int FIELD_SENSOR_TIMESTAMP = 0;
+  static final int FIELD_FRAME_NUMBER = 1;
+  static final int FIELD_AE_STATE = 2;
+  static final int FIELD_AF_STATE = 3;
+  static final int FIELD_AWB_STATE = 4;
+  /** Lens focus distance in micro-diopters (1e-6 / m). */
+  static final int FIELD_FOCUS_DISTANCE = 5;
+
+  static final int FIELD_FRAME_DURATION = 6;
+  static final int FIELD_ROLLING_SHUTTER_SKEW = 7;
+  static final int FIELD_EXPOSURE_TIME = 8;
+  static final int FIELD_SENSITIVITY = 9;
+  static final int STRIDE = 10;
+
+  static final long MISSING = -1;
+
+  /** Receives completed batches on the capture callback thread. */
+  interface BatchListener {
+    void onBatch(@NonNull long[] batch);
+  }
+
+  @NonNull private final BatchListener listener;
+  private final int batchSize;
+  private final long[] buffer;
+  private int count = 0;
+
+  /**
+   * Creates a new batcher.
+   *
+   * @param batchSize number of results per batch; values < 1 are treated as 1.
+   * @param listener receives each full batch.
+   */
+  CaptureStatsBatcher(int batchSize, @NonNull BatchListener listener) {
+    this.batchSize = Math.max(1, batchSize);
+    this.listener = listener;
+    this.buffer = new long[this.batchSize * STRIDE];
+  }
+
+  @Override
+  public void onCaptureResult(
+      @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+    long[] batch;
+    synchronized (this) {
+      encode(result, buffer, count * STRIDE);
+      count++;
+      if (count < batchSize) {
+        return;
+      }
+      batch = Arrays.copyOf(buffer, buffer.length);
+      count = 0;
+    }
+    listener.onBatch(batch);
+  }
+
+  /**
+   * Emits the results collected so far as a shorter batch. Used when the stream stops so that the
+   * tail of the session is not lost.
+   */
+  void flush() {
+    long[] batch;
+    synchronized (this) {
+      if (count == 0) {
+        return;
+      }
+      batch = Arrays.copyOf(buffer, count * STRIDE);
+      count = 0;
+    }
+    listener.onBatch(batch);
+  }
+
+  private static void encode(@NonNull CaptureResult result, long[] out, int offset) {
+    out[offset + FIELD_SENSOR_TIMESTAMP] = orMissing(result.get(CaptureResult.SENSOR_TIMESTAMP));
+    out[offset + FIELD_FRAME_NUMBER] = result.getFrameNumber();
+    out[offset + FIELD_AE_STATE] = orMissing(result.get(CaptureResult.CONTROL_AE_STATE));
+    out[offset + FIELD_AF_STATE] = orMissing(result.get(CaptureResult.CONTROL_AF_STATE));
+    out[offset + FIELD_AWB_STATE] = orMissing(result.get(CaptureResult.CONTROL_AWB_STATE));
+    Float focusDistance = result.get(CaptureResult.LENS_FOCUS_DISTANCE);
+    out[offset + FIELD_FOCUS_DISTANCE] =
+        focusDistance == null ? MISSING : Math.round(focusDistance * 1_000_000.0);
+    out[offset + FIELD_FRAME_DURATION] =
+        orMissing(result.get(CaptureResult.SENSOR_FRAME_DURATION));
+    out[offset + FIELD_ROLLING_SHUTTER_SKEW] =
+        orMissing(result.get(CaptureResult.SENSOR_ROLLING_SHUTTER_SKEW));
+    out[offset + FIELD_EXPOSURE_TIME] = orMissing(result.get(CaptureResult.SENSOR_EXPOSURE_TIME));
+    out[offset + FIELD_SENSITIVITY] = orMissing(result.get(CaptureResult.SENSOR_SENSITIVITY));
+  }
+
+  private static long orMissing(Number value) {
+    return value == null ? MISSING : value.longValue();
+  }
+}
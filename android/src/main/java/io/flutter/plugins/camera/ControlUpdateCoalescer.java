@@ -0,0 +1,241 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges high-frequency control updates (zoom, exposure offset, focus point) into at most one
+ * repeating request per frame interval.
+ *
+ * <p>Every submitted request is tagged with a monotonically increasing generation. Callers are
+ * informed once a {@link TotalCaptureResult} produced by that generation (or a later one) arrives,
+ * i.e. once their value actually took effect on the sensor output.
+ */
+class ControlUpdateCoalescer implements CameraCaptureCallback.CaptureResultListener {
+  private static final long DEFAULT_FRAME_INTERVAL_NS = 1_000_000_000L / 30;
+
+  /** Builds and sends the preview repeating request on behalf of the coalescer. */
+  interface RequestSubmitter {
+    /** Returns true when there are control changes that have not been submitted yet. */
+    boolean hasPendingChanges();
+
+    /**
+     * Sends the current preview request as the new repeating request, tagged with {@code
+     * generation}.
+     *
+     * @return false when no request was sent, e.g. because there is no session or the preview is
+     *     paused.
+     */
+    boolean submit(long generation) throws CameraAccessException;
+  }
+
+  /** A control update waiting to be submitted or to show up in a capture result. */
+  private static final class Update {
+    final Runnable onApplied;
+    final ErrorCallback onError;
+    long generation;
+
+    Update(Runnable onApplied, ErrorCallback onError) {
+      this.onApplied = onApplied;
+      this.onError = onError;
+    }
+  }
+
+  @NonNull private final RequestSubmitter submitter;
+  @NonNull private final Handler handler;
+
+  private final List<Update> pending = new ArrayList<>();
+  private final List<Update> inFlight = new ArrayList<>();
+  private long frameIntervalNs = DEFAULT_FRAME_INTERVAL_NS;
+  private long lastSubmitNs;
+  private boolean hasSubmitted = false;
+  private boolean submitScheduled = false;
+  private long submittedGeneration = 0;
+  private long appliedGeneration = 0;
+
+  private final Runnable scheduledSubmit =
+      () -> {
+        synchronized (ControlUpdateCoalescer.this) {
+          submitScheduled = false;
+        }
+        submitPending();
+      };
+
+  /**
+   * Creates a new coalescer.
+   *
+   * @param submitter sends the coalesced request.
+   * @param handler handler on the thread that owns the preview request builder; deferred
+   *     submissions are posted to it.
+   */
+  ControlUpdateCoalescer(@NonNull RequestSubmitter submitter, @NonNull Handler handler) {
+    this.submitter = submitter;
+    this.handler = handler;
+  }
+
+  /**
+   * Sets the minimum time between two submitted requests, normally one frame duration.
+   *
+   * @param frameIntervalNs the interval in nanoseconds; values <= 0 disable rate limiting.
+   */
+  synchronized void setFrameIntervalNs(long frameIntervalNs) {
+    this.frameIntervalNs = Math.max(0, frameIntervalNs);
+  }
+
+  /**
+   * Requests that the pending control changes are submitted.
+   *
+   * <p>The first update after an idle frame interval is submitted right away; later ones are merged
+   * into a single submission at the end of the interval. Must be called on the handler's thread.
+   *
+   * @param onApplied called once the update is reflected in a capture result.
+   * @param onError called when the request carrying the update could not be submitted.
+   */
+  void requestUpdate(@NonNull Runnable onApplied, @NonNull ErrorCallback onError) {
+    Update update = new Update(onApplied, onError);
+    boolean alreadyApplied = false;
+    synchronized (this) {
+      if (!submitter.hasPendingChanges() && !submitScheduled) {
+        // The active repeating request already carries this value; wait for it if it is still
+        // in flight, otherwise it has been applied already.
+        if (submittedGeneration > appliedGeneration) {
+          update.generation = submittedGeneration;
+          inFlight.add(update);
+          return;
+        }
+        alreadyApplied = true;
+      } else {
+        pending.add(update);
+        if (submitScheduled) {
+          return;
+        }
+
+        long now = SystemClock.elapsedRealtimeNanos();
+        long delayNs = hasSubmitted ? lastSubmitNs + frameIntervalNs - now : 0;
+        if (delayNs > 0) {
+          submitScheduled = true;
+          handler.postDelayed(scheduledSubmit, Math.max(1, delayNs / 1_000_000L));
+          return;
+        }
+      }
+    }
+    if (alreadyApplied) {
+      onApplied.run();
+    } else {
+      submitPending();
+    }
+  }
+
+  /**
+   * Informs all callbacks that are still waiting. Used when the session goes away, as no further
+   * results will arrive for the submitted requests; the values remain set and are applied with the
+   * next session.
+   */
+  void flush() {
+    List<Update> ready = new ArrayList<>();
+    synchronized (this) {
+      handler.removeCallbacks(scheduledSubmit);
+      submitScheduled = false;
+      ready.addAll(inFlight);
+      inFlight.clear();
+      ready.addAll(pending);
+      pending.clear();
+      appliedGeneration = submittedGeneration;
+    }
+    for (Update update : ready) {
+      update.onApplied.run();
+    }
+  }
+
+  @Override
+  public void onCaptureResult(
+      @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+    Object tag = request.getTag();
+    if (!(tag instanceof Long)) {
+      return;
+    }
+    long generation = (Long) tag;
+    List<Update> ready = new ArrayList<>();
+    synchronized (this) {
+      if (generation <= appliedGeneration) {
+        return;
+      }
+      appliedGeneration = Math.min(generation, submittedGeneration);
+      for (int i = inFlight.size() - 1; i >= 0; i--) {
+        Update update = inFlight.get(i);
+        if (update.generation <= generation) {
+          ready.add(0, update);
+          inFlight.remove(i);
+        }
+      }
+    }
+    for (Update update : ready) {
+      update.onApplied.run();
+    }
+  }
+
+  /** The generation of the last submitted request, to tag other repeating requests with. */
+  synchronized long getSubmittedGeneration() {
+    return submittedGeneration;
+  }
+
+  private void submitPending() {
+    List<Update> updates;
+    long generation;
+    synchronized (this) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      updates = new ArrayList<>(pending);
+      pending.clear();
+      generation = submittedGeneration + 1;
+    }
+
+    boolean sent;
+    try {
+      sent = submitter.submit(generation);
+    } catch (CameraAccessException e) {
+      failAll(updates, e.getMessage());
+      return;
+    } catch (IllegalStateException e) {
+      failAll(updates, "Camera is closed: " + e.getMessage());
+      return;
+    }
+
+    synchronized (this) {
+      if (sent) {
+        submittedGeneration = generation;
+        lastSubmitNs = SystemClock.elapsedRealtimeNanos();
+        hasSubmitted = true;
+        for (Update update : updates) {
+          update.generation = generation;
+          inFlight.add(update);
+        }
+        return;
+      }
+    }
+    for (Update update : updates) {
+      update.onApplied.run();
+    }
+  }
+
+  private void failAll(List<Update> updates, String message) {
+    // A failed submission never reached the camera, so the next update should not wait for it.
+    synchronized (this) {
+      hasSubmitted = false;
+    }
+    for (Update update : updates) {
+      update.onError.onError("cameraAccess", message);
+    }
+  }
+}
@@ -114,6 +114,11 @@ public class DartMessenger {
     handler.post(() -> result.success(payload));
   }
 
+  /** Completes a {@link Messages.VoidResult} successfully on the main thread. */
+  public void finish(@NonNull Messages.VoidResult result) {
+    handler.post(result::success);
+  }
+
   /**
    * Send an error payload to a {@link MethodChannel.Result} on the main thread.
    *
@@ -129,4 +134,20 @@ public class DartMessenger {
     handler.post(
         () -> result.error(new Messages.FlutterError(errorCode, errorMessage, errorDetails)));
   }
+
+  /**
+   * Send an error payload to a {@link Messages.VoidResult} on the main thread.
+   *
+   * @param errorCode error code.
+   * @param errorMessage error message.
+   * @param errorDetails error details.
+   */
+  public void error(
+      @NonNull Messages.VoidResult result,
+      @NonNull String errorCode,
+      @Nullable String errorMessage,
+      @Nullable Object errorDetails) {
+    handler.post(
+        () -> result.error(new Messages.FlutterError(errorCode, errorMessage, errorDetails)));
+  }
 }
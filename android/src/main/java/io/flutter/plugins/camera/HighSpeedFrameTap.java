@@ -0,0 +1,336 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import android.graphics.PixelFormat;
+import android.graphics.SurfaceTexture;
+import android.media.Image;
+import android.media.ImageReader;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLExt;
+import android.opengl.EGLSurface;
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+import android.opengl.Matrix;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.media.FrameDecimator;
+import io.flutter.plugins.camera.media.FrameImage;
+import io.flutter.plugins.camera.media.RgbaFrameImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Feeds the preview and the frame pipeline from a constrained high speed session.
+ *
+ * <p>Such a session only accepts a preview and a video encoder output, so the YUV frames output
+ * cannot be part of it. Instead the camera renders into {@link #getInputSurface()}, a preview
+ * output, at the full session rate. Every frame is consumed, but only those taken by a {@link
+ * FrameDecimator} are drawn: into the Flutter preview surface and, while analysis is enabled,
+ * into an RGBA {@link ImageReader} whose images are converted by {@link RgbaFrameImage} for the
+ * frame pipeline. The recorder is a separate output of the session and gets every frame.
+ */
+public class HighSpeedFrameTap {
+  private static final String TAG = "HighSpeedFrameTap";
+  private static final long CLOSE_TIMEOUT_MS = 1000;
+
+  /** Receives analysis frames on the handler passed to the constructor. */
+  public interface OnFrameListener {
+    /** The frame must be closed, and before the next one arrives. */
+    void onFrame(@NonNull FrameImage frame);
+  }
+
+  private static final float[] VERTICES = {
+    -1.0f, -1.0f, 0.0f, 0f, 0f, -1.0f, 1.0f, 0.0f, 0f, 1f, 1.0f, 1.0f, 0.0f, 1f, 1f, 1.0f, -1.0f,
+    0.0f, 1f, 0f
+  };
+  private static final int[] INDICES = {2, 1, 0, 0, 3, 2};
+
+  private final Surface previewSurface;
+  private final int previewWidth;
+  private final int previewHeight;
+  private final int width;
+  private final int height;
+  private final FrameDecimator decimator;
+  private final ImageReader analysisReader;
+  private final RgbaFrameImage.Workspace workspace = new RgbaFrameImage.Workspace();
+  private final HandlerThread glThread;
+  private final Handler glHandler;
+  private final CountDownLatch ready = new CountDownLatch(1);
+  private volatile boolean analysisEnabled = false;
+
+  // Only accessed on the GL thread.
+  private EGLDisplay display = EGL14.EGL_NO_DISPLAY;
+  private EGLContext context = EGL14.EGL_NO_CONTEXT;
+  private EGLSurface previewEglSurface = EGL14.EGL_NO_SURFACE;
+  private EGLSurface analysisEglSurface = EGL14.EGL_NO_SURFACE;
+  private final int[] textureHandles = new int[1];
+  private final int[] bufferHandles = new int[2];
+  private final float[] texMatrix = new float[16];
+  private final float[] identity = new float[16];
+  private int program;
+  private int vertexHandle;
+  private int uvsHandle;
+  private int texMatrixHandle;
+  private int mvpHandle;
+  private SurfaceTexture inputSurfaceTexture;
+  private volatile Surface inputSurface;
+
+  /**
+   * @param previewSurface the Flutter texture surface, drawn at the analysis rate. The tap takes
+   *     ownership and releases it when closed.
+   * @param width the width of the session's output size.
+   * @param height the height of the session's output size.
+   * @param sourceFps the session's frame rate.
+   * @param analysisFps the rate frames are drawn and analyzed at.
+   * @param listenerHandler the handler {@code listener} is called on.
+   */
+  public HighSpeedFrameTap(
+      @NonNull Surface previewSurface,
+      int previewWidth,
+      int previewHeight,
+      int width,
+      int height,
+      int sourceFps,
+      int analysisFps,
+      @NonNull OnFrameListener listener,
+      @NonNull Handler listenerHandler,
+      @NonNull Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+    this.previewSurface = previewSurface;
+    this.previewWidth = previewWidth;
+    this.previewHeight = previewHeight;
+    this.width = width;
+    this.height = height;
+    this.decimator = new FrameDecimator(sourceFps, analysisFps);
+
+    analysisReader = ImageReader.newInstance(width, height, PixelFormat.RGBA_8888, 2);
+    analysisReader.setOnImageAvailableListener(
+        reader -> {
+          final Image image = reader.acquireLatestImage();
+          if (image == null) {
+            return;
+          }
+          try {
+            final Image.Plane plane = image.getPlanes()[0];
+            listener.onFrame(
+                RgbaFrameImage.convert(
+                    plane.getBuffer(),
+                    plane.getRowStride(),
+                    image.getWidth(),
+                    image.getHeight(),
+                    image.getTimestamp(),
+                    workspace,
+                    image));
+          } catch (RuntimeException e) {
+            image.close();
+            Log.e(TAG, "Converting analysis frame failed", e);
+          }
+        },
+        listenerHandler);
+
+    glThread = new HandlerThread("CameraHighSpeedTap");
+    glThread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
+    glThread.start();
+    glHandler = new Handler(glThread.getLooper());
+    glHandler.post(this::configureOpenGL);
+  }
+
+  /** Gets the surface the camera renders into. Blocks until it is ready. */
+  @NonNull
+  public Surface getInputSurface() throws InterruptedException {
+    ready.await();
+    if (inputSurface == null) {
+      throw new IllegalStateException("OpenGL setup failed");
+    }
+    return inputSurface;
+  }
+
+  /** Starts or stops drawing frames for the frame pipeline. */
+  public void setAnalysisEnabled(boolean enabled) {
+    analysisEnabled = enabled;
+  }
+
+  /**
+   * Stops rendering and releases all resources. Waits for the preview surface to be released, so
+   * the next session can render into it directly.
+   */
+  public void close() {
+    glHandler.post(
+        () -> {
+          releaseOpenGL();
+          glThread.quitSafely();
+        });
+    try {
+      glThread.join(CLOSE_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    analysisReader.close();
+  }
+
+  private void configureOpenGL() {
+    try {
+      display = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+      int[] version = new int[2];
+      if (display == EGL14.EGL_NO_DISPLAY
+          || !EGL14.eglInitialize(display, version, 0, version, 1)) {
+        throw new RuntimeException("eglInitialize(): " + eglError());
+      }
+
+      int[] attribList = {
+        EGL14.EGL_RED_SIZE, 8,
+        EGL14.EGL_GREEN_SIZE, 8,
+        EGL14.EGL_BLUE_SIZE, 8,
+        EGL14.EGL_ALPHA_SIZE, 8,
+        EGL14.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_ES2_BIT,
+        EGL14.EGL_NONE
+      };
+      EGLConfig[] configs = new EGLConfig[1];
+      int[] numConfigs = new int[1];
+      if (!EGL14.eglChooseConfig(display, attribList, 0, configs, 0, 1, numConfigs, 0)
+          || numConfigs[0] == 0) {
+        throw new RuntimeException("eglChooseConfig(): " + eglError());
+      }
+      int[] contextAttribs = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE};
+      context =
+          EGL14.eglCreateContext(display, configs[0], EGL14.EGL_NO_CONTEXT, contextAttribs, 0);
+      int[] surfaceAttribs = {EGL14.EGL_NONE};
+      previewEglSurface =
+          EGL14.eglCreateWindowSurface(display, configs[0], previewSurface, surfaceAttribs, 0);
+      analysisEglSurface =
+          EGL14.eglCreateWindowSurface(
+              display, configs[0], analysisReader.getSurface(), surfaceAttribs, 0);
+      if (context == EGL14.EGL_NO_CONTEXT
+          || previewEglSurface == EGL14.EGL_NO_SURFACE
+          || analysisEglSurface == EGL14.EGL_NO_SURFACE
+          || !EGL14.eglMakeCurrent(display, previewEglSurface, previewEglSurface, context)) {
+        throw new RuntimeException("EGL setup: " + eglError());
+      }
+
+      program = GLES20.glCreateProgram();
+      int vertexShader = loadShader(GLES20.GL_VERTEX_SHADER, VideoRenderer.vertexShaderCode);
+      int fragmentShader = loadShader(GLES20.GL_FRAGMENT_SHADER, VideoRenderer.fragmentShaderCode);
+      GLES20.glAttachShader(program, vertexShader);
+      GLES20.glAttachShader(program, fragmentShader);
+      GLES20.glLinkProgram(program);
+      GLES20.glDeleteShader(vertexShader);
+      GLES20.glDeleteShader(fragmentShader);
+      vertexHandle = GLES20.glGetAttribLocation(program, "vertexPosition");
+      uvsHandle = GLES20.glGetAttribLocation(program, "uvs");
+      texMatrixHandle = GLES20.glGetUniformLocation(program, "texMatrix");
+      mvpHandle = GLES20.glGetUniformLocation(program, "mvp");
+      Matrix.setIdentityM(identity, 0);
+
+      ByteBuffer vertexBuffer =
+          ByteBuffer.allocateDirect(VERTICES.length * 4).order(ByteOrder.nativeOrder());
+      vertexBuffer.asFloatBuffer().put(VERTICES);
+      ByteBuffer indexBuffer =
+          ByteBuffer.allocateDirect(INDICES.length * 4).order(ByteOrder.nativeOrder());
+      indexBuffer.asIntBuffer().put(INDICES);
+      GLES20.glGenBuffers(2, bufferHandles, 0);
+      GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, bufferHandles[0]);
+      GLES20.glBufferData(
+          GLES20.GL_ARRAY_BUFFER, VERTICES.length * 4, vertexBuffer, GLES20.GL_STATIC_DRAW);
+      GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, bufferHandles[1]);
+      GLES20.glBufferData(
+          GLES20.GL_ELEMENT_ARRAY_BUFFER, INDICES.length * 4, indexBuffer, GLES20.GL_STATIC_DRAW);
+
+      GLES20.glGenTextures(1, textureHandles, 0);
+      GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureHandles[0]);
+      inputSurfaceTexture = new SurfaceTexture(textureHandles[0]);
+      inputSurfaceTexture.setDefaultBufferSize(width, height);
+      inputSurfaceTexture.setOnFrameAvailableListener(texture -> onFrameAvailable(), glHandler);
+      inputSurface = new Surface(inputSurfaceTexture);
+    } finally {
+      ready.countDown();
+    }
+  }
+
+  private void onFrameAvailable() {
+    if (inputSurfaceTexture == null) {
+      return;
+    }
+    // Latching every frame keeps the camera from stalling on this output.
+    inputSurfaceTexture.updateTexImage();
+    final long timestampNs = inputSurfaceTexture.getTimestamp();
+    if (!decimator.offer(timestampNs)) {
+      return;
+    }
+    inputSurfaceTexture.getTransformMatrix(texMatrix);
+    draw(previewEglSurface, previewWidth, previewHeight, timestampNs);
+    if (analysisEnabled) {
+      draw(analysisEglSurface, width, height, timestampNs);
+    }
+  }
+
+  private void draw(EGLSurface surface, int viewportWidth, int viewportHeight, long timestampNs) {
+    if (!EGL14.eglMakeCurrent(display, surface, surface, context)) {
+      Log.w(TAG, "eglMakeCurrent() " + eglError());
+      return;
+    }
+    GLES20.glViewport(0, 0, viewportWidth, viewportHeight);
+    GLES20.glUseProgram(program);
+    GLES20.glUniformMatrix4fv(texMatrixHandle, 1, false, texMatrix, 0);
+    GLES20.glUniformMatrix4fv(mvpHandle, 1, false, identity, 0);
+    GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, bufferHandles[0]);
+    GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, bufferHandles[1]);
+    GLES20.glEnableVertexAttribArray(vertexHandle);
+    GLES20.glVertexAttribPointer(vertexHandle, 3, GLES20.GL_FLOAT, false, 4 * 5, 0);
+    GLES20.glEnableVertexAttribArray(uvsHandle);
+    GLES20.glVertexAttribPointer(uvsHandle, 2, GLES20.GL_FLOAT, false, 4 * 5, 3 * 4);
+    GLES20.glDrawElements(GLES20.GL_TRIANGLES, 6, GLES20.GL_UNSIGNED_INT, 0);
+
+    // Analysis images carry the sensor timestamp of the frame.
+    EGLExt.eglPresentationTimeANDROID(display, surface, timestampNs);
+    if (!EGL14.eglSwapBuffers(display, surface)) {
+      Log.w(TAG, "eglSwapBuffers() " + eglError());
+    }
+  }
+
+  private void releaseOpenGL() {
+    if (inputSurfaceTexture != null) {
+      inputSurfaceTexture.setOnFrameAvailableListener(null);
+      inputSurfaceTexture.release();
+      inputSurfaceTexture = null;
+    }
+    if (inputSurface != null) {
+      inputSurface.release();
+    }
+    if (display != EGL14.EGL_NO_DISPLAY) {
+      if (context != EGL14.EGL_NO_CONTEXT) {
+        GLES20.glDeleteBuffers(2, bufferHandles, 0);
+        GLES20.glDeleteTextures(1, textureHandles, 0);
+        GLES20.glDeleteProgram(program);
+      }
+      EGL14.eglMakeCurrent(
+          display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+      EGL14.eglDestroySurface(display, previewEglSurface);
+      EGL14.eglDestroySurface(display, analysisEglSurface);
+      EGL14.eglDestroyContext(display, context);
+      display = EGL14.EGL_NO_DISPLAY;
+    }
+    // After its EGL surface is destroyed, so the Flutter texture is free for the next session.
+    previewSurface.release();
+  }
+
+  private static int loadShader(int type, String code) {
+    int shader = GLES20.glCreateShader(type);
+    GLES20.glShaderSource(shader, code);
+    GLES20.glCompileShader(shader);
+    return shader;
+  }
+
+  private static String eglError() {
+    return GLUtils.getEGLErrorString(EGL14.eglGetError());
+  }
+}
@@ -5,8 +5,10 @@
 package io.flutter.plugins.camera;
 
 import android.media.Image;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
+import io.flutter.plugins.camera.media.Thumbnails;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -15,6 +17,7 @@ import java.nio.ByteBuffer;
 
 /** Saves a JPEG {@link Image} into the specified {@link File}. */
 public class ImageSaver implements Runnable {
+  private static final String TAG = "ImageSaver";
 
   /** The JPEG image */
   private final Image image;
@@ -25,6 +28,9 @@ public class ImageSaver implements Runnable {
   /** Used to report the status of the save action. */
   private final Callback callback;
 
+  /** The longer side of the thumbnail written next to the file, or 0 for none. */
+  private final int thumbnailMaxSide;
+
   /**
    * Creates an instance of the ImageSaver runnable
    *
@@ -33,9 +39,21 @@ public class ImageSaver implements Runnable {
    * @param callback - The callback that is run on completion, or when an error is encountered.
    */
   ImageSaver(@NonNull Image image, @NonNull File file, @NonNull Callback callback) {
+    this(image, file, callback, 0);
+  }
+
+  /**
+   * Creates an instance of the ImageSaver runnable that also writes a thumbnail to {@link
+   * Thumbnails#pathFor} the file before completing.
+   *
+   * @param thumbnailMaxSide - The longer side of the thumbnail in pixels, or 0 for none.
+   */
+  ImageSaver(
+      @NonNull Image image, @NonNull File file, @NonNull Callback callback, int thumbnailMaxSide) {
     this.image = image;
     this.file = file;
     this.callback = callback;
+    this.thumbnailMaxSide = thumbnailMaxSide;
   }
 
   @Override
@@ -48,6 +66,9 @@ public class ImageSaver implements Runnable {
       output = FileOutputStreamFactory.create(file);
       output.write(bytes);
 
+      if (thumbnailMaxSide > 0) {
+        writeThumbnail(bytes);
+      }
       callback.onComplete(file.getAbsolutePath());
 
     } catch (IOException e) {
@@ -64,6 +85,16 @@ public class ImageSaver implements Runnable {
     }
   }
 
+  private void writeThumbnail(byte[] jpeg) {
+    try {
+      Thumbnails.writeFromJpeg(
+          jpeg, thumbnailMaxSide, Thumbnails.pathFor(file.getAbsolutePath()));
+    } catch (IOException | RuntimeException e) {
+      // The picture itself was saved; callers find no thumbnail file.
+      Log.w(TAG, "Failed writing thumbnail", e);
+    }
+  }
+
   /**
    * The interface for the callback that is passed to ImageSaver, for detecting completion or
    * failure of the image saving task.
@@ -147,7 +147,8 @@ public class Messages {
     /** The default for Android. */
     YUV420(0),
     JPEG(1),
-    NV21(2);
+    NV21(2),
+    RGBA8888(3);
 
     final int index;
 
@@ -941,6 +942,9 @@ public class Messages {
   /**
    * Handles calls from Dart to the native side.
    *
+   * Methods that send or receive whole frames run on a background task queue,
+   * so the frames are not encoded or decoded on the platform thread.
+   *
    * Generated interface from Pigeon that represents a handler of messages from Flutter.
    */
   public interface CameraApi {
@@ -1038,6 +1042,149 @@ public class Messages {
      * This should be called only while video recording is active.
      */
     void setDescriptionWhileRecording(@NonNull String description);
+    /**
+     * Smoothly changes the zoom level to [zoom] over [durationMs] milliseconds,
+     * following the easing [curve] (`linear`, `easeIn`, `easeOut` or `easeInOut`).
+     *
+     * Completes once the target zoom level is reflected in a capture result, or
+     * when the ramp is superseded by another zoom change.
+     */
+    void startZoomRamp(@NonNull Double zoom, @NonNull Long durationMs, @NonNull String curve, @NonNull VoidResult result);
+    /**
+     * Starts streaming per-frame capture result statistics in batches of
+     * [batchSize] results.
+     */
+    void startCaptureStats(@NonNull Long batchSize);
+    /** Stops the capture result statistics stream. */
+    void stopCaptureStats();
+    /**
+     * Returns latency histograms and dropped frame counters of the frame
+     * pipeline.
+     */
+    @NonNull 
+    Map<String, Object> getFrameMetrics();
+    /** Clears the frame pipeline metrics. */
+    void resetFrameMetrics();
+    /**
+     * Enables or disables zero shutter lag pictures, keeping up to [depth]
+     * full-resolution frames and at most [maxMemoryBytes] of pixel data.
+     */
+    void setZeroShutterLag(@NonNull Boolean enabled, @NonNull Long depth, @NonNull Long maxMemoryBytes);
+    /**
+     * Keeps the last [depth] full-resolution frames, using at most
+     * [maxMemoryBytes] of pixel data, for frame history lookups.
+     */
+    void setFrameHistory(@NonNull Long depth, @NonNull Long maxMemoryBytes);
+    /**
+     * Returns the history frame whose sensor timestamp is closest to
+     * [timestampNs], or null if the history is empty.
+     */
+    void getFrameNearest(@NonNull Long timestampNs, @NonNull NullableResult<Map<String, Object>> result);
+    /**
+     * Returns the history frame with the given id, or null if it is no longer
+     * held.
+     */
+    void getFrameById(@NonNull Long frameId, @NonNull NullableResult<Map<String, Object>> result);
+    /**
+     * Returns all history frames with a sensor timestamp in
+     * [startNs, endNs], oldest first.
+     */
+    void getFramesInRange(@NonNull Long startNs, @NonNull Long endNs, @NonNull Result<List<Map<String, Object>>> result);
+    /** Encodes a frame retained by its handle as a JPEG at [outputPath]. */
+    void saveFrameAsJpeg(@NonNull Long handle, @NonNull String outputPath, @NonNull Long rotation, @NonNull Long quality, @NonNull Result<String> result);
+    /** Releases a frame retained for [saveFrameAsJpeg]. */
+    void releaseFrame(@NonNull Long handle);
+    /**
+     * Scores the sharpness of every accepted frame and keeps up to [maxFrames]
+     * candidates for [captureBestFrameJpeg]. [roi] is
+     * `[left, top, right, bottom]` in fractions of the frame, or null for the
+     * whole frame.
+     */
+    void setSharpnessScoring(@NonNull Boolean enabled, @NonNull Long maxFrames, @NonNull Long step, @Nullable List<Double> roi);
+    /**
+     * Saves the sharpest frame accepted within the last [windowMs] as a JPEG at
+     * [outputPath].
+     */
+    void captureBestFrameJpeg(@NonNull Long windowMs, @NonNull String outputPath, @NonNull Long rotation, @NonNull Long quality, @NonNull Result<String> result);
+    /**
+     * Starts collecting luma statistics of every accepted frame, split into
+     * [tilesX] by [tilesY] tiles and sampled every [step] pixels, and sending
+     * them on the luma stats event channel.
+     */
+    void startLumaStats(@NonNull Long tilesX, @NonNull Long tilesY, @NonNull Long step);
+    /** Stops collecting luma statistics. */
+    void stopLumaStats();
+    /**
+     * Only converts and delivers frames whose luma differs from the last
+     * delivered frame by more than [threshold] in some block, plus one frame
+     * every [keepAliveMs].
+     */
+    void setMotionGate(@NonNull Boolean enabled, @NonNull Double threshold, @NonNull Long keepAliveMs);
+    /**
+     * Starts converting accepted frames into [width] x [height] RGB model input on the tensor
+     * stream, as bytes or, if [float32], floats normalized with [mean] and [std]. [fit] is
+     * `letterbox` or `centerCrop`.
+     */
+    void startTensorStream(@NonNull Long width, @NonNull Long height, @NonNull Boolean float32, @NonNull String fit, @NonNull Long rotation, @Nullable List<Double> mean, @Nullable List<Double> std);
+    /** Stops the tensor stream. */
+    void stopTensorStream();
+    /** Changes the format of the image stream frames without reinitializing. */
+    void setImageStreamFormat(@NonNull PlatformImageFormatGroup format);
+    /**
+     * Sets whether the image and frames streams encode frames off the platform
+     * thread. Applies to streams listened to afterwards.
+     */
+    void setBackgroundStreamEncoding(@NonNull Boolean enabled);
+    /**
+     * Starts writing accepted frames into a shared memory ring of [slotCount]
+     * slots and returns the path of its file.
+     */
+    @NonNull 
+    String startFrameRing(@NonNull Long slotCount);
+    /** Stops writing frames into the shared memory ring. */
+    void stopFrameRing();
+    /**
+     * Starts recording every frame in [format] (`nv21`, `yOnly` or `rgb`) to
+     * segment files of [segmentBytes] bytes and an index in [directory].
+     */
+    void startDatasetRecording(@NonNull String directory, @NonNull String format, @NonNull Long segmentBytes);
+    /** Stops the dataset recording and returns the number of recorded frames. */
+    void stopDatasetRecording(@NonNull Result<Long> result);
+    /**
+     * Saves each of [frames] as a JPEG at the matching entry of [outputPaths],
+     * encoding them in parallel. Returns one entry per frame: null if it was
+     * saved, or the error message.
+     */
+    void saveAsJpegBatch(@NonNull List<Map<String, Object>> frames, @NonNull List<String> outputPaths, @NonNull Long rotation, @NonNull Long quality, @NonNull Result<List<String>> result);
+    /**
+     * Writes an upright thumbnail with a longer side of at most [maxSide]
+     * pixels next to every saved picture; 0 disables thumbnails.
+     */
+    void setThumbnailSize(@NonNull Long maxSide);
+    /**
+     * Keeps the last [frames] accepted frames, from 2 to 16, for
+     * [captureDenoisedFrameJpeg]; 0 stops keeping them.
+     */
+    void setDenoiseHistory(@NonNull Long frames);
+    /**
+     * Saves the average of the last [frames] kept frames, or all of them if 0,
+     * as a JPEG at [outputPath], aligning them first if [align] is true.
+     */
+    void captureDenoisedFrameJpeg(@NonNull String outputPath, @NonNull Long rotation, @NonNull Long quality, @NonNull Long frames, @NonNull Boolean align, @NonNull Result<String> result);
+    /**
+     * Switches to constrained high speed sessions at the supported frame rate
+     * closest to [fps], or back to regular sessions if 0, with the preview and
+     * frame pipeline at [analysisFps].
+     *
+     * Returns the width, height and frame rate, or an empty list if disabled.
+     */
+    @NonNull 
+    List<Long> setHighSpeedVideo(@NonNull Long fps, @NonNull Long analysisFps);
+    /**
+     * Whether frames of the frames stream keep a native handle for
+     * [saveFrameAsJpeg]; off by default.
+     */
+    void setRetainStreamFrames(@NonNull Boolean retain);
 
     /** The codec used by CameraApi. */
     static @NonNull MessageCodec<Object> getCodec() {
@@ -1049,6 +1196,7 @@ public class Messages {
     }
     static void setUp(@NonNull BinaryMessenger binaryMessenger, @NonNull String messageChannelSuffix, @Nullable CameraApi api) {
       messageChannelSuffix = messageChannelSuffix.isEmpty() ? "" : "." + messageChannelSuffix;
+      BinaryMessenger.TaskQueue taskQueue = binaryMessenger.makeBackgroundTaskQueue();
       {
         BasicMessageChannel<Object> channel =
             new BasicMessageChannel<>(
@@ -1218,7 +1366,7 @@ public class Messages {
       {
         BasicMessageChannel<Object> channel =
             new BasicMessageChannel<>(
-                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.capturePreviewFrame" + messageChannelSuffix, getCodec());
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.capturePreviewFrame" + messageChannelSuffix, getCodec(), taskQueue);
         if (api != null) {
           channel.setMessageHandler(
               (message, reply) -> {
@@ -1276,7 +1424,7 @@ public class Messages {
       {
         BasicMessageChannel<Object> channel =
             new BasicMessageChannel<>(
-                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.saveAsJpeg" + messageChannelSuffix, getCodec());
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.saveAsJpeg" + messageChannelSuffix, getCodec(), taskQueue);
         if (api != null) {
           channel.setMessageHandler(
               (message, reply) -> {
@@ -1833,6 +1981,794 @@ public class Messages {
                   api.setDescriptionWhileRecording(descriptionArg);
                   wrapped.add(0, null);
                 }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.startZoomRamp" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Double zoomArg = (Double) args.get(0);
+                Long durationMsArg = (Long) args.get(1);
+                String curveArg = (String) args.get(2);
+                VoidResult resultCallback =
+                    new VoidResult() {
+                      public void success() {
+                        wrapped.add(0, null);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.startZoomRamp(zoomArg, durationMsArg, curveArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.startCaptureStats" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long batchSizeArg = (Long) args.get(0);
+                try {
+                  api.startCaptureStats(batchSizeArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.stopCaptureStats" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  api.stopCaptureStats();
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.getFrameMetrics" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  Map<String, Object> output = api.getFrameMetrics();
+                  wrapped.add(0, output);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.resetFrameMetrics" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  api.resetFrameMetrics();
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setZeroShutterLag" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
+                Long depthArg = (Long) args.get(1);
+                Long maxMemoryBytesArg = (Long) args.get(2);
+                try {
+                  api.setZeroShutterLag(enabledArg, depthArg, maxMemoryBytesArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setFrameHistory" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long depthArg = (Long) args.get(0);
+                Long maxMemoryBytesArg = (Long) args.get(1);
+                try {
+                  api.setFrameHistory(depthArg, maxMemoryBytesArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.getFrameNearest" + messageChannelSuffix, getCodec(), taskQueue);
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long timestampNsArg = (Long) args.get(0);
+                NullableResult<Map<String, Object>> resultCallback =
+                    new NullableResult<Map<String, Object>>() {
+                      public void success(Map<String, Object> result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.getFrameNearest(timestampNsArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.getFrameById" + messageChannelSuffix, getCodec(), taskQueue);
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long frameIdArg = (Long) args.get(0);
+                NullableResult<Map<String, Object>> resultCallback =
+                    new NullableResult<Map<String, Object>>() {
+                      public void success(Map<String, Object> result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.getFrameById(frameIdArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.getFramesInRange" + messageChannelSuffix, getCodec(), taskQueue);
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long startNsArg = (Long) args.get(0);
+                Long endNsArg = (Long) args.get(1);
+                Result<List<Map<String, Object>>> resultCallback =
+                    new Result<List<Map<String, Object>>>() {
+                      public void success(List<Map<String, Object>> result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.getFramesInRange(startNsArg, endNsArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.saveFrameAsJpeg" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long handleArg = (Long) args.get(0);
+                String outputPathArg = (String) args.get(1);
+                Long rotationArg = (Long) args.get(2);
+                Long qualityArg = (Long) args.get(3);
+                Result<String> resultCallback =
+                    new Result<String>() {
+                      public void success(String result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.saveFrameAsJpeg(handleArg, outputPathArg, rotationArg, qualityArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.releaseFrame" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long handleArg = (Long) args.get(0);
+                try {
+                  api.releaseFrame(handleArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setSharpnessScoring" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
+                Long maxFramesArg = (Long) args.get(1);
+                Long stepArg = (Long) args.get(2);
+                List<Double> roiArg = (List<Double>) args.get(3);
+                try {
+                  api.setSharpnessScoring(enabledArg, maxFramesArg, stepArg, roiArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.captureBestFrameJpeg" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long windowMsArg = (Long) args.get(0);
+                String outputPathArg = (String) args.get(1);
+                Long rotationArg = (Long) args.get(2);
+                Long qualityArg = (Long) args.get(3);
+                Result<String> resultCallback =
+                    new Result<String>() {
+                      public void success(String result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.captureBestFrameJpeg(windowMsArg, outputPathArg, rotationArg, qualityArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.startLumaStats" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long tilesXArg = (Long) args.get(0);
+                Long tilesYArg = (Long) args.get(1);
+                Long stepArg = (Long) args.get(2);
+                try {
+                  api.startLumaStats(tilesXArg, tilesYArg, stepArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.stopLumaStats" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  api.stopLumaStats();
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setMotionGate" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
+                Double thresholdArg = (Double) args.get(1);
+                Long keepAliveMsArg = (Long) args.get(2);
+                try {
+                  api.setMotionGate(enabledArg, thresholdArg, keepAliveMsArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.startTensorStream" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long widthArg = (Long) args.get(0);
+                Long heightArg = (Long) args.get(1);
+                Boolean float32Arg = (Boolean) args.get(2);
+                String fitArg = (String) args.get(3);
+                Long rotationArg = (Long) args.get(4);
+                List<Double> meanArg = (List<Double>) args.get(5);
+                List<Double> stdArg = (List<Double>) args.get(6);
+                try {
+                  api.startTensorStream(widthArg, heightArg, float32Arg, fitArg, rotationArg, meanArg, stdArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.stopTensorStream" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  api.stopTensorStream();
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setImageStreamFormat" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                PlatformImageFormatGroup formatArg = (PlatformImageFormatGroup) args.get(0);
+                try {
+                  api.setImageStreamFormat(formatArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setBackgroundStreamEncoding" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean enabledArg = (Boolean) args.get(0);
+                try {
+                  api.setBackgroundStreamEncoding(enabledArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.startFrameRing" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long slotCountArg = (Long) args.get(0);
+                try {
+                  String output = api.startFrameRing(slotCountArg);
+                  wrapped.add(0, output);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.stopFrameRing" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                try {
+                  api.stopFrameRing();
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.startDatasetRecording" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                String directoryArg = (String) args.get(0);
+                String formatArg = (String) args.get(1);
+                Long segmentBytesArg = (Long) args.get(2);
+                try {
+                  api.startDatasetRecording(directoryArg, formatArg, segmentBytesArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.stopDatasetRecording" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                Result<Long> resultCallback =
+                    new Result<Long>() {
+                      public void success(Long result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.stopDatasetRecording(resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.saveAsJpegBatch" + messageChannelSuffix, getCodec(), taskQueue);
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                List<Map<String, Object>> framesArg = (List<Map<String, Object>>) args.get(0);
+                List<String> outputPathsArg = (List<String>) args.get(1);
+                Long rotationArg = (Long) args.get(2);
+                Long qualityArg = (Long) args.get(3);
+                Result<List<String>> resultCallback =
+                    new Result<List<String>>() {
+                      public void success(List<String> result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.saveAsJpegBatch(framesArg, outputPathsArg, rotationArg, qualityArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setThumbnailSize" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long maxSideArg = (Long) args.get(0);
+                try {
+                  api.setThumbnailSize(maxSideArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setDenoiseHistory" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long framesArg = (Long) args.get(0);
+                try {
+                  api.setDenoiseHistory(framesArg);
+                  wrapped.add(0, null);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.captureDenoisedFrameJpeg" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                String outputPathArg = (String) args.get(0);
+                Long rotationArg = (Long) args.get(1);
+                Long qualityArg = (Long) args.get(2);
+                Long framesArg = (Long) args.get(3);
+                Boolean alignArg = (Boolean) args.get(4);
+                Result<String> resultCallback =
+                    new Result<String>() {
+                      public void success(String result) {
+                        wrapped.add(0, result);
+                        reply.reply(wrapped);
+                      }
+
+                      public void error(Throwable error) {
+                        ArrayList<Object> wrappedError = wrapError(error);
+                        reply.reply(wrappedError);
+                      }
+                    };
+
+                api.captureDenoisedFrameJpeg(outputPathArg, rotationArg, qualityArg, framesArg, alignArg, resultCallback);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setHighSpeedVideo" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Long fpsArg = (Long) args.get(0);
+                Long analysisFpsArg = (Long) args.get(1);
+                try {
+                  List<Long> output = api.setHighSpeedVideo(fpsArg, analysisFpsArg);
+                  wrapped.add(0, output);
+                }
+ catch (Throwable exception) {
+                  wrapped = wrapError(exception);
+                }
+                reply.reply(wrapped);
+              });
+        } else {
+          channel.setMessageHandler(null);
+        }
+      }
+      {
+        BasicMessageChannel<Object> channel =
+            new BasicMessageChannel<>(
+                binaryMessenger, "dev.flutter.pigeon.camera_android_frame.CameraApi.setRetainStreamFrames" + messageChannelSuffix, getCodec());
+        if (api != null) {
+          channel.setMessageHandler(
+              (message, reply) -> {
+                ArrayList<Object> wrapped = new ArrayList<>();
+                ArrayList<Object> args = (ArrayList<Object>) message;
+                Boolean retainArg = (Boolean) args.get(0);
+                try {
+                  api.setRetainStreamFrames(retainArg);
+                  wrapped.add(0, null);
+                }
  catch (Throwable exception) {
                   wrapped = wrapError(exception);
                 }
@@ -22,6 +22,18 @@ public class SdkCapabilityChecker {
     return SDK_VERSION >= Build.VERSION_CODES.P;
   }
 
+  @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.M)
+  public static boolean supportsConstrainedHighSpeedSession() {
+    // See https://developer.android.com/reference/android/hardware/camera2/CameraConstrainedHighSpeedCaptureSession
+    return SDK_VERSION >= Build.VERSION_CODES.M;
+  }
+
+  @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.O_MR1)
+  public static boolean supportsDirectBufferUnmap() {
+    // See https://developer.android.com/reference/android/os/SharedMemory#unmap(java.nio.ByteBuffer)
+    return SDK_VERSION >= Build.VERSION_CODES.O_MR1;
+  }
+
   @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.O)
   public static boolean supportsEglRecordableAndroid() {
     // See https://developer.android.com/reference/android/opengl/EGLExt#EGL_RECORDABLE_ANDROID
@@ -46,6 +58,12 @@ public class SdkCapabilityChecker {
     return SDK_VERSION >= Build.VERSION_CODES.P;
   }
 
+  @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.TIRAMISU)
+  public static boolean supportsVarHandleFences() {
+    // See https://developer.android.com/reference/java/lang/invoke/VarHandle#storeStoreFence()
+    return SDK_VERSION >= Build.VERSION_CODES.TIRAMISU;
+  }
+
   @ChecksSdkIntAtLeast(api = Build.VERSION_CODES.N)
   public static boolean supportsVideoPause() {
     // See https://developer.android.com/reference/androidx/camera/video/VideoRecordEvent.Pause
@@ -22,6 +22,8 @@ import android.os.HandlerThread;
 import android.util.Log;
 import android.view.Surface;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugins.camera.media.FrameMetrics;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -43,7 +45,7 @@ public class VideoRenderer {
 
   static String TAG = "VideoRenderer";
 
-  private static final String vertexShaderCode =
+  static final String vertexShaderCode =
       "  precision highp float;\n"
           + "            attribute vec3 vertexPosition;\n"
           + "            attribute vec2 uvs;\n"
@@ -57,7 +59,7 @@ public class VideoRenderer {
           + "                gl_Position = mvp * vec4(vertexPosition, 1.0);\n"
           + "            }";
 
-  private static final String fragmentShaderCode =
+  static final String fragmentShaderCode =
       " #extension GL_OES_EGL_image_external : require\n"
           + "            precision mediump float;\n"
           + "\n"
@@ -107,6 +109,13 @@ public class VideoRenderer {
 
   private final Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
 
+  @Nullable private volatile FrameMetrics frameMetrics;
+
+  /** Sets the registry that frames dropped by the renderer are counted in. */
+  public void setFrameMetrics(@Nullable FrameMetrics frameMetrics) {
+    this.frameMetrics = frameMetrics;
+  }
+
   /** Gets surface for input. Blocks until surface is ready. */
   @NonNull
   public Surface getInputSurface() throws InterruptedException {
@@ -268,8 +277,13 @@ public class VideoRenderer {
             @Override
             public void onFrameAvailable(SurfaceTexture surfaceTexture) {
               synchronized (surfaceTextureAvailableFrameLock) {
-                if (surfaceTextureFrameAvailable)
+                if (surfaceTextureFrameAvailable) {
                   Log.w(TAG, "Frame available before processing other frames. dropping frames");
+                  final FrameMetrics metrics = frameMetrics;
+                  if (metrics != null) {
+                    metrics.recordDrop(FrameMetrics.Drop.RENDERER_OVERRUN);
+                  }
+                }
                 surfaceTextureFrameAvailable = true;
                 surfaceTextureAvailableFrameLock.notifyAll();
               }
@@ -20,10 +20,15 @@ import io.flutter.plugins.camera.features.resolution.ResolutionFeature;
 import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * These are all of our available features in the camera. Used in the Camera to access all features
@@ -79,6 +84,75 @@ public class CameraFeatures {
 
   private final Map<String, CameraFeature<?>> featureMap = new HashMap<>();
 
+  /** Features whose value changed since they were last applied to the preview request. */
+  private final Set<CameraFeature<?>> dirtyFeatures = new LinkedHashSet<>();
+
+  /** The value each feature had when it was last applied to the preview request. */
+  private final Map<CameraFeature<?>, Object> appliedValues = new IdentityHashMap<>();
+
+  /**
+   * Marks a feature as changed, so that the next incremental update of the preview request applies
+   * it.
+   *
+   * <p>A feature whose current value equals the value it was last applied with is not marked, which
+   * lets callers skip rebuilding a repeating request that would be identical to the active one.
+   *
+   * @param feature the feature whose value was changed.
+   */
+  public synchronized void markDirty(@NonNull CameraFeature<?> feature) {
+    if (appliedValues.containsKey(feature)
+        && Objects.equals(appliedValues.get(feature), feature.getValue())) {
+      return;
+    }
+    dirtyFeatures.add(feature);
+  }
+
+  /**
+   * Whether any feature was marked by {@link #markDirty(CameraFeature)} and not yet taken.
+   *
+   * @return true if there are changes that have not been applied to the preview request.
+   */
+  public synchronized boolean hasDirtyFeatures() {
+    return !dirtyFeatures.isEmpty();
+  }
+
+  /**
+   * Returns the features marked by {@link #markDirty(CameraFeature)} and records their current
+   * values as applied. The caller is expected to apply every returned feature to the preview
+   * request builder.
+   *
+   * @return the changed features, in the order they were marked.
+   */
+  @NonNull
+  public synchronized List<CameraFeature<?>> takeDirtyFeatures() {
+    List<CameraFeature<?>> features = new ArrayList<>(dirtyFeatures);
+    dirtyFeatures.clear();
+    for (CameraFeature<?> feature : features) {
+      appliedValues.put(feature, feature.getValue());
+    }
+    return features;
+  }
+
+  /**
+   * Records the current value of every feature as applied. Used after all features have been
+   * applied to a freshly created preview request builder.
+   */
+  public synchronized void markAllApplied() {
+    dirtyFeatures.clear();
+    appliedValues.clear();
+    for (CameraFeature<?> feature : featureMap.values()) {
+      appliedValues.put(feature, feature.getValue());
+    }
+  }
+
+  /**
+   * Forgets which values have been applied, so that the next change to any feature is applied
+   * again. Used when the preview request could not be submitted or the session went away.
+   */
+  public synchronized void invalidateAppliedValues() {
+    appliedValues.clear();
+  }
+
   /**
    * Gets a collection of all features that have been set.
    *
@@ -0,0 +1,123 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.fpsrange;
+
+import android.os.Build.VERSION_CODES;
+import android.util.Range;
+import android.util.Size;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import io.flutter.plugins.camera.CameraProperties;
+
+/**
+ * A size and frame rate for a constrained high speed capture session, see {@link
+ * android.hardware.camera2.CameraDevice#createConstrainedHighSpeedCaptureSession}.
+ *
+ * <p>Only fixed frame rate ranges are considered, as recording requires one; the session then
+ * delivers every frame to the recorder and one frame per batch of {@code fps / 30} requests to
+ * the preview.
+ */
+public final class HighSpeedVideoConfig {
+  @NonNull private final Size size;
+  private final int fps;
+
+  HighSpeedVideoConfig(@NonNull Size size, int fps) {
+    this.size = size;
+    this.fps = fps;
+  }
+
+  @NonNull
+  public Size getSize() {
+    return size;
+  }
+
+  public int getFps() {
+    return fps;
+  }
+
+  /**
+   * The fixed range to request as {@link
+   * android.hardware.camera2.CaptureRequest#CONTROL_AE_TARGET_FPS_RANGE}.
+   */
+  @NonNull
+  public Range<Integer> getFpsRange() {
+    return new Range<>(fps, fps);
+  }
+
+  /**
+   * Selects the configuration closest to {@code fps} and {@code preferredSize}.
+   *
+   * <p>The frame rate is the highest supported fixed rate up to {@code fps}, or the lowest one if
+   * all are higher. Among the sizes supporting it, the largest one with no more pixels
+   * than {@code preferredSize} is taken, or the smallest one if all have more.
+   *
+   * @return the configuration, or null if the camera has no fixed high speed frame rate.
+   */
+  @RequiresApi(api = VERSION_CODES.M)
+  @Nullable
+  public static HighSpeedVideoConfig select(
+      @NonNull CameraProperties cameraProperties, int fps, @NonNull Size preferredSize) {
+    final Size[] sizes = cameraProperties.getHighSpeedVideoSizes();
+
+    int selectedFps = -1;
+    for (Size size : sizes) {
+      for (Range<Integer> range : cameraProperties.getHighSpeedVideoFpsRangesFor(size)) {
+        final int rate = range.getUpper();
+        if (range.getLower() != rate) {
+          continue;
+        }
+        final boolean fits = rate <= fps;
+        final boolean selectedFits = selectedFps != -1 && selectedFps <= fps;
+        if (selectedFps == -1
+            || (fits && (!selectedFits || rate > selectedFps))
+            || (!fits && !selectedFits && rate < selectedFps)) {
+          selectedFps = rate;
+        }
+      }
+    }
+    if (selectedFps == -1) {
+      return null;
+    }
+
+    final long preferredArea = area(preferredSize);
+    Size selected = null;
+    for (Size size : sizes) {
+      if (!supportsFixedRate(cameraProperties, size, selectedFps)) {
+        continue;
+      }
+      if (selected == null) {
+        selected = size;
+        continue;
+      }
+      final boolean fits = fits(size, preferredSize);
+      final boolean selectedFits = fits(selected, preferredSize);
+      if ((fits && (!selectedFits || area(size) > area(selected)))
+          || (!fits && !selectedFits && area(size) < area(selected))) {
+        selected = size;
+      }
+    }
+    return new HighSpeedVideoConfig(selected, selectedFps);
+  }
+
+  @RequiresApi(api = VERSION_CODES.M)
+  private static boolean supportsFixedRate(
+      CameraProperties cameraProperties, Size size, int fps) {
+    for (Range<Integer> range : cameraProperties.getHighSpeedVideoFpsRangesFor(size)) {
+      if (range.getLower() == fps && range.getUpper() == fps) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean fits(Size size, Size bounds) {
+    return area(size) <= area(bounds);
+  }
+
+  private static long area(Size size) {
+    return (long) size.getWidth() * size.getHeight();
+  }
+}
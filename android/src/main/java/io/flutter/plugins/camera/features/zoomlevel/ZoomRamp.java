@@ -0,0 +1,72 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.zoomlevel;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Describes a timed transition between two zoom levels.
+ *
+ * <p>The zoom level is interpolated geometrically, so that every step changes the field of view by
+ * the same factor, which looks uniform to the eye. The progress itself follows a {@link
+ * ZoomRampCurve}.
+ */
+public final class ZoomRamp {
+  private final float from;
+  private final float to;
+  private final long startNs;
+  private final long durationNs;
+  @NonNull private final ZoomRampCurve curve;
+
+  /**
+   * Creates a new ramp.
+   *
+   * @param from the zoom level at the start of the ramp.
+   * @param to the target zoom level.
+   * @param startNs the start time, in the {@link android.os.SystemClock#elapsedRealtimeNanos()}
+   *     time base.
+   * @param durationNs the duration of the ramp.
+   * @param curve the easing applied to the progress.
+   */
+  public ZoomRamp(float from, float to, long startNs, long durationNs, @NonNull ZoomRampCurve curve) {
+    this.from = from;
+    this.to = to;
+    this.startNs = startNs;
+    this.durationNs = Math.max(0, durationNs);
+    this.curve = curve;
+  }
+
+  /** Returns the target zoom level. */
+  public float getTarget() {
+    return to;
+  }
+
+  /**
+   * Whether the ramp has reached its target at the given time.
+   *
+   * @param nowNs the current time.
+   */
+  public boolean isFinishedAt(long nowNs) {
+    return nowNs - startNs >= durationNs;
+  }
+
+  /**
+   * Computes the zoom level at the given time.
+   *
+   * @param nowNs the current time.
+   * @return the interpolated zoom level; the target once the ramp is finished.
+   */
+  public float valueAt(long nowNs) {
+    if (isFinishedAt(nowNs)) {
+      return to;
+    }
+    float progress = Math.max(0f, (float) (nowNs - startNs) / durationNs);
+    float eased = curve.transform(progress);
+    if (from > 0f && to > 0f) {
+      return (float) (from * Math.pow(to / from, eased));
+    }
+    return from + (to - from) * eased;
+  }
+}
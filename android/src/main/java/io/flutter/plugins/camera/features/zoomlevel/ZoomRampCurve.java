@@ -0,0 +1,62 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.zoomlevel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+// Mirrors ZoomRampCurve in zoom_ramp_curve.dart
+public enum ZoomRampCurve {
+  linear("linear"),
+  easeIn("easeIn"),
+  easeOut("easeOut"),
+  easeInOut("easeInOut");
+
+  private final String strValue;
+
+  ZoomRampCurve(String strValue) {
+    this.strValue = strValue;
+  }
+
+  @Nullable
+  public static ZoomRampCurve getValueForString(@NonNull String curveStr) {
+    for (ZoomRampCurve value : values()) {
+      if (value.strValue.equals(curveStr)) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Maps linear progress to eased progress.
+   *
+   * @param t progress in the range [0, 1].
+   * @return the eased progress in the range [0, 1].
+   */
+  public float transform(float t) {
+    switch (this) {
+      case easeIn:
+        return t * t * t;
+      case easeOut:
+        float inverse = 1f - t;
+        return 1f - inverse * inverse * inverse;
+      case easeInOut:
+        if (t < 0.5f) {
+          return 4f * t * t * t;
+        }
+        float tail = -2f * t + 2f;
+        return 1f - tail * tail * tail / 2f;
+      case linear:
+      default:
+        return t;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return strValue;
+  }
+}
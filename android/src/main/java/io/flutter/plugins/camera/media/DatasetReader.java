@@ -0,0 +1,117 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads frames of a recording made by {@link DatasetRecorder} by index, reading one index entry
+ * and one frame per call.
+ */
+public final class DatasetReader implements AutoCloseable {
+  /** Metadata of a recorded frame. */
+  public static final class Entry {
+    public final long sensorTimestampNs;
+    public final long exposureTimeNs;
+    public final int segment;
+    public final int offset;
+    public final int length;
+    public final int width;
+    public final int height;
+    public final int sensitivity;
+    @NonNull public final DatasetRecorder.Format format;
+    public final int rowStride;
+
+    Entry(ByteBuffer entry) {
+      sensorTimestampNs = entry.getLong(DatasetRecorder.ENTRY_SENSOR_TIMESTAMP);
+      exposureTimeNs = entry.getLong(DatasetRecorder.ENTRY_EXPOSURE_TIME);
+      segment = entry.getInt(DatasetRecorder.ENTRY_SEGMENT);
+      offset = entry.getInt(DatasetRecorder.ENTRY_OFFSET);
+      length = entry.getInt(DatasetRecorder.ENTRY_LENGTH);
+      width = entry.getInt(DatasetRecorder.ENTRY_WIDTH);
+      height = entry.getInt(DatasetRecorder.ENTRY_HEIGHT);
+      sensitivity = entry.getInt(DatasetRecorder.ENTRY_SENSITIVITY);
+      format = DatasetRecorder.Format.fromCode(entry.getInt(DatasetRecorder.ENTRY_FORMAT));
+      rowStride = entry.getInt(DatasetRecorder.ENTRY_ROW_STRIDE);
+    }
+  }
+
+  private final File directory;
+  private final RandomAccessFile index;
+  private final int entrySize;
+  private final int frameCount;
+  private final ByteBuffer entry;
+
+  public DatasetReader(@NonNull File directory) throws IOException {
+    this.directory = directory;
+    index = new RandomAccessFile(new File(directory, DatasetRecorder.INDEX_FILE), "r");
+    try {
+      final ByteBuffer header =
+          ByteBuffer.allocate(DatasetRecorder.INDEX_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(index.getChannel(), header, 0);
+      if (header.getInt(DatasetRecorder.INDEX_MAGIC_OFFSET) != DatasetRecorder.INDEX_MAGIC) {
+        throw new IOException("Not a dataset index");
+      }
+      entrySize = header.getInt(DatasetRecorder.INDEX_ENTRY_SIZE);
+      if (entrySize < DatasetRecorder.ENTRY_SIZE) {
+        throw new IOException("Unsupported index entry size " + entrySize);
+      }
+      frameCount = (int) ((index.length() - DatasetRecorder.INDEX_HEADER_SIZE) / entrySize);
+    } catch (IOException e) {
+      index.close();
+      throw e;
+    }
+    entry = ByteBuffer.allocate(entrySize).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  public int getFrameCount() {
+    return frameCount;
+  }
+
+  /** Reads the metadata of frame {@code i}. */
+  @NonNull
+  public Entry getEntry(int i) throws IOException {
+    if (i < 0 || i >= frameCount) {
+      throw new IndexOutOfBoundsException("Frame " + i + " of " + frameCount);
+    }
+    entry.clear();
+    readFully(index.getChannel(), entry, DatasetRecorder.INDEX_HEADER_SIZE + (long) i * entrySize);
+    return new Entry(entry);
+  }
+
+  /** Reads the pixels of frame {@code i}. */
+  @NonNull
+  public byte[] readFrame(int i) throws IOException {
+    final Entry e = getEntry(i);
+    final byte[] pixels = new byte[e.length];
+    final File file = new File(directory, DatasetRecorder.segmentName(e.segment));
+    try (RandomAccessFile segment = new RandomAccessFile(file, "r")) {
+      readFully(segment.getChannel(), ByteBuffer.wrap(pixels), e.offset);
+    }
+    return pixels;
+  }
+
+  @Override
+  public void close() throws IOException {
+    index.close();
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+      position += read;
+    }
+  }
+}
@@ -0,0 +1,528 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Records converted frames and their metadata to local storage at the sensor frame rate.
+ *
+ * <p>Pixels are appended back to back to segment files of a fixed size, {@code
+ * segment-00000.bin} and on, which are preallocated and written through a memory mapping, so a
+ * frame costs one sequential copy and no system call. A segment is truncated to its used length
+ * once the next frame does not fit. Frames are described by {@code index.bin}: an {@link
+ * #INDEX_HEADER_SIZE} byte header of {@code INDEX_*} fields followed by one {@link #ENTRY_SIZE}
+ * byte entry of {@code ENTRY_*} fields per frame, all little endian, so frame {@code i} is found
+ * by reading a single entry at {@code INDEX_HEADER_SIZE + i * ENTRY_SIZE}. Entries are buffered
+ * and written in batches. See {@link DatasetReader}.
+ *
+ * <p>Methods are synchronized, so the recorder can be closed from another thread than the one
+ * recording. A directory must only be used by one recorder at a time: the next one replaces the
+ * index and deletes the segments.
+ */
+public final class DatasetRecorder {
+  /** The pixel layout of recorded frames. */
+  public enum Format {
+    /** NV21, {@code width * height * 3 / 2} bytes. */
+    NV21(1),
+    /** The luma plane only, {@code width * height} bytes. */
+    Y_ONLY(2),
+    /** Packed 8-bit RGB, {@code width * height * 3} bytes. */
+    RGB(3);
+
+    public final int code;
+
+    Format(int code) {
+      this.code = code;
+    }
+
+    /** The size of a {@code width} x {@code height} frame in bytes. */
+    public int frameSize(int width, int height) {
+      switch (this) {
+        case Y_ONLY:
+          return width * height;
+        case RGB:
+          return width * height * 3;
+        default:
+          return width * height * 3 / 2;
+      }
+    }
+
+    @NonNull
+    public static Format fromCode(int code) {
+      for (Format format : values()) {
+        if (format.code == code) {
+          return format;
+        }
+      }
+      throw new IllegalArgumentException("Unknown dataset format " + code);
+    }
+  }
+
+  /** "DSIX" in ASCII. */
+  public static final int INDEX_MAGIC = 0x58495344;
+
+  public static final int INDEX_VERSION = 1;
+  public static final int INDEX_HEADER_SIZE = 16;
+  public static final int ENTRY_SIZE = 48;
+
+  public static final int INDEX_MAGIC_OFFSET = 0;
+  public static final int INDEX_VERSION_OFFSET = 4;
+  public static final int INDEX_ENTRY_SIZE = 8;
+  public static final int INDEX_FORMAT = 12;
+
+  public static final int ENTRY_SENSOR_TIMESTAMP = 0;
+  public static final int ENTRY_EXPOSURE_TIME = 8;
+  public static final int ENTRY_SEGMENT = 16;
+  public static final int ENTRY_OFFSET = 20;
+  public static final int ENTRY_LENGTH = 24;
+  public static final int ENTRY_WIDTH = 28;
+  public static final int ENTRY_HEIGHT = 32;
+  public static final int ENTRY_SENSITIVITY = 36;
+  public static final int ENTRY_FORMAT = 40;
+  public static final int ENTRY_ROW_STRIDE = 44;
+
+  public static final String INDEX_FILE = "index.bin";
+
+  /** Segment size used when none is given, a few seconds of 1080p NV21. */
+  public static final long DEFAULT_SEGMENT_BYTES = 256L * 1024 * 1024;
+
+  /** Number of index entries buffered before they are written. */
+  private static final int INDEX_BATCH = 256;
+
+  /** Number of capture results kept to be matched with frames by sensor timestamp. */
+  private static final int METADATA_HISTORY = 16;
+
+  private final File directory;
+  private final Format format;
+  private final long segmentBytes;
+  private final FileOutputStream indexStream;
+  private final FileChannel indexChannel;
+  private final ByteBuffer pendingEntries =
+      ByteBuffer.allocateDirect(INDEX_BATCH * ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+  @Nullable private MappedByteBuffer segment;
+  private int segmentIndex = -1;
+  private long bytesWritten;
+  private int frameCount;
+  private boolean closed;
+
+  // Conversion scratch, reused across frames of the same size.
+  @Nullable private byte[] chroma;
+  @Nullable private byte[] nv21;
+  @Nullable private TensorConverter rgbConverter;
+
+  // Capture metadata by sensor timestamp. Guarded by its own lock rather than the recorder's, so
+  // capture callbacks never wait for a frame being written.
+  private final Object metadataLock = new Object();
+  private final long[] metadataTimestamps = new long[METADATA_HISTORY];
+  private final long[] metadataExposureTimes = new long[METADATA_HISTORY];
+  private final int[] metadataSensitivities = new int[METADATA_HISTORY];
+  private int nextMetadata;
+  private long newestMetadataTimestamp = Long.MIN_VALUE;
+
+  /**
+   * Creates {@code directory} if needed and starts a recording in it, replacing an earlier one.
+   * The segments of the earlier recording are deleted, so none outlive the new index.
+   *
+   * @param segmentBytes the size of a segment file, at most 2 GB; frames larger than this are not
+   *     recorded.
+   */
+  public DatasetRecorder(@NonNull File directory, @NonNull Format format, long segmentBytes)
+      throws IOException {
+    if (segmentBytes < 1 || segmentBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Segment size must be between 1 byte and 2 GB");
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    this.directory = directory;
+    this.format = format;
+    this.segmentBytes = segmentBytes;
+    Arrays.fill(metadataTimestamps, Long.MIN_VALUE);
+    deleteSegments(directory);
+    indexStream = new FileOutputStream(new File(directory, INDEX_FILE));
+    indexChannel = indexStream.getChannel();
+    final ByteBuffer header =
+        ByteBuffer.allocate(INDEX_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(INDEX_MAGIC_OFFSET, INDEX_MAGIC);
+    header.putInt(INDEX_VERSION_OFFSET, INDEX_VERSION);
+    header.putInt(INDEX_ENTRY_SIZE, ENTRY_SIZE);
+    header.putInt(INDEX_FORMAT, format.code);
+    writeFully(indexChannel, header);
+  }
+
+  /** The name of segment {@code index} in the recording directory. */
+  @NonNull
+  public static String segmentName(int index) {
+    return String.format(Locale.US, "segment-%05d.bin", index);
+  }
+
+  @NonNull
+  public File getDirectory() {
+    return directory;
+  }
+
+  @NonNull
+  public Format getFormat() {
+    return format;
+  }
+
+  public synchronized int getFrameCount() {
+    return frameCount;
+  }
+
+  /** Number of pixel bytes recorded so far. */
+  public synchronized long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Keeps the exposure time and sensitivity of the capture result with {@code sensorTimestampNs},
+   * for the frame with the same timestamp passed to {@link #record(FrameImage)}. May be called
+   * from any thread.
+   */
+  public void recordCaptureMetadata(long sensorTimestampNs, long exposureTimeNs, int sensitivity) {
+    synchronized (metadataLock) {
+      metadataTimestamps[nextMetadata] = sensorTimestampNs;
+      metadataExposureTimes[nextMetadata] = exposureTimeNs;
+      metadataSensitivities[nextMetadata] = sensitivity;
+      nextMetadata = (nextMetadata + 1) % METADATA_HISTORY;
+      newestMetadataTimestamp = Math.max(newestMetadataTimestamp, sensorTimestampNs);
+      metadataLock.notifyAll();
+    }
+  }
+
+  /**
+   * Waits up to {@code timeoutMs} for the capture metadata of the frame with {@code timestampNs},
+   * while it may still arrive. Results arrive in sensor timestamp order, so there is nothing to
+   * wait for once a later one was recorded, or if none ever was.
+   */
+  public void awaitCaptureMetadata(long timestampNs, long timeoutMs) throws InterruptedException {
+    final long deadlineNs = System.nanoTime() + timeoutMs * 1_000_000L;
+    synchronized (metadataLock) {
+      while (newestMetadataTimestamp != Long.MIN_VALUE && newestMetadataTimestamp < timestampNs) {
+        final long remainingMs = (deadlineNs - System.nanoTime()) / 1_000_000L;
+        if (remainingMs <= 0) {
+          return;
+        }
+        metadataLock.wait(remainingMs);
+      }
+    }
+  }
+
+  /**
+   * Appends a YUV_420_888 frame with the metadata passed to {@link #recordCaptureMetadata} for its
+   * sensor timestamp. The exposure time and sensitivity are recorded as 0 if there is none, rather
+   * than taken from a neighbouring frame. The image is not closed.
+   *
+   * @return whether the frame was recorded, see {@link #record(FrameImage, long, int)}.
+   */
+  public boolean record(@NonNull FrameImage image) throws IOException {
+    final long timestampNs = image.getTimestamp();
+    long exposureTimeNs = 0;
+    int sensitivity = 0;
+    synchronized (metadataLock) {
+      final int i = metadataIndex(timestampNs);
+      if (i >= 0) {
+        exposureTimeNs = metadataExposureTimes[i];
+        sensitivity = metadataSensitivities[i];
+      }
+    }
+    return record(image, exposureTimeNs, sensitivity);
+  }
+
+  /**
+   * Appends an NV21 frame, or only its luma plane for {@link Format#Y_ONLY}, with the metadata
+   * passed to {@link #recordCaptureMetadata} for {@code timestampNs}, see {@link
+   * #record(FrameImage)}.
+   *
+   * @param data NV21, or luma only for {@link Format#Y_ONLY}, without row padding.
+   * @return whether the frame was recorded, see {@link #record(FrameImage, long, int)}.
+   */
+  public boolean record(@NonNull byte[] data, int width, int height, long timestampNs)
+      throws IOException {
+    long exposureTimeNs = 0;
+    int sensitivity = 0;
+    synchronized (metadataLock) {
+      final int i = metadataIndex(timestampNs);
+      if (i >= 0) {
+        exposureTimeNs = metadataExposureTimes[i];
+        sensitivity = metadataSensitivities[i];
+      }
+    }
+    synchronized (this) {
+      final int length = format.frameSize(width, height);
+      if (!reserve(length)) {
+        return false;
+      }
+      final MappedByteBuffer out = segment;
+      final int offset = out.position();
+      if (format == Format.RGB) {
+        writeRgb(data, width, height, out);
+      } else {
+        out.put(data, 0, length);
+      }
+      addEntry(timestampNs, exposureTimeNs, sensitivity, offset, length, width, height);
+      return true;
+    }
+  }
+
+  /**
+   * Appends a YUV_420_888 frame. The image is not closed.
+   *
+   * @param exposureTimeNs the exposure time of the frame, or 0 if unknown.
+   * @param sensitivity the ISO sensitivity of the frame, or 0 if unknown.
+   * @return whether the frame was recorded; frames larger than a segment and frames arriving after
+   *     {@link #close} are not.
+   */
+  public synchronized boolean record(
+      @NonNull FrameImage image, long exposureTimeNs, int sensitivity) throws IOException {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final int length = format.frameSize(width, height);
+    if (!reserve(length)) {
+      return false;
+    }
+    final MappedByteBuffer out = segment;
+    final int offset = out.position();
+    switch (format) {
+      case Y_ONLY:
+        writeLuma(image, out);
+        break;
+      case RGB:
+        writeRgb(image, out);
+        break;
+      default:
+        writeLuma(image, out);
+        writeChroma(image, out);
+    }
+    // Frames are stored without padding, whatever the strides of the image.
+    out.position(offset + length);
+    addEntry(image.getTimestamp(), exposureTimeNs, sensitivity, offset, length, width, height);
+    return true;
+  }
+
+  /** Makes room for a frame of {@code length} bytes, returning false if it cannot be recorded. */
+  private boolean reserve(int length) throws IOException {
+    if (closed || length > segmentBytes) {
+      return false;
+    }
+    if (segment == null || segment.remaining() < length) {
+      nextSegment();
+    }
+    return true;
+  }
+
+  private void addEntry(
+      long timestampNs,
+      long exposureTimeNs,
+      int sensitivity,
+      int offset,
+      int length,
+      int width,
+      int height)
+      throws IOException {
+    if (!pendingEntries.hasRemaining()) {
+      flushIndex();
+    }
+    final int e = pendingEntries.position();
+    pendingEntries.putLong(e + ENTRY_SENSOR_TIMESTAMP, timestampNs);
+    pendingEntries.putLong(e + ENTRY_EXPOSURE_TIME, exposureTimeNs);
+    pendingEntries.putInt(e + ENTRY_SEGMENT, segmentIndex);
+    pendingEntries.putInt(e + ENTRY_OFFSET, offset);
+    pendingEntries.putInt(e + ENTRY_LENGTH, length);
+    pendingEntries.putInt(e + ENTRY_WIDTH, width);
+    pendingEntries.putInt(e + ENTRY_HEIGHT, height);
+    pendingEntries.putInt(e + ENTRY_SENSITIVITY, sensitivity);
+    pendingEntries.putInt(e + ENTRY_FORMAT, format.code);
+    pendingEntries.putInt(e + ENTRY_ROW_STRIDE, format == Format.RGB ? width * 3 : width);
+    pendingEntries.position(e + ENTRY_SIZE);
+
+    bytesWritten += length;
+    frameCount++;
+  }
+
+  private int metadataIndex(long timestampNs) {
+    for (int i = 0; i < METADATA_HISTORY; i++) {
+      if (metadataTimestamps[i] == timestampNs) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Writes the pending index entries, trims the last segment and ends the recording. */
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      finishSegment();
+      flushIndex();
+      indexChannel.force(false);
+    } finally {
+      indexStream.close();
+    }
+  }
+
+  private void nextSegment() throws IOException {
+    finishSegment();
+    segmentIndex++;
+    final File file = new File(directory, segmentName(segmentIndex));
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(segmentBytes);
+      try {
+        // Reserves the blocks up front, so writing a page never waits for the file system to
+        // allocate it. Without it the sparse file still works, only slower.
+        Os.posix_fallocate(raf.getFD(), 0, segmentBytes);
+      } catch (ErrnoException e) {
+        // Not supported by the file system.
+      }
+      // The mapping stays valid after the file is closed.
+      segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+  }
+
+  private void finishSegment() throws IOException {
+    final MappedByteBuffer finished = segment;
+    if (finished == null) {
+      return;
+    }
+    segment = null;
+    // Entries only point into segments that are complete on disk.
+    finished.force();
+    final int length = finished.position();
+    // Unmapped before the file is truncated, so no mapped page lies beyond its end.
+    MappedBuffers.unmap(finished);
+    final File file = new File(directory, segmentName(segmentIndex));
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(length);
+    }
+    flushIndex();
+  }
+
+  private static void deleteSegments(File directory) throws IOException {
+    final File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      final String name = file.getName();
+      if (name.startsWith("segment-") && name.endsWith(".bin") && !file.delete()) {
+        throw new IOException("Could not delete " + file);
+      }
+    }
+  }
+
+  private void flushIndex() throws IOException {
+    pendingEntries.flip();
+    writeFully(indexChannel, pendingEntries);
+    pendingEntries.clear();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /** Copies the luma rows of {@code image} to {@code out}, without row padding. */
+  static void writeLuma(FrameImage image, ByteBuffer out) {
+    final FrameImage.Plane plane = image.getPlanes()[0];
+    final ByteBuffer luma = plane.getBuffer().duplicate();
+    final int rowStride = plane.getRowStride();
+    final int pixelStride = plane.getPixelStride();
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final int limit = luma.limit();
+    for (int row = 0; row < height; row++) {
+      final int start = row * rowStride;
+      if (pixelStride == 1 && start + width <= limit) {
+        luma.limit(start + width).position(start);
+        out.put(luma);
+        luma.limit(limit);
+        continue;
+      }
+      for (int col = 0; col < width; col++) {
+        final int i = start + col * pixelStride;
+        out.put(i < limit ? luma.get(i) : 0);
+      }
+    }
+  }
+
+  /** Writes the VU pairs of {@code image} to {@code out}. */
+  private void writeChroma(FrameImage image, ByteBuffer out) {
+    final int size = image.getWidth() * image.getHeight() / 2;
+    interleaveChroma(image, size);
+    out.put(chroma, 0, size);
+  }
+
+  private void interleaveChroma(FrameImage image, int size) {
+    if (chroma == null || chroma.length < size) {
+      chroma = new byte[size];
+    }
+    final FrameImage.Plane[] planes = image.getPlanes();
+    ChromaInterleaver.interleavePlanes(
+        planes[2].getBuffer(),
+        planes[2].getRowStride(),
+        planes[2].getPixelStride(),
+        planes[1].getBuffer(),
+        planes[1].getRowStride(),
+        planes[1].getPixelStride(),
+        image.getWidth() / 2,
+        0,
+        image.getHeight() / 2,
+        chroma,
+        0);
+  }
+
+  private void writeRgb(FrameImage image, ByteBuffer out) {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final int lumaSize = width * height;
+    final int size = Format.NV21.frameSize(width, height);
+    if (nv21 == null || nv21.length < size) {
+      nv21 = new byte[size];
+    }
+    writeLuma(image, ByteBuffer.wrap(nv21, 0, lumaSize));
+    interleaveChroma(image, size - lumaSize);
+    System.arraycopy(chroma, 0, nv21, lumaSize, size - lumaSize);
+    writeRgb(nv21, width, height, out);
+  }
+
+  private void writeRgb(byte[] nv21, int width, int height, ByteBuffer out) {
+    if (rgbConverter == null
+        || rgbConverter.getWidth() != width
+        || rgbConverter.getHeight() != height) {
+      rgbConverter =
+          new TensorConverter(
+              width,
+              height,
+              false,
+              TensorConverter.Fit.LETTERBOX,
+              0,
+              new float[] {0, 0, 0},
+              new float[] {1, 1, 1});
+    }
+    final ByteBuffer rgb = rgbConverter.convert(nv21, width, height);
+    out.put(rgb);
+    rgbConverter.recycle(rgb);
+  }
+}
@@ -0,0 +1,182 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records frames with a {@link DatasetRecorder} on a writer thread of its own, so the thread
+ * receiving camera frames only copies them.
+ *
+ * <p>Frames are copied without row padding, as NV21 or as luma only for {@link
+ * DatasetRecorder.Format#Y_ONLY}, into one of {@code queueDepth} buffers handed to the writer. A
+ * frame arriving while every buffer waits for the writer is dropped and counted, see {@link
+ * #getDroppedFrameCount()}. Holding up the camera thread instead would drop frames at the image
+ * reader without notice. The writer waits briefly for the capture result of each frame, so the
+ * index gets its exposure time and sensitivity.
+ */
+public final class DatasetWriter {
+  /** Buffers handed to the writer when none is given, about 130 ms at 30 fps. */
+  public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+  /** Longest time the writer waits for the capture result of a frame. */
+  private static final long METADATA_TIMEOUT_MS = 100;
+
+  private static final class Frame {
+    byte[] data;
+    int width;
+    int height;
+    long timestampNs;
+  }
+
+  /** Queued after the last frame to stop the writer. */
+  private static final Frame END = new Frame();
+
+  private final DatasetRecorder recorder;
+  private final BlockingQueue<Frame> free;
+  private final BlockingQueue<Frame> pending;
+  private final Thread thread;
+  private final AtomicInteger droppedFrames = new AtomicInteger();
+  private volatile boolean closed;
+  @Nullable private volatile IOException failure;
+
+  /**
+   * Starts the writer thread.
+   *
+   * @param queueDepth the number of frames that may wait for the writer, at least 1.
+   */
+  public DatasetWriter(@NonNull DatasetRecorder recorder, int queueDepth) {
+    if (queueDepth < 1) {
+      throw new IllegalArgumentException("Queue depth must be at least 1");
+    }
+    this.recorder = recorder;
+    free = new ArrayBlockingQueue<>(queueDepth);
+    // Room for every frame and END.
+    pending = new ArrayBlockingQueue<>(queueDepth + 1);
+    for (int i = 0; i < queueDepth; i++) {
+      free.add(new Frame());
+    }
+    thread = new Thread(this::run, "DatasetWriter");
+    thread.start();
+  }
+
+  @NonNull
+  public DatasetRecorder getRecorder() {
+    return recorder;
+  }
+
+  /** See {@link DatasetRecorder#recordCaptureMetadata}. May be called from any thread. */
+  public void recordCaptureMetadata(long sensorTimestampNs, long exposureTimeNs, int sensitivity) {
+    recorder.recordCaptureMetadata(sensorTimestampNs, exposureTimeNs, sensitivity);
+  }
+
+  /**
+   * Copies a YUV_420_888 frame for the writer. The image is not closed.
+   *
+   * @return false if the frame was dropped because every buffer waits for the writer, or because
+   *     the writer was closed.
+   */
+  public boolean offer(@NonNull FrameImage image) {
+    if (closed) {
+      return false;
+    }
+    final Frame frame = free.poll();
+    if (frame == null) {
+      droppedFrames.incrementAndGet();
+      return false;
+    }
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final int lumaSize = width * height;
+    final boolean lumaOnly = recorder.getFormat() == DatasetRecorder.Format.Y_ONLY;
+    final int size = lumaOnly ? lumaSize : DatasetRecorder.Format.NV21.frameSize(width, height);
+    if (frame.data == null || frame.data.length != size) {
+      frame.data = new byte[size];
+    }
+    DatasetRecorder.writeLuma(image, ByteBuffer.wrap(frame.data, 0, lumaSize));
+    if (!lumaOnly) {
+      final FrameImage.Plane[] planes = image.getPlanes();
+      ChromaInterleaver.interleavePlanes(
+          planes[2].getBuffer(),
+          planes[2].getRowStride(),
+          planes[2].getPixelStride(),
+          planes[1].getBuffer(),
+          planes[1].getRowStride(),
+          planes[1].getPixelStride(),
+          width / 2,
+          0,
+          height / 2,
+          frame.data,
+          lumaSize);
+    }
+    frame.width = width;
+    frame.height = height;
+    frame.timestampNs = image.getTimestamp();
+    pending.add(frame);
+    return true;
+  }
+
+  /** Number of frames dropped by {@link #offer} because the writer was behind. */
+  public int getDroppedFrameCount() {
+    return droppedFrames.get();
+  }
+
+  /** Number of frames recorded so far. */
+  public int getFrameCount() {
+    return recorder.getFrameCount();
+  }
+
+  /**
+   * Writes the frames still waiting, then closes the recorder. Blocks until done; may be called
+   * from any thread and more than once.
+   *
+   * @throws IOException if writing a frame or closing the recorder failed.
+   */
+  public synchronized void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      pending.add(END);
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    recorder.close();
+    final IOException error = failure;
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        final Frame frame = pending.take();
+        if (frame == END) {
+          return;
+        }
+        // Frames after a failure are discarded, the error is reported by close().
+        if (failure == null) {
+          try {
+            recorder.awaitCaptureMetadata(frame.timestampNs, METADATA_TIMEOUT_MS);
+            recorder.record(frame.data, frame.width, frame.height, frame.timestampNs);
+          } catch (IOException e) {
+            failure = e;
+          }
+        }
+        free.add(frame);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
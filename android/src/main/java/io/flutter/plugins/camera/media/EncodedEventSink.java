@@ -0,0 +1,138 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.Handler;
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An event sink that encodes events on the calling thread and only sends the encoded envelope on
+ * the main thread.
+ *
+ * <p>Flutter requires platform messages to be sent from the main thread, and the sink handed to a
+ * {@link EventChannel.StreamHandler} encodes on the thread sending the event, so posting a
+ * several-MB frame map to the main thread used to encode it there. This sink produces the same
+ * envelopes as that sink with {@link StandardMethodCodec}, so Dart sees no difference.
+ *
+ * <p>Frames sent with {@link #sendFrame} wait in a single slot: a frame arriving while the previous
+ * one still waits for the main thread replaces it, so a lagging main thread never queues more than
+ * one encoded frame.
+ */
+public final class EncodedEventSink implements EventChannel.EventSink {
+  private final BinaryMessenger messenger;
+  private final String channelName;
+  private final Handler mainHandler;
+  @Nullable private final FrameMetrics metrics;
+  private final AtomicReference<PendingFrame> pendingFrame = new AtomicReference<>();
+  private volatile boolean closed = false;
+
+  private static final class PendingFrame {
+    final ByteBuffer envelope;
+    final long convertedNs;
+
+    PendingFrame(ByteBuffer envelope, long convertedNs) {
+      this.envelope = envelope;
+      this.convertedNs = convertedNs;
+    }
+  }
+
+  /**
+   * @param messenger the messenger of the event channel.
+   * @param channelName the name of the event channel.
+   * @param mainHandler a handler of the main thread.
+   * @param metrics the metrics recording frame delivery, or null.
+   */
+  public EncodedEventSink(
+      @NonNull BinaryMessenger messenger,
+      @NonNull String channelName,
+      @NonNull Handler mainHandler,
+      @Nullable FrameMetrics metrics) {
+    this.messenger = messenger;
+    this.channelName = channelName;
+    this.mainHandler = mainHandler;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Encodes a frame and sends it on the main thread, replacing a frame that is still waiting. The
+   * event may be modified or reused as soon as this returns.
+   *
+   * @param convertedNs the {@link FrameMetrics#now()} time the frame finished converting.
+   */
+  @AnyThread
+  public void sendFrame(@NonNull Object event, long convertedNs) {
+    if (closed) {
+      return;
+    }
+    final PendingFrame frame =
+        new PendingFrame(StandardMethodCodec.INSTANCE.encodeSuccessEnvelope(event), convertedNs);
+    if (pendingFrame.getAndSet(frame) != null) {
+      // The task posted for the replaced frame sends this one instead.
+      if (metrics != null) {
+        metrics.recordDrop(FrameMetrics.Drop.SUPERSEDED_BEFORE_DELIVERY);
+      }
+      return;
+    }
+    mainHandler.post(this::sendPendingFrame);
+  }
+
+  @Override
+  @AnyThread
+  public void success(@Nullable Object event) {
+    send(StandardMethodCodec.INSTANCE.encodeSuccessEnvelope(event));
+  }
+
+  @Override
+  @AnyThread
+  public void error(
+      @NonNull String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+    send(StandardMethodCodec.INSTANCE.encodeErrorEnvelope(errorCode, errorMessage, errorDetails));
+  }
+
+  @Override
+  @AnyThread
+  public void endOfStream() {
+    send(null);
+  }
+
+  /** Stops sending events, including frames that are still waiting for the main thread. */
+  @AnyThread
+  public void close() {
+    closed = true;
+    pendingFrame.set(null);
+  }
+
+  private void send(@Nullable ByteBuffer envelope) {
+    if (closed) {
+      return;
+    }
+    mainHandler.post(
+        () -> {
+          if (!closed) {
+            messenger.send(channelName, envelope);
+          }
+        });
+  }
+
+  private void sendPendingFrame() {
+    final PendingFrame frame = pendingFrame.getAndSet(null);
+    if (frame == null || closed) {
+      return;
+    }
+    final long startNs = FrameMetrics.now();
+    messenger.send(channelName, frame.envelope);
+    if (metrics != null) {
+      metrics.recordLatency(FrameMetrics.Stage.MAIN_THREAD_SEND, startNs, FrameMetrics.now());
+      metrics.recordDelivered(frame.convertedNs);
+    }
+  }
+}
@@ -2,7 +2,6 @@
 package io.flutter.plugins.camera.media
 
 import android.graphics.ImageFormat
-import android.media.Image
 import io.github.crow_misia.libyuv.I420Buffer
 import io.github.crow_misia.libyuv.Nv21Buffer
 import io.github.crow_misia.libyuv.RotateMode
@@ -13,13 +12,14 @@ data class Nv21Result(val data: ByteArray, val width: Int, val height: Int)
 
 /**
  * Image(YUV_420_888) -> I420 (manual copy) -> NV21 (libyuv convertTo).
- * Returns NV21 data and dimensions.
+ * Returns NV21 data and dimensions. If [lumaStats] is given, it is filled
+ * with the statistics of the frame during the luma copy.
  */
 @JvmOverloads
-fun imageToNv21(image: Image, reuse: ByteArray? = null): Nv21Result {
+fun imageToNv21(image: FrameImage, reuse: ByteArray? = null, lumaStats: LumaStats? = null): Nv21Result {
     require(image.format == ImageFormat.YUV_420_888) { "Image must be YUV_420_888" }
 
-    val i420 = imageToI420(image) // manual copy with stride/pixelStride handling
+    val i420 = imageToI420(image, lumaStats) // manual copy with stride/pixelStride handling
     val w = i420.width
     val h = i420.height
     val need = nv21Size(w, h)
@@ -42,20 +42,27 @@ fun imageToNv21(image: Image, reuse: ByteArray? = null): Nv21Result {
 /**
  * Manual conversion YUV_420_888 -> I420Buffer without extension helpers.
  * Handles arbitrary rowStride / pixelStride and pads tail bytes when needed.
+ * Writes into [reuse] if it has the size of the image, else into a new buffer.
  */
-fun imageToI420(image: Image): I420Buffer {
+@JvmOverloads
+fun imageToI420(image: FrameImage, lumaStats: LumaStats? = null, reuse: I420Buffer? = null): I420Buffer {
     val w = image.width
     val h = image.height
     val y = image.planes[0]
     val u = image.planes[1] // Cb
     val v = image.planes[2] // Cr
 
-    val dst = I420Buffer.allocate(w, h)
+    val dst = if (reuse != null && reuse.width == w && reuse.height == h) {
+        reuse
+    } else {
+        I420Buffer.allocate(w, h)
+    }
 
+    lumaStats?.begin(w, h)
     copyPlane(
         src = y.buffer, srcRowStride = y.rowStride, srcPixelStride = y.pixelStride,
         dst = dst.planeY.buffer, dstRowStride = dst.planeY.rowStride.value,
-        width = w, height = h, pad = 0
+        width = w, height = h, pad = 0, stats = lumaStats
     )
     copyPlane(
         src = u.buffer, srcRowStride = u.rowStride, srcPixelStride = u.pixelStride,
@@ -78,6 +85,10 @@ fun imageToI420(image: Image): I420Buffer {
 /**
  * Safe plane copy honoring rowStride/pixelStride; fills missing tail with 'pad'
  * (Y=0, UV=128) to keep colors neutral when source row is shorter than requested width.
+ * Source pixels of each row are also fed to [stats], padding excluded.
+ *
+ * Large planes are copied in row bands on [ParallelRows.getShared]; with [stats]
+ * the plane is copied on the calling thread, since [LumaStats] is not thread safe.
  */
 private fun copyPlane(
     src: ByteBuffer,
@@ -87,15 +98,42 @@ private fun copyPlane(
     dstRowStride: Int,
     width: Int,
     height: Int,
-    pad: Int
+    pad: Int,
+    stats: LumaStats? = null
+) {
+    if (stats != null) {
+        copyRows(src, srcRowStride, srcPixelStride, dst, dstRowStride, width, 0, height, pad, stats)
+        return
+    }
+    ParallelRows.getShared().forEachBand(height, width) { startRow, endRow ->
+        copyRows(src, srcRowStride, srcPixelStride, dst, dstRowStride, width, startRow, endRow, pad, null)
+    }
+}
+
+/**
+ * Copies rows [startRow, endRow) of a plane, see [copyPlane].
+ * Safe to run concurrently on disjoint rows.
+ */
+private fun copyRows(
+    src: ByteBuffer,
+    srcRowStride: Int,
+    srcPixelStride: Int,
+    dst: ByteBuffer,
+    dstRowStride: Int,
+    width: Int,
+    startRow: Int,
+    endRow: Int,
+    pad: Int,
+    stats: LumaStats?
 ) {
+    // Every band works on its own views, so positions are never shared.
     val s = src.duplicate()
     val d = dst.duplicate()
     val sLimit = s.limit()
     val padByte = pad.toByte()
-    val tmpRow = ByteArray(if (srcPixelStride == 1) width else 0)
+    val tmpRow = ByteArray(if (srcPixelStride == 1 || stats != null) width else 0)
 
-    for (row in 0 until height) {
+    for (row in startRow until endRow) {
         val sBase = row * srcRowStride
         val dBase = row * dstRowStride
 
@@ -111,6 +149,7 @@ private fun copyPlane(
             s.position(sBase)
             val toCopy = min(width, avail)
             s.get(tmpRow, 0, toCopy)
+            stats?.addRow(tmpRow, toCopy, row)
 
             val dRow = d.duplicate()
             dRow.position(dBase)
@@ -124,9 +163,12 @@ private fun copyPlane(
             val cols = min(width, maxCols)
             var si = sBase
             for (c in 0 until cols) {
-                d.put(dBase + c, s.get(si))
+                val value = s.get(si)
+                d.put(dBase + c, value)
+                if (stats != null) tmpRow[c] = value
                 si += srcPixelStride
             }
+            stats?.addRow(tmpRow, cols, row)
             val tail = if (cols > 0) d.get(dBase + cols - 1) else padByte
             for (c in cols until width) d.put(dBase + c, tail)
         }
@@ -0,0 +1,63 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+/**
+ * Picks frames of a fast stream at a lower, evenly spaced rate, e.g. every 8th frame of a 240 fps
+ * stream for 30 fps analysis.
+ *
+ * <p>Frames are picked by their sensor timestamps rather than counted, so dropped frames and
+ * rates that do not divide evenly keep the output cadence: a frame is taken once it is within
+ * half a source frame interval of the time the next one is due. If the stream stalls for longer
+ * than an output interval, the schedule restarts at the next frame instead of bursting to catch
+ * up.
+ *
+ * <p>Not thread safe; frames are offered on the thread receiving them.
+ */
+public final class FrameDecimator {
+  private final long intervalNs;
+  private final long toleranceNs;
+  private long nextDueNs;
+  private boolean started = false;
+
+  /**
+   * @param sourceFps the rate frames are offered at.
+   * @param targetFps the rate frames are taken at; 0 or more than {@code sourceFps} takes all.
+   */
+  public FrameDecimator(int sourceFps, int targetFps) {
+    if (sourceFps <= 0) {
+      throw new IllegalArgumentException("Source rate must be positive");
+    }
+    this.intervalNs = targetFps <= 0 || targetFps >= sourceFps ? 0 : 1_000_000_000L / targetFps;
+    this.toleranceNs = 1_000_000_000L / sourceFps / 2;
+  }
+
+  /** Interval between taken frames in nanoseconds, or 0 if all frames are taken. */
+  public long getIntervalNs() {
+    return intervalNs;
+  }
+
+  /** Returns whether the frame with sensor timestamp {@code timestampNs} is taken. */
+  public boolean offer(long timestampNs) {
+    if (intervalNs == 0) {
+      return true;
+    }
+    if (!started || timestampNs - nextDueNs >= intervalNs) {
+      started = true;
+      nextDueNs = timestampNs + intervalNs;
+      return true;
+    }
+    if (timestampNs < nextDueNs - toleranceNs) {
+      return false;
+    }
+    nextDueNs += intervalNs;
+    return true;
+  }
+
+  /** Restarts the schedule at the next offered frame. */
+  public void reset() {
+    started = false;
+  }
+}
@@ -0,0 +1,34 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.Handler;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.StandardMethodCodec;
+
+/**
+ * An {@link EventChannel} for frame streams, whose listen and cancel calls run on a background task
+ * queue and which can create {@link EncodedEventSink}s sending to it.
+ */
+public final class FrameEventChannel extends EventChannel {
+  private final BinaryMessenger messenger;
+  private final String name;
+
+  public FrameEventChannel(@NonNull BinaryMessenger messenger, @NonNull String name) {
+    super(messenger, name, StandardMethodCodec.INSTANCE, messenger.makeBackgroundTaskQueue());
+    this.messenger = messenger;
+    this.name = name;
+  }
+
+  /** Creates a sink that encodes events off the main thread, see {@link EncodedEventSink}. */
+  @NonNull
+  public EncodedEventSink createEncodedSink(
+      @NonNull Handler mainHandler, @Nullable FrameMetrics metrics) {
+    return new EncodedEventSink(messenger, name, mainHandler, metrics);
+  }
+}
@@ -0,0 +1,354 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.hardware.camera2.CaptureResult;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the most recent full-resolution frames, converted to NV21, together with their capture
+ * results, so a picture can be taken from a frame that was already exposed (zero shutter lag) and
+ * past frames can be looked up by sensor timestamp or frame id.
+ *
+ * <p>The ring holds at most {@code depth} frames and never more than {@code maxBytes} of pixel
+ * data. Frame buffers are reused as the ring wraps around; a frame returned by {@link
+ * #takeNewest()} or {@link #takeClosest(long)} is removed from the ring, so the caller owns its
+ * buffer, while the {@code find} methods return copies and leave the ring untouched.
+ *
+ * <p>The {@code find} methods copy outside the lock, so a lookup never holds up {@link #record}
+ * on the camera thread. The frames being copied are pinned meanwhile; a pinned buffer is not
+ * reused, and the slot gets a new one instead.
+ */
+public final class FrameHistory {
+  /** Number of capture results kept to be matched with frames by sensor timestamp. */
+  private static final int RESULT_HISTORY = 16;
+
+  /** A frame held in the history. */
+  public static final class Frame {
+    /** Sensor timestamp of the start of exposure, in nanoseconds. */
+    public long sensorTimestampNs;
+
+    /** Sequence number assigned when the frame entered the history, increasing by one. */
+    public long frameId;
+
+    public int width;
+    public int height;
+
+    /** The pixels in NV21 layout. */
+    @NonNull public byte[] nv21;
+
+    /** The capture result of this frame, if it was received. */
+    @Nullable public CaptureResult captureResult;
+
+    /** Number of lookups copying this frame; guarded by the history. */
+    private int readers;
+
+    @VisibleForTesting
+    Frame(@NonNull byte[] nv21) {
+      this.nv21 = nv21;
+    }
+
+    @NonNull
+    Frame copy() {
+      Frame copy = new Frame(Arrays.copyOf(nv21, nv21.length));
+      copy.sensorTimestampNs = sensorTimestampNs;
+      copy.frameId = frameId;
+      copy.width = width;
+      copy.height = height;
+      copy.captureResult = captureResult;
+      return copy;
+    }
+  }
+
+  private int depth = 0;
+  private long maxBytes = 0;
+
+  private Frame[] slots = new Frame[0];
+  private int next = 0;
+  private int frameBytes = -1;
+
+  private final long[] resultTimestamps = new long[RESULT_HISTORY];
+  private final CaptureResult[] results = new CaptureResult[RESULT_HISTORY];
+  private int nextResult = 0;
+
+  private long nextFrameId = 0;
+
+  /**
+   * Sets the size of the history and drops all frames.
+   *
+   * @param depth the maximum number of frames; 0 disables the history.
+   * @param maxBytes the maximum amount of pixel memory held by the history.
+   */
+  public synchronized void configure(int depth, long maxBytes) {
+    this.depth = Math.max(0, depth);
+    this.maxBytes = Math.max(0, maxBytes);
+    clear();
+  }
+
+  /** Whether frames are being recorded. */
+  public synchronized boolean isEnabled() {
+    return depth > 0;
+  }
+
+  /** Drops all frames and capture results. */
+  public synchronized void clear() {
+    slots = new Frame[0];
+    next = 0;
+    frameBytes = -1;
+    for (int i = 0; i < RESULT_HISTORY; i++) {
+      results[i] = null;
+      resultTimestamps[i] = 0;
+    }
+  }
+
+  /**
+   * Copies an NV21 frame into the ring, replacing the oldest frame. {@code nv21} is not kept.
+   *
+   * @return false when the frame was not recorded, e.g. because the history is disabled or a
+   *     single frame exceeds the memory cap.
+   */
+  public boolean record(@NonNull byte[] nv21, int width, int height, long timestampNs) {
+    final int size = nv21Size(width, height);
+    final Frame frame;
+    synchronized (this) {
+      if (depth == 0 || !ensureSlots(size)) {
+        return false;
+      }
+      final Frame oldest = slots[next];
+      // Lookups still copying the oldest frame keep its buffer.
+      frame = oldest != null && oldest.readers == 0 ? oldest : null;
+      // Take the slot while copying, so takeClosest() never returns a half-written frame.
+      slots[next] = null;
+    }
+
+    final Frame target = frame != null ? frame : new Frame(new byte[size]);
+    System.arraycopy(nv21, 0, target.nv21, 0, size);
+    target.width = width;
+    target.height = height;
+    target.sensorTimestampNs = timestampNs;
+    target.captureResult = null;
+    return publish(target);
+  }
+
+  /** Stores a converted frame in the slot that was taken for it. */
+  @VisibleForTesting
+  synchronized boolean publish(@NonNull Frame frame) {
+    // The history may have been reconfigured while converting.
+    if (depth == 0 || !ensureSlots(frame.nv21.length)) {
+      return false;
+    }
+    frame.frameId = nextFrameId++;
+    slots[next] = frame;
+    next = (next + 1) % slots.length;
+    return true;
+  }
+
+  /** Remembers a capture result so it can be attached to the frame with the same timestamp. */
+  public synchronized void recordResult(@NonNull CaptureResult result) {
+    if (depth == 0) {
+      return;
+    }
+    final Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+    if (timestamp == null) {
+      return;
+    }
+    resultTimestamps[nextResult] = timestamp;
+    results[nextResult] = result;
+    nextResult = (nextResult + 1) % RESULT_HISTORY;
+  }
+
+  /**
+   * Removes and returns the most recent frame, the one with the latest sensor timestamp. Unlike
+   * {@link #takeClosest(long)} with the current time, this does not depend on the time base of the
+   * sensor timestamps, which is not the realtime clock on every device.
+   *
+   * @return the frame, or null if the history is empty.
+   */
+  @Nullable
+  public synchronized Frame takeNewest() {
+    int newest = -1;
+    for (int i = 0; i < slots.length; i++) {
+      final Frame frame = slots[i];
+      if (frame != null
+          && (newest < 0 || frame.sensorTimestampNs > slots[newest].sensorTimestampNs)) {
+        newest = i;
+      }
+    }
+    if (newest < 0) {
+      return null;
+    }
+    final Frame frame = slots[newest];
+    slots[newest] = null;
+    return withResult(frame);
+  }
+
+  /**
+   * Removes and returns the frame whose sensor timestamp is closest to {@code timestampNs}.
+   *
+   * @return the frame, or null if the history is empty.
+   */
+  @Nullable
+  public synchronized Frame takeClosest(long timestampNs) {
+    int best = -1;
+    long bestDistance = Long.MAX_VALUE;
+    for (int i = 0; i < slots.length; i++) {
+      final Frame frame = slots[i];
+      if (frame == null) {
+        continue;
+      }
+      final long distance = Math.abs(frame.sensorTimestampNs - timestampNs);
+      if (distance < bestDistance) {
+        best = i;
+        bestDistance = distance;
+      }
+    }
+    if (best < 0) {
+      return null;
+    }
+    final Frame frame = slots[best];
+    slots[best] = null;
+    return withResult(frame);
+  }
+
+  /**
+   * Returns a copy of the frame whose sensor timestamp is closest to {@code timestampNs}.
+   *
+   * @return the frame, or null if the history is empty.
+   */
+  @Nullable
+  public Frame findClosest(long timestampNs) {
+    Frame best = null;
+    synchronized (this) {
+      long bestDistance = Long.MAX_VALUE;
+      for (Frame frame : slots) {
+        if (frame == null) {
+          continue;
+        }
+        final long distance = Math.abs(frame.sensorTimestampNs - timestampNs);
+        if (distance < bestDistance) {
+          best = frame;
+          bestDistance = distance;
+        }
+      }
+      if (best == null) {
+        return null;
+      }
+      pin(withResult(best));
+    }
+    return copyAndUnpin(best);
+  }
+
+  /**
+   * Returns a copy of the frame with the given id.
+   *
+   * @return the frame, or null if it is not, or no longer, held.
+   */
+  @Nullable
+  public Frame findById(long frameId) {
+    Frame found = null;
+    synchronized (this) {
+      for (Frame frame : slots) {
+        if (frame != null && frame.frameId == frameId) {
+          found = pin(withResult(frame));
+          break;
+        }
+      }
+    }
+    return found == null ? null : copyAndUnpin(found);
+  }
+
+  /**
+   * Returns copies of all frames with a sensor timestamp in {@code [startNs, endNs]}, oldest
+   * first.
+   */
+  @NonNull
+  public List<Frame> findInRange(long startNs, long endNs) {
+    final List<Frame> found = new ArrayList<>();
+    synchronized (this) {
+      for (Frame frame : slots) {
+        if (frame != null
+            && frame.sensorTimestampNs >= startNs
+            && frame.sensorTimestampNs <= endNs) {
+          found.add(pin(withResult(frame)));
+        }
+      }
+    }
+    final List<Frame> frames = new ArrayList<>(found.size());
+    for (Frame frame : found) {
+      frames.add(copyAndUnpin(frame));
+    }
+    Collections.sort(frames, (a, b) -> Long.compare(a.sensorTimestampNs, b.sensorTimestampNs));
+    return frames;
+  }
+
+  /** Number of frames currently held. */
+  public synchronized int size() {
+    int count = 0;
+    for (Frame frame : slots) {
+      if (frame != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @NonNull
+  private Frame pin(@NonNull Frame frame) {
+    frame.readers++;
+    return frame;
+  }
+
+  /** Copies a frame pinned by {@link #pin} without holding the lock, then unpins it. */
+  @NonNull
+  private Frame copyAndUnpin(@NonNull Frame frame) {
+    try {
+      return frame.copy();
+    } finally {
+      synchronized (this) {
+        frame.readers--;
+      }
+    }
+  }
+
+  @NonNull
+  private Frame withResult(@NonNull Frame frame) {
+    if (frame.captureResult == null) {
+      frame.captureResult = findResult(frame.sensorTimestampNs);
+    }
+    return frame;
+  }
+
+  @Nullable
+  private CaptureResult findResult(long timestampNs) {
+    for (int i = 0; i < RESULT_HISTORY; i++) {
+      if (results[i] != null && resultTimestamps[i] == timestampNs) {
+        return results[i];
+      }
+    }
+    return null;
+  }
+
+  /** Sizes the ring for frames of {@code bytes}; returns false if not even one frame fits. */
+  private boolean ensureSlots(int bytes) {
+    if (bytes == frameBytes) {
+      return slots.length > 0;
+    }
+    final long fitting = maxBytes / bytes;
+    slots = new Frame[(int) Math.min(depth, fitting)];
+    next = 0;
+    frameBytes = bytes;
+    return slots.length > 0;
+  }
+
+  private static int nv21Size(int width, int height) {
+    return width * height + (width * height) / 2;
+  }
+}
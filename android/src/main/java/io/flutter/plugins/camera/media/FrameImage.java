@@ -0,0 +1,118 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.media.Image;
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+
+/**
+ * The parts of a YUV_420_888 {@link Image} the frame pipeline reads.
+ *
+ * <p>Apps cannot subclass {@link Image}, so the pipeline takes this interface instead: camera
+ * frames are wrapped with {@link #of(Image)}, and {@link ReplayFrameSource} produces frames from
+ * recorded files, which also works on a plain JVM.
+ */
+public interface FrameImage extends AutoCloseable {
+  /** A plane of a {@link FrameImage}, see {@link Image.Plane}. */
+  interface Plane {
+    @NonNull
+    ByteBuffer getBuffer();
+
+    int getRowStride();
+
+    int getPixelStride();
+  }
+
+  /** See {@link Image#getFormat()}. */
+  int getFormat();
+
+  int getWidth();
+
+  int getHeight();
+
+  /** The sensor timestamp of the frame in nanoseconds, see {@link Image#getTimestamp()}. */
+  long getTimestamp();
+
+  /** The Y, U and V planes. */
+  @NonNull
+  Plane[] getPlanes();
+
+  /** Releases the frame; its plane buffers must not be used afterwards. */
+  @Override
+  void close();
+
+  /** Wraps a camera image. Closing the wrapper closes the image. */
+  @NonNull
+  static FrameImage of(@NonNull Image image) {
+    return new ImageAdapter(image);
+  }
+
+  /** A {@link FrameImage} backed by an {@link Image}. */
+  final class ImageAdapter implements FrameImage {
+    private final Image image;
+    private Plane[] planes;
+
+    ImageAdapter(@NonNull Image image) {
+      this.image = image;
+    }
+
+    @Override
+    public int getFormat() {
+      return image.getFormat();
+    }
+
+    @Override
+    public int getWidth() {
+      return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+      return image.getHeight();
+    }
+
+    @Override
+    public long getTimestamp() {
+      return image.getTimestamp();
+    }
+
+    @NonNull
+    @Override
+    public Plane[] getPlanes() {
+      if (planes == null) {
+        final Image.Plane[] imagePlanes = image.getPlanes();
+        planes = new Plane[imagePlanes.length];
+        for (int i = 0; i < imagePlanes.length; i++) {
+          final Image.Plane plane = imagePlanes[i];
+          planes[i] =
+              new Plane() {
+                @NonNull
+                @Override
+                public ByteBuffer getBuffer() {
+                  return plane.getBuffer();
+                }
+
+                @Override
+                public int getRowStride() {
+                  return plane.getRowStride();
+                }
+
+                @Override
+                public int getPixelStride() {
+                  return plane.getPixelStride();
+                }
+              };
+        }
+      }
+      return planes;
+    }
+
+    @Override
+    public void close() {
+      image.close();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-camera registry of frame pipeline latencies and dropped frames.
+ *
+ * <p>All methods are thread-safe and allocation free on the recording side, so they can be called
+ * for every frame from the camera's background threads.
+ */
+public final class FrameMetrics {
+  /** A hop of the frame pipeline whose latency is measured. */
+  public enum Stage {
+    /** From the sensor timestamp of a frame until its {@code Image} is accepted by the plugin. */
+    SENSOR_TO_ACCEPT("sensorToAccept"),
+    /** From accepting an {@code Image} until its pixels have been converted for Dart. */
+    ACCEPT_TO_CONVERTED("acceptToConverted"),
+    /** From the end of the conversion until the frame is handed to the Dart event sink. */
+    CONVERTED_TO_DELIVERED("convertedToDelivered"),
+    /**
+     * Time the main thread spends handing a frame to Dart, which includes encoding it unless the
+     * stream encodes frames in the background.
+     */
+    MAIN_THREAD_SEND("mainThreadSend");
+
+    final String key;
+
+    Stage(String key) {
+      this.key = key;
+    }
+  }
+
+  /** A reason why a frame produced by the camera never reached Dart. */
+  public enum Drop {
+    /** Skipped by the frame rate limit of the frame stream. */
+    THROTTLED("throttled"),
+    /** Skipped by the motion gate of the frame stream because the scene did not change. */
+    MOTION_GATED("motionGated"),
+    /** Conversion of the frame failed. */
+    CONVERSION_FAILED("conversionFailed"),
+    /** Collected while waiting for the main thread, because it was lagging behind. */
+    COLLECTED_BEFORE_DELIVERY("collectedBeforeDelivery"),
+    /** Replaced by a newer encoded frame while waiting for the main thread. */
+    SUPERSEDED_BEFORE_DELIVERY("supersededBeforeDelivery"),
+    /** Superseded in the video renderer before the previous frame was drawn. */
+    RENDERER_OVERRUN("rendererOverrun"),
+    /** Not recorded to the dataset because its writer was behind. */
+    DATASET_WRITER_BUSY("datasetWriterBusy");
+
+    final String key;
+
+    Drop(String key) {
+      this.key = key;
+    }
+  }
+
+  private final EnumMap<Stage, LatencyHistogram> latencies = new EnumMap<>(Stage.class);
+  private final EnumMap<Drop, AtomicLong> drops = new EnumMap<>(Drop.class);
+  private final AtomicLong delivered = new AtomicLong();
+
+  public FrameMetrics() {
+    for (Stage stage : Stage.values()) {
+      latencies.put(stage, new LatencyHistogram());
+    }
+    for (Drop drop : Drop.values()) {
+      drops.put(drop, new AtomicLong());
+    }
+  }
+
+  /** Returns the current time in the clock used for all timestamps passed to this class. */
+  public static long now() {
+    return SystemClock.elapsedRealtimeNanos();
+  }
+
+  /** Records the latency of {@code stage} for a frame that entered it at {@code startNs}. */
+  public void recordLatency(@NonNull Stage stage, long startNs, long endNs) {
+    latencies.get(stage).record(endNs - startNs);
+  }
+
+  /**
+   * Records the sensor-to-accept latency of a frame.
+   *
+   * <p>Sensor timestamps are only comparable to {@link #now()} when the sensor uses the realtime
+   * time base; samples from other time bases show up as negative or implausibly large durations and
+   * are discarded.
+   */
+  public void recordSensorToAccept(long sensorTimestampNs, long acceptNs) {
+    final long latencyNs = acceptNs - sensorTimestampNs;
+    if (sensorTimestampNs > 0 && latencyNs < 10_000_000_000L) {
+      latencies.get(Stage.SENSOR_TO_ACCEPT).record(latencyNs);
+    }
+  }
+
+  /** Records a frame that was handed to Dart. */
+  public void recordDelivered(long convertedNs) {
+    delivered.incrementAndGet();
+    recordLatency(Stage.CONVERTED_TO_DELIVERED, convertedNs, now());
+  }
+
+  /** Counts a dropped frame. */
+  public void recordDrop(@NonNull Drop drop) {
+    drops.get(drop).incrementAndGet();
+  }
+
+  /** Returns the number of frames dropped for {@code drop} since the last reset. */
+  public long getDropCount(@NonNull Drop drop) {
+    return drops.get(drop).get();
+  }
+
+  /** Returns the histogram of {@code stage}. */
+  @NonNull
+  public LatencyHistogram getLatency(@NonNull Stage stage) {
+    return latencies.get(stage);
+  }
+
+  /** Clears all counters and histograms. */
+  public void reset() {
+    for (LatencyHistogram histogram : latencies.values()) {
+      histogram.reset();
+    }
+    for (AtomicLong counter : drops.values()) {
+      counter.set(0);
+    }
+    delivered.set(0);
+  }
+
+  /**
+   * Returns a snapshot suitable for sending over the platform channel.
+   *
+   * <p>The map holds a {@code latency} map with one {@link LatencyHistogram#toMap()} summary per
+   * {@link Stage}, a {@code drops} map with one counter per {@link Drop}, and the number of {@code
+   * delivered} frames.
+   */
+  @NonNull
+  public Map<String, Object> toMap() {
+    Map<String, Object> latencyMap = new HashMap<>();
+    for (Map.Entry<Stage, LatencyHistogram> entry : latencies.entrySet()) {
+      latencyMap.put(entry.getKey().key, entry.getValue().toMap());
+    }
+    Map<String, Object> dropMap = new HashMap<>();
+    for (Map.Entry<Drop, AtomicLong> entry : drops.entrySet()) {
+      dropMap.put(entry.getKey().key, entry.getValue().get());
+    }
+    Map<String, Object> map = new HashMap<>();
+    map.put("latency", latencyMap);
+    map.put("drops", dropMap);
+    map.put("delivered", delivered.get());
+    return map;
+  }
+}
@@ -27,15 +27,25 @@ import java.util.Map;
 public class ImageStreamReader {
   private static final String TAG = "ImageStreamReader";
 
+  /**
+   * The image format Dart requests for RGBA8888 frames. Android has no RGBA {@link ImageFormat}
+   * for camera streams, so YUV frames are requested and converted before sending them to dart.
+   */
+  public static final int RGBA_8888 = ImageFormat.FLEX_RGBA_8888;
+
   /**
    * The image format we are going to send back to dart. Usually it's the same as streamImageFormat
-   * but in the case of NV21 we will actually request YUV frames but convert it to NV21 before
-   * sending to dart.
+   * but in the case of NV21 and RGBA8888 we will actually request YUV frames but convert them
+   * before sending to dart.
    */
-  private final int dartImageFormat;
+  private volatile int dartImageFormat;
+
+  /** The format of the frames the image reader receives from the camera. */
+  private final int streamImageFormat;
 
   private final ImageReader imageReader;
   private final ImageStreamReaderUtils imageStreamReaderUtils;
+  private final RgbaWorkspace rgbaWorkspace = new RgbaWorkspace();
 
   @VisibleForTesting(otherwise = VisibleForTesting.NONE)
   @Nullable
@@ -47,6 +57,8 @@ public class ImageStreamReader {
    */
   private Map<String, Object> latestImageBufferHardReference = null;
 
+  @Nullable private volatile FrameMetrics frameMetrics;
+
   /**
    * Creates a new instance of the {@link ImageStreamReader}.
    *
@@ -60,6 +72,7 @@ public class ImageStreamReader {
       @NonNull ImageStreamReaderUtils imageStreamReaderUtils) {
     this.imageReader = imageReader;
     this.dartImageFormat = dartImageFormat;
+    this.streamImageFormat = computeStreamImageFormat(dartImageFormat);
     this.imageStreamReaderUtils = imageStreamReaderUtils;
   }
 
@@ -73,14 +86,38 @@ public class ImageStreamReader {
    */
   public ImageStreamReader(int width, int height, int imageFormat, int maxImages) {
     this.dartImageFormat = imageFormat;
-    this.imageReader =
-        ImageReader.newInstance(width, height, computeStreamImageFormat(imageFormat), maxImages);
+    this.streamImageFormat = computeStreamImageFormat(imageFormat);
+    this.imageReader = ImageReader.newInstance(width, height, streamImageFormat, maxImages);
     this.imageStreamReaderUtils = new ImageStreamReaderUtils();
   }
 
+  /**
+   * Sets the registry that latencies and dropped frames of this stream are recorded into.
+   *
+   * @param frameMetrics the registry, or null to stop recording.
+   */
+  public void setFrameMetrics(@Nullable FrameMetrics frameMetrics) {
+    this.frameMetrics = frameMetrics;
+  }
+
+  /**
+   * Changes the image format sent to dart, without recreating the image reader.
+   *
+   * @param dartImageFormat is the image format dart is requesting.
+   * @return false if frames of that format cannot be produced from the frames the image reader
+   *     receives, in which case the format is unchanged.
+   */
+  public boolean setDartImageFormat(int dartImageFormat) {
+    if (computeStreamImageFormat(dartImageFormat) != streamImageFormat) {
+      return false;
+    }
+    this.dartImageFormat = dartImageFormat;
+    return true;
+  }
+
   /**
    * Returns the image format to stream based on a requested input format. Usually it's the same
-   * except when dart is requesting NV21. In that case we stream YUV420 and process it into NV21
+   * except when dart is requesting NV21 or RGBA8888. In that case we stream YUV420 and process it
    * before sending the frames over.
    *
    * @param dartImageFormat is the image format dart is requesting.
@@ -88,7 +125,7 @@ public class ImageStreamReader {
    */
   @VisibleForTesting
   public static int computeStreamImageFormat(int dartImageFormat) {
-    if (dartImageFormat == ImageFormat.NV21) {
+    if (dartImageFormat == ImageFormat.NV21 || dartImageFormat == RGBA_8888) {
       return ImageFormat.YUV_420_888;
     } else {
       return dartImageFormat;
@@ -109,20 +146,43 @@ public class ImageStreamReader {
       @NonNull Image image,
       @NonNull CameraCaptureProperties captureProps,
       @NonNull EventChannel.EventSink imageStreamSink) {
+    onImageAvailable(FrameImage.of(image), captureProps, imageStreamSink);
+  }
+
+  /**
+   * Processes a new frame and sends it to Dart, see {@link #onImageAvailable(Image,
+   * CameraCaptureProperties, EventChannel.EventSink)}. Frames that do not come from the camera,
+   * such as those of a {@link ReplayFrameSource}, enter the pipeline here.
+   */
+  public void onImageAvailable(
+      @NonNull FrameImage image,
+      @NonNull CameraCaptureProperties captureProps,
+      @NonNull EventChannel.EventSink imageStreamSink) {
+    final FrameMetrics metrics = frameMetrics;
+    final long acceptNs = metrics != null ? FrameMetrics.now() : 0;
+    if (metrics != null) {
+      metrics.recordSensorToAccept(image.getTimestamp(), acceptNs);
+    }
+    final int format = dartImageFormat;
     Map<String, Object> imageBuffer = new HashMap<>();
 
     imageBuffer.put("width", image.getWidth());
     imageBuffer.put("height", image.getHeight());
     try {
       // Get plane data ready
-      if (dartImageFormat == ImageFormat.NV21) {
+      if (format == ImageFormat.NV21) {
         imageBuffer.put("planes", parsePlanesForNv21(image));
+      } else if (format == RGBA_8888) {
+        imageBuffer.put("planes", parsePlanesForRgba(image));
       } else {
         imageBuffer.put("planes", parsePlanesForYuvOrJpeg(image));
       }
     } catch (IllegalStateException e) {
       // Handle "buffer is inaccessible" errors that can happen on some devices from
       // ImageStreamReaderUtils.yuv420ThreePlanesToNV21()
+      if (metrics != null) {
+        metrics.recordDrop(FrameMetrics.Drop.CONVERSION_FAILED);
+      }
       final Handler handler =
           this.handler != null ? this.handler : new Handler(Looper.getMainLooper());
       handler.post(
@@ -134,14 +194,27 @@ public class ImageStreamReader {
     } finally {
       image.close();
     }
+    final long convertedNs = metrics != null ? FrameMetrics.now() : 0;
+    if (metrics != null) {
+      metrics.recordLatency(FrameMetrics.Stage.ACCEPT_TO_CONVERTED, acceptNs, convertedNs);
+    }
 
-    imageBuffer.put("format", dartImageFormat);
+    imageBuffer.put("format", format);
     imageBuffer.put("lensAperture", captureProps.getLastLensAperture());
     imageBuffer.put("sensorExposureTime", captureProps.getLastSensorExposureTime());
     Integer sensorSensitivity = captureProps.getLastSensorSensitivity();
     imageBuffer.put(
         "sensorSensitivity", sensorSensitivity == null ? null : (double) sensorSensitivity);
 
+    if (imageStreamSink instanceof EncodedEventSink) {
+      // Encoded on this thread; only sending it waits for the main thread.
+      ((EncodedEventSink) imageStreamSink).sendFrame(imageBuffer, convertedNs);
+      if (format == RGBA_8888) {
+        recyclePlanes(imageBuffer);
+      }
+      return;
+    }
+
     final Handler handler =
         this.handler != null ? this.handler : new Handler(Looper.getMainLooper());
 
@@ -167,15 +240,28 @@ public class ImageStreamReader {
                   // while the main thread was lagging. Frames are silently dropped in this
                   // case.
                   Log.d(TAG, "Image buffer was dropped by garbage collector.");
+                  if (metrics != null) {
+                    metrics.recordDrop(FrameMetrics.Drop.COLLECTED_BEFORE_DELIVERY);
+                  }
                   return;
                 }
+                final long sendNs = metrics != null ? FrameMetrics.now() : 0;
                 imageStreamSink.success(imageBuffer);
+                if (metrics != null) {
+                  metrics.recordLatency(
+                      FrameMetrics.Stage.MAIN_THREAD_SEND, sendNs, FrameMetrics.now());
+                  metrics.recordDelivered(convertedNs);
+                }
+                if (format == RGBA_8888) {
+                  // The codec has copied the bytes, so the array can be reused.
+                  recyclePlanes(imageBuffer);
+                }
               }
             }.withImageBuffer(imageBuffer));
   }
 
   public static Map<String, Object> decodeImage(
-      @NonNull Image image,
+      @NonNull FrameImage image,
       @NonNull CameraCaptureProperties captureProps,
       int imageFormat,
       @NonNull ImageStreamReaderUtils imageUtils) {
@@ -194,7 +280,7 @@ public class ImageStreamReader {
         imageBuffer.put("planes", List.of(plane));
       } else {
         List<Map<String, Object>> planes = new ArrayList<>();
-        for (Image.Plane plane : image.getPlanes()) {
+        for (FrameImage.Plane plane : image.getPlanes()) {
           ByteBuffer buffer = plane.getBuffer();
           byte[] bytes = new byte[buffer.remaining()];
           buffer.get(bytes);
@@ -232,11 +318,11 @@ public class ImageStreamReader {
    * @return parsed map describing the image planes to be sent to dart.
    */
   @NonNull
-  public List<Map<String, Object>> parsePlanesForYuvOrJpeg(@NonNull Image image) {
+  public List<Map<String, Object>> parsePlanesForYuvOrJpeg(@NonNull FrameImage image) {
     List<Map<String, Object>> planes = new ArrayList<>();
 
     // For YUV420 and JPEG, just send the data as-is for each plane.
-    for (Image.Plane plane : image.getPlanes()) {
+    for (FrameImage.Plane plane : image.getPlanes()) {
       ByteBuffer buffer = plane.getBuffer();
 
       byte[] bytes = new byte[buffer.remaining()];
@@ -259,7 +345,7 @@ public class ImageStreamReader {
    * @return parsed map describing the image planes to be sent to dart.
    */
   @NonNull
-  public List<Map<String, Object>> parsePlanesForNv21(@NonNull Image image) {
+  public List<Map<String, Object>> parsePlanesForNv21(@NonNull FrameImage image) {
     List<Map<String, Object>> planes = new ArrayList<>();
 
     // We will convert the YUV data to NV21 which is a single-plane image
@@ -275,6 +361,43 @@ public class ImageStreamReader {
     return planes;
   }
 
+  /**
+   * Given an input image, will return a single-plane RGBA8888 image with rows packed to {@code
+   * width * 4} bytes. Assumes YUV420 as an input type.
+   *
+   * @param image - the image to process.
+   * @return parsed map describing the image planes to be sent to dart.
+   */
+  @NonNull
+  public List<Map<String, Object>> parsePlanesForRgba(@NonNull FrameImage image) {
+    List<Map<String, Object>> planes = new ArrayList<>();
+
+    byte[] bytes = rgbaWorkspace.imageToRgba(image);
+
+    Map<String, Object> planeBuffer = new HashMap<>();
+    planeBuffer.put("bytesPerRow", image.getWidth() * 4);
+    planeBuffer.put("bytesPerPixel", 4);
+    planeBuffer.put("width", image.getWidth());
+    planeBuffer.put("height", image.getHeight());
+    planeBuffer.put("bytes", bytes);
+    planes.add(planeBuffer);
+    return planes;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void recyclePlanes(Map<String, Object> imageBuffer) {
+    final Object planes = imageBuffer.get("planes");
+    if (!(planes instanceof List)) {
+      return;
+    }
+    for (Map<String, Object> plane : (List<Map<String, Object>>) planes) {
+      final Object bytes = plane.get("bytes");
+      if (bytes instanceof byte[]) {
+        rgbaWorkspace.recycle((byte[]) bytes);
+      }
+    }
+  }
+
   /** Returns the image reader surface. */
   @NonNull
   public Surface getSurface() {
@@ -315,5 +438,6 @@ public class ImageStreamReader {
   /** Closes the image reader. */
   public void close() {
     imageReader.close();
+    rgbaWorkspace.close();
   }
 }
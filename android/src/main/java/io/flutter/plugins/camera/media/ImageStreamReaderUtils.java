@@ -7,11 +7,23 @@
 
 package io.flutter.plugins.camera.media;
 
-import android.media.Image;
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 import java.nio.ByteBuffer;
 
 public class ImageStreamReaderUtils {
+  private final ParallelRows parallelRows;
+
+  public ImageStreamReaderUtils() {
+    this(ParallelRows.getShared());
+  }
+
+  /** @param parallelRows splits the unpacking of large planes into concurrent row bands. */
+  @VisibleForTesting
+  public ImageStreamReaderUtils(@NonNull ParallelRows parallelRows) {
+    this.parallelRows = parallelRows;
+  }
+
   /**
    * Converts YUV_420_888 to NV21 bytebuffer.
    *
@@ -22,9 +34,9 @@ public class ImageStreamReaderUtils {
    * S Y values followed by S/4 VU values: YYYYYYYYYYYYYY(...)YVUVUVUVU(...)VU
    *
    * <p>YUV_420_888 is a generic format that can describe any YUV image where U and V are subsampled
-   * by a factor of 2 in both dimensions. {@link Image#getPlanes} returns an array with the Y, U and
-   * V planes. The Y plane is guaranteed not to be interleaved, so we can just copy its values into
-   * the first part of the NV21 array. The U and V planes may already have the representation in the
+   * by a factor of 2 in both dimensions. {@link FrameImage#getPlanes} returns an array with the Y,
+   * U and V planes. The Y plane is guaranteed not to be interleaved, so we can just copy its values
+   * into the first part of the NV21 array. The U and V planes may already have the representation in the
    * NV21 format. This happens if the planes share the same buffer, the V buffer is one position
    * before the U buffer and the planes have a pixelStride of 2. If this is case, we can just copy
    * them to the NV21 array.
@@ -33,7 +45,7 @@ public class ImageStreamReaderUtils {
    */
   @NonNull
   public ByteBuffer yuv420ThreePlanesToNV21(
-      @NonNull Image.Plane[] yuv420888planes, int width, int height) {
+      @NonNull FrameImage.Plane[] yuv420888planes, int width, int height) {
     int imageSize = width * height;
     byte[] out = new byte[imageSize + 2 * (imageSize / 4)];
 
@@ -48,13 +60,35 @@ public class ImageStreamReaderUtils {
       // Copy the first U value and the remaining VU values from the U buffer.
       uBuffer.get(out, imageSize + 1, 2 * imageSize / 4 - 1);
     } else {
-      // Fallback to copying the UV values one by one, which is slower but also works.
+      // Fallback to unpacking the planes, which is slower but also works.
       // Unpack Y.
       unpackPlane(yuv420888planes[0], width, height, out, 0, 1);
-      // Unpack U.
-      unpackPlane(yuv420888planes[1], width, height, out, imageSize + 1, 2);
-      // Unpack V.
-      unpackPlane(yuv420888planes[2], width, height, out, imageSize, 2);
+      // Interleave V and U row by row.
+      final FrameImage.Plane uPlane = yuv420888planes[1];
+      final FrameImage.Plane vPlane = yuv420888planes[2];
+      final ByteBuffer uBuffer = uPlane.getBuffer();
+      final ByteBuffer vBuffer = vPlane.getBuffer();
+      final int uRowStride = uPlane.getRowStride();
+      final int uPixelStride = uPlane.getPixelStride();
+      final int vRowStride = vPlane.getRowStride();
+      final int vPixelStride = vPlane.getPixelStride();
+      final int chromaWidth = width / 2;
+      parallelRows.forEachBand(
+          height / 2,
+          chromaWidth,
+          (startRow, endRow) ->
+              ChromaInterleaver.interleavePlanes(
+                  vBuffer,
+                  vRowStride,
+                  vPixelStride,
+                  uBuffer,
+                  uRowStride,
+                  uPixelStride,
+                  chromaWidth,
+                  startRow,
+                  endRow,
+                  out,
+                  imageSize));
     }
 
     return ByteBuffer.wrap(out);
@@ -77,7 +111,8 @@ public class ImageStreamReaderUtils {
    *
    * <p>https://github.com/googlesamples/mlkit/blob/master/android/vision-quickstart/app/src/main/java/com/google/mlkit/vision/demo/BitmapUtils.java
    */
-  private static boolean areUVPlanesNV21(@NonNull Image.Plane[] planes, int width, int height) {
+  private static boolean areUVPlanesNV21(
+      @NonNull FrameImage.Plane[] planes, int width, int height) {
     int imageSize = width * height;
 
     ByteBuffer uBuffer = planes[1].getBuffer();
@@ -119,12 +154,18 @@ public class ImageStreamReaderUtils {
    * <p>Unpack an image plane into a byte array.
    *
    * <p>The input plane data will be copied in 'out', starting at 'offset' and every pixel will be
-   * spaced by 'pixelStride'. Note that there is no row padding on the output.
+   * spaced by 'pixelStride'. Note that there is no row padding on the output. Large planes are
+   * unpacked in concurrent row bands.
    *
    * <p>https://github.com/googlesamples/mlkit/blob/master/android/vision-quickstart/app/src/main/java/com/google/mlkit/vision/demo/BitmapUtils.java
    */
-  private static void unpackPlane(
-      @NonNull Image.Plane plane, int width, int height, byte[] out, int offset, int pixelStride)
+  private void unpackPlane(
+      @NonNull FrameImage.Plane plane,
+      int width,
+      int height,
+      byte[] out,
+      int offset,
+      int pixelStride)
       throws IllegalStateException {
     ByteBuffer buffer = plane.getBuffer();
     buffer.rewind();
@@ -138,17 +179,25 @@ public class ImageStreamReaderUtils {
     int scaleFactor = height / numRow;
     int numCol = width / scaleFactor;
 
-    // Extract the data in the output buffer.
-    int outputPos = offset;
-    int rowStart = 0;
-    for (int row = 0; row < numRow; row++) {
-      int inputPos = rowStart;
-      for (int col = 0; col < numCol; col++) {
-        out[outputPos] = buffer.get(inputPos);
-        outputPos += pixelStride;
-        inputPos += plane.getPixelStride();
-      }
-      rowStart += plane.getRowStride();
-    }
+    // Extract the data in the output buffer. Absolute reads leave the buffer state untouched, so
+    // bands can share it.
+    final int inputRowStride = plane.getRowStride();
+    final int inputPixelStride = plane.getPixelStride();
+    parallelRows.forEachBand(
+        numRow,
+        numCol,
+        (startRow, endRow) -> {
+          int outputPos = offset + startRow * numCol * pixelStride;
+          int rowStart = startRow * inputRowStride;
+          for (int row = startRow; row < endRow; row++) {
+            int inputPos = rowStart;
+            for (int col = 0; col < numCol; col++) {
+              out[outputPos] = buffer.get(inputPos);
+              outputPos += pixelStride;
+              inputPos += inputPixelStride;
+            }
+            rowStart += inputRowStride;
+          }
+        });
   }
 }
@@ -0,0 +1,127 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes batches of frames on a small, bounded pool of encoder threads and reports the outcome
+ * of every item once the whole batch is done.
+ *
+ * <p>Each thread owns a {@link Scratch}, so the conversion and rotation buffers are reused across
+ * the items it encodes and never shared between concurrent encodes. Items fail independently: a
+ * failed item does not stop the others, and its error message takes its place in the results.
+ */
+public final class JpegBatchExporter {
+  /** Upper bound of the pool size; every thread keeps frame-sized buffers. */
+  public static final int MAX_THREADS = 4;
+
+  /** Buffers reused across the items encoded by one thread. */
+  public static final class Scratch {
+    @Nullable private byte[] nv21;
+    @Nullable private byte[] rotated;
+
+    /** A buffer of at least {@code size} bytes for the converted frame. */
+    @NonNull
+    public byte[] nv21(int size) {
+      if (nv21 == null || nv21.length < size) {
+        nv21 = new byte[size];
+      }
+      return nv21;
+    }
+
+    /** A buffer of at least {@code size} bytes for the rotated frame. */
+    @NonNull
+    public byte[] rotated(int size) {
+      if (rotated == null || rotated.length < size) {
+        rotated = new byte[size];
+      }
+      return rotated;
+    }
+  }
+
+  /** Encodes one frame of a batch. */
+  public interface Item {
+    void encode(@NonNull Scratch scratch) throws Exception;
+  }
+
+  /** Receives the outcome of a batch. */
+  public interface Callback {
+    /**
+     * Called once every item is done, with one entry per item in order: null if it was encoded,
+     * or its error message. Called on an encoder thread, or on the thread calling {@link #export}
+     * if the exporter was shut down before the last item was submitted.
+     */
+    void onDone(@NonNull List<String> errors);
+  }
+
+  private final ExecutorService workers;
+  private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+  /** @param threads the number of encoder threads, at most {@link #MAX_THREADS}. */
+  public JpegBatchExporter(int threads) {
+    final AtomicInteger count = new AtomicInteger();
+    this.workers =
+        Executors.newFixedThreadPool(
+            Math.max(1, Math.min(threads, MAX_THREADS)),
+            runnable -> {
+              final Thread thread = new Thread(runnable, "CameraJpeg-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Encodes {@code items} concurrently and returns immediately. Items submitted after {@link
+   * #shutdown} fail without being encoded.
+   */
+  public void export(@NonNull List<Item> items, @NonNull Callback callback) {
+    if (items.isEmpty()) {
+      callback.onDone(new ArrayList<>());
+      return;
+    }
+    final String[] errors = new String[items.size()];
+    final AtomicInteger remaining = new AtomicInteger(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      final int index = i;
+      final Item item = items.get(i);
+      try {
+        workers.execute(
+            () -> {
+              try {
+                item.encode(scratch.get());
+              } catch (Throwable e) {
+                errors[index] = e.getMessage() != null ? e.getMessage() : e.toString();
+              }
+              finishItem(errors, remaining, callback);
+            });
+      } catch (RejectedExecutionException e) {
+        errors[index] = "The JPEG exporter is shut down";
+        finishItem(errors, remaining, callback);
+      }
+    }
+  }
+
+  private static void finishItem(
+      String[] errors, AtomicInteger remaining, @NonNull Callback callback) {
+    // The decrement publishes this item's error to the thread finishing the batch.
+    if (remaining.decrementAndGet() == 0) {
+      callback.onDone(Arrays.asList(errors));
+    }
+  }
+
+  /** Stops the encoder threads once the submitted batches are done. */
+  public void shutdown() {
+    workers.shutdown();
+  }
+}
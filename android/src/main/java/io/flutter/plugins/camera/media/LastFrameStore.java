@@ -11,6 +11,7 @@ import androidx.annotation.Nullable;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 public final class LastFrameStore {
@@ -21,6 +22,24 @@ public final class LastFrameStore {
         void onFrame(Map<String, Object> frame);
     }
 
+    /** Receives {@link LumaStats#toArray} of every accepted frame, on the accept() thread. */
+    public static interface OnLumaStatsListener {
+        void onLumaStats(long[] stats);
+    }
+
+    /**
+     * Receives the {@link TensorConverter} output of every accepted frame, on the accept() thread.
+     * The buffer is recycled once the listener returns.
+     */
+    public static interface OnTensorListener {
+        void onTensor(ByteBuffer tensor, long sensorTimestampNs);
+    }
+
+    /** Notified of every frame written to the {@link SharedFrameRing}, on the accept() thread. */
+    public static interface OnFrameRingListener {
+        void onFrameWritten(int slot, long sequence);
+    }
+
     // Ring buffer for NV21 bytes to avoid stomping while encoding
     private static final int RING = 3;
     private final byte[][] ring = new byte[RING][];
@@ -61,6 +80,14 @@ public final class LastFrameStore {
         lastAcceptTsNs = 0L;
     }
 
+    // Optional pipeline instrumentation
+    @Nullable private volatile FrameMetrics frameMetrics;
+
+    /** Records latencies and drops of accepted frames into {@code metrics}. Pass null to stop. */
+    public void setFrameMetrics(@Nullable FrameMetrics metrics) {
+        this.frameMetrics = metrics;
+    }
+
     // Optional listener for streaming
     @Nullable private volatile OnFrameListener onFrameListener;
     private volatile boolean copyBytesForCallback = true;
@@ -71,35 +98,228 @@ public final class LastFrameStore {
         this.copyBytesForCallback = copyBytesForCallback;
     }
 
+    // Optional luma statistics, collected during the Y plane copy
+    @Nullable private volatile LumaStats lumaStats;
+    @Nullable private volatile OnLumaStatsListener onLumaStatsListener;
+
+    /**
+     * Collect {@code stats} while converting each accepted frame and pass them to {@code
+     * listener}. Pass nulls to stop.
+     */
+    public void setLumaStats(@Nullable LumaStats stats, @Nullable OnLumaStatsListener listener) {
+        this.onLumaStatsListener = listener;
+        this.lumaStats = listener == null ? null : stats;
+    }
+
+    // Optional motion gate, skipping conversion of frames that match the last accepted one
+    @Nullable private volatile MotionGate motionGate;
+
+    /** Only accept frames that pass {@code gate}. Pass null to accept all frames. */
+    public void setMotionGate(@Nullable MotionGate gate) {
+        this.motionGate = gate;
+    }
+
+    // Optional model input conversion of every accepted frame
+    @Nullable private volatile TensorConverter tensorConverter;
+    @Nullable private volatile OnTensorListener onTensorListener;
+
+    /** Convert every accepted frame with {@code converter} for {@code listener}. Pass nulls to stop. */
+    public void setTensorConverter(
+            @Nullable TensorConverter converter, @Nullable OnTensorListener listener) {
+        this.onTensorListener = listener;
+        this.tensorConverter = listener == null ? null : converter;
+    }
+
+    // Optional shared memory transport of every accepted frame
+    @Nullable private volatile SharedFrameRing frameRing;
+    @Nullable private volatile OnFrameRingListener onFrameRingListener;
+    // Size of the last frame that did not fit the ring, packed as width << 32 | height
+    private long oversizedRingFrameSize = -1;
+
+    /** Write every accepted frame into {@code ring} and notify {@code listener}. Pass nulls to stop. */
+    public void setFrameRing(
+            @Nullable SharedFrameRing ring, @Nullable OnFrameRingListener listener) {
+        this.onFrameRingListener = listener;
+        this.frameRing = listener == null ? null : ring;
+    }
+
+    // Optional history of accepted frames for multi-frame denoised snapshots
+    @Nullable private volatile TemporalDenoiser denoiser;
+
+    /**
+     * Keep the last frames accepted in {@code denoiser} for {@link #writeDenoisedJpeg}. Pass
+     * null to stop and drop the history.
+     */
+    public void setDenoiser(@Nullable TemporalDenoiser denoiser) {
+        this.denoiser = denoiser;
+    }
+
+    // Optional history of every frame, throttled or not, sharing the NV21 conversion
+    @Nullable private volatile FrameHistory frameHistory;
+
+    /**
+     * Record every frame passed to accept() in {@code history}, including throttled and gated
+     * ones. Pass null to stop.
+     */
+    public void setFrameHistory(@Nullable FrameHistory history) {
+        this.frameHistory = history;
+    }
+
+    /** A scored frame kept for {@link #writeBestJpeg}. */
+    private static final class ScoredFrame {
+        byte[] nv21;
+        int width, height;
+        long tsNs;
+        double score;
+    }
+
+    // Optional sharpness scoring. Candidates are ordered oldest first with strictly decreasing
+    // scores: a frame that is not sharper than a newer one can never be the best of a window
+    // ending now, so it is dropped as soon as the newer frame arrives.
+    @Nullable private volatile SharpnessScorer sharpnessScorer;
+    private final ArrayDeque<ScoredFrame> scoredFrames = new ArrayDeque<>();
+    private int maxScoredFrames = 0;
+    private int scoringGeneration = 0;
+
+    /**
+     * Score every accepted frame with {@code scorer} and keep up to {@code maxFrames} candidates
+     * for {@link #writeBestJpeg}. Pass null to stop scoring and drop the candidates.
+     */
+    public void setSharpnessScorer(@Nullable SharpnessScorer scorer, int maxFrames) {
+        synchronized (scoredFrames) {
+            scoredFrames.clear();
+            maxScoredFrames = scorer == null ? 0 : Math.max(1, maxFrames);
+            scoringGeneration++;
+            sharpnessScorer = scorer;
+        }
+    }
+
     /** Clear previously registered listener. */
     public void clearOnFrameListener() {
         this.onFrameListener = null;
     }
 
+    // One-shot callbacks waiting for the next accepted frame
+    private final List<Runnable> nextFrameCallbacks = new ArrayList<>();
+
+    /** Run {@code callback} once after the next accepted frame, on the accept() thread. */
+    public void runOnNextFrame(Runnable callback) {
+        synchronized (nextFrameCallbacks) {
+            nextFrameCallbacks.add(callback);
+        }
+    }
+
+    /** Remove a callback registered with {@link #runOnNextFrame} that has not run yet. */
+    public void cancelNextFrameCallback(Runnable callback) {
+        synchronized (nextFrameCallbacks) {
+            nextFrameCallbacks.remove(callback);
+        }
+    }
+
     /** Accept with default throttling. Image is ALWAYS closed. */
     public void accept(Image image) { accept(image, defaultMinIntervalNs); }
 
+    /** Accept a camera Image, see {@link #accept(FrameImage, long)}. Image is ALWAYS closed. */
+    public boolean accept(Image image, long minIntervalNs) {
+        if (image == null) return false;
+        return accept(FrameImage.of(image), minIntervalNs);
+    }
+
     /**
-     * Accept a YUV_420_888 Image and convert to NV21 into ring buffer.
-     * Returns true if a frame was accepted and published. Image is ALWAYS closed.
+     * Accept a YUV_420_888 frame and convert to NV21 into ring buffer.
+     * Returns true if a frame was accepted and published. Frame is ALWAYS closed.
      */
-    public boolean accept(Image image, long minIntervalNs) {
+    public boolean accept(FrameImage image, long minIntervalNs) {
         if (image == null) return false;
+        final FrameMetrics metrics = frameMetrics;
         try {
             long now = android.os.SystemClock.elapsedRealtimeNanos();
-            if (now - lastAcceptTsNs < minIntervalNs) return false;
-
             final int w = image.getWidth();
             final int h = image.getHeight();
-            byte[] buf = ensureRingBuf(w, h);
+            final LumaStats stats = lumaStats;
+
+            // The history keeps frames this store drops, so convert them all and record the same
+            // buffer instead of converting twice. Until published, the ring slot is free to reuse.
+            Nv21Result res = null;
+            final FrameHistory history = frameHistory;
+            if (history != null) {
+                res = FastYuv.imageToNv21(image, ensureRingBuf(w, h), stats);
+                history.record(res.getData(), res.getWidth(), res.getHeight(), image.getTimestamp());
+            }
 
-            // Fast path: YUV_420_888 -> NV21 into ring buffer
-            Nv21Result res = FastYuv.imageToNv21(image, buf);
+            if (now - lastAcceptTsNs < minIntervalNs) {
+                if (metrics != null) metrics.recordDrop(FrameMetrics.Drop.THROTTLED);
+                return false;
+            }
+            // Frames someone is waiting for are never gated.
+            final MotionGate gate = motionGate;
+            if (gate != null && !gate.offer(image, now) && !hasNextFrameCallbacks()) {
+                if (metrics != null) metrics.recordDrop(FrameMetrics.Drop.MOTION_GATED);
+                return false;
+            }
+            if (metrics != null) metrics.recordSensorToAccept(image.getTimestamp(), now);
+
+            if (res == null) {
+                // Fast path: YUV_420_888 -> NV21 into ring buffer
+                res = FastYuv.imageToNv21(image, ensureRingBuf(w, h), stats);
+            }
+            if (metrics != null) {
+                metrics.recordLatency(
+                        FrameMetrics.Stage.ACCEPT_TO_CONVERTED, now, FrameMetrics.now());
+            }
 
             last = new Nv21Frame(res.getData(), res.getWidth(), res.getHeight(), now);
             ringIdx = (ringIdx + 1) % RING;
             lastAcceptTsNs = now;
 
+            scoreFrame(res, now);
+
+            final TemporalDenoiser denoiseHistory = denoiser;
+            if (denoiseHistory != null) {
+                denoiseHistory.offer(res.getData(), res.getWidth(), res.getHeight(), now);
+            }
+
+            final OnLumaStatsListener statsListener = onLumaStatsListener;
+            if (stats != null && statsListener != null) {
+                try { statsListener.onLumaStats(stats.toArray(image.getTimestamp())); } catch (Throwable t) {
+                    Log.w(TAG, "onLumaStats listener failed", t);
+                }
+            }
+
+            final TensorConverter converter = tensorConverter;
+            final OnTensorListener tensorListener = onTensorListener;
+            if (converter != null && tensorListener != null) {
+                final ByteBuffer tensor =
+                        converter.convert(res.getData(), res.getWidth(), res.getHeight());
+                try { tensorListener.onTensor(tensor, image.getTimestamp()); } catch (Throwable t) {
+                    Log.w(TAG, "onTensor listener failed", t);
+                } finally {
+                    converter.recycle(tensor);
+                }
+            }
+
+            final SharedFrameRing sharedRing = frameRing;
+            final OnFrameRingListener ringListener = onFrameRingListener;
+            if (sharedRing != null && ringListener != null) {
+                final long sequence = sharedRing.write(
+                        res.getData(), res.getWidth(), res.getHeight(), image.getTimestamp());
+                if (sequence < 0) {
+                    // Logged once per frame size rather than for every frame.
+                    final long size = ((long) res.getWidth() << 32) | res.getHeight();
+                    if (size != oversizedRingFrameSize) {
+                        oversizedRingFrameSize = size;
+                        Log.w(TAG, "Frame of " + res.getWidth() + "x" + res.getHeight()
+                                + " does not fit the shared frame ring");
+                    }
+                } else {
+                    try { ringListener.onFrameWritten(sharedRing.slotOf(sequence), sequence); } catch (Throwable t) {
+                        Log.w(TAG, "onFrameWritten listener failed", t);
+                    }
+                }
+            }
+
+            runNextFrameCallbacks();
+
             // Fire listener (same thread). Keep it lightweight.
             final OnFrameListener l = onFrameListener;
             if (l != null) {
@@ -113,6 +333,7 @@ public final class LastFrameStore {
             return true;
         } catch (Throwable t) {
             Log.e(TAG, "accept failed", t);
+            if (metrics != null) metrics.recordDrop(FrameMetrics.Drop.CONVERSION_FAILED);
             return false;
         } finally {
             try { image.close(); } catch (Exception ignore) {}
@@ -121,19 +342,93 @@ public final class LastFrameStore {
 
     /** Save latest NV21 frame as JPEG without EXIF (rotation applied via pixels). */
     public String writeJpeg(String outputPath, int rotationDegrees, int quality) throws IOException {
+        return writeJpeg(outputPath, rotationDegrees, quality, 0);
+    }
+
+    /**
+     * Like {@link #writeJpeg(String, int, int)}, and also writes a thumbnail with a longer side
+     * of at most {@code thumbnailMaxSide} to {@link Thumbnails#pathFor} the output, downscaled
+     * from the same frame. A {@code thumbnailMaxSide} of 0 writes no thumbnail.
+     */
+    public String writeJpeg(String outputPath, int rotationDegrees, int quality,
+            int thumbnailMaxSide) throws IOException {
         Nv21Frame f = last;
         if (f == null || f.nv21 == null) throw new IOException("No frame available");
 
         final byte[] src;
-        final int w = f.width, h = f.height;
         synchronized (snapshotLock) {
-            if (snapshotBuf == null || snapshotBuf.length != f.nv21.length) {
-                snapshotBuf = new byte[f.nv21.length];
+            src = snapshot(f.nv21);
+        }
+        compressJpeg(src, f.width, f.height, outputPath, rotationDegrees, quality);
+        if (thumbnailMaxSide > 0) {
+            Thumbnails.writeFromNv21(src, f.width, f.height, rotationDegrees, thumbnailMaxSide,
+                    Thumbnails.pathFor(outputPath));
+        }
+        return outputPath;
+    }
+
+    /**
+     * Save the sharpest scored frame accepted within the last {@code windowNs} as JPEG, see
+     * {@link #setSharpnessScorer}. Returns false if there is no such frame.
+     */
+    public boolean writeBestJpeg(long windowNs, String outputPath, int rotationDegrees, int quality)
+            throws IOException {
+        final long oldestNs = android.os.SystemClock.elapsedRealtimeNanos() - windowNs;
+        final byte[] src;
+        final int w, h;
+        synchronized (snapshotLock) {
+            synchronized (scoredFrames) {
+                ScoredFrame best = null;
+                // The first frame inside the window is the sharpest of it.
+                for (ScoredFrame frame : scoredFrames) {
+                    if (frame.tsNs >= oldestNs) {
+                        best = frame;
+                        break;
+                    }
+                }
+                if (best == null) return false;
+                src = snapshot(best.nv21);
+                w = best.width;
+                h = best.height;
             }
-            System.arraycopy(f.nv21, 0, snapshotBuf, 0, f.nv21.length);
-            src = snapshotBuf;
         }
+        compressJpeg(src, w, h, outputPath, rotationDegrees, quality);
+        return true;
+    }
 
+    /**
+     * Save the average of the last {@code frames} accepted frames, or of all kept frames if 0,
+     * as JPEG, see {@link TemporalDenoiser}. Returns false if no frame was kept.
+     */
+    public boolean writeDenoisedJpeg(String outputPath, int rotationDegrees, int quality,
+            int frames, boolean align) throws IOException {
+        final TemporalDenoiser history = denoiser;
+        if (history == null) return false;
+        final byte[] src;
+        final int w, h;
+        // The result is only valid until the next denoise(), so it is copied before encoding.
+        // Not locking the denoiser itself, which would hold up offer() on the frame thread.
+        synchronized (snapshotLock) {
+            final byte[] merged = history.denoise(frames, align);
+            if (merged == null) return false;
+            w = history.getOutputWidth();
+            h = history.getOutputHeight();
+            src = snapshot(merged);
+        }
+        compressJpeg(src, w, h, outputPath, rotationDegrees, quality);
+        return true;
+    }
+
+    private byte[] snapshot(byte[] nv21) {
+        if (snapshotBuf == null || snapshotBuf.length != nv21.length) {
+            snapshotBuf = new byte[nv21.length];
+        }
+        System.arraycopy(nv21, 0, snapshotBuf, 0, nv21.length);
+        return snapshotBuf;
+    }
+
+    private void compressJpeg(byte[] src, int w, int h, String outputPath, int rotationDegrees,
+            int quality) throws IOException {
         final boolean rotate = ((rotationDegrees % 360) + 360) % 360 != 0;
         byte[] toCompress = src;
         int cw = w, ch = h;
@@ -157,7 +452,6 @@ public final class LastFrameStore {
                 throw new IOException("compressToJpeg failed");
             }
         }
-        return outputPath;
     }
 
     /** Whether there is a frame available. */
@@ -211,6 +505,65 @@ public final class LastFrameStore {
 
     // ----------------- helpers -----------------
 
+    private boolean hasNextFrameCallbacks() {
+        synchronized (nextFrameCallbacks) {
+            return !nextFrameCallbacks.isEmpty();
+        }
+    }
+
+    private void runNextFrameCallbacks() {
+        final List<Runnable> callbacks;
+        synchronized (nextFrameCallbacks) {
+            if (nextFrameCallbacks.isEmpty()) return;
+            callbacks = new ArrayList<>(nextFrameCallbacks);
+            nextFrameCallbacks.clear();
+        }
+        for (Runnable callback : callbacks) {
+            try { callback.run(); } catch (Throwable t) {
+                Log.w(TAG, "next frame callback failed", t);
+            }
+        }
+    }
+
+    private void scoreFrame(Nv21Result res, long tsNs) {
+        final SharpnessScorer scorer = sharpnessScorer;
+        if (scorer == null) return;
+        final byte[] data = res.getData();
+        final double score = scorer.score(data, res.getWidth(), res.getHeight());
+
+        final int generation;
+        ScoredFrame frame = null;
+        synchronized (scoredFrames) {
+            if (scorer != sharpnessScorer) return;
+            // Older frames that are not sharper are dominated by this one; reuse one of them.
+            while (!scoredFrames.isEmpty() && scoredFrames.peekLast().score <= score) {
+                frame = scoredFrames.pollLast();
+            }
+            if (frame == null && scoredFrames.size() >= maxScoredFrames) {
+                frame = scoredFrames.pollFirst();
+            }
+            generation = scoringGeneration;
+        }
+
+        // Copy outside the lock so writeBestJpeg() is not held up.
+        if (frame == null) frame = new ScoredFrame();
+        if (frame.nv21 == null || frame.nv21.length != data.length) {
+            frame.nv21 = new byte[data.length];
+        }
+        System.arraycopy(data, 0, frame.nv21, 0, data.length);
+        frame.width = res.getWidth();
+        frame.height = res.getHeight();
+        frame.tsNs = tsNs;
+        frame.score = score;
+
+        synchronized (scoredFrames) {
+            if (generation != scoringGeneration) return;
+            // Only accept() adds frames, so the deque is still ordered.
+            while (scoredFrames.size() >= maxScoredFrames) scoredFrames.pollFirst();
+            scoredFrames.addLast(frame);
+        }
+    }
+
     private static int nv21Size(int w, int h) {
         int y = w * h;
         return y + (y / 2);
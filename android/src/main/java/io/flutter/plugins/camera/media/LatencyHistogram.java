@@ -0,0 +1,102 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ *
+ * <p>Bucket {@code i} holds samples in {@code [2^(i-1), 2^i)} microseconds (bucket 0 holds
+ * sub-microsecond samples), so percentiles are reported with at most a factor of two error, which
+ * is enough to set and watch SLOs without storing individual samples.
+ */
+public final class LatencyHistogram {
+  static final int BUCKET_COUNT = 32;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sumMicros = new AtomicLong();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * Records a sample. Negative durations, e.g. from clocks in a different time base, are ignored.
+   */
+  public void record(long durationNs) {
+    if (durationNs < 0) {
+      return;
+    }
+    final long micros = durationNs / 1000;
+    buckets.incrementAndGet(bucketIndex(micros));
+    count.incrementAndGet();
+    sumMicros.addAndGet(micros);
+    long max;
+    do {
+      max = maxMicros.get();
+    } while (micros > max && !maxMicros.compareAndSet(max, micros));
+  }
+
+  /** Number of recorded samples. */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns an upper bound of the given percentile in microseconds, or 0 if nothing was recorded.
+   *
+   * @param percentile between 0 and 100.
+   */
+  public long getPercentileMicros(double percentile) {
+    final long total = count.get();
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return Math.min(bucketUpperBoundMicros(i), maxMicros.get());
+      }
+    }
+    return maxMicros.get();
+  }
+
+  /** Clears all samples. */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    sumMicros.set(0);
+    maxMicros.set(0);
+  }
+
+  /** Returns a summary suitable for sending over the platform channel. */
+  @NonNull
+  public Map<String, Object> toMap() {
+    final long total = count.get();
+    Map<String, Object> map = new HashMap<>();
+    map.put("count", total);
+    map.put("meanMicros", total == 0 ? 0L : sumMicros.get() / total);
+    map.put("p50Micros", getPercentileMicros(50));
+    map.put("p90Micros", getPercentileMicros(90));
+    map.put("p99Micros", getPercentileMicros(99));
+    map.put("maxMicros", maxMicros.get());
+    return map;
+  }
+
+  static int bucketIndex(long micros) {
+    return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  static long bucketUpperBoundMicros(int index) {
+    return (1L << index) - 1;
+  }
+}
@@ -0,0 +1,169 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Brightness statistics of a frame, accumulated row by row while {@link FastYuv} copies the luma
+ * plane, so the pixels are only read while they are already in cache.
+ *
+ * <p>Collects a 256-bin histogram, the mean and optional per-tile means, sampling every {@code
+ * step} pixels in both directions. {@link #toArray(long)} packs a frame's statistics into one
+ * {@code long[]} laid out as the {@code FIELD_*} header, followed by the histogram, the tile sums
+ * and the tile sample counts, both in row-major tile order.
+ *
+ * <p>Not thread safe; a frame is accumulated on the thread converting it.
+ */
+public final class LumaStats {
+  public static final int BINS = 256;
+
+  /** Luma values at or below this count as clipped shadows. */
+  public static final int SHADOW_CLIP = 4;
+
+  /** Luma values at or above this count as clipped highlights. */
+  public static final int HIGHLIGHT_CLIP = 251;
+
+  public static final int FIELD_SENSOR_TIMESTAMP = 0;
+  public static final int FIELD_WIDTH = 1;
+  public static final int FIELD_HEIGHT = 2;
+  public static final int FIELD_SAMPLES = 3;
+  public static final int FIELD_SUM = 4;
+  public static final int FIELD_TILES_X = 5;
+  public static final int FIELD_TILES_Y = 6;
+
+  /** Number of header fields; the histogram starts at this index. */
+  public static final int HEADER_SIZE = 7;
+
+  private final int tilesX;
+  private final int tilesY;
+  private final int step;
+
+  private final long[] histogram = new long[BINS];
+  private final long[] tileSums;
+  private final long[] tileCounts;
+  private final int[] tileStarts;
+  private int width;
+  private int height;
+  private long samples;
+  private long sum;
+
+  /**
+   * @param tilesX number of tile columns; 1 by 1 tiles cover the whole frame.
+   * @param tilesY number of tile rows.
+   * @param step the sampling stride in pixels, at least 1.
+   */
+  public LumaStats(int tilesX, int tilesY, int step) {
+    if (tilesX < 1 || tilesY < 1 || step < 1) {
+      throw new IllegalArgumentException("tilesX, tilesY and step must be at least 1");
+    }
+    this.tilesX = tilesX;
+    this.tilesY = tilesY;
+    this.step = step;
+    this.tileSums = new long[tilesX * tilesY];
+    this.tileCounts = new long[tilesX * tilesY];
+    this.tileStarts = new int[tilesX + 1];
+  }
+
+  /** Clears the statistics for a new frame of the given size. */
+  public void begin(int width, int height) {
+    this.width = width;
+    this.height = height;
+    samples = 0;
+    sum = 0;
+    Arrays.fill(histogram, 0);
+    Arrays.fill(tileSums, 0);
+    Arrays.fill(tileCounts, 0);
+    for (int tx = 0; tx <= tilesX; tx++) {
+      // First sampled column of each tile.
+      final int start = (int) ((long) tx * width / tilesX);
+      tileStarts[tx] = (start + step - 1) / step * step;
+    }
+  }
+
+  /** Adds the first {@code count} luma values of row {@code y}. */
+  public void addRow(@NonNull byte[] row, int count, int y) {
+    if (y % step != 0 || y >= height) {
+      return;
+    }
+    final long[] histogram = this.histogram;
+    final int tileBase = (int) ((long) y * tilesY / height) * tilesX;
+    final int end = Math.min(count, width);
+    for (int tx = 0; tx < tilesX; tx++) {
+      final int tileEnd = Math.min(tileStarts[tx + 1], end);
+      long tileSum = 0;
+      int tileCount = 0;
+      for (int x = tileStarts[tx]; x < tileEnd; x += step) {
+        final int value = row[x] & 0xFF;
+        histogram[value]++;
+        tileSum += value;
+        tileCount++;
+      }
+      tileSums[tileBase + tx] += tileSum;
+      tileCounts[tileBase + tx] += tileCount;
+      sum += tileSum;
+      samples += tileCount;
+    }
+  }
+
+  public long getSampleCount() {
+    return samples;
+  }
+
+  /** Mean luma of the sampled pixels, or 0 if none were sampled. */
+  public double getMean() {
+    return samples == 0 ? 0 : (double) sum / samples;
+  }
+
+  public long getHistogramBin(int value) {
+    return histogram[value];
+  }
+
+  /** Fraction of samples at or below {@link #SHADOW_CLIP}. */
+  public double getClippedShadowFraction() {
+    return fraction(0, SHADOW_CLIP);
+  }
+
+  /** Fraction of samples at or above {@link #HIGHLIGHT_CLIP}. */
+  public double getClippedHighlightFraction() {
+    return fraction(HIGHLIGHT_CLIP, BINS - 1);
+  }
+
+  /** Mean luma of a tile, or 0 if it has no samples. */
+  public double getTileMean(int tileX, int tileY) {
+    final int i = tileY * tilesX + tileX;
+    return tileCounts[i] == 0 ? 0 : (double) tileSums[i] / tileCounts[i];
+  }
+
+  /** Packs the statistics of the current frame, see the class documentation. */
+  @NonNull
+  public long[] toArray(long sensorTimestampNs) {
+    final int tiles = tilesX * tilesY;
+    final long[] out = new long[HEADER_SIZE + BINS + 2 * tiles];
+    out[FIELD_SENSOR_TIMESTAMP] = sensorTimestampNs;
+    out[FIELD_WIDTH] = width;
+    out[FIELD_HEIGHT] = height;
+    out[FIELD_SAMPLES] = samples;
+    out[FIELD_SUM] = sum;
+    out[FIELD_TILES_X] = tilesX;
+    out[FIELD_TILES_Y] = tilesY;
+    System.arraycopy(histogram, 0, out, HEADER_SIZE, BINS);
+    System.arraycopy(tileSums, 0, out, HEADER_SIZE + BINS, tiles);
+    System.arraycopy(tileCounts, 0, out, HEADER_SIZE + BINS + tiles, tiles);
+    return out;
+  }
+
+  private double fraction(int from, int to) {
+    if (samples == 0) {
+      return 0;
+    }
+    long count = 0;
+    for (int i = from; i <= to; i++) {
+      count += histogram[i];
+    }
+    return (double) count / samples;
+  }
+}
@@ -0,0 +1,31 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.SharedMemory;
+import androidx.annotation.NonNull;
+import io.flutter.plugins.camera.SdkCapabilityChecker;
+import java.nio.MappedByteBuffer;
+
+/** Helpers for file mappings that should not wait for the garbage collector to be released. */
+final class MappedBuffers {
+  private MappedBuffers() {}
+
+  /**
+   * Releases the mapping of {@code buffer} right away rather than when the buffer is garbage
+   * collected, so long recordings and restarted streams do not hold on to address space. The
+   * buffer must not be used afterwards. {@link SharedMemory#unmap} frees any direct buffer; there
+   * is no public way to do so before Android 8.1, where the mapping is released when collected.
+   */
+  static void unmap(@NonNull MappedByteBuffer buffer) {
+    if (SdkCapabilityChecker.supportsDirectBufferUnmap()) {
+      try {
+        SharedMemory.unmap(buffer);
+      } catch (IllegalArgumentException e) {
+        // Not a direct buffer; released when collected.
+      }
+    }
+  }
+}
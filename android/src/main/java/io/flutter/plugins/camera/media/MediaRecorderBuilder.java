@@ -49,6 +49,9 @@ public class MediaRecorderBuilder {
 
   private boolean enableAudio;
   private int mediaOrientation;
+  private int highSpeedWidth;
+  private int highSpeedHeight;
+  private int highSpeedFps;
 
   public MediaRecorderBuilder(
       @NonNull CamcorderProfile camcorderProfile, @NonNull RecordingParameters parameters) {
@@ -92,6 +95,19 @@ public class MediaRecorderBuilder {
     return this;
   }
 
+  /**
+   * Records the stream of a constrained high speed session at its size and frame rate instead of
+   * the profile's. Without an explicit video bitrate, the profile's one is scaled to keep its bits
+   * per pixel.
+   */
+  @NonNull
+  public MediaRecorderBuilder setHighSpeed(int width, int height, int fps) {
+    this.highSpeedWidth = width;
+    this.highSpeedHeight = height;
+    this.highSpeedFps = fps;
+    return this;
+  }
+
   @NonNull
   public MediaRecorder build() throws IOException, NullPointerException, IndexOutOfBoundsException {
     MediaRecorder mediaRecorder = recorderFactory.makeMediaRecorder();
@@ -122,18 +138,28 @@ public class MediaRecorderBuilder {
       int videoBitrate =
           (parameters.videoBitrate != null && parameters.videoBitrate.intValue() > 0)
               ? parameters.videoBitrate
-              : videoProfile.getBitrate();
+              : highSpeedBitrate(
+                  videoProfile.getBitrate(),
+                  videoProfile.getFrameRate(),
+                  videoProfile.getWidth(),
+                  videoProfile.getHeight());
 
       mediaRecorder.setVideoEncodingBitRate(videoBitrate);
 
       int fps =
-          (parameters.fps != null && parameters.fps.intValue() > 0)
-              ? parameters.fps
-              : videoProfile.getFrameRate();
+          highSpeedFps > 0
+              ? highSpeedFps
+              : (parameters.fps != null && parameters.fps.intValue() > 0)
+                  ? parameters.fps
+                  : videoProfile.getFrameRate();
 
       mediaRecorder.setVideoFrameRate(fps);
 
-      mediaRecorder.setVideoSize(videoProfile.getWidth(), videoProfile.getHeight());
+      if (highSpeedFps > 0) {
+        mediaRecorder.setVideoSize(highSpeedWidth, highSpeedHeight);
+      } else {
+        mediaRecorder.setVideoSize(videoProfile.getWidth(), videoProfile.getHeight());
+      }
     } else if (camcorderProfile != null) {
       mediaRecorder.setOutputFormat(camcorderProfile.fileFormat);
       if (enableAudio) {
@@ -148,13 +174,28 @@ public class MediaRecorderBuilder {
       mediaRecorder.setVideoEncodingBitRate(
           (parameters.videoBitrate != null && parameters.videoBitrate.intValue() > 0)
               ? parameters.videoBitrate
-              : camcorderProfile.videoBitRate);
+              : highSpeedBitrate(
+                  camcorderProfile.videoBitRate,
+                  camcorderProfile.videoFrameRate,
+                  camcorderProfile.videoFrameWidth,
+                  camcorderProfile.videoFrameHeight));
       mediaRecorder.setVideoFrameRate(
-          (parameters.fps != null && parameters.fps.intValue() > 0)
-              ? parameters.fps
-              : camcorderProfile.videoFrameRate);
-      mediaRecorder.setVideoSize(
-          camcorderProfile.videoFrameWidth, camcorderProfile.videoFrameHeight);
+          highSpeedFps > 0
+              ? highSpeedFps
+              : (parameters.fps != null && parameters.fps.intValue() > 0)
+                  ? parameters.fps
+                  : camcorderProfile.videoFrameRate);
+      if (highSpeedFps > 0) {
+        mediaRecorder.setVideoSize(highSpeedWidth, highSpeedHeight);
+      } else {
+        mediaRecorder.setVideoSize(
+            camcorderProfile.videoFrameWidth, camcorderProfile.videoFrameHeight);
+      }
+    }
+
+    if (highSpeedFps > 0) {
+      // Every captured frame is kept, so the video plays back in real time.
+      mediaRecorder.setCaptureRate(highSpeedFps);
     }
 
     mediaRecorder.setOutputFile(parameters.outputFilePath);
@@ -164,4 +205,14 @@ public class MediaRecorderBuilder {
 
     return mediaRecorder;
   }
+
+  /** Scales a profile bitrate to the high speed size and rate, if set. */
+  private int highSpeedBitrate(int bitrate, int frameRate, int width, int height) {
+    if (highSpeedFps <= 0 || frameRate <= 0 || width <= 0 || height <= 0) {
+      return bitrate;
+    }
+    final double highSpeedRate = (double) highSpeedWidth * highSpeedHeight * highSpeedFps;
+    final double profileRate = (double) width * height * frameRate;
+    return (int) Math.min(Integer.MAX_VALUE, bitrate * highSpeedRate / profileRate);
+  }
 }
@@ -0,0 +1,139 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+
+/**
+ * Decides whether a frame differs enough from the last delivered one to be worth converting.
+ *
+ * <p>The luma plane is reduced to a {@link #THUMB_WIDTH} x {@link #THUMB_HEIGHT} thumbnail, each
+ * pixel averaging a 2x2 patch of the frame, and compared with the thumbnail of the last delivered
+ * frame in blocks of {@link #BLOCK} x {@link #BLOCK}. A frame passes if the mean absolute
+ * difference of any block exceeds the threshold, so small moving objects are not averaged away,
+ * or if no frame passed for the keep-alive interval. Comparing against the last delivered frame
+ * rather than the previous one keeps slow changes from slipping through one frame at a time.
+ *
+ * <p>Reading the thumbnail touches about 12k pixels regardless of the frame size. Not thread
+ * safe; frames are offered on the thread accepting them.
+ */
+public final class MotionGate {
+  public static final int THUMB_WIDTH = 64;
+  public static final int THUMB_HEIGHT = 48;
+  public static final int BLOCK = 8;
+
+  private final double threshold;
+  private final long keepAliveNs;
+
+  private byte[] reference = new byte[THUMB_WIDTH * THUMB_HEIGHT];
+  private byte[] current = new byte[THUMB_WIDTH * THUMB_HEIGHT];
+  private boolean hasReference = false;
+  private int referenceWidth = -1;
+  private int referenceHeight = -1;
+  private long lastPassedNs = 0;
+
+  /**
+   * @param threshold the mean absolute luma difference, from 0 to 255, a block must exceed.
+   * @param keepAliveNs the longest time without a passed frame; 0 or less disables keep-alives.
+   */
+  public MotionGate(double threshold, long keepAliveNs) {
+    this.threshold = threshold;
+    this.keepAliveNs = keepAliveNs;
+  }
+
+  /** Offers the luma plane of a YUV_420_888 image. */
+  public boolean offer(@NonNull FrameImage image, long nowNs) {
+    final FrameImage.Plane y = image.getPlanes()[0];
+    return offer(
+        y.getBuffer(),
+        y.getRowStride(),
+        y.getPixelStride(),
+        image.getWidth(),
+        image.getHeight(),
+        nowNs);
+  }
+
+  /**
+   * Returns whether the frame should be delivered. If so, it becomes the reference for the next
+   * frames.
+   */
+  public boolean offer(
+      @NonNull ByteBuffer luma, int rowStride, int pixelStride, int width, int height, long nowNs) {
+    downsample(luma, rowStride, pixelStride, width, height, current);
+
+    final boolean pass =
+        !hasReference
+            || width != referenceWidth
+            || height != referenceHeight
+            || (keepAliveNs > 0 && nowNs - lastPassedNs >= keepAliveNs)
+            || exceedsThreshold(reference, current);
+    if (pass) {
+      final byte[] previous = reference;
+      reference = current;
+      current = previous;
+      hasReference = true;
+      referenceWidth = width;
+      referenceHeight = height;
+      lastPassedNs = nowNs;
+    }
+    return pass;
+  }
+
+  /** Forgets the reference, so the next frame passes. */
+  public void reset() {
+    hasReference = false;
+  }
+
+  private boolean exceedsThreshold(byte[] a, byte[] b) {
+    final long limit = (long) (threshold * BLOCK * BLOCK);
+    for (int by = 0; by < THUMB_HEIGHT; by += BLOCK) {
+      for (int bx = 0; bx < THUMB_WIDTH; bx += BLOCK) {
+        long sad = 0;
+        for (int y = by; y < by + BLOCK; y++) {
+          final int row = y * THUMB_WIDTH;
+          for (int x = bx; x < bx + BLOCK; x++) {
+            sad += Math.abs((a[row + x] & 0xFF) - (b[row + x] & 0xFF));
+          }
+        }
+        if (sad > limit) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static void downsample(
+      ByteBuffer luma, int rowStride, int pixelStride, int width, int height, byte[] out) {
+    final int limit = luma.limit();
+    for (int ty = 0; ty < THUMB_HEIGHT; ty++) {
+      // Top left corner of the 2x2 patch at the center of the cell.
+      final int y0 = clamp((int) ((2L * ty + 1) * height / (2 * THUMB_HEIGHT)), height - 2);
+      final int row0 = y0 * rowStride;
+      final int row1 = Math.min(y0 + 1, height - 1) * rowStride;
+      for (int tx = 0; tx < THUMB_WIDTH; tx++) {
+        final int x0 = clamp((int) ((2L * tx + 1) * width / (2 * THUMB_WIDTH)), width - 2);
+        final int c0 = x0 * pixelStride;
+        final int c1 = Math.min(x0 + 1, width - 1) * pixelStride;
+        final int sum =
+            get(luma, row0 + c0, limit)
+                + get(luma, row0 + c1, limit)
+                + get(luma, row1 + c0, limit)
+                + get(luma, row1 + c1, limit);
+        out[ty * THUMB_WIDTH + tx] = (byte) (sum >> 2);
+      }
+    }
+  }
+
+  private static int clamp(int value, int max) {
+    return Math.max(0, Math.min(value, max));
+  }
+
+  private static int get(ByteBuffer buffer, int index, int limit) {
+    // The last row of a plane may be shorter than the row stride.
+    return index < limit ? buffer.get(index) & 0xFF : 0;
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs per-row work of large planes as concurrent row bands on a small, bounded worker pool.
+ *
+ * <p>A plane is split into one band per thread; the calling thread processes the last band itself
+ * and then waits for the others, so a pool of {@code n} threads keeps {@code n - 1} workers.
+ * Planes below {@code minParallelPixels} run on the calling thread only, since waking workers
+ * costs more than copying a small plane.
+ */
+public final class ParallelRows {
+  /** Upper bound of the shared pool size. */
+  public static final int MAX_THREADS = 8;
+
+  /** Planes smaller than this, in pixels, are processed on the calling thread by default. */
+  public static final int DEFAULT_MIN_PARALLEL_PIXELS = 2_000_000;
+
+  /** Processes rows {@code [startRow, endRow)} of a plane. */
+  public interface Band {
+    void run(int startRow, int endRow);
+  }
+
+  private static volatile ParallelRows shared;
+
+  /** The pool used by the frame conversions, sized to the available cores. */
+  @NonNull
+  public static ParallelRows getShared() {
+    ParallelRows rows = shared;
+    if (rows == null) {
+      synchronized (ParallelRows.class) {
+        rows = shared;
+        if (rows == null) {
+          final int cores = Runtime.getRuntime().availableProcessors();
+          rows = new ParallelRows(Math.min(cores, MAX_THREADS), DEFAULT_MIN_PARALLEL_PIXELS);
+          shared = rows;
+        }
+      }
+    }
+    return rows;
+  }
+
+  private final int threads;
+  private final int minParallelPixels;
+  @Nullable private final ExecutorService workers;
+
+  /**
+   * @param threads the number of bands a plane is split into, including the calling thread; 1
+   *     disables parallel processing.
+   * @param minParallelPixels the smallest plane, in pixels, that is split into bands.
+   */
+  public ParallelRows(int threads, int minParallelPixels) {
+    this.threads = Math.max(1, threads);
+    this.minParallelPixels = minParallelPixels;
+    if (this.threads == 1) {
+      this.workers = null;
+      return;
+    }
+    final AtomicInteger count = new AtomicInteger();
+    this.workers =
+        Executors.newFixedThreadPool(
+            this.threads - 1,
+            runnable -> {
+              final Thread thread = new Thread(runnable, "CameraRows-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Runs {@code band} over all {@code rows} of a plane {@code rowPixels} wide, split into bands
+   * if the plane is large enough, and returns once every band is done. Bands must only write
+   * their own rows.
+   */
+  public void forEachBand(int rows, int rowPixels, @NonNull Band band) {
+    if (workers == null || (long) rows * rowPixels < minParallelPixels || rows < threads) {
+      band.run(0, rows);
+      return;
+    }
+    final Future<?>[] pending = new Future<?>[threads - 1];
+    for (int i = 0; i < threads - 1; i++) {
+      final int start = bandStart(rows, i);
+      final int end = bandStart(rows, i + 1);
+      pending[i] = workers.submit(() -> band.run(start, end));
+    }
+    band.run(bandStart(rows, threads - 1), rows);
+    for (Future<?> future : pending) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /** Stops the worker threads. */
+  public void shutdown() {
+    if (workers != null) {
+      workers.shutdown();
+    }
+  }
+
+  private int bandStart(int rows, int band) {
+    return (int) ((long) rows * band / threads);
+  }
+}
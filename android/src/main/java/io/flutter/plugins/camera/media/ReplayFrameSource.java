@@ -0,0 +1,230 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.ImageFormat;
+import androidx.annotation.NonNull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded YUV_420_888 frames through the frame pipeline, so it can be benchmarked and
+ * tested without a camera.
+ *
+ * <p>A recording is a sequence of frames as written by {@link #writeFrame}: the {@link
+ * #FRAME_MAGIC}, width, height and sensor timestamp of the frame, followed by the row stride,
+ * pixel stride, length and bytes of its Y, U and V planes, all in the big-endian order of {@link
+ * DataOutputStream}. Planes keep the strides of the recording device but are replayed as separate
+ * buffers, even if the device interleaved its chroma planes.
+ *
+ * <p>{@link #play} hands the frames to a {@link FrameSink}, such as {@link
+ * LastFrameStore#accept(FrameImage, long)} or {@link ImageStreamReader#onImageAvailable(FrameImage,
+ * io.flutter.plugins.camera.types.CameraCaptureProperties,
+ * io.flutter.plugin.common.EventChannel.EventSink)}, on the calling thread. Timestamps are derived
+ * from the frame rate rather than the recording, so runs are deterministic.
+ */
+public final class ReplayFrameSource {
+  /** "YUVF" in ASCII, the start of every recorded frame. */
+  public static final int FRAME_MAGIC = 0x59555646;
+
+  /** The frame interval used for timestamps when frames are played back to back. */
+  public static final long DEFAULT_FRAME_INTERVAL_NS = 33_333_333L;
+
+  /** Receives replayed frames; the sink must close them. */
+  public interface FrameSink {
+    void onFrame(@NonNull FrameImage frame);
+  }
+
+  private static final class RecordedFrame {
+    final int width;
+    final int height;
+    final ByteBuffer[] planes = new ByteBuffer[3];
+    final int[] rowStrides = new int[3];
+    final int[] pixelStrides = new int[3];
+
+    RecordedFrame(int width, int height) {
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  private final List<RecordedFrame> frames;
+  private volatile boolean stopped = false;
+
+  private ReplayFrameSource(@NonNull List<RecordedFrame> frames) {
+    this.frames = frames;
+  }
+
+  /** Reads a recording from {@code file}. */
+  @NonNull
+  public static ReplayFrameSource read(@NonNull File file) throws IOException {
+    try (InputStream in = new FileInputStream(file)) {
+      return read(in);
+    }
+  }
+
+  /** Reads a recording from {@code in} until its end. */
+  @NonNull
+  public static ReplayFrameSource read(@NonNull InputStream in) throws IOException {
+    final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    final List<RecordedFrame> frames = new ArrayList<>();
+    while (true) {
+      final int magic;
+      try {
+        magic = data.readInt();
+      } catch (EOFException e) {
+        break;
+      }
+      if (magic != FRAME_MAGIC) {
+        throw new IOException("Not a frame recording");
+      }
+      final RecordedFrame frame = new RecordedFrame(data.readInt(), data.readInt());
+      // The recorded timestamp is kept in the file for reference only.
+      data.readLong();
+      for (int i = 0; i < 3; i++) {
+        frame.rowStrides[i] = data.readInt();
+        frame.pixelStrides[i] = data.readInt();
+        final byte[] bytes = new byte[data.readInt()];
+        data.readFully(bytes);
+        frame.planes[i] = ByteBuffer.wrap(bytes);
+      }
+      frames.add(frame);
+    }
+    if (frames.isEmpty()) {
+      throw new IOException("Recording has no frames");
+    }
+    return new ReplayFrameSource(frames);
+  }
+
+  /** Appends a YUV_420_888 frame to a recording, leaving the plane buffers unchanged. */
+  public static void writeFrame(@NonNull FrameImage image, @NonNull DataOutputStream out)
+      throws IOException {
+    out.writeInt(FRAME_MAGIC);
+    out.writeInt(image.getWidth());
+    out.writeInt(image.getHeight());
+    out.writeLong(image.getTimestamp());
+    final FrameImage.Plane[] planes = image.getPlanes();
+    for (int i = 0; i < 3; i++) {
+      final ByteBuffer buffer = planes[i].getBuffer().duplicate();
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      out.writeInt(planes[i].getRowStride());
+      out.writeInt(planes[i].getPixelStride());
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  public int getFrameCount() {
+    return frames.size();
+  }
+
+  /**
+   * Returns recorded frame {@code index}, modulo the frame count, with the given timestamp. The
+   * frame has its own buffer positions, so it can be consumed like a camera frame.
+   */
+  @NonNull
+  public FrameImage getFrame(int index, long timestampNs) {
+    final RecordedFrame frame = frames.get(index % frames.size());
+    final FrameImage.Plane[] planes = new FrameImage.Plane[3];
+    for (int i = 0; i < 3; i++) {
+      final ByteBuffer buffer = frame.planes[i].asReadOnlyBuffer();
+      final int rowStride = frame.rowStrides[i];
+      final int pixelStride = frame.pixelStrides[i];
+      planes[i] =
+          new FrameImage.Plane() {
+            @NonNull
+            @Override
+            public ByteBuffer getBuffer() {
+              return buffer;
+            }
+
+            @Override
+            public int getRowStride() {
+              return rowStride;
+            }
+
+            @Override
+            public int getPixelStride() {
+              return pixelStride;
+            }
+          };
+    }
+    return new FrameImage() {
+      @Override
+      public int getFormat() {
+        return ImageFormat.YUV_420_888;
+      }
+
+      @Override
+      public int getWidth() {
+        return frame.width;
+      }
+
+      @Override
+      public int getHeight() {
+        return frame.height;
+      }
+
+      @Override
+      public long getTimestamp() {
+        return timestampNs;
+      }
+
+      @NonNull
+      @Override
+      public Plane[] getPlanes() {
+        return planes;
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  /**
+   * Hands {@code count} frames to {@code sink} on the calling thread, looping over the recording,
+   * and returns the number of frames handed over, which is less if {@link #stop()} was called.
+   *
+   * <p>Frame {@code i} has a timestamp of {@code (i + 1)} frame intervals.
+   *
+   * @param fps the rate to pace frames at, or 0 to hand them over back to back with timestamps
+   *     {@link #DEFAULT_FRAME_INTERVAL_NS} apart.
+   */
+  public int play(int count, double fps, @NonNull FrameSink sink) {
+    stopped = false;
+    final long intervalNs = fps > 0 ? Math.round(1e9 / fps) : DEFAULT_FRAME_INTERVAL_NS;
+    final long startNs = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      if (stopped) {
+        return i;
+      }
+      if (fps > 0) {
+        // parkNanos may return early, so wait until the deadline has passed.
+        long waitNs;
+        while ((waitNs = startNs + i * intervalNs - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(waitNs);
+        }
+      }
+      sink.onFrame(getFrame(i, (i + 1) * intervalNs));
+    }
+    return count;
+  }
+
+  /** Makes a running {@link #play} return before its next frame. May be called from any thread. */
+  public void stop() {
+    stopped = true;
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * NV21 frames sent to Dart that stay addressable by a native handle, so Dart can refer back to a
+ * frame (e.g. to encode it) without sending its bytes back over the platform channel.
+ *
+ * <p>Retention policy: a frame is held until it is released explicitly, or until the frames
+ * retained after it take up the byte budget, whichever comes first. The newest frame is always
+ * held, even if it alone exceeds the budget. The buffers are shared with the maps handed to Dart
+ * and must not be modified after {@link #retain}.
+ */
+public final class RetainedFrames {
+  /** A retained frame. */
+  public static final class Frame {
+    @NonNull public final byte[] nv21;
+    public final int width;
+    public final int height;
+
+    Frame(@NonNull byte[] nv21, int width, int height) {
+      this.nv21 = nv21;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  private final LinkedHashMap<Long, Frame> frames = new LinkedHashMap<>();
+  private final long maxBytes;
+  private long retainedBytes;
+  private long nextHandle = 1;
+
+  /**
+   * @param maxBytes the maximum total size of the frames held at once; the oldest are evicted
+   *     first.
+   */
+  public RetainedFrames(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Retains a frame.
+   *
+   * @return the handle of the frame; handles are never reused.
+   */
+  public synchronized long retain(@NonNull byte[] nv21, int width, int height) {
+    final long handle = nextHandle++;
+    frames.put(handle, new Frame(nv21, width, height));
+    retainedBytes += nv21.length;
+    final Iterator<Frame> eldest = frames.values().iterator();
+    while (retainedBytes > maxBytes && frames.size() > 1) {
+      retainedBytes -= eldest.next().nv21.length;
+      eldest.remove();
+    }
+    return handle;
+  }
+
+  /** Returns the frame with the given handle, or null if it was released or evicted. */
+  @Nullable
+  public synchronized Frame get(long handle) {
+    return frames.get(handle);
+  }
+
+  /** Releases a frame; returns false if it was not held (anymore). */
+  public synchronized boolean release(long handle) {
+    final Frame frame = frames.remove(handle);
+    if (frame == null) {
+      return false;
+    }
+    retainedBytes -= frame.nv21.length;
+    return true;
+  }
+
+  /** Releases all frames. */
+  public synchronized void releaseAll() {
+    frames.clear();
+    retainedBytes = 0;
+  }
+
+  /** Total size of the frames currently held. */
+  public synchronized long getRetainedBytes() {
+    return retainedBytes;
+  }
+
+  /** Number of frames currently held. */
+  public synchronized int size() {
+    return frames.size();
+  }
+}
@@ -0,0 +1,181 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.ImageFormat;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.nio.ByteBuffer;
+
+/**
+ * A YUV_420_888 {@link FrameImage} converted from an RGBA_8888 frame, for sources that only
+ * deliver RGBA, such as frames read back from OpenGL.
+ *
+ * <p>The conversion is the inverse of the full range BT.601 one in {@link TensorConverter}, with
+ * chroma averaged over 2x2 pixels into planar U and V planes. The planes live in a {@link
+ * Workspace} that is reused by the next conversion, so a frame must be closed before the next one
+ * is converted into the same workspace.
+ */
+public final class RgbaFrameImage implements FrameImage {
+  /** Planes frames are converted into, allocated once per frame size. */
+  public static final class Workspace {
+    private byte[] y;
+    private byte[] u;
+    private byte[] v;
+    private byte[] rows;
+    private int width = -1;
+    private int height = -1;
+
+    private void ensure(int width, int height, int rowStride) {
+      if (width != this.width || height != this.height) {
+        this.width = width;
+        this.height = height;
+        y = new byte[width * height];
+        u = new byte[(width / 2) * (height / 2)];
+        v = new byte[(width / 2) * (height / 2)];
+      }
+      if (rows == null || rows.length < 2 * rowStride) {
+        rows = new byte[2 * rowStride];
+      }
+    }
+  }
+
+  private final int width;
+  private final int height;
+  private final long timestampNs;
+  private final Plane[] planes;
+  @Nullable private final AutoCloseable source;
+
+  private RgbaFrameImage(
+      int width, int height, long timestampNs, Plane[] planes, @Nullable AutoCloseable source) {
+    this.width = width;
+    this.height = height;
+    this.timestampNs = timestampNs;
+    this.planes = planes;
+    this.source = source;
+  }
+
+  /**
+   * Converts an RGBA_8888 frame of even size.
+   *
+   * @param rgba the pixels, starting at position 0, {@code rowStride} bytes per row.
+   * @param source closed with the returned frame, or null.
+   */
+  @NonNull
+  public static RgbaFrameImage convert(
+      @NonNull ByteBuffer rgba,
+      int rowStride,
+      int width,
+      int height,
+      long timestampNs,
+      @NonNull Workspace workspace,
+      @Nullable AutoCloseable source) {
+    if (width <= 0 || height <= 0 || width % 2 != 0 || height % 2 != 0) {
+      throw new IllegalArgumentException("Frame size must be even, got " + width + "x" + height);
+    }
+    workspace.ensure(width, height, rowStride);
+    final byte[] yPlane = workspace.y;
+    final byte[] uPlane = workspace.u;
+    final byte[] vPlane = workspace.v;
+    final byte[] rows = workspace.rows;
+    final int chromaWidth = width / 2;
+
+    for (int y = 0; y < height; y += 2) {
+      // Two rows at a time, the last one without its padding.
+      rgba.position(y * rowStride);
+      rgba.get(rows, 0, rowStride + width * 4);
+      for (int cx = 0; cx < chromaWidth; cx++) {
+        int r = 0;
+        int g = 0;
+        int b = 0;
+        for (int dy = 0; dy < 2; dy++) {
+          for (int dx = 0; dx < 2; dx++) {
+            final int x = 2 * cx + dx;
+            final int p = dy * rowStride + x * 4;
+            final int pr = rows[p] & 0xFF;
+            final int pg = rows[p + 1] & 0xFF;
+            final int pb = rows[p + 2] & 0xFF;
+            yPlane[(y + dy) * width + x] =
+                (byte) ((19595 * pr + 38470 * pg + 7471 * pb + 32768) >> 16);
+            r += pr;
+            g += pg;
+            b += pb;
+          }
+        }
+        // Sums of 4 pixels, so the shift is 2 more.
+        final int c = (y / 2) * chromaWidth + cx;
+        uPlane[c] = (byte) clamp(((-11059 * r - 21709 * g + 32768 * b + 131072) >> 18) + 128);
+        vPlane[c] = (byte) clamp(((32768 * r - 27439 * g - 5329 * b + 131072) >> 18) + 128);
+      }
+    }
+    rgba.rewind();
+
+    final Plane[] planes = {
+      plane(yPlane, width), plane(uPlane, chromaWidth), plane(vPlane, chromaWidth)
+    };
+    return new RgbaFrameImage(width, height, timestampNs, planes, source);
+  }
+
+  private static Plane plane(byte[] data, int rowStride) {
+    final ByteBuffer buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+    return new Plane() {
+      @NonNull
+      @Override
+      public ByteBuffer getBuffer() {
+        return buffer;
+      }
+
+      @Override
+      public int getRowStride() {
+        return rowStride;
+      }
+
+      @Override
+      public int getPixelStride() {
+        return 1;
+      }
+    };
+  }
+
+  private static int clamp(int value) {
+    return value < 0 ? 0 : (value > 255 ? 255 : value);
+  }
+
+  @Override
+  public int getFormat() {
+    return ImageFormat.YUV_420_888;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public long getTimestamp() {
+    return timestampNs;
+  }
+
+  @NonNull
+  @Override
+  public Plane[] getPlanes() {
+    return planes;
+  }
+
+  @Override
+  public void close() {
+    if (source != null) {
+      try {
+        source.close();
+      } catch (Exception ignore) {
+      }
+    }
+  }
+}
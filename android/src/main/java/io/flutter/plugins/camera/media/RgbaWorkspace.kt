@@ -0,0 +1,97 @@
+package io.flutter.plugins.camera.media
+
+import io.github.crow_misia.libyuv.AbgrBuffer
+import io.github.crow_misia.libyuv.I420Buffer
+import java.util.ArrayDeque
+
+/**
+ * Converts YUV_420_888 images to RGBA8888 with libyuv I420ToABGR, whose ABGR words
+ * are laid out as R, G, B, A bytes in memory.
+ *
+ * The I420 and ABGR buffers are kept between frames, and the returned arrays come
+ * from a small pool filled by [recycle]. Rows are packed to width * 4 bytes, so the
+ * bytes can be uploaded as an RGBA8888 image without repacking.
+ *
+ * Conversion and [close] hold the same lock, since [close] frees the native buffers
+ * and may be called on another thread while a frame is being converted.
+ */
+class RgbaWorkspace {
+    private var i420: I420Buffer? = null
+    private var abgr: AbgrBuffer? = null
+    private val pool = ArrayDeque<ByteArray>()
+    private val lock = Any()
+    private var closed = false
+
+    /**
+     * Converts [image] into a packed RGBA8888 array; pass it to [recycle] once delivered.
+     *
+     * @throws IllegalStateException if the workspace was closed.
+     */
+    fun imageToRgba(image: FrameImage): ByteArray = synchronized(lock) {
+        check(!closed) { "The RGBA workspace is closed" }
+        val w = image.width
+        val h = image.height
+        ensure(w, h)
+
+        val src = imageToI420(image, null, i420)
+        src.convertTo(abgr!!)
+
+        val rowBytes = w * 4
+        val out = obtain(rowBytes * h)
+        val plane = abgr!!.plane
+        val stride = plane.rowStride.value
+        val bb = plane.buffer.duplicate()
+        if (stride == rowBytes) {
+            bb.position(0)
+            bb.get(out, 0, out.size)
+        } else {
+            // Drop the row padding of the native buffer.
+            for (row in 0 until h) {
+                bb.position(row * stride)
+                bb.get(out, row * rowBytes, rowBytes)
+            }
+        }
+        out
+    }
+
+    /** Returns an array from [imageToRgba] to the pool. May be called from any thread. */
+    fun recycle(bytes: ByteArray) {
+        synchronized(pool) {
+            if (pool.size < POOL_SIZE) pool.push(bytes)
+        }
+    }
+
+    /** Frees the native buffers after a conversion in progress. May be called from any thread. */
+    fun close() {
+        synchronized(lock) {
+            closed = true
+            i420?.close(); abgr?.close()
+            i420 = null; abgr = null
+        }
+        synchronized(pool) { pool.clear() }
+    }
+
+    private fun ensure(width: Int, height: Int) {
+        val current = abgr
+        if (current == null || current.width != width || current.height != height) {
+            i420?.close(); abgr?.close()
+            i420 = I420Buffer.allocate(width, height)
+            abgr = AbgrBuffer.allocate(width, height)
+        }
+    }
+
+    private fun obtain(size: Int): ByteArray {
+        synchronized(pool) {
+            while (pool.isNotEmpty()) {
+                val bytes = pool.pop()
+                if (bytes.size == size) return bytes
+            }
+        }
+        return ByteArray(size)
+    }
+
+    private companion object {
+        /** Frames in flight to the main thread, plus one being converted. */
+        const val POOL_SIZE = 3
+    }
+}
@@ -0,0 +1,195 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import io.flutter.plugins.camera.SdkCapabilityChecker;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A fixed-size ring of frame slots in a memory-mapped file, read by Dart through FFI so frame bytes
+ * never cross a platform channel.
+ *
+ * <p>All values are little endian. The file starts with a {@link #HEADER_SIZE} byte header of
+ * {@code HEADER_*} fields, followed by {@code slotCount} slots of {@link #SLOT_HEADER_SIZE} bytes
+ * of {@code SLOT_*} fields and {@code slotCapacity} bytes of pixels each. Frames are written to
+ * the slots in turn and numbered from 1.
+ *
+ * <p>The {@link #SLOT_SEQUENCE} of a slot is -1 while it is written and the number of its frame
+ * once it is complete, so a reader that finds the same positive sequence before and after reading
+ * a slot has read a whole frame. Not thread safe; frames are written on the thread accepting them.
+ */
+public final class SharedFrameRing {
+  /** "CFRG" in ASCII. */
+  public static final int MAGIC = 0x47524643;
+
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 64;
+  public static final int SLOT_HEADER_SIZE = 64;
+
+  public static final int HEADER_MAGIC = 0;
+  public static final int HEADER_VERSION = 4;
+  public static final int HEADER_SLOT_COUNT = 8;
+  public static final int HEADER_SLOT_HEADER_SIZE = 12;
+  public static final int HEADER_SLOT_CAPACITY = 16;
+  public static final int HEADER_LATEST_SEQUENCE = 24;
+
+  public static final int SLOT_SEQUENCE = 0;
+  public static final int SLOT_WIDTH = 8;
+  public static final int SLOT_HEIGHT = 12;
+  public static final int SLOT_FORMAT = 16;
+  public static final int SLOT_ROW_STRIDE = 20;
+  public static final int SLOT_DATA_SIZE = 24;
+  public static final int SLOT_SENSOR_TIMESTAMP = 32;
+
+  /** {@code android.graphics.ImageFormat.NV21}, the format of the slot pixels. */
+  public static final int FORMAT_NV21 = 17;
+
+  private final File file;
+  private final int slotCount;
+  private final int slotCapacity;
+  private final MappedByteBuffer buffer;
+  private long nextSequence = 1;
+  private boolean closed;
+
+  // Written and read by volatileFence() only.
+  private volatile int fence;
+
+  /**
+   * Creates {@code file} and maps it.
+   *
+   * @param slotCount the number of slots, at least 2.
+   * @param slotCapacity the largest frame in bytes.
+   */
+  public SharedFrameRing(@NonNull File file, int slotCount, int slotCapacity) throws IOException {
+    if (slotCount < 2 || slotCapacity < 1) {
+      throw new IllegalArgumentException("Need at least 2 slots of at least 1 byte");
+    }
+    this.file = file;
+    this.slotCount = slotCount;
+    this.slotCapacity = slotCapacity;
+    final long size = HEADER_SIZE + (long) slotCount * (SLOT_HEADER_SIZE + slotCapacity);
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Ring is larger than 2 GB");
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(size);
+      // The mapping stays valid after the file is closed.
+      buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(HEADER_VERSION, VERSION);
+    buffer.putInt(HEADER_SLOT_COUNT, slotCount);
+    buffer.putInt(HEADER_SLOT_HEADER_SIZE, SLOT_HEADER_SIZE);
+    buffer.putInt(HEADER_SLOT_CAPACITY, slotCapacity);
+    buffer.putLong(HEADER_LATEST_SEQUENCE, 0);
+    storeFence();
+    // Written last, so a reader seeing the magic sees the whole header.
+    buffer.putInt(HEADER_MAGIC, MAGIC);
+  }
+
+  @NonNull
+  public File getFile() {
+    return file;
+  }
+
+  public int getSlotCount() {
+    return slotCount;
+  }
+
+  public int getSlotCapacity() {
+    return slotCapacity;
+  }
+
+  /** Returns the slot holding frame {@code sequence}. */
+  public int slotOf(long sequence) {
+    return (int) ((sequence - 1) % slotCount);
+  }
+
+  /**
+   * Writes an NV21 frame into the next slot.
+   *
+   * @return the sequence number of the frame, or -1 if it is larger than the slot capacity.
+   */
+  public long write(@NonNull byte[] nv21, int width, int height, long sensorTimestampNs) {
+    if (closed) {
+      throw new IllegalStateException("The frame ring is closed");
+    }
+    final int size = width * height * 3 / 2;
+    if (size > slotCapacity || size > nv21.length) {
+      return -1;
+    }
+    final long sequence = nextSequence++;
+    final int base = HEADER_SIZE + slotOf(sequence) * (SLOT_HEADER_SIZE + slotCapacity);
+    buffer.putLong(base + SLOT_SEQUENCE, -1);
+    storeFence();
+    buffer.putInt(base + SLOT_WIDTH, width);
+    buffer.putInt(base + SLOT_HEIGHT, height);
+    buffer.putInt(base + SLOT_FORMAT, FORMAT_NV21);
+    buffer.putInt(base + SLOT_ROW_STRIDE, width);
+    buffer.putInt(base + SLOT_DATA_SIZE, size);
+    buffer.putLong(base + SLOT_SENSOR_TIMESTAMP, sensorTimestampNs);
+    buffer.position(base + SLOT_HEADER_SIZE);
+    buffer.put(nv21, 0, size);
+    storeFence();
+    buffer.putLong(base + SLOT_SEQUENCE, sequence);
+    buffer.putLong(HEADER_LATEST_SEQUENCE, sequence);
+    return sequence;
+  }
+
+  /**
+   * Unmaps the ring and deletes the file. Readers that mapped it keep their mapping. Must be called
+   * on the thread writing frames, or once no write can be in progress, since a write after the
+   * mapping is released would touch freed memory.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    MappedBuffers.unmap(buffer);
+    if (!file.delete()) {
+      file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Keeps the stores before this call from becoming visible after the stores following it, for
+   * readers in other threads or native code. The slot and header fields are plain stores into the
+   * mapping, so without it a reader could see a new sequence before the pixels it covers.
+   */
+  private void storeFence() {
+    if (SdkCapabilityChecker.supportsVarHandleFences()) {
+      varHandleStoreFence();
+    } else {
+      volatileFence();
+    }
+  }
+
+  @RequiresApi(api = Build.VERSION_CODES.TIRAMISU)
+  private static void varHandleStoreFence() {
+    VarHandle.storeStoreFence();
+  }
+
+  /**
+   * The fence used before {@link VarHandle} is available. The volatile write is a release, so no
+   * earlier store moves after it, and the volatile read of the same field that follows is an
+   * acquire, so no later store moves before it; together they order the earlier stores before the
+   * later ones. ART emits a full barrier for the pair, which native readers rely on as well.
+   */
+  private void volatileFence() {
+    fence = 1;
+    @SuppressWarnings("unused")
+    final int ignored = fence;
+  }
+}
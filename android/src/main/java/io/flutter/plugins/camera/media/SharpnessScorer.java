@@ -0,0 +1,89 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Scores the sharpness of a frame as the variance of the Laplacian of its luma plane.
+ *
+ * <p>Blurred frames have few strong edges, so their Laplacian response is flat and its variance
+ * low. The Laplacian is sampled every {@code step} pixels in both directions, using neighbours
+ * {@code step} pixels away, and only within a region of interest; a step of 4 on a 1080p frame
+ * visits about 130k pixels, which keeps scoring well below the cost of the NV21 conversion.
+ *
+ * <p>Scores depend on the content, the region and the step, so they are only comparable between
+ * frames of the same scene scored with the same settings.
+ */
+public final class SharpnessScorer {
+  private final int step;
+  private final float left;
+  private final float top;
+  private final float right;
+  private final float bottom;
+
+  /**
+   * @param step the sampling stride in pixels, at least 1.
+   * @param left left edge of the region of interest, as a fraction of the width.
+   * @param top top edge of the region of interest, as a fraction of the height.
+   * @param right right edge of the region of interest, as a fraction of the width.
+   * @param bottom bottom edge of the region of interest, as a fraction of the height.
+   */
+  public SharpnessScorer(int step, float left, float top, float right, float bottom) {
+    if (step < 1) {
+      throw new IllegalArgumentException("step must be at least 1");
+    }
+    if (!(0 <= left && left < right && right <= 1 && 0 <= top && top < bottom && bottom <= 1)) {
+      throw new IllegalArgumentException("Invalid region of interest");
+    }
+    this.step = step;
+    this.left = left;
+    this.top = top;
+    this.right = right;
+    this.bottom = bottom;
+  }
+
+  /** Scores the whole frame, sampling every {@code step} pixels. */
+  public SharpnessScorer(int step) {
+    this(step, 0f, 0f, 1f, 1f);
+  }
+
+  /**
+   * Returns the sharpness of a frame whose luma plane starts at offset 0 of {@code luma} with a
+   * row stride of {@code width}, as in NV21. Returns 0 if the region is too small to sample.
+   */
+  public double score(@NonNull byte[] luma, int width, int height) {
+    // Keep a margin of one step so every sample has all four neighbours.
+    final int x0 = Math.max(step, (int) (left * width));
+    final int x1 = Math.min(width - step, (int) (right * width));
+    final int y0 = Math.max(step, (int) (top * height));
+    final int y1 = Math.min(height - step, (int) (bottom * height));
+    final int dy = step * width;
+
+    long count = 0;
+    long sum = 0;
+    long sumSquares = 0;
+    for (int y = y0; y < y1; y += step) {
+      final int row = y * width;
+      for (int x = x0; x < x1; x += step) {
+        final int i = row + x;
+        final int laplacian =
+            (luma[i - step] & 0xFF)
+                + (luma[i + step] & 0xFF)
+                + (luma[i - dy] & 0xFF)
+                + (luma[i + dy] & 0xFF)
+                - 4 * (luma[i] & 0xFF);
+        sum += laplacian;
+        sumSquares += (long) laplacian * laplacian;
+        count++;
+      }
+    }
+    if (count == 0) {
+      return 0;
+    }
+    final double mean = (double) sum / count;
+    return (double) sumSquares / count - mean * mean;
+  }
+}
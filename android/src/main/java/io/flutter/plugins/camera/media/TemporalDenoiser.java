@@ -0,0 +1,331 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Reduces noise by averaging the last frames of a bounded NV21 history, for low light snapshots
+ * without a long exposure capture.
+ *
+ * <p>Every frame is merged into the newest one. With alignment, a frame is first shifted by the
+ * global translation that best matches its row and column luma profiles to the newest frame's,
+ * searched within {@link #MAX_SHIFT} pixels, which compensates hand shake. Samples that still
+ * differ from the newest frame by more than {@link #MOTION_THRESHOLD} are taken from the newest
+ * frame instead, so moving objects do not leave ghosts. Sums are accumulated in a {@code short}
+ * buffer, in parallel row bands of {@link ParallelRows}.
+ *
+ * <p>Frame slots, profiles, the accumulator and the output are allocated once per frame size and
+ * reused, so neither offered frames nor snapshots allocate frame-sized buffers once warmed up.
+ * {@link #denoise} only holds the history lock while picking its frames and merges outside it, so
+ * frames keep being offered meanwhile; a frame offered into a slot being merged gets a new buffer.
+ */
+public final class TemporalDenoiser {
+  /** Most frames kept; their sum of 8-bit samples must fit a {@code short}. */
+  public static final int MAX_FRAMES = 16;
+
+  /** Largest translation, in pixels, searched when aligning frames. */
+  public static final int MAX_SHIFT = 32;
+
+  /** Largest difference from the newest frame of a sample that is averaged. */
+  public static final int MOTION_THRESHOLD = 40;
+
+  /** Rows and columns sampled for the alignment profiles. */
+  private static final int PROFILE_STEP = 4;
+
+  private final int capacity;
+  private final ParallelRows rows;
+
+  // History, oldest first starting at `oldest`. Guarded by `this`.
+  private final byte[][] frames;
+  private int oldest;
+  private int count;
+  private int width = -1;
+  private int height = -1;
+  private long newestTimestampNs;
+  // The first `merging` entries of `merged` are read by denoise() and must not be overwritten.
+  private int merging;
+
+  // Snapshot workspace, reused across calls. Guarded by `workspaceLock`.
+  private final Object workspaceLock = new Object();
+  private int mergeWidth = -1;
+  private int mergeHeight = -1;
+  private short[] accumulator;
+  private byte[] output;
+  private int[][] columnProfiles;
+  private int[][] rowProfiles;
+  private final int[] shiftX;
+  private final int[] shiftY;
+  private final byte[][] merged;
+
+  /**
+   * @param capacity the number of frames kept, from 2 to {@link #MAX_FRAMES}.
+   * @param rows the pool the frames are merged on.
+   */
+  public TemporalDenoiser(int capacity, @NonNull ParallelRows rows) {
+    if (capacity < 2 || capacity > MAX_FRAMES) {
+      throw new IllegalArgumentException("Capacity must be between 2 and " + MAX_FRAMES);
+    }
+    this.capacity = capacity;
+    this.rows = rows;
+    this.frames = new byte[capacity][];
+    this.shiftX = new int[capacity];
+    this.shiftY = new int[capacity];
+    this.merged = new byte[capacity][];
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Number of frames in the history. */
+  public synchronized int getFrameCount() {
+    return count;
+  }
+
+  public synchronized int getWidth() {
+    return width;
+  }
+
+  public synchronized int getHeight() {
+    return height;
+  }
+
+  /** Timestamp passed with the newest frame. */
+  public synchronized long getNewestTimestampNs() {
+    return newestTimestampNs;
+  }
+
+  /** Width of the last {@link #denoise} result. */
+  public int getOutputWidth() {
+    synchronized (workspaceLock) {
+      return mergeWidth;
+    }
+  }
+
+  /** Height of the last {@link #denoise} result. */
+  public int getOutputHeight() {
+    synchronized (workspaceLock) {
+      return mergeHeight;
+    }
+  }
+
+  /** Copies an NV21 frame into the history, replacing the oldest frame once full. */
+  public synchronized void offer(@NonNull byte[] nv21, int width, int height, long timestampNs) {
+    if (width != this.width || height != this.height) {
+      resize(width, height);
+    }
+    final int size = width * height * 3 / 2;
+    final int slot = (oldest + count) % capacity;
+    if (frames[slot] == null || isMerging(frames[slot])) {
+      frames[slot] = new byte[size];
+    }
+    System.arraycopy(nv21, 0, frames[slot], 0, size);
+    if (count < capacity) {
+      count++;
+    } else {
+      oldest = (oldest + 1) % capacity;
+    }
+    newestTimestampNs = timestampNs;
+  }
+
+  /** Drops the history, keeping the buffers. */
+  public synchronized void clear() {
+    count = 0;
+    oldest = 0;
+  }
+
+  /**
+   * Merges the newest {@code frameCount} frames, or all of them if it is 0 or more than the
+   * history holds.
+   *
+   * @return the NV21 result of {@link #getOutputWidth()} x {@link #getOutputHeight()}, valid
+   *     until the next call, or null if the history is empty.
+   */
+  @Nullable
+  public byte[] denoise(int frameCount, boolean align) {
+    synchronized (workspaceLock) {
+      final int n;
+      synchronized (this) {
+        if (count == 0) {
+          return null;
+        }
+        n = frameCount <= 0 ? count : Math.min(frameCount, count);
+        // merged[0] is the newest frame, the reference of the others.
+        for (int i = 0; i < n; i++) {
+          merged[i] = frames[(oldest + count - 1 - i) % capacity];
+        }
+        merging = n;
+        if (width != mergeWidth || height != mergeHeight) {
+          allocateWorkspace(width, height);
+        }
+      }
+      try {
+        for (int i = 0; i < n; i++) {
+          shiftX[i] = 0;
+          shiftY[i] = 0;
+        }
+        if (align && n > 1) {
+          for (int i = 0; i < n; i++) {
+            profile(merged[i], columnProfiles[i], rowProfiles[i]);
+          }
+          for (int i = 1; i < n; i++) {
+            shiftX[i] = bestShift(columnProfiles[0], columnProfiles[i]);
+            shiftY[i] = bestShift(rowProfiles[0], rowProfiles[i]);
+          }
+        }
+
+        final int w = mergeWidth;
+        final int h = mergeHeight;
+        rows.forEachBand(h, w, (start, end) -> mergeLuma(n, start, end));
+        rows.forEachBand(h / 2, w, (start, end) -> mergeChroma(n, start, end));
+        return output;
+      } finally {
+        synchronized (this) {
+          merging = 0;
+        }
+      }
+    }
+  }
+
+  private boolean isMerging(@NonNull byte[] frame) {
+    for (int i = 0; i < merging; i++) {
+      if (merged[i] == frame) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void resize(int width, int height) {
+    this.width = width;
+    this.height = height;
+    count = 0;
+    oldest = 0;
+    for (int i = 0; i < capacity; i++) {
+      frames[i] = null;
+    }
+  }
+
+  private void allocateWorkspace(int width, int height) {
+    mergeWidth = width;
+    mergeHeight = height;
+    final int size = width * height * 3 / 2;
+    accumulator = new short[size];
+    output = new byte[size];
+    columnProfiles = new int[capacity][(width + PROFILE_STEP - 1) / PROFILE_STEP];
+    rowProfiles = new int[capacity][(height + PROFILE_STEP - 1) / PROFILE_STEP];
+  }
+
+  private void mergeLuma(int n, int startRow, int endRow) {
+    final int w = mergeWidth;
+    final int h = mergeHeight;
+    final byte[] reference = merged[0];
+    final short[] acc = accumulator;
+    for (int y = startRow; y < endRow; y++) {
+      final int row = y * w;
+      for (int x = 0; x < w; x++) {
+        acc[row + x] = (short) (reference[row + x] & 0xFF);
+      }
+      for (int i = 1; i < n; i++) {
+        final byte[] frame = merged[i];
+        final int dx = shiftX[i];
+        final int sourceRow = clamp(y + shiftY[i], h - 1) * w;
+        for (int x = 0; x < w; x++) {
+          final int ref = reference[row + x] & 0xFF;
+          final int value = frame[sourceRow + clamp(x + dx, w - 1)] & 0xFF;
+          final int diff = value - ref;
+          acc[row + x] += (diff > MOTION_THRESHOLD || diff < -MOTION_THRESHOLD) ? ref : value;
+        }
+      }
+      for (int x = 0; x < w; x++) {
+        output[row + x] = (byte) ((acc[row + x] + n / 2) / n);
+      }
+    }
+  }
+
+  private void mergeChroma(int n, int startRow, int endRow) {
+    final int w = mergeWidth;
+    final int chromaWidth = w / 2;
+    final int chromaHeight = mergeHeight / 2;
+    final int base = w * mergeHeight;
+    final byte[] reference = merged[0];
+    final short[] acc = accumulator;
+    for (int y = startRow; y < endRow; y++) {
+      final int row = base + y * w;
+      for (int x = 0; x < 2 * chromaWidth; x++) {
+        acc[row + x] = (short) (reference[row + x] & 0xFF);
+      }
+      for (int i = 1; i < n; i++) {
+        final byte[] frame = merged[i];
+        // Chroma is subsampled 2x2, so the shift halves.
+        final int dx = shiftX[i] / 2;
+        final int sourceRow = base + clamp(y + shiftY[i] / 2, chromaHeight - 1) * w;
+        for (int x = 0; x < 2 * chromaWidth; x++) {
+          final int ref = reference[row + x] & 0xFF;
+          final int source = sourceRow + 2 * clamp((x >> 1) + dx, chromaWidth - 1) + (x & 1);
+          final int value = frame[source] & 0xFF;
+          final int diff = value - ref;
+          acc[row + x] += (diff > MOTION_THRESHOLD || diff < -MOTION_THRESHOLD) ? ref : value;
+        }
+      }
+      for (int x = 0; x < 2 * chromaWidth; x++) {
+        output[row + x] = (byte) ((acc[row + x] + n / 2) / n);
+      }
+    }
+  }
+
+  /** Sums sampled luma columns and rows into {@code columns} and {@code rowSums}. */
+  private void profile(byte[] frame, int[] columns, int[] rowSums) {
+    Arrays.fill(columns, 0);
+    for (int y = 0; y < mergeHeight; y += PROFILE_STEP) {
+      final int row = y * mergeWidth;
+      int rowSum = 0;
+      for (int x = 0; x < mergeWidth; x += PROFILE_STEP) {
+        final int value = frame[row + x] & 0xFF;
+        columns[x / PROFILE_STEP] += value;
+        rowSum += value;
+      }
+      rowSums[y / PROFILE_STEP] = rowSum;
+    }
+  }
+
+  /**
+   * Returns the shift, in pixels, such that {@code profile[j + shift]} best matches {@code
+   * reference[j]}, by the mean absolute difference over the overlap.
+   */
+  static int bestShift(@NonNull int[] reference, @NonNull int[] profile) {
+    final int length = reference.length;
+    final int maxShift = Math.min(MAX_SHIFT / PROFILE_STEP, length / 4);
+    int best = 0;
+    long bestCost = -1;
+    int bestOverlap = 1;
+    for (int shift = -maxShift; shift <= maxShift; shift++) {
+      final int from = Math.max(0, -shift);
+      final int to = Math.min(length, length - shift);
+      long cost = 0;
+      for (int j = from; j < to; j++) {
+        cost += Math.abs(profile[j + shift] - reference[j]);
+      }
+      final int overlap = to - from;
+      // cost / overlap < bestCost / bestOverlap, preferring smaller shifts on ties.
+      if (overlap > 0
+          && (bestCost < 0
+              || cost * bestOverlap < bestCost * overlap
+              || (cost * bestOverlap == bestCost * overlap && Math.abs(shift) < Math.abs(best)))) {
+        best = shift;
+        bestCost = cost;
+        bestOverlap = overlap;
+      }
+    }
+    return best * PROFILE_STEP;
+  }
+
+  private static int clamp(int value, int max) {
+    return value < 0 ? 0 : (value > max ? max : value);
+  }
+}
@@ -0,0 +1,294 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Converts NV21 frames into RGB model input in NHWC layout, as {@code uint8} or normalized {@code
+ * float32}, at a fixed size.
+ *
+ * <p>Conversion, rotation, resizing (nearest neighbour, letterboxed or center-cropped) and
+ * normalization happen in a single pass over the output pixels: per-column and per-row lookup
+ * tables map every output pixel to its source pixel, and normalization is a table lookup per
+ * channel. Results are written into pooled direct buffers in native byte order, so they can be
+ * handed to an interpreter without another copy. The class is pure Java.
+ */
+public final class TensorConverter {
+  /** How the frame is fitted into the output size when the aspect ratios differ. */
+  public enum Fit {
+    /** Scale the whole frame to fit, padding the borders with black. */
+    LETTERBOX,
+    /** Scale the frame to fill the output, cropping the borders. */
+    CENTER_CROP
+  }
+
+  /** Number of buffers kept for reuse by {@link #recycle}, and of arrays by {@link #recycleArray}. */
+  private static final int POOL_SIZE = 3;
+
+  private final int width;
+  private final int height;
+  private final boolean float32;
+  private final Fit fit;
+  private final int rotation;
+  private final float[][] normalized = new float[3][256];
+  private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+  private final ArrayDeque<Object> arrayPool = new ArrayDeque<>();
+
+  // Source mapping, rebuilt when the frame size changes.
+  private int sourceWidth = -1;
+  private int sourceHeight = -1;
+  private int[] columnX;
+  private int[] columnY;
+  private int[] rowX;
+  private int[] rowY;
+
+  private final byte[] rowBytes;
+  private final float[] rowFloats;
+
+  /**
+   * @param width the output width in pixels.
+   * @param height the output height in pixels.
+   * @param float32 whether to output normalized floats instead of bytes.
+   * @param fit how to fit the frame into the output.
+   * @param rotation the clockwise rotation applied to the frame, a multiple of 90 degrees.
+   * @param mean per-channel (R, G, B) value subtracted from 0-255 values for float output.
+   * @param std per-channel (R, G, B) divisor applied after subtracting {@code mean}.
+   */
+  public TensorConverter(
+      int width,
+      int height,
+      boolean float32,
+      @NonNull Fit fit,
+      int rotation,
+      @NonNull float[] mean,
+      @NonNull float[] std) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Output size must be positive");
+    }
+    if (rotation % 90 != 0) {
+      throw new IllegalArgumentException("Rotation must be a multiple of 90 degrees");
+    }
+    if (mean.length != 3 || std.length != 3) {
+      throw new IllegalArgumentException("mean and std need one value per channel");
+    }
+    this.width = width;
+    this.height = height;
+    this.float32 = float32;
+    this.fit = fit;
+    this.rotation = ((rotation % 360) + 360) % 360;
+    for (int c = 0; c < 3; c++) {
+      for (int v = 0; v < 256; v++) {
+        normalized[c][v] = (v - mean[c]) / std[c];
+      }
+    }
+    this.rowBytes = float32 ? null : new byte[width * 3];
+    this.rowFloats = float32 ? new float[width * 3] : null;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public boolean isFloat32() {
+    return float32;
+  }
+
+  /** Size of an output buffer in bytes. */
+  public int getByteSize() {
+    return width * height * 3 * (float32 ? 4 : 1);
+  }
+
+  /**
+   * Converts an NV21 frame. The returned buffer is positioned at 0 with its limit at {@link
+   * #getByteSize()}; pass it to {@link #recycle} once it is no longer used.
+   */
+  @NonNull
+  public ByteBuffer convert(@NonNull byte[] nv21, int frameWidth, int frameHeight) {
+    if (frameWidth != sourceWidth || frameHeight != sourceHeight) {
+      buildMapping(frameWidth, frameHeight);
+    }
+    final ByteBuffer out = obtain();
+    final FloatBuffer floats = float32 ? out.asFloatBuffer() : null;
+    final int chromaStart = frameWidth * frameHeight;
+
+    for (int y = 0; y < height; y++) {
+      final int rowSx = rowX[y];
+      final int rowSy = rowY[y];
+      for (int x = 0; x < width; x++) {
+        final int o = x * 3;
+        int r = 0;
+        int g = 0;
+        int b = 0;
+        final boolean inside = rowSx != Integer.MIN_VALUE && columnX[x] != Integer.MIN_VALUE;
+        if (inside) {
+          final int sx = columnX[x] + rowSx;
+          final int sy = columnY[x] + rowSy;
+          final int luma = nv21[sy * frameWidth + sx] & 0xFF;
+          final int uv = chromaStart + (sy >> 1) * frameWidth + (sx & ~1);
+          final int v = (nv21[uv] & 0xFF) - 128;
+          final int u = (nv21[uv + 1] & 0xFF) - 128;
+          // Full range BT.601, as produced by the camera, in 16.16 fixed point.
+          final int l = luma << 16;
+          r = clamp((l + 91881 * v + 32768) >> 16);
+          g = clamp((l - 22554 * u - 46802 * v + 32768) >> 16);
+          b = clamp((l + 116130 * u + 32768) >> 16);
+        }
+        if (float32) {
+          rowFloats[o] = normalized[0][r];
+          rowFloats[o + 1] = normalized[1][g];
+          rowFloats[o + 2] = normalized[2][b];
+        } else {
+          rowBytes[o] = (byte) r;
+          rowBytes[o + 1] = (byte) g;
+          rowBytes[o + 2] = (byte) b;
+        }
+      }
+      if (float32) {
+        floats.put(rowFloats);
+      } else {
+        out.put(rowBytes);
+      }
+    }
+    out.rewind();
+    return out;
+  }
+
+  /** Returns a buffer from {@link #convert} to the pool. */
+  public void recycle(@NonNull ByteBuffer buffer) {
+    synchronized (pool) {
+      if (buffer.capacity() == getByteSize() && pool.size() < POOL_SIZE) {
+        pool.push(buffer);
+      }
+    }
+  }
+
+  /**
+   * Copies a buffer from {@link #convert} into an array a platform channel can send: a {@code
+   * float[]} for float output, a {@code byte[]} otherwise. Pass it to {@link #recycleArray} once
+   * it has been sent.
+   */
+  @NonNull
+  public Object toArray(@NonNull ByteBuffer tensor) {
+    Object array;
+    synchronized (arrayPool) {
+      array = arrayPool.poll();
+    }
+    if (float32) {
+      final float[] floats = array != null ? (float[]) array : new float[width * height * 3];
+      tensor.duplicate().order(tensor.order()).asFloatBuffer().get(floats);
+      return floats;
+    }
+    final byte[] bytes = array != null ? (byte[]) array : new byte[getByteSize()];
+    tensor.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /** Returns an array from {@link #toArray} to the pool. May be called from any thread. */
+  public void recycleArray(@NonNull Object array) {
+    synchronized (arrayPool) {
+      if (arrayPool.size() < POOL_SIZE) {
+        arrayPool.push(array);
+      }
+    }
+  }
+
+  private ByteBuffer obtain() {
+    ByteBuffer buffer;
+    synchronized (pool) {
+      buffer = pool.poll();
+    }
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(getByteSize()).order(ByteOrder.nativeOrder());
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Builds tables such that output pixel (x, y) samples the source pixel at ({@code columnX[x] +
+   * rowX[y]}, {@code columnY[x] + rowY[y]}); {@link Integer#MIN_VALUE} marks padding.
+   */
+  private void buildMapping(int frameWidth, int frameHeight) {
+    final boolean swap = rotation % 180 != 0;
+    final int rotatedWidth = swap ? frameHeight : frameWidth;
+    final int rotatedHeight = swap ? frameWidth : frameHeight;
+    final double scaleX = (double) width / rotatedWidth;
+    final double scaleY = (double) height / rotatedHeight;
+    final double scale =
+        fit == Fit.LETTERBOX ? Math.min(scaleX, scaleY) : Math.max(scaleX, scaleY);
+    final double offsetX = (width - rotatedWidth * scale) / 2;
+    final double offsetY = (height - rotatedHeight * scale) / 2;
+
+    columnX = new int[width];
+    columnY = new int[width];
+    rowX = new int[height];
+    rowY = new int[height];
+    for (int x = 0; x < width; x++) {
+      // Column of the rotated frame sampled by output column x.
+      final int rx = (int) Math.floor((x + 0.5 - offsetX) / scale);
+      if (rx < 0 || rx >= rotatedWidth) {
+        columnX[x] = Integer.MIN_VALUE;
+        continue;
+      }
+      switch (rotation) {
+        case 90:
+          columnX[x] = 0;
+          columnY[x] = frameHeight - 1 - rx;
+          break;
+        case 180:
+          columnX[x] = frameWidth - 1 - rx;
+          columnY[x] = 0;
+          break;
+        case 270:
+          columnX[x] = 0;
+          columnY[x] = rx;
+          break;
+        default:
+          columnX[x] = rx;
+          columnY[x] = 0;
+      }
+    }
+    for (int y = 0; y < height; y++) {
+      // Row of the rotated frame sampled by output row y.
+      final int ry = (int) Math.floor((y + 0.5 - offsetY) / scale);
+      if (ry < 0 || ry >= rotatedHeight) {
+        rowX[y] = Integer.MIN_VALUE;
+        continue;
+      }
+      switch (rotation) {
+        case 90:
+          rowX[y] = ry;
+          rowY[y] = 0;
+          break;
+        case 180:
+          rowX[y] = 0;
+          rowY[y] = frameHeight - 1 - ry;
+          break;
+        case 270:
+          rowX[y] = frameWidth - 1 - ry;
+          rowY[y] = 0;
+          break;
+        default:
+          rowX[y] = 0;
+          rowY[y] = ry;
+      }
+    }
+    sourceWidth = frameWidth;
+    sourceHeight = frameHeight;
+  }
+
+  private static int clamp(int value) {
+    return value < 0 ? 0 : (value > 255 ? 255 : value);
+  }
+}
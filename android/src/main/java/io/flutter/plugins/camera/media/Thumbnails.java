@@ -0,0 +1,265 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageFormat;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import androidx.annotation.NonNull;
+import androidx.exifinterface.media.ExifInterface;
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Small upright JPEG previews of saved pictures, written next to them as {@link #pathFor}, so the
+ * UI does not have to decode a full picture for a thumbnail.
+ *
+ * <p>From NV21 frames, the thumbnail is downscaled before anything is encoded: every thumbnail
+ * pixel averages up to 4 x 4 samples spread over the source pixels it covers, which reads a few
+ * hundred thousand pixels whatever the frame size, and only the thumbnail is rotated. From JPEG
+ * pictures, the decoder skips to a power of two close to the thumbnail size before the final
+ * scale.
+ */
+public final class Thumbnails {
+  /** Replaces the extension of a picture's path to form the path of its thumbnail. */
+  public static final String SUFFIX = "_thumb.jpg";
+
+  /** JPEG quality of thumbnails. */
+  public static final int QUALITY = 80;
+
+  /** Number of samples per thumbnail pixel along each axis. */
+  private static final int TAPS = 4;
+
+  private Thumbnails() {}
+
+  /** The path of the thumbnail of the picture at {@code picturePath}. */
+  @NonNull
+  public static String pathFor(@NonNull String picturePath) {
+    final int slash = picturePath.lastIndexOf('/');
+    final int dot = picturePath.lastIndexOf('.');
+    final String base = dot > slash ? picturePath.substring(0, dot) : picturePath;
+    return base + SUFFIX;
+  }
+
+  /** An NV21 thumbnail. */
+  public static final class Nv21 {
+    @NonNull public final byte[] data;
+    public final int width;
+    public final int height;
+
+    Nv21(@NonNull byte[] data, int width, int height) {
+      this.data = data;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  /**
+   * Downscales an NV21 frame so its longer side is at most {@code maxSide}, keeping even
+   * dimensions, and rotates it clockwise by {@code rotationDegrees}.
+   */
+  @NonNull
+  public static Nv21 downscaleNv21(
+      @NonNull byte[] nv21, int width, int height, int rotationDegrees, int maxSide) {
+    final double scale = Math.min(1.0, (double) maxSide / Math.max(width, height));
+    final int outWidth = Math.max(2, (int) Math.round(width * scale) & ~1);
+    final int outHeight = Math.max(2, (int) Math.round(height * scale) & ~1);
+    final byte[] out = new byte[outWidth * outHeight * 3 / 2];
+
+    final int chromaStart = width * height;
+    final int outChromaStart = outWidth * outHeight;
+    // Luma.
+    sample(nv21, 0, width, 1, width, height, out, 0, outWidth, 1, outWidth, outHeight);
+    // V and U, at the even and odd bytes of the interleaved chroma rows.
+    for (int channel = 0; channel < 2; channel++) {
+      sample(
+          nv21,
+          chromaStart + channel,
+          width,
+          2,
+          width / 2,
+          height / 2,
+          out,
+          outChromaStart + channel,
+          outWidth,
+          2,
+          outWidth / 2,
+          outHeight / 2);
+    }
+    return rotate(out, outWidth, outHeight, rotationDegrees);
+  }
+
+  /** Rotates an NV21 frame with even dimensions clockwise by a multiple of 90 degrees. */
+  @NonNull
+  static Nv21 rotate(@NonNull byte[] nv21, int width, int height, int rotationDegrees) {
+    final int rotation = ((rotationDegrees % 360) + 360) % 360;
+    if (rotation == 0) {
+      return new Nv21(nv21, width, height);
+    }
+    final boolean swap = rotation % 180 != 0;
+    final int outWidth = swap ? height : width;
+    final int outHeight = swap ? width : height;
+    final byte[] out = new byte[nv21.length];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        out[rotatedIndex(x, y, width, height, rotation, outWidth)] = nv21[y * width + x];
+      }
+    }
+    // Chroma rotates as pairs on the half resolution grid.
+    final int chromaWidth = width / 2;
+    final int chromaHeight = height / 2;
+    final int chromaStart = width * height;
+    for (int y = 0; y < chromaHeight; y++) {
+      for (int x = 0; x < chromaWidth; x++) {
+        final int src = chromaStart + y * width + 2 * x;
+        final int dst =
+            chromaStart
+                + 2 * rotatedIndex(x, y, chromaWidth, chromaHeight, rotation, outWidth / 2);
+        out[dst] = nv21[src];
+        out[dst + 1] = nv21[src + 1];
+      }
+    }
+    return new Nv21(out, outWidth, outHeight);
+  }
+
+  /** Encodes an NV21 frame downscaled by {@link #downscaleNv21} to {@code outputPath}. */
+  public static void writeFromNv21(
+      @NonNull byte[] nv21,
+      int width,
+      int height,
+      int rotationDegrees,
+      int maxSide,
+      @NonNull String outputPath)
+      throws IOException {
+    final Nv21 thumbnail = downscaleNv21(nv21, width, height, rotationDegrees, maxSide);
+    final YuvImage yuv =
+        new YuvImage(thumbnail.data, ImageFormat.NV21, thumbnail.width, thumbnail.height, null);
+    try (FileOutputStream out = new FileOutputStream(outputPath)) {
+      if (!yuv.compressToJpeg(new Rect(0, 0, thumbnail.width, thumbnail.height), QUALITY, out)) {
+        throw new IOException("compressToJpeg failed");
+      }
+    }
+  }
+
+  /**
+   * Writes an upright thumbnail of a JPEG picture to {@code outputPath}, applying its EXIF
+   * orientation.
+   */
+  public static void writeFromJpeg(@NonNull byte[] jpeg, int maxSide, @NonNull String outputPath)
+      throws IOException {
+    final BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      throw new IOException("Not a JPEG picture");
+    }
+    options.inJustDecodeBounds = false;
+    options.inSampleSize = sampleSize(Math.max(options.outWidth, options.outHeight), maxSide);
+    final Bitmap decoded = BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length, options);
+    if (decoded == null) {
+      throw new IOException("Could not decode the picture");
+    }
+
+    final float scale =
+        Math.min(1f, (float) maxSide / Math.max(decoded.getWidth(), decoded.getHeight()));
+    final Matrix matrix = new Matrix();
+    matrix.postScale(scale, scale);
+    final int rotation =
+        new ExifInterface(new ByteArrayInputStream(jpeg)).getRotationDegrees();
+    matrix.postRotate(rotation);
+    final Bitmap thumbnail =
+        Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+    try (FileOutputStream out = new FileOutputStream(outputPath)) {
+      if (!thumbnail.compress(Bitmap.CompressFormat.JPEG, QUALITY, out)) {
+        throw new IOException("Bitmap.compress failed");
+      }
+    } finally {
+      if (thumbnail != decoded) {
+        thumbnail.recycle();
+      }
+      decoded.recycle();
+    }
+  }
+
+  /** The largest power of two that keeps a side of {@code size} at least {@code maxSide}. */
+  static int sampleSize(int size, int maxSide) {
+    int sample = 1;
+    while (size / (sample * 2) >= maxSide) {
+      sample *= 2;
+    }
+    return sample;
+  }
+
+  private static int rotatedIndex(int x, int y, int width, int height, int rotation, int outWidth) {
+    switch (rotation) {
+      case 90:
+        return x * outWidth + (height - 1 - y);
+      case 180:
+        return (height - 1 - y) * outWidth + (width - 1 - x);
+      default:
+        return (width - 1 - x) * outWidth + y;
+    }
+  }
+
+  /**
+   * Box-filters a plane of {@code srcWidth} x {@code srcHeight} samples into {@code dstWidth} x
+   * {@code dstHeight} samples, averaging up to {@link #TAPS} x {@link #TAPS} samples per output
+   * sample.
+   */
+  private static void sample(
+      byte[] src,
+      int srcOffset,
+      int srcRowStride,
+      int srcPixelStride,
+      int srcWidth,
+      int srcHeight,
+      byte[] dst,
+      int dstOffset,
+      int dstRowStride,
+      int dstPixelStride,
+      int dstWidth,
+      int dstHeight) {
+    final int[] columns = taps(srcWidth, dstWidth);
+    final int[] rows = taps(srcHeight, dstHeight);
+    for (int y = 0; y < dstHeight; y++) {
+      final int rowCount = rows[y * (TAPS + 1)];
+      for (int x = 0; x < dstWidth; x++) {
+        final int columnCount = columns[x * (TAPS + 1)];
+        int sum = 0;
+        for (int j = 1; j <= rowCount; j++) {
+          final int row = srcOffset + rows[y * (TAPS + 1) + j] * srcRowStride;
+          for (int i = 1; i <= columnCount; i++) {
+            sum += src[row + columns[x * (TAPS + 1) + i] * srcPixelStride] & 0xFF;
+          }
+        }
+        final int count = rowCount * columnCount;
+        dst[dstOffset + y * dstRowStride + x * dstPixelStride] = (byte) ((sum + count / 2) / count);
+      }
+    }
+  }
+
+  /**
+   * For every output position, the number of source positions sampled followed by up to {@link
+   * #TAPS} positions spread evenly over the source span it covers.
+   */
+  private static int[] taps(int srcSize, int dstSize) {
+    final int[] out = new int[dstSize * (TAPS + 1)];
+    for (int d = 0; d < dstSize; d++) {
+      final int start = (int) ((long) d * srcSize / dstSize);
+      final int end = Math.max(start + 1, (int) ((long) (d + 1) * srcSize / dstSize));
+      final int count = Math.min(TAPS, end - start);
+      out[d * (TAPS + 1)] = count;
+      for (int k = 0; k < count; k++) {
+        out[d * (TAPS + 1) + 1 + k] =
+            Math.min(srcSize - 1, start + (int) ((2L * k + 1) * (end - start) / (2L * count)));
+      }
+    }
+    return out;
+  }
+}
@@ -6,10 +6,13 @@ package io.flutter.plugins.camera;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import android.app.Activity;
 import android.hardware.camera2.CameraAccessException;
@@ -68,4 +71,39 @@ public class CameraApiImplTest {
 
     verify(mockCamera, times(1)).resumePreview();
   }
+
+  @Test
+  public void setBackgroundStreamEncoding_shouldForwardToCamera() {
+    handler.setBackgroundStreamEncoding(false);
+
+    verify(mockCamera, times(1)).setBackgroundStreamEncoding(false);
+  }
+
+  @Test
+  public void setUp_registersFrameSizedHandlersOnBackgroundTaskQueue() {
+    BinaryMessenger messenger = mock(BinaryMessenger.class);
+    BinaryMessenger.TaskQueue taskQueue = mock(BinaryMessenger.TaskQueue.class);
+    when(messenger.makeBackgroundTaskQueue()).thenReturn(taskQueue);
+
+    new CameraApiImpl(
+        mock(Activity.class),
+        messenger,
+        mock(CameraPermissions.class),
+        mock(CameraPermissions.PermissionsRegistry.class),
+        mock(TextureRegistry.class));
+
+    String prefix = "dev.flutter.pigeon.camera_android_frame.CameraApi.";
+    for (String method :
+        new String[] {
+          "capturePreviewFrame",
+          "saveAsJpeg",
+          "saveAsJpegBatch",
+          "getFrameNearest",
+          "getFrameById",
+          "getFramesInRange"
+        }) {
+      verify(messenger).setMessageHandler(eq(prefix + method), any(), eq(taskQueue));
+    }
+    verify(messenger).setMessageHandler(eq(prefix + "pausePreview"), any());
+  }
 }
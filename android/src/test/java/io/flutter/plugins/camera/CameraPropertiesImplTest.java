@@ -17,6 +17,7 @@ import android.graphics.Rect;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.params.StreamConfigurationMap;
 import android.util.Range;
 import android.util.Rational;
 import android.util.Size;
@@ -304,4 +305,49 @@ public class CameraPropertiesImplTest {
         .get(CameraCharacteristics.NOISE_REDUCTION_AVAILABLE_NOISE_REDUCTION_MODES);
     assertEquals(actualReductionModes, expectedReductionModes);
   }
+
+  @Test
+  public void getHighSpeedVideoSizesTest() {
+    StreamConfigurationMap mockMap = mock(StreamConfigurationMap.class);
+    Size[] expectedSizes = new Size[] {mock(Size.class)};
+    when(mockMap.getHighSpeedVideoSizes()).thenReturn(expectedSizes);
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockMap);
+
+    Size[] actualSizes = cameraProperties.getHighSpeedVideoSizes();
+
+    assertArrayEquals(expectedSizes, actualSizes);
+  }
+
+  @Test
+  public void getHighSpeedVideoSizes_shouldReturnEmptyArrayWithoutConfigurationMap() {
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(null);
+
+    assertEquals(0, cameraProperties.getHighSpeedVideoSizes().length);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void getHighSpeedVideoFpsRangesForTest() {
+    StreamConfigurationMap mockMap = mock(StreamConfigurationMap.class);
+    Size size = mock(Size.class);
+    Range<Integer>[] expectedRanges = (Range<Integer>[]) new Range<?>[] {mock(Range.class)};
+    when(mockMap.getHighSpeedVideoFpsRangesFor(size)).thenReturn(expectedRanges);
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockMap);
+
+    assertArrayEquals(expectedRanges, cameraProperties.getHighSpeedVideoFpsRangesFor(size));
+  }
+
+  @Test
+  public void getHighSpeedVideoFpsRangesFor_shouldReturnEmptyArrayForUnsupportedSize() {
+    StreamConfigurationMap mockMap = mock(StreamConfigurationMap.class);
+    Size size = mock(Size.class);
+    when(mockMap.getHighSpeedVideoFpsRangesFor(size)).thenThrow(new IllegalArgumentException());
+    when(mockCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP))
+        .thenReturn(mockMap);
+
+    assertEquals(0, cameraProperties.getHighSpeedVideoFpsRangesFor(size).length);
+  }
 }
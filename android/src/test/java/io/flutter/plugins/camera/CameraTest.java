@@ -51,6 +51,7 @@ import io.flutter.plugins.camera.features.resolution.ResolutionPreset;
 import io.flutter.plugins.camera.features.sensororientation.DeviceOrientationManager;
 import io.flutter.plugins.camera.features.sensororientation.SensorOrientationFeature;
 import io.flutter.plugins.camera.features.zoomlevel.ZoomLevelFeature;
+import io.flutter.plugins.camera.features.zoomlevel.ZoomRampCurve;
 import io.flutter.plugins.camera.media.ImageStreamReader;
 import io.flutter.view.TextureRegistry;
 import java.io.Closeable;
@@ -208,6 +209,13 @@ public class CameraTest {
     camera.previewRequestBuilder = mockPreviewRequestBuilder;
   }
 
+  /** Simulates the capture result of the most recently submitted control update. */
+  private void deliverCaptureResultForLatestRequest() {
+    CaptureRequest mockRequest = mock(CaptureRequest.class);
+    when(mockRequest.getTag()).thenReturn(camera.controlUpdateCoalescer.getSubmittedGeneration());
+    camera.controlUpdateCoalescer.onCaptureResult(mockRequest, mock(TotalCaptureResult.class));
+  }
+
   @After
   public void after() throws IOException {
     SdkCapabilityChecker.SDK_VERSION = 0;
@@ -560,10 +568,24 @@ public class CameraTest {
     when(mockAutoFocusFeature.getValue()).thenReturn(FocusMode.auto);
 
     camera.setFocusPoint(mockResult, point);
+    deliverCaptureResultForLatestRequest();
 
     verify(mockFocusPointFeature, times(1)).setValue(point);
-    verify(mockResult, never()).error(any());
-    verify(mockResult, times(1)).success();
+    verify(mockDartMessenger, never()).error(eq(mockResult), any(), any(), any());
+    verify(mockDartMessenger, times(1)).finish(mockResult);
+  }
+
+  @Test
+  public void setFocusPoint_shouldOnlySendTheCoalescedRequest() throws CameraAccessException {
+    AutoFocusFeature mockAutoFocusFeature =
+        mockCameraFeatureFactory.createAutoFocusFeature(mockCameraProperties, false);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+    when(mockAutoFocusFeature.getValue()).thenReturn(FocusMode.locked);
+
+    camera.setFocusPoint(mockResult, new Point(42d, 42d));
+
+    verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), notNull(), any());
+    verify(mockCaptureSession, never()).capture(any(), any(), any());
   }
 
   @Test
@@ -596,12 +618,9 @@ public class CameraTest {
 
     camera.setFocusPoint(mockResult, point);
 
-    verify(mockResult, never()).success();
-    verify(mockResult, times(1))
-        .error(
-            argThat(
-                new FlutterErrorMatcher(
-                    "setFocusPointFailed", "Could not set focus point.", null)));
+    verify(mockDartMessenger, never()).finish(mockResult);
+    verify(mockDartMessenger, times(1))
+        .error(mockResult, "setFocusPointFailed", "Could not set focus point.", null);
   }
 
   @Test
@@ -616,10 +635,11 @@ public class CameraTest {
     when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
 
     camera.setZoomLevel(mockResult, zoomLevel);
+    deliverCaptureResultForLatestRequest();
 
     verify(mockZoomLevelFeature, times(1)).setValue(zoomLevel);
-    verify(mockResult, never()).error(any());
-    verify(mockResult, times(1)).success();
+    verify(mockDartMessenger, never()).error(eq(mockResult), any(), any(), any());
+    verify(mockDartMessenger, times(1)).finish(mockResult);
   }
 
   @Test
@@ -654,11 +674,166 @@ public class CameraTest {
 
     camera.setZoomLevel(mockResult, zoomLevel);
 
-    verify(mockResult, never()).success();
+    verify(mockDartMessenger, never()).finish(mockResult);
+    verify(mockDartMessenger, times(1))
+        .error(mockResult, "setZoomLevelFailed", "Could not set zoom level.", null);
+  }
+
+  @Test
+  public void setZoomLevel_shouldSkipRepeatingRequestWhenValueIsUnchanged()
+      throws CameraAccessException {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+    float zoomLevel = 1.0f;
+
+    when(mockZoomLevelFeature.getValue()).thenReturn(zoomLevel);
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(0f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
+
+    camera.setZoomLevel(mockResult, zoomLevel);
+    camera.setZoomLevel(mockResult, zoomLevel);
+    deliverCaptureResultForLatestRequest();
+
+    verify(mockZoomLevelFeature, times(1)).updateBuilder(any());
+    verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), any(), any());
+    verify(mockDartMessenger, never()).error(eq(mockResult), any(), any(), any());
+    verify(mockDartMessenger, times(2)).finish(mockResult);
+  }
+
+  @Test
+  public void setZoomLevel_shouldOnlyUpdateChangedFeatures() {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    FlashFeature mockFlashFeature =
+        mockCameraFeatureFactory.createFlashFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+
+    when(mockZoomLevelFeature.getValue()).thenReturn(1.5f);
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(0f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
+
+    camera.setZoomLevel(mockResult, 1.5f);
+
+    verify(mockZoomLevelFeature, times(1)).updateBuilder(any());
+    verify(mockFlashFeature, never()).updateBuilder(any());
+  }
+
+  @Test
+  public void setZoomLevel_shouldResendAfterFailedRepeatingRequest()
+      throws CameraAccessException {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+    float zoomLevel = 1.0f;
+
+    when(mockZoomLevelFeature.getValue()).thenReturn(zoomLevel);
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(0f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
+    when(mockCaptureSession.setRepeatingRequest(any(), any(), any()))
+        .thenThrow(new CameraAccessException(0, ""))
+        .thenReturn(0);
+
+    camera.setZoomLevel(mockResult, zoomLevel);
+    camera.setZoomLevel(mockResult, zoomLevel);
+    deliverCaptureResultForLatestRequest();
+
+    verify(mockZoomLevelFeature, times(2)).updateBuilder(any());
+    verify(mockCaptureSession, times(2)).setRepeatingRequest(any(), any(), any());
+    verify(mockDartMessenger, times(1))
+        .error(mockResult, "setZoomLevelFailed", "Could not set zoom level.", null);
+    verify(mockDartMessenger, times(1)).finish(mockResult);
+  }
+
+  @Test
+  public void setZoomLevel_shouldCompleteOnlyOnceCaptureResultArrives() {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+
+    when(mockZoomLevelFeature.getValue()).thenReturn(1.5f);
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(0f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
+
+    camera.setZoomLevel(mockResult, 1.5f);
+
+    verify(mockPreviewRequestBuilder, times(1)).setTag(1L);
+    verify(mockDartMessenger, never()).finish(mockResult);
+
+    deliverCaptureResultForLatestRequest();
+
+    verify(mockDartMessenger, times(1)).finish(mockResult);
+  }
+
+  @Test
+  public void setZoomLevel_shouldCompletePendingUpdatesWhenPreviewIsPaused()
+      throws CameraAccessException {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+
+    when(mockZoomLevelFeature.getValue()).thenReturn(1.5f);
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(0f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
+
+    camera.setZoomLevel(mockResult, 1.5f);
+    camera.pausePreview();
+
+    verify(mockDartMessenger, times(1)).finish(mockResult);
+  }
+
+  @Test
+  public void startZoomRamp_shouldRejectZoomLevelOutOfBounds() {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(1f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(2f);
+
+    camera.startZoomRamp(mockResult, 3f, 300, ZoomRampCurve.linear);
+
     verify(mockResult, times(1))
         .error(
             argThat(
-                new FlutterErrorMatcher("setZoomLevelFailed", "Could not set zoom level.", null)));
+                new FlutterErrorMatcher(
+                    "ZOOM_ERROR",
+                    "Zoom level out of bounds (zoom level should be between 1.000000 and 2.000000).",
+                    null)));
+    verify(mockZoomLevelFeature, never()).setValue(any());
+  }
+
+  @Test
+  public void startZoomRamp_shouldStepTowardsTargetOnFirstFrame() {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+
+    when(mockZoomLevelFeature.getValue()).thenReturn(1f);
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(1f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(4f);
+
+    camera.startZoomRamp(mockResult, 4f, 300, ZoomRampCurve.linear);
+
+    verify(mockZoomLevelFeature, times(1)).setValue(any());
+    verify(mockZoomLevelFeature, never()).setValue(4f);
+    verify(mockDartMessenger, never()).finish(mockResult);
+  }
+
+  @Test
+  public void startZoomRamp_shouldJumpToTargetWhenPreviewIsPaused() {
+    ZoomLevelFeature mockZoomLevelFeature =
+        mockCameraFeatureFactory.createZoomLevelFeature(mockCameraProperties);
+    Messages.VoidResult mockResult = mock(Messages.VoidResult.class);
+
+    when(mockZoomLevelFeature.getMinimumZoomLevel()).thenReturn(1f);
+    when(mockZoomLevelFeature.getMaximumZoomLevel()).thenReturn(4f);
+    camera.pausedPreview = true;
+
+    camera.startZoomRamp(mockResult, 4f, 300, ZoomRampCurve.linear);
+
+    verify(mockZoomLevelFeature, times(1)).setValue(4f);
+    verify(mockDartMessenger, times(1)).finish(mockResult);
   }
 
   @Test
@@ -976,7 +1151,8 @@ public class CameraTest {
     verify(mockPreviewRequestBuilder, times(1))
         .set(CaptureRequest.CONTROL_AF_TRIGGER, CameraMetadata.CONTROL_AF_TRIGGER_START);
     verify(mockCaptureSession, times(1)).capture(any(), any(), any());
-    verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), any(), any());
+    // The new repeating request keeps reporting results to the capture callback.
+    verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), notNull(), any());
   }
 
   @Test
@@ -1015,10 +1191,11 @@ public class CameraTest {
     when(mockExposureOffsetFeature.getValue()).thenReturn(1.0);
 
     camera.setExposureOffset(mockResult, 1.0);
+    deliverCaptureResultForLatestRequest();
 
     verify(mockExposureOffsetFeature, times(1)).setValue(1.0);
-    verify(mockResult, never()).error(any());
-    verify(mockResult, times(1)).success(1.0);
+    verify(mockDartMessenger, never()).error(eq(mockResult), any(), any(), any());
+    verify(mockDartMessenger, times(1)).finish(mockResult, 1.0);
   }
 
   @Test
@@ -1043,12 +1220,9 @@ public class CameraTest {
 
     camera.setExposureOffset(mockResult, 1.0);
 
-    verify(mockResult, never()).success(any());
-    verify(mockResult, times(1))
-        .error(
-            argThat(
-                new FlutterErrorMatcher(
-                    "setExposureOffsetFailed", "Could not set exposure offset.", null)));
+    verify(mockDartMessenger, never()).finish(eq(mockResult), any());
+    verify(mockDartMessenger, times(1))
+        .error(mockResult, "setExposureOffsetFailed", "Could not set exposure offset.", null);
   }
 
   @Test
@@ -1209,6 +1383,46 @@ public class CameraTest {
     verify(mockPreviewRequestBuilder).addTarget(mockSecondarySurface);
   }
 
+  @Test
+  public void createCaptureSession_shouldNotTargetFramesOutputWithoutListeners()
+      throws CameraAccessException {
+    Surface mockFrameSurface = mock(Surface.class);
+    ImageReader mockFrameStreamReader = mock(ImageReader.class);
+    when(mockFrameStreamReader.getSurface()).thenReturn(mockFrameSurface);
+    camera.frameStreamReader = mockFrameStreamReader;
+    camera.pictureImageReader = mock(ImageReader.class);
+    ArrayList<CaptureRequest.Builder> mockRequestBuilders = new ArrayList<>();
+    mockRequestBuilders.add(mockPreviewRequestBuilder);
+    camera.cameraDevice = new FakeCameraDeviceWrapper(mockRequestBuilders);
+    when(mockCameraFeatureFactory.mockResolutionFeature.getPreviewSize())
+        .thenReturn(mock(Size.class));
+
+    camera.createCaptureSession(CameraDevice.TEMPLATE_RECORD, mock(Surface.class));
+
+    verify(mockPreviewRequestBuilder, never()).addTarget(mockFrameSurface);
+  }
+
+  @Test
+  public void startListenFrames_shouldTargetFramesOutputUntilStopped()
+      throws CameraAccessException {
+    Surface mockFrameSurface = mock(Surface.class);
+    ImageReader mockFrameStreamReader = mock(ImageReader.class);
+    when(mockFrameStreamReader.getSurface()).thenReturn(mockFrameSurface);
+    camera.frameStreamReader = mockFrameStreamReader;
+
+    camera.startListenFrames(mock(EventChannel.class));
+    camera.startListenFrames(mock(EventChannel.class));
+
+    verify(mockPreviewRequestBuilder, times(1)).addTarget(mockFrameSurface);
+    verify(mockCaptureSession, times(1)).setRepeatingRequest(any(), any(), any());
+
+    camera.stopListenFrames();
+    camera.stopListenFrames();
+
+    verify(mockPreviewRequestBuilder, times(1)).removeTarget(mockFrameSurface);
+    verify(mockCaptureSession, times(2)).setRepeatingRequest(any(), any(), any());
+  }
+
   @Test
   public void close_doesCloseCaptureSessionWhenCameraDeviceNull() {
     camera.close();
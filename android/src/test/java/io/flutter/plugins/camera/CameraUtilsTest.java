@@ -160,6 +160,10 @@ public class CameraUtilsTest {
     assertEquals(
         CameraUtils.imageFormatGroupFromPigeon(Messages.PlatformImageFormatGroup.NV21).intValue(),
         ImageFormat.NV21);
+    assertEquals(
+        CameraUtils.imageFormatGroupFromPigeon(Messages.PlatformImageFormatGroup.RGBA8888)
+            .intValue(),
+        ImageFormat.FLEX_RGBA_8888);
   }
 
   @Test
@@ -0,0 +1,106 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.TotalCaptureResult;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class CaptureStatsBatcherTest {
+
+  @Test
+  public void onCaptureResult_emitsBatchOnceFull() {
+    CaptureStatsBatcher.BatchListener mockListener = mock(CaptureStatsBatcher.BatchListener.class);
+    CaptureStatsBatcher batcher = new CaptureStatsBatcher(2, mockListener);
+
+    batcher.onCaptureResult(mock(CaptureRequest.class), resultWithTimestamp(100L));
+    verify(mockListener, never()).onBatch(any());
+
+    batcher.onCaptureResult(mock(CaptureRequest.class), resultWithTimestamp(200L));
+
+    ArgumentCaptor<long[]> batch = ArgumentCaptor.forClass(long[].class);
+    verify(mockListener, times(1)).onBatch(batch.capture());
+    assertEquals(2 * CaptureStatsBatcher.STRIDE, batch.getValue().length);
+    assertEquals(100L, batch.getValue()[CaptureStatsBatcher.FIELD_SENSOR_TIMESTAMP]);
+    assertEquals(
+        200L,
+        batch.getValue()[CaptureStatsBatcher.STRIDE + CaptureStatsBatcher.FIELD_SENSOR_TIMESTAMP]);
+  }
+
+  @Test
+  public void onCaptureResult_encodesAllFields() {
+    CaptureStatsBatcher.BatchListener mockListener = mock(CaptureStatsBatcher.BatchListener.class);
+    CaptureStatsBatcher batcher = new CaptureStatsBatcher(1, mockListener);
+    TotalCaptureResult mockResult = mock(TotalCaptureResult.class);
+    when(mockResult.get(CaptureResult.SENSOR_TIMESTAMP)).thenReturn(1000L);
+    when(mockResult.getFrameNumber()).thenReturn(7L);
+    when(mockResult.get(CaptureResult.CONTROL_AE_STATE)).thenReturn(2);
+    when(mockResult.get(CaptureResult.CONTROL_AF_STATE)).thenReturn(4);
+    when(mockResult.get(CaptureResult.CONTROL_AWB_STATE)).thenReturn(3);
+    when(mockResult.get(CaptureResult.LENS_FOCUS_DISTANCE)).thenReturn(2.5f);
+    when(mockResult.get(CaptureResult.SENSOR_FRAME_DURATION)).thenReturn(33_333_333L);
+    when(mockResult.get(CaptureResult.SENSOR_ROLLING_SHUTTER_SKEW)).thenReturn(10_000_000L);
+    when(mockResult.get(CaptureResult.SENSOR_EXPOSURE_TIME)).thenReturn(8_000_000L);
+    when(mockResult.get(CaptureResult.SENSOR_SENSITIVITY)).thenReturn(400);
+
+    batcher.onCaptureResult(mock(CaptureRequest.class), mockResult);
+
+    ArgumentCaptor<long[]> batch = ArgumentCaptor.forClass(long[].class);
+    verify(mockListener).onBatch(batch.capture());
+    assertArrayEquals(
+        new long[] {1000L, 7L, 2, 4, 3, 2_500_000L, 33_333_333L, 10_000_000L, 8_000_000L, 400},
+        batch.getValue());
+  }
+
+  @Test
+  public void onCaptureResult_encodesMissingValues() {
+    CaptureStatsBatcher.BatchListener mockListener = mock(CaptureStatsBatcher.BatchListener.class);
+    CaptureStatsBatcher batcher = new CaptureStatsBatcher(1, mockListener);
+
+    batcher.onCaptureResult(mock(CaptureRequest.class), mock(TotalCaptureResult.class));
+
+    ArgumentCaptor<long[]> batch = ArgumentCaptor.forClass(long[].class);
+    verify(mockListener).onBatch(batch.capture());
+    assertEquals(
+        CaptureStatsBatcher.MISSING, batch.getValue()[CaptureStatsBatcher.FIELD_FOCUS_DISTANCE]);
+    assertEquals(
+        CaptureStatsBatcher.MISSING,
+        batch.getValue()[CaptureStatsBatcher.FIELD_ROLLING_SHUTTER_SKEW]);
+  }
+
+  @Test
+  public void flush_emitsPartialBatch() {
+    CaptureStatsBatcher.BatchListener mockListener = mock(CaptureStatsBatcher.BatchListener.class);
+    CaptureStatsBatcher batcher = new CaptureStatsBatcher(10, mockListener);
+
+    batcher.onCaptureResult(mock(CaptureRequest.class), resultWithTimestamp(100L));
+    batcher.flush();
+    batcher.flush();
+
+    ArgumentCaptor<long[]> batch = ArgumentCaptor.forClass(long[].class);
+    verify(mockListener, times(1)).onBatch(batch.capture());
+    assertEquals(CaptureStatsBatcher.STRIDE, batch.getValue().length);
+  }
+
+  private static TotalCaptureResult resultWithTimestamp(long timestamp) {
+    TotalCaptureResult mockResult = mock(TotalCaptureResult.class);
+    when(mockResult.get(CaptureResult.SENSOR_TIMESTAMP)).thenReturn(timestamp);
+    return mockResult;
+  }
+}
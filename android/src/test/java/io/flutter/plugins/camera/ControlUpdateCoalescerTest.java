@@ -0,0 +1,158 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.TotalCaptureResult;
+import android.os.Handler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ControlUpdateCoalescerTest {
+  private ControlUpdateCoalescer.RequestSubmitter mockSubmitter;
+  private Handler mockHandler;
+  private ControlUpdateCoalescer coalescer;
+
+  @Before
+  public void before() throws CameraAccessException {
+    mockSubmitter = mock(ControlUpdateCoalescer.RequestSubmitter.class);
+    mockHandler = mock(Handler.class);
+    when(mockSubmitter.hasPendingChanges()).thenReturn(true);
+    when(mockSubmitter.submit(anyLong())).thenReturn(true);
+    coalescer = new ControlUpdateCoalescer(mockSubmitter, mockHandler);
+  }
+
+  @Test
+  public void requestUpdate_submitsFirstUpdateImmediately() throws CameraAccessException {
+    coalescer.requestUpdate(mock(Runnable.class), mock(ErrorCallback.class));
+
+    verify(mockSubmitter, times(1)).submit(1L);
+    verify(mockHandler, never()).postDelayed(any(), anyLong());
+  }
+
+  @Test
+  public void requestUpdate_mergesUpdatesWithinFrameInterval() throws CameraAccessException {
+    Runnable first = mock(Runnable.class);
+    Runnable second = mock(Runnable.class);
+    Runnable third = mock(Runnable.class);
+
+    coalescer.requestUpdate(first, mock(ErrorCallback.class));
+    coalescer.requestUpdate(second, mock(ErrorCallback.class));
+    coalescer.requestUpdate(third, mock(ErrorCallback.class));
+
+    ArgumentCaptor<Runnable> scheduled = ArgumentCaptor.forClass(Runnable.class);
+    verify(mockHandler, times(1)).postDelayed(scheduled.capture(), anyLong());
+    verify(mockSubmitter, times(1)).submit(anyLong());
+
+    scheduled.getValue().run();
+
+    verify(mockSubmitter, times(1)).submit(2L);
+    assertEquals(2L, coalescer.getSubmittedGeneration());
+  }
+
+  @Test
+  public void onCaptureResult_completesUpdatesOfThatGeneration() {
+    Runnable first = mock(Runnable.class);
+    Runnable second = mock(Runnable.class);
+
+    coalescer.requestUpdate(first, mock(ErrorCallback.class));
+    coalescer.requestUpdate(second, mock(ErrorCallback.class));
+    ArgumentCaptor<Runnable> scheduled = ArgumentCaptor.forClass(Runnable.class);
+    verify(mockHandler).postDelayed(scheduled.capture(), anyLong());
+    scheduled.getValue().run();
+
+    coalescer.onCaptureResult(requestWithTag(1L), mock(TotalCaptureResult.class));
+
+    verify(first, times(1)).run();
+    verify(second, never()).run();
+
+    coalescer.onCaptureResult(requestWithTag(2L), mock(TotalCaptureResult.class));
+
+    verify(first, times(1)).run();
+    verify(second, times(1)).run();
+  }
+
+  @Test
+  public void onCaptureResult_ignoresUntaggedRequests() {
+    Runnable onApplied = mock(Runnable.class);
+
+    coalescer.requestUpdate(onApplied, mock(ErrorCallback.class));
+    coalescer.onCaptureResult(requestWithTag(null), mock(TotalCaptureResult.class));
+
+    verify(onApplied, never()).run();
+  }
+
+  @Test
+  public void requestUpdate_completesImmediatelyWhenNothingWasSent()
+      throws CameraAccessException {
+    Runnable onApplied = mock(Runnable.class);
+    when(mockSubmitter.submit(anyLong())).thenReturn(false);
+
+    coalescer.requestUpdate(onApplied, mock(ErrorCallback.class));
+
+    verify(onApplied, times(1)).run();
+  }
+
+  @Test
+  public void requestUpdate_waitsForInFlightRequestWhenNothingChanged() {
+    Runnable first = mock(Runnable.class);
+    Runnable second = mock(Runnable.class);
+
+    coalescer.requestUpdate(first, mock(ErrorCallback.class));
+    when(mockSubmitter.hasPendingChanges()).thenReturn(false);
+    coalescer.requestUpdate(second, mock(ErrorCallback.class));
+
+    verify(second, never()).run();
+
+    coalescer.onCaptureResult(requestWithTag(1L), mock(TotalCaptureResult.class));
+
+    verify(first, times(1)).run();
+    verify(second, times(1)).run();
+  }
+
+  @Test
+  public void requestUpdate_reportsSubmitFailure() throws CameraAccessException {
+    Runnable onApplied = mock(Runnable.class);
+    ErrorCallback onError = mock(ErrorCallback.class);
+    when(mockSubmitter.submit(anyLong())).thenThrow(new CameraAccessException(0, ""));
+
+    coalescer.requestUpdate(onApplied, onError);
+
+    verify(onError, times(1)).onError(eq("cameraAccess"), any());
+    verify(onApplied, never()).run();
+  }
+
+  @Test
+  public void flush_completesAllWaitingUpdates() {
+    Runnable first = mock(Runnable.class);
+    Runnable second = mock(Runnable.class);
+
+    coalescer.requestUpdate(first, mock(ErrorCallback.class));
+    coalescer.requestUpdate(second, mock(ErrorCallback.class));
+    coalescer.flush();
+
+    verify(first, times(1)).run();
+    verify(second, times(1)).run();
+    verify(mockHandler, times(1)).removeCallbacks(any());
+  }
+
+  private static CaptureRequest requestWithTag(Object tag) {
+    CaptureRequest mockRequest = mock(CaptureRequest.class);
+    when(mockRequest.getTag()).thenReturn(tag);
+    return mockRequest;
+  }
+}
@@ -5,6 +5,9 @@
 package io.flutter.plugins.camera;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -14,6 +17,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.media.Image;
+import io.flutter.plugins.camera.media.Thumbnails;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -88,6 +92,43 @@ public class ImageSaverTests {
     verify(mockCallback, never()).onError(any(), any());
   }
 
+  @Test
+  public void runWritesThumbnailBeforeFinishing() {
+    try (MockedStatic<Thumbnails> thumbnails = mockStatic(Thumbnails.class)) {
+      thumbnails.when(() -> Thumbnails.pathFor("absolute/path")).thenReturn("absolute/thumb");
+      new ImageSaver(mockImage, mockFile, mockCallback, 256).run();
+
+      thumbnails.verify(
+          () ->
+              Thumbnails.writeFromJpeg(
+                  eq(new byte[] {0x42, 0x00, 0x13}), eq(256), eq("absolute/thumb")));
+      verify(mockCallback, times(1)).onComplete("absolute/path");
+    }
+  }
+
+  @Test
+  public void runFinishesWhenThumbnailFails() {
+    try (MockedStatic<Thumbnails> thumbnails = mockStatic(Thumbnails.class)) {
+      thumbnails.when(() -> Thumbnails.pathFor(anyString())).thenReturn("absolute/thumb");
+      thumbnails
+          .when(() -> Thumbnails.writeFromJpeg(any(), anyInt(), anyString()))
+          .thenThrow(new IOException("corrupt"));
+      new ImageSaver(mockImage, mockFile, mockCallback, 256).run();
+
+      verify(mockCallback, times(1)).onComplete("absolute/path");
+      verify(mockCallback, never()).onError(any(), any());
+    }
+  }
+
+  @Test
+  public void runSkipsThumbnailByDefault() {
+    try (MockedStatic<Thumbnails> thumbnails = mockStatic(Thumbnails.class)) {
+      imageSaver.run();
+
+      thumbnails.verifyNoInteractions();
+    }
+  }
+
   @Test
   public void runCallsErrorOnWriteIoexception() throws IOException {
     doThrow(new IOException()).when(mockFileOutputStream).write(any());
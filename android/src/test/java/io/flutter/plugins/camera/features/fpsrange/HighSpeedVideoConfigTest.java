@@ -0,0 +1,108 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.fpsrange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.util.Range;
+import android.util.Size;
+import io.flutter.plugins.camera.CameraProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HighSpeedVideoConfigTest {
+  private CameraProperties mockCameraProperties;
+  private Size size720p;
+  private Size size1080p;
+
+  @Before
+  public void before() {
+    mockCameraProperties = mock(CameraProperties.class);
+    size720p = mockSize(1280, 720);
+    size1080p = mockSize(1920, 1080);
+    // 720p records at 120 and 240 fps, 1080p only at 120 fps.
+    when(mockCameraProperties.getHighSpeedVideoSizes())
+        .thenReturn(new Size[] {size720p, size1080p});
+    when(mockCameraProperties.getHighSpeedVideoFpsRangesFor(size720p))
+        .thenReturn(ranges(mockRange(30, 120), mockRange(120, 120), mockRange(240, 240)));
+    when(mockCameraProperties.getHighSpeedVideoFpsRangesFor(size1080p))
+        .thenReturn(ranges(mockRange(30, 120), mockRange(120, 120)));
+  }
+
+  @Test
+  public void select_takesTheLargestSizeThatFitsAtTheRequestedRate() {
+    HighSpeedVideoConfig config =
+        HighSpeedVideoConfig.select(mockCameraProperties, 120, mockSize(1920, 1080));
+
+    assertSame(size1080p, config.getSize());
+    assertEquals(120, config.getFps());
+  }
+
+  @Test
+  public void select_takesTheSizeSupportingTheRate() {
+    HighSpeedVideoConfig config =
+        HighSpeedVideoConfig.select(mockCameraProperties, 240, mockSize(1920, 1080));
+
+    assertSame(size720p, config.getSize());
+    assertEquals(240, config.getFps());
+  }
+
+  @Test
+  public void select_fallsBackToTheHighestRateBelowTheRequestedOne() {
+    HighSpeedVideoConfig config =
+        HighSpeedVideoConfig.select(mockCameraProperties, 200, mockSize(1920, 1080));
+
+    assertEquals(120, config.getFps());
+  }
+
+  @Test
+  public void select_takesTheLowestRateIfAllAreHigher() {
+    HighSpeedVideoConfig config =
+        HighSpeedVideoConfig.select(mockCameraProperties, 60, mockSize(1920, 1080));
+
+    assertEquals(120, config.getFps());
+  }
+
+  @Test
+  public void select_takesTheSmallestSizeIfNoneFits() {
+    HighSpeedVideoConfig config =
+        HighSpeedVideoConfig.select(mockCameraProperties, 120, mockSize(640, 480));
+
+    assertSame(size720p, config.getSize());
+  }
+
+  @Test
+  public void select_returnsNullWithoutHighSpeedSizes() {
+    when(mockCameraProperties.getHighSpeedVideoSizes()).thenReturn(new Size[0]);
+
+    assertNull(HighSpeedVideoConfig.select(mockCameraProperties, 120, mockSize(1920, 1080)));
+  }
+
+  private static Size mockSize(int width, int height) {
+    Size size = mock(Size.class);
+    when(size.getWidth()).thenReturn(width);
+    when(size.getHeight()).thenReturn(height);
+    return size;
+  }
+
+  private static Range<Integer> mockRange(int lower, int upper) {
+    @SuppressWarnings("unchecked")
+    Range<Integer> range = mock(Range.class);
+    when(range.getLower()).thenReturn(lower);
+    when(range.getUpper()).thenReturn(upper);
+    return range;
+  }
+
+  // Use a wildcard, since `new Range<Integer>[] {...}` results in a 'Generic array creation'
+  // error.
+  @SuppressWarnings("unchecked")
+  private static Range<Integer>[] ranges(Range<?>... ranges) {
+    return (Range<Integer>[]) ranges;
+  }
+}
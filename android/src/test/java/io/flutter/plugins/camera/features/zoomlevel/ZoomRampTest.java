@@ -0,0 +1,65 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.features.zoomlevel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ZoomRampTest {
+  private static final long SECOND_NS = 1_000_000_000L;
+
+  @Test
+  public void valueAt_startsAtFromAndEndsAtTarget() {
+    final ZoomRamp ramp = new ZoomRamp(1f, 4f, 100, SECOND_NS, ZoomRampCurve.linear);
+
+    assertEquals(1f, ramp.valueAt(100), 1e-6f);
+    assertEquals(4f, ramp.valueAt(100 + SECOND_NS), 1e-6f);
+    assertEquals(4f, ramp.valueAt(100 + 2 * SECOND_NS), 1e-6f);
+  }
+
+  @Test
+  public void valueAt_interpolatesGeometrically() {
+    final ZoomRamp ramp = new ZoomRamp(1f, 4f, 0, SECOND_NS, ZoomRampCurve.linear);
+
+    // Half way through, the field of view has shrunk by the same factor as in the second half.
+    assertEquals(2f, ramp.valueAt(SECOND_NS / 2), 1e-5f);
+  }
+
+  @Test
+  public void valueAt_followsCurve() {
+    final ZoomRamp easeIn = new ZoomRamp(1f, 4f, 0, SECOND_NS, ZoomRampCurve.easeIn);
+    final ZoomRamp easeOut = new ZoomRamp(1f, 4f, 0, SECOND_NS, ZoomRampCurve.easeOut);
+
+    assertTrue(easeIn.valueAt(SECOND_NS / 4) < 1.1f);
+    assertTrue(easeOut.valueAt(SECOND_NS / 4) > 2f);
+  }
+
+  @Test
+  public void valueAt_clampsBeforeStart() {
+    final ZoomRamp ramp = new ZoomRamp(2f, 1f, SECOND_NS, SECOND_NS, ZoomRampCurve.easeInOut);
+
+    assertEquals(2f, ramp.valueAt(0), 1e-6f);
+  }
+
+  @Test
+  public void isFinishedAt_respectsDuration() {
+    final ZoomRamp ramp = new ZoomRamp(1f, 2f, 0, SECOND_NS, ZoomRampCurve.linear);
+
+    assertFalse(ramp.isFinishedAt(SECOND_NS - 1));
+    assertTrue(ramp.isFinishedAt(SECOND_NS));
+  }
+
+  @Test
+  public void transform_keepsEndpointsForAllCurves() {
+    for (ZoomRampCurve curve : ZoomRampCurve.values()) {
+      assertEquals(curve.toString(), 0f, curve.transform(0f), 1e-6f);
+      assertEquals(curve.toString(), 1f, curve.transform(1f), 1e-6f);
+      assertEquals(curve, ZoomRampCurve.getValueForString(curve.toString()));
+    }
+  }
+}
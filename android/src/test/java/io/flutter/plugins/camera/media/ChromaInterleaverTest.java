@@ -0,0 +1,82 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Test;
+
+public class ChromaInterleaverTest {
+
+  @Test
+  public void interleaveRow_matchesBytewiseInterleaveForAllLengths() {
+    Random random = new Random(7);
+    for (int count = 0; count <= 33; count++) {
+      byte[] v = new byte[count + 3];
+      byte[] u = new byte[count + 5];
+      random.nextBytes(v);
+      random.nextBytes(u);
+
+      byte[] expected = new byte[2 * count + 1];
+      for (int i = 0; i < count; i++) {
+        expected[1 + 2 * i] = v[3 + i];
+        expected[2 + 2 * i] = u[5 + i];
+      }
+      byte[] actual = new byte[2 * count + 1];
+      ChromaInterleaver.interleaveRow(v, 3, u, 5, actual, 1, count);
+
+      assertArrayEquals("count " + count, expected, actual);
+    }
+  }
+
+  @Test
+  public void interleavePlanes_handlesRowPadding() {
+    // 10x2 chroma with a row stride of 16; the last row is not padded.
+    byte[] v = new byte[16 + 10];
+    byte[] u = new byte[16 + 10];
+    for (int i = 0; i < v.length; i++) {
+      v[i] = (byte) i;
+      u[i] = (byte) (100 + i);
+    }
+    byte[] dst = new byte[40];
+
+    ChromaInterleaver.interleavePlanes(
+        ByteBuffer.wrap(v), 16, 1, ByteBuffer.wrap(u), 16, 1, 10, 0, 2, dst, 0);
+
+    for (int row = 0; row < 2; row++) {
+      for (int col = 0; col < 10; col++) {
+        int d = row * 20 + 2 * col;
+        assertArrayEquals(
+            new byte[] {(byte) (row * 16 + col), (byte) (100 + row * 16 + col)},
+            new byte[] {dst[d], dst[d + 1]});
+      }
+    }
+  }
+
+  @Test
+  public void interleavePlanes_handlesPixelStrideAndRowBands() {
+    // 4x4 chroma sharing one buffer as in NV12: U at even, V at odd offsets.
+    byte[] uv = new byte[4 * 8];
+    for (int i = 0; i < uv.length; i++) {
+      uv[i] = (byte) i;
+    }
+    ByteBuffer u = ByteBuffer.wrap(uv);
+    ByteBuffer v = ByteBuffer.wrap(uv, 1, uv.length - 1).slice();
+    byte[] dst = new byte[32];
+
+    ChromaInterleaver.interleavePlanes(v, 8, 2, u, 8, 2, 4, 2, 4, dst, 0);
+
+    byte[] expected = new byte[32];
+    for (int row = 2; row < 4; row++) {
+      for (int col = 0; col < 4; col++) {
+        expected[row * 8 + 2 * col] = (byte) (row * 8 + 2 * col + 1);
+        expected[row * 8 + 2 * col + 1] = (byte) (row * 8 + 2 * col);
+      }
+    }
+    assertArrayEquals(expected, dst);
+  }
+}
@@ -0,0 +1,302 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import org.junit.Test;
+
+public class DatasetRecorderTest {
+  private static final int WIDTH = 4;
+  private static final int HEIGHT = 2;
+
+  static File newDirectory() throws IOException {
+    final File directory = Files.createTempDirectory("dataset").toFile();
+    directory.deleteOnExit();
+    return directory;
+  }
+
+  /**
+   * A 4x2 frame with luma {@code base} to {@code base + 7}, a padded luma row stride and chroma
+   * planes with a pixel stride of 2.
+   */
+  static FrameImage frame(int base, long timestamp) {
+    ByteBuffer y = ByteBuffer.allocate(6 + WIDTH);
+    ByteBuffer u = ByteBuffer.allocate(3);
+    ByteBuffer v = ByteBuffer.allocate(3);
+    for (int i = 0; i < WIDTH; i++) {
+      y.put(i, (byte) (base + i));
+      y.put(6 + i, (byte) (base + WIDTH + i));
+    }
+    u.put(0, (byte) 100).put(2, (byte) 101);
+    v.put(0, (byte) 200).put(2, (byte) 201);
+    return image(
+        WIDTH, HEIGHT, timestamp, plane(y, 6, 1), plane(u, 4, 2), plane(v, 4, 2));
+  }
+
+  static FrameImage image(
+      int width, int height, long timestamp, FrameImage.Plane... planes) {
+    return new FrameImage() {
+      @Override
+      public int getFormat() {
+        return 35;
+      }
+
+      @Override
+      public int getWidth() {
+        return width;
+      }
+
+      @Override
+      public int getHeight() {
+        return height;
+      }
+
+      @Override
+      public long getTimestamp() {
+        return timestamp;
+      }
+
+      @Override
+      public Plane[] getPlanes() {
+        return planes;
+      }
+
+      @Override
+      public void close() {}
+    };
+  }
+
+  static FrameImage.Plane plane(ByteBuffer buffer, int rowStride, int pixelStride) {
+    return new FrameImage.Plane() {
+      @Override
+      public ByteBuffer getBuffer() {
+        return buffer;
+      }
+
+      @Override
+      public int getRowStride() {
+        return rowStride;
+      }
+
+      @Override
+      public int getPixelStride() {
+        return pixelStride;
+      }
+    };
+  }
+
+  @Test
+  public void record_writesNv21AndIndex() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder recorder =
+        new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 1024);
+
+    assertTrue(recorder.record(frame(0, 10L), 5_000_000L, 400));
+    assertTrue(recorder.record(frame(50, 20L), 6_000_000L, 800));
+    recorder.close();
+
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(2, reader.getFrameCount());
+      DatasetReader.Entry entry = reader.getEntry(1);
+      assertEquals(20L, entry.sensorTimestampNs);
+      assertEquals(6_000_000L, entry.exposureTimeNs);
+      assertEquals(800, entry.sensitivity);
+      assertEquals(WIDTH, entry.width);
+      assertEquals(HEIGHT, entry.height);
+      assertEquals(WIDTH, entry.rowStride);
+      assertEquals(DatasetRecorder.Format.NV21, entry.format);
+      assertEquals(12, entry.offset);
+      assertEquals(12, entry.length);
+      assertArrayEquals(
+          new byte[] {50, 51, 52, 53, 54, 55, 56, 57, (byte) 200, 100, (byte) 201, 101},
+          reader.readFrame(1));
+    }
+    assertEquals(24, new File(directory, DatasetRecorder.segmentName(0)).length());
+  }
+
+  @Test
+  public void record_pairsFramesWithMetadataBySensorTimestamp() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder recorder =
+        new DatasetRecorder(directory, DatasetRecorder.Format.Y_ONLY, 1024);
+
+    recorder.recordCaptureMetadata(10L, 5_000_000L, 400);
+    recorder.recordCaptureMetadata(30L, 7_000_000L, 1600);
+    assertTrue(recorder.record(frame(0, 30L)));
+    assertTrue(recorder.record(frame(0, 20L)));
+    assertTrue(recorder.record(frame(0, 10L)));
+    recorder.close();
+
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(7_000_000L, reader.getEntry(0).exposureTimeNs);
+      assertEquals(1600, reader.getEntry(0).sensitivity);
+      // No result with this timestamp, so no neighbour's exposure either.
+      assertEquals(0L, reader.getEntry(1).exposureTimeNs);
+      assertEquals(0, reader.getEntry(1).sensitivity);
+      assertEquals(5_000_000L, reader.getEntry(2).exposureTimeNs);
+      assertEquals(400, reader.getEntry(2).sensitivity);
+    }
+  }
+
+  @Test
+  public void record_yOnlyDropsChroma() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder recorder =
+        new DatasetRecorder(directory, DatasetRecorder.Format.Y_ONLY, 1024);
+
+    recorder.record(frame(0, 10L), 0, 0);
+    recorder.close();
+
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertArrayEquals(new byte[] {0, 1, 2, 3, 4, 5, 6, 7}, reader.readFrame(0));
+    }
+  }
+
+  @Test
+  public void record_rgbConvertsFullFrame() throws IOException {
+    File directory = newDirectory();
+    ByteBuffer y = ByteBuffer.allocate(4);
+    ByteBuffer u = ByteBuffer.allocate(1);
+    ByteBuffer v = ByteBuffer.allocate(1);
+    for (int i = 0; i < 4; i++) {
+      y.put(i, (byte) 128);
+    }
+    u.put(0, (byte) 128);
+    v.put(0, (byte) 128);
+    DatasetRecorder recorder = new DatasetRecorder(directory, DatasetRecorder.Format.RGB, 1024);
+
+    recorder.record(image(2, 2, 1L, plane(y, 2, 1), plane(u, 1, 1), plane(v, 1, 1)), 0, 0);
+    recorder.close();
+
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(6, reader.getEntry(0).rowStride);
+      byte[] rgb = reader.readFrame(0);
+      assertEquals(12, rgb.length);
+      for (byte value : rgb) {
+        assertEquals((byte) 128, value);
+      }
+    }
+  }
+
+  @Test
+  public void record_rollsOverToNextSegment() throws IOException {
+    File directory = newDirectory();
+    // Room for two 12 byte frames per segment.
+    DatasetRecorder recorder = new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 30);
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(recorder.record(frame(i * 10, i), 0, 0));
+    }
+    recorder.close();
+
+    assertEquals(60, recorder.getBytesWritten());
+    assertEquals(24, new File(directory, DatasetRecorder.segmentName(0)).length());
+    assertEquals(24, new File(directory, DatasetRecorder.segmentName(1)).length());
+    assertEquals(12, new File(directory, DatasetRecorder.segmentName(2)).length());
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(5, reader.getFrameCount());
+      DatasetReader.Entry entry = reader.getEntry(3);
+      assertEquals(1, entry.segment);
+      assertEquals(12, entry.offset);
+      assertEquals(30, reader.readFrame(3)[0]);
+    }
+  }
+
+  @Test
+  public void constructor_deletesSegmentsOfAnEarlierRecording() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder first = new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 30);
+    for (int i = 0; i < 5; i++) {
+      first.record(frame(i * 10, i), 0, 0);
+    }
+    first.close();
+
+    DatasetRecorder second = new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 30);
+    second.record(frame(0, 0), 0, 0);
+    second.close();
+
+    assertTrue(new File(directory, DatasetRecorder.segmentName(0)).exists());
+    assertFalse(new File(directory, DatasetRecorder.segmentName(1)).exists());
+    assertFalse(new File(directory, DatasetRecorder.segmentName(2)).exists());
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(1, reader.getFrameCount());
+    }
+  }
+
+  @Test
+  public void record_rejectsFramesLargerThanSegmentAndAfterClose() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder recorder = new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 8);
+
+    assertFalse(recorder.record(frame(0, 1L), 0, 0));
+    recorder.close();
+    assertFalse(recorder.record(frame(0, 2L), 0, 0));
+
+    assertEquals(0, recorder.getFrameCount());
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(0, reader.getFrameCount());
+    }
+  }
+
+  @Test
+  public void close_flushesMoreEntriesThanOneBatch() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder recorder =
+        new DatasetRecorder(directory, DatasetRecorder.Format.Y_ONLY, 1024 * 1024);
+
+    for (int i = 0; i < 1000; i++) {
+      recorder.record(frame(0, i), 0, 0);
+    }
+    recorder.close();
+
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(1000, reader.getFrameCount());
+      assertEquals(999L, reader.getEntry(999).sensorTimestampNs);
+      assertEquals(999 * 8, reader.getEntry(999).offset);
+    }
+  }
+
+  /**
+   * Measures recording 1080p NV21 frames. Only runs if the CAMERA_BENCHMARK environment variable
+   * is set, e.g. {@code CAMERA_BENCHMARK=1 ./gradlew testDebugUnitTest --tests
+   * '*DatasetRecorderTest*'}.
+   */
+  @Test
+  public void benchmark_record1080pNv21() throws IOException {
+    assumeTrue(System.getenv("CAMERA_BENCHMARK") != null);
+    final int width = 1920;
+    final int height = 1080;
+    FrameImage image =
+        image(
+            width,
+            height,
+            0L,
+            plane(ByteBuffer.allocateDirect(width * height), width, 1),
+            plane(ByteBuffer.allocateDirect(width * height / 2 - 1), width, 2),
+            plane(ByteBuffer.allocateDirect(width * height / 2 - 1), width, 2));
+    DatasetRecorder recorder =
+        new DatasetRecorder(
+            newDirectory(), DatasetRecorder.Format.NV21, DatasetRecorder.DEFAULT_SEGMENT_BYTES);
+
+    final int frames = 300;
+    final long start = System.nanoTime();
+    for (int i = 0; i < frames; i++) {
+      recorder.record(image, 0, 0);
+    }
+    recorder.close();
+    final long elapsed = System.nanoTime() - start;
+    System.out.printf(
+        "DatasetRecorder: %.2f ms per 1080p NV21 frame%n", elapsed / 1e6 / frames);
+  }
+}
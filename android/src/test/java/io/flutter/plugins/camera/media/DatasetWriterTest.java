@@ -0,0 +1,135 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static io.flutter.plugins.camera.media.DatasetRecorderTest.frame;
+import static io.flutter.plugins.camera.media.DatasetRecorderTest.image;
+import static io.flutter.plugins.camera.media.DatasetRecorderTest.newDirectory;
+import static io.flutter.plugins.camera.media.DatasetRecorderTest.plane;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class DatasetWriterTest {
+  @Test
+  public void offer_recordsFramesWithTheirMetadataOnTheWriterThread() throws IOException {
+    File directory = newDirectory();
+    DatasetWriter writer =
+        new DatasetWriter(
+            new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 1024),
+            DatasetWriter.DEFAULT_QUEUE_DEPTH);
+
+    writer.recordCaptureMetadata(10L, 5_000_000L, 400);
+    assertTrue(writer.offer(frame(0, 10L)));
+    writer.recordCaptureMetadata(20L, 6_000_000L, 800);
+    assertTrue(writer.offer(frame(50, 20L)));
+    writer.close();
+
+    assertEquals(2, writer.getFrameCount());
+    assertEquals(0, writer.getDroppedFrameCount());
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertEquals(2, reader.getFrameCount());
+      assertEquals(400, reader.getEntry(0).sensitivity);
+      DatasetReader.Entry entry = reader.getEntry(1);
+      assertEquals(20L, entry.sensorTimestampNs);
+      assertEquals(6_000_000L, entry.exposureTimeNs);
+      assertEquals(800, entry.sensitivity);
+      assertArrayEquals(
+          new byte[] {50, 51, 52, 53, 54, 55, 56, 57, (byte) 200, 100, (byte) 201, 101},
+          reader.readFrame(1));
+    }
+  }
+
+  @Test
+  public void offer_copiesOnlyLumaForYOnly() throws IOException {
+    File directory = newDirectory();
+    DatasetWriter writer =
+        new DatasetWriter(new DatasetRecorder(directory, DatasetRecorder.Format.Y_ONLY, 1024), 1);
+
+    assertTrue(writer.offer(frame(0, 10L)));
+    writer.close();
+
+    try (DatasetReader reader = new DatasetReader(directory)) {
+      assertArrayEquals(new byte[] {0, 1, 2, 3, 4, 5, 6, 7}, reader.readFrame(0));
+    }
+  }
+
+  @Test
+  public void offer_dropsFramesWhileTheWriterIsBehind() throws IOException {
+    File directory = newDirectory();
+    DatasetRecorder recorder = new DatasetRecorder(directory, DatasetRecorder.Format.NV21, 1024);
+    DatasetWriter writer = new DatasetWriter(recorder, 1);
+
+    // The writer cannot record while the recorder is locked, so its only buffer stays taken.
+    synchronized (recorder) {
+      assertTrue(writer.offer(frame(0, 10L)));
+      assertFalse(writer.offer(frame(0, 20L)));
+      assertFalse(writer.offer(frame(0, 30L)));
+    }
+    writer.close();
+
+    assertEquals(2, writer.getDroppedFrameCount());
+    assertEquals(1, writer.getFrameCount());
+    assertFalse(writer.offer(frame(0, 40L)));
+  }
+
+  /**
+   * Measures the frame rate the writer sustains for NV21 at common capture sizes, and the time
+   * {@link DatasetWriter#offer} takes on the camera thread. Only runs if the CAMERA_BENCHMARK
+   * environment variable is set, e.g. {@code CAMERA_BENCHMARK=1 ./gradlew testDebugUnitTest
+   * --tests '*DatasetWriterTest*'}.
+   */
+  @Test
+  public void benchmark_nv21FramesPerSecond() throws IOException {
+    assumeTrue(System.getenv("CAMERA_BENCHMARK") != null);
+    benchmark(1920, 1080, 150);
+    benchmark(4000, 3000, 30);
+  }
+
+  private static void benchmark(int width, int height, int frames) throws IOException {
+    DatasetWriter writer =
+        new DatasetWriter(
+            new DatasetRecorder(
+                newDirectory(),
+                DatasetRecorder.Format.NV21,
+                DatasetRecorder.DEFAULT_SEGMENT_BYTES),
+            DatasetWriter.DEFAULT_QUEUE_DEPTH);
+    FrameImage image =
+        image(
+            width,
+            height,
+            0L,
+            plane(ByteBuffer.allocateDirect(width * height), width, 1),
+            plane(ByteBuffer.allocateDirect(width * height / 2 - 1), width, 2),
+            plane(ByteBuffer.allocateDirect(width * height / 2 - 1), width, 2));
+    long offerNs = 0;
+    final long start = System.nanoTime();
+    for (int i = 0; i < frames; ) {
+      final long offerStart = System.nanoTime();
+      if (writer.offer(image)) {
+        offerNs += System.nanoTime() - offerStart;
+        i++;
+      } else {
+        Thread.yield();
+      }
+    }
+    writer.close();
+    final long elapsed = System.nanoTime() - start;
+    System.out.printf(
+        "DatasetWriter: %dx%d NV21 at %.1f fps, %.2f ms per accepted offer, %d dropped%n",
+        width,
+        height,
+        frames / (elapsed / 1e9),
+        offerNs / 1e6 / frames,
+        writer.getDroppedFrameCount());
+  }
+}
@@ -0,0 +1,175 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import android.os.Handler;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class EncodedEventSinkTest {
+  private static final String CHANNEL = "plugins.flutter.io/camera_android/framesStream";
+
+  private BinaryMessenger messenger;
+  private Handler mainHandler;
+  private final List<Runnable> posted = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    messenger = mock(BinaryMessenger.class);
+    mainHandler = mock(Handler.class);
+    when(mainHandler.post(any(Runnable.class)))
+        .thenAnswer(
+            invocation -> {
+              posted.add(invocation.getArgument(0));
+              return true;
+            });
+  }
+
+  private void runMainThread() {
+    final List<Runnable> tasks = new ArrayList<>(posted);
+    posted.clear();
+    for (Runnable task : tasks) {
+      task.run();
+    }
+  }
+
+  private Object decodeSent(int times) {
+    final ArgumentCaptor<ByteBuffer> captor = ArgumentCaptor.forClass(ByteBuffer.class);
+    verify(messenger, times(times)).send(eq(CHANNEL), captor.capture());
+    final ByteBuffer envelope = captor.getValue();
+    envelope.flip();
+    return StandardMethodCodec.INSTANCE.decodeEnvelope(envelope);
+  }
+
+  @Test
+  public void sendFrame_encodesOnCallingThreadAndSendsOnMainThread() {
+    EncodedEventSink sink = new EncodedEventSink(messenger, CHANNEL, mainHandler, null);
+    Map<String, Object> frame = new HashMap<>();
+    frame.put("width", 4);
+
+    sink.sendFrame(frame, 0);
+    // Encoded already, so later changes are not sent.
+    frame.put("width", 8);
+
+    verify(messenger, never()).send(anyString(), any());
+    runMainThread();
+    assertEquals(4, ((Map<?, ?>) decodeSent(1)).get("width"));
+  }
+
+  @Test
+  public void sendFrame_replacesFrameWaitingForMainThread() {
+    FrameMetrics metrics = new FrameMetrics();
+    EncodedEventSink sink = new EncodedEventSink(messenger, CHANNEL, mainHandler, metrics);
+
+    sink.sendFrame(1, 0);
+    sink.sendFrame(2, 0);
+
+    assertEquals(1, posted.size());
+    runMainThread();
+    assertEquals(2, decodeSent(1));
+    assertEquals(1, metrics.getDropCount(FrameMetrics.Drop.SUPERSEDED_BEFORE_DELIVERY));
+    assertEquals(1, metrics.getLatency(FrameMetrics.Stage.MAIN_THREAD_SEND).getCount());
+
+    sink.sendFrame(3, 0);
+    runMainThread();
+    assertEquals(3, decodeSent(2));
+  }
+
+  @Test
+  public void close_dropsFrameWaitingForMainThread() {
+    EncodedEventSink sink = new EncodedEventSink(messenger, CHANNEL, mainHandler, null);
+
+    sink.sendFrame(1, 0);
+    sink.close();
+    runMainThread();
+    sink.sendFrame(2, 0);
+    sink.success(3);
+
+    assertEquals(0, posted.size());
+    verify(messenger, never()).send(anyString(), any());
+  }
+
+  @Test
+  public void endOfStream_sendsEmptyMessage() {
+    EncodedEventSink sink = new EncodedEventSink(messenger, CHANNEL, mainHandler, null);
+
+    sink.endOfStream();
+    runMainThread();
+
+    verify(messenger).send(eq(CHANNEL), isNull());
+  }
+
+  /**
+   * Prints the time per 1080p NV21 frame spent on the converting thread and on the main thread,
+   * when the frame is posted to the main thread and encoded there as a plain EventChannel sink
+   * does, and when it is sent with {@link EncodedEventSink#sendFrame}. Only runs if the
+   * CAMERA_BENCHMARK environment variable is set, e.g. {@code CAMERA_BENCHMARK=1 ./gradlew
+   * testDebugUnitTest --tests '*EncodedEventSinkTest*'}.
+   */
+  @Test
+  public void benchmark_mainThreadTimePerFrame() {
+    assumeTrue(System.getenv("CAMERA_BENCHMARK") != null);
+    final int warmUp = 5;
+    final int iterations = 50;
+    // Not recording invocations, which would keep every envelope.
+    messenger = mock(BinaryMessenger.class, withSettings().stubOnly());
+    final Map<String, Object> frame = new HashMap<>();
+    frame.put("width", 1920);
+    frame.put("height", 1080);
+    frame.put("bytes", new byte[1920 * 1080 * 3 / 2]);
+    EncodedEventSink sink = new EncodedEventSink(messenger, CHANNEL, mainHandler, null);
+
+    for (boolean encoded : new boolean[] {false, true}) {
+      long callerNs = 0;
+      long mainThreadNs = 0;
+      for (int i = 0; i < warmUp + iterations; i++) {
+        final long start = System.nanoTime();
+        if (encoded) {
+          sink.sendFrame(frame, 0);
+        } else {
+          mainHandler.post(
+              () ->
+                  messenger.send(
+                      CHANNEL, StandardMethodCodec.INSTANCE.encodeSuccessEnvelope(frame)));
+        }
+        final long posted = System.nanoTime();
+        runMainThread();
+        if (i >= warmUp) {
+          callerNs += posted - start;
+          mainThreadNs += System.nanoTime() - posted;
+        }
+      }
+      System.out.println(
+          "EncodedEventSink "
+              + (encoded ? "encoded" : "plain")
+              + ": "
+              + callerNs / iterations / 1000
+              + " us/frame converting thread, "
+              + mainThreadNs / iterations / 1000
+              + " us/frame main thread");
+    }
+  }
+}
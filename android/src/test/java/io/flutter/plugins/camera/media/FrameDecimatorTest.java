@@ -0,0 +1,97 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class FrameDecimatorTest {
+  private static final long SECOND_NS = 1_000_000_000L;
+
+  /** Offers {@code count} frames at {@code fps} and returns the indices of the taken ones. */
+  private static List<Integer> taken(FrameDecimator decimator, int fps, int count) {
+    List<Integer> taken = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      if (decimator.offer(i * SECOND_NS / fps)) {
+        taken.add(i);
+      }
+    }
+    return taken;
+  }
+
+  @Test
+  public void offer_takesEveryNthFrameForEvenRatios() {
+    List<Integer> taken = taken(new FrameDecimator(240, 30), 240, 240);
+
+    assertEquals(30, taken.size());
+    for (int i = 0; i < taken.size(); i++) {
+      assertEquals(i * 8, (int) taken.get(i));
+    }
+  }
+
+  @Test
+  public void offer_keepsTheRateForUnevenRatios() {
+    List<Integer> taken = taken(new FrameDecimator(120, 50), 120, 1200);
+
+    assertEquals(500, taken.size(), 1);
+    for (int i = 1; i < taken.size(); i++) {
+      int gap = taken.get(i) - taken.get(i - 1);
+      assertTrue("gap " + gap, gap == 2 || gap == 3);
+    }
+  }
+
+  @Test
+  public void offer_keepsTheCadenceAcrossDroppedFrames() {
+    FrameDecimator decimator = new FrameDecimator(240, 30);
+    List<Integer> taken = new ArrayList<>();
+    for (int i = 0; i < 240; i++) {
+      // Frame 8 never arrives.
+      if (i != 8 && decimator.offer(i * SECOND_NS / 240)) {
+        taken.add(i);
+      }
+    }
+
+    assertEquals(0, (int) taken.get(0));
+    assertEquals(9, (int) taken.get(1));
+    assertEquals(16, (int) taken.get(2));
+  }
+
+  @Test
+  public void offer_restartsAfterAStall() {
+    FrameDecimator decimator = new FrameDecimator(240, 30);
+    decimator.offer(0);
+
+    assertTrue(decimator.offer(SECOND_NS));
+    // The next frame is due one interval after the stall, not right away.
+    assertFalse(decimator.offer(SECOND_NS + SECOND_NS / 240));
+  }
+
+  @Test
+  public void offer_takesAllFramesWithoutALowerTarget() {
+    assertEquals(120, taken(new FrameDecimator(120, 0), 120, 120).size());
+    assertEquals(120, taken(new FrameDecimator(120, 240), 120, 120).size());
+    assertEquals(0, new FrameDecimator(120, 120).getIntervalNs());
+  }
+
+  @Test
+  public void reset_takesTheNextFrame() {
+    FrameDecimator decimator = new FrameDecimator(240, 30);
+    decimator.offer(0);
+    decimator.reset();
+
+    assertTrue(decimator.offer(SECOND_NS / 240));
+  }
+
+  @Test
+  public void constructor_rejectsNonPositiveSourceRate() {
+    assertThrows(IllegalArgumentException.class, () -> new FrameDecimator(0, 30));
+  }
+}
@@ -0,0 +1,169 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Test;
+
+public class FrameHistoryTest {
+  // NV21 size of a 4x2 frame.
+  private static final int FRAME_BYTES = 12;
+
+  @Test
+  public void takeClosest_returnsFrameNearestToTimestampAndRemovesIt() {
+    FrameHistory history = new FrameHistory();
+    history.configure(3, 1024);
+    FrameHistory.Frame first = frameAt(100);
+    FrameHistory.Frame second = frameAt(200);
+    FrameHistory.Frame third = frameAt(300);
+    history.publish(first);
+    history.publish(second);
+    history.publish(third);
+
+    assertSame(second, history.takeClosest(210));
+    assertEquals(2, history.size());
+    assertSame(third, history.takeClosest(210));
+  }
+
+  @Test
+  public void takeNewest_returnsFrameWithLatestTimestampAndRemovesIt() {
+    FrameHistory history = new FrameHistory();
+    history.configure(3, 1024);
+    FrameHistory.Frame first = frameAt(100);
+    FrameHistory.Frame second = frameAt(300);
+    FrameHistory.Frame third = frameAt(200);
+    history.publish(first);
+    history.publish(second);
+    history.publish(third);
+
+    assertSame(second, history.takeNewest());
+    assertSame(third, history.takeNewest());
+    assertSame(first, history.takeNewest());
+    assertNull(history.takeNewest());
+  }
+
+  @Test
+  public void publish_replacesOldestFrameOnceFull() {
+    FrameHistory history = new FrameHistory();
+    history.configure(2, 1024);
+    history.publish(frameAt(100));
+    history.publish(frameAt(200));
+    history.publish(frameAt(300));
+
+    assertEquals(2, history.size());
+    assertEquals(200, history.takeClosest(0).sensorTimestampNs);
+  }
+
+  @Test
+  public void publish_limitsDepthToMemoryCap() {
+    FrameHistory history = new FrameHistory();
+    history.configure(10, 2 * FRAME_BYTES);
+    for (int i = 0; i < 5; i++) {
+      history.publish(frameAt(i));
+    }
+
+    assertEquals(2, history.size());
+  }
+
+  @Test
+  public void publish_rejectsFramesWhenDisabledOrTooLarge() {
+    FrameHistory history = new FrameHistory();
+    assertFalse(history.publish(frameAt(100)));
+
+    history.configure(3, FRAME_BYTES - 1);
+    assertFalse(history.publish(frameAt(100)));
+    assertNull(history.takeClosest(100));
+  }
+
+  @Test
+  public void findClosest_returnsCopyAndKeepsFrame() {
+    FrameHistory history = new FrameHistory();
+    history.configure(3, 1024);
+    FrameHistory.Frame frame = frameAt(100);
+    frame.nv21[0] = 42;
+    history.publish(frame);
+
+    FrameHistory.Frame found = history.findClosest(90);
+
+    assertNotSame(frame, found);
+    assertEquals(42, found.nv21[0]);
+    assertEquals(1, history.size());
+  }
+
+  @Test
+  public void findById_returnsFrameWithAssignedId() {
+    FrameHistory history = new FrameHistory();
+    history.configure(2, 1024);
+    history.publish(frameAt(100));
+    history.publish(frameAt(200));
+    history.publish(frameAt(300));
+
+    assertNull(history.findById(0));
+    assertEquals(200, history.findById(1).sensorTimestampNs);
+    assertEquals(300, history.findById(2).sensorTimestampNs);
+  }
+
+  @Test
+  public void findInRange_returnsFramesInclusiveOldestFirst() {
+    FrameHistory history = new FrameHistory();
+    history.configure(3, 1024);
+    history.publish(frameAt(100));
+    history.publish(frameAt(200));
+    history.publish(frameAt(300));
+    // Wraps around, replacing the frame at 100 in the first slot.
+    history.publish(frameAt(400));
+
+    List<FrameHistory.Frame> frames = history.findInRange(200, 400);
+
+    assertEquals(3, frames.size());
+    assertEquals(200, frames.get(0).sensorTimestampNs);
+    assertEquals(300, frames.get(1).sensorTimestampNs);
+    assertEquals(400, frames.get(2).sensorTimestampNs);
+    assertTrue(history.findInRange(0, 150).isEmpty());
+  }
+
+  @Test
+  public void record_copiesFrameIntoOldestSlot() {
+    FrameHistory history = new FrameHistory();
+    history.configure(1, 1024);
+    byte[] nv21 = new byte[FRAME_BYTES];
+    nv21[0] = 1;
+
+    assertTrue(history.record(nv21, 4, 2, 100));
+    nv21[0] = 2;
+    assertTrue(history.record(nv21, 4, 2, 200));
+    nv21[0] = 3;
+
+    FrameHistory.Frame frame = history.findClosest(100);
+    assertEquals(200, frame.sensorTimestampNs);
+    assertEquals(4, frame.width);
+    assertEquals(2, frame.height);
+    assertEquals(2, frame.nv21[0]);
+    assertNotSame(nv21, frame.nv21);
+  }
+
+  @Test
+  public void record_rejectsFramesWhenDisabled() {
+    FrameHistory history = new FrameHistory();
+
+    assertFalse(history.record(new byte[FRAME_BYTES], 4, 2, 100));
+    assertNull(history.findClosest(100));
+  }
+
+  private static FrameHistory.Frame frameAt(long timestampNs) {
+    FrameHistory.Frame frame = new FrameHistory.Frame(new byte[FRAME_BYTES]);
+    frame.width = 4;
+    frame.height = 2;
+    frame.sensorTimestampNs = timestampNs;
+    return frame;
+  }
+}
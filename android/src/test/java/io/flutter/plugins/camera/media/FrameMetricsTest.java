@@ -0,0 +1,85 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class FrameMetricsTest {
+
+  @Test
+  public void latencyHistogram_reportsPercentileUpperBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 90; i++) {
+      histogram.record(3_000_000L); // 3 ms
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(40_000_000L); // 40 ms
+    }
+
+    assertEquals(100, histogram.getCount());
+    // 3000 us lies in [2048, 4096).
+    assertEquals(4095, histogram.getPercentileMicros(50));
+    assertEquals(4095, histogram.getPercentileMicros(90));
+    // Capped at the largest sample.
+    assertEquals(40_000, histogram.getPercentileMicros(99));
+  }
+
+  @Test
+  public void latencyHistogram_ignoresNegativeSamples() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(-1);
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentileMicros(50));
+  }
+
+  @Test
+  public void recordSensorToAccept_discardsTimestampsFromOtherTimeBases() {
+    FrameMetrics metrics = new FrameMetrics();
+
+    metrics.recordSensorToAccept(1_000_000L, 5_000_000L);
+    metrics.recordSensorToAccept(0L, 5_000_000L);
+    metrics.recordSensorToAccept(5_000_000L, 1_000_000L);
+    metrics.recordSensorToAccept(1L, 60_000_000_000L);
+
+    assertEquals(1, metrics.getLatency(FrameMetrics.Stage.SENSOR_TO_ACCEPT).getCount());
+  }
+
+  @Test
+  public void reset_clearsCountersAndHistograms() {
+    FrameMetrics metrics = new FrameMetrics();
+    metrics.recordDrop(FrameMetrics.Drop.THROTTLED);
+    metrics.recordLatency(FrameMetrics.Stage.ACCEPT_TO_CONVERTED, 0, 1_000_000L);
+
+    metrics.reset();
+
+    assertEquals(0, metrics.getDropCount(FrameMetrics.Drop.THROTTLED));
+    assertEquals(0, metrics.getLatency(FrameMetrics.Stage.ACCEPT_TO_CONVERTED).getCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void toMap_containsAllStagesAndDrops() {
+    FrameMetrics metrics = new FrameMetrics();
+    metrics.recordDrop(FrameMetrics.Drop.COLLECTED_BEFORE_DELIVERY);
+    metrics.recordDrop(FrameMetrics.Drop.COLLECTED_BEFORE_DELIVERY);
+    metrics.recordLatency(FrameMetrics.Stage.ACCEPT_TO_CONVERTED, 0, 2_000_000L);
+
+    Map<String, Object> map = metrics.toMap();
+
+    Map<String, Object> drops = (Map<String, Object>) map.get("drops");
+    assertEquals(FrameMetrics.Drop.values().length, drops.size());
+    assertEquals(2L, drops.get("collectedBeforeDelivery"));
+    Map<String, Object> latency = (Map<String, Object>) map.get("latency");
+    assertEquals(FrameMetrics.Stage.values().length, latency.size());
+    Map<String, Object> converted = (Map<String, Object>) latency.get("acceptToConverted");
+    assertEquals(1L, converted.get("count"));
+    assertEquals(2000L, converted.get("maxMicros"));
+  }
+}
@@ -5,8 +5,12 @@
 package io.flutter.plugins.camera.media;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -50,6 +54,30 @@ public class ImageStreamReaderTest {
     assertEquals(result, ImageFormat.YUV_420_888);
   }
 
+  /** RGBA8888 frames are converted from YUV420 as well. */
+  @Test
+  public void computeStreamImageFormat_computesCorrectStreamFormatRgba() {
+    int requestedStreamFormat = ImageStreamReader.RGBA_8888;
+    int result = ImageStreamReader.computeStreamImageFormat(requestedStreamFormat);
+    assertEquals(result, ImageFormat.YUV_420_888);
+  }
+
+  /** The Dart format can be switched between formats converted from the same stream format. */
+  @Test
+  public void setDartImageFormat_onlyAcceptsFormatsOfTheSameStream() {
+    ImageReader mockImageReader = mock(ImageReader.class);
+    ImageStreamReader yuvReader =
+        new ImageStreamReader(
+            mockImageReader, ImageFormat.YUV_420_888, mock(ImageStreamReaderUtils.class));
+    ImageStreamReader jpegReader =
+        new ImageStreamReader(mockImageReader, ImageFormat.JPEG, mock(ImageStreamReaderUtils.class));
+
+    assertTrue(yuvReader.setDartImageFormat(ImageStreamReader.RGBA_8888));
+    assertTrue(yuvReader.setDartImageFormat(ImageFormat.NV21));
+    assertFalse(yuvReader.setDartImageFormat(ImageFormat.JPEG));
+    assertFalse(jpegReader.setDartImageFormat(ImageStreamReader.RGBA_8888));
+  }
+
   /**
    * If we are requesting NV21, then the planes should be processed and converted to NV21 before
    * being sent to dart. We make sure yuv420ThreePlanesToNV21 is called when we are requesting
@@ -77,9 +105,10 @@ public class ImageStreamReaderTest {
     imageStreamReader.onImageAvailable(mockImage, mockCaptureProps, mockEventSink);
 
     // Make sure we processed the frame with parsePlanesForNv21
+    ByteBuffer yBuffer = mockImage.getPlanes()[0].getBuffer();
     verify(mockImageStreamReaderUtils)
         .yuv420ThreePlanesToNV21(
-            mockImage.getPlanes(), mockImage.getWidth(), mockImage.getHeight());
+            argThat(planes -> planes[0].getBuffer() == yBuffer), eq(1280), eq(720));
   }
 
   /** If we are requesting YUV420, then we should send the 3-plane image as it is. */
@@ -31,7 +31,7 @@ public class ImageStreamReaderUtilsTest {
 
     ByteBuffer result =
         imageStreamReaderUtils.yuv420ThreePlanesToNV21(
-            mockImage.getPlanes(), mockImage.getWidth(), mockImage.getHeight());
+            FrameImage.of(mockImage).getPlanes(), mockImage.getWidth(), mockImage.getHeight());
     Assert.assertEquals(
         ((long) imageWidth * imageHeight) + (2 * ((long) (imageWidth / 2) * (imageHeight / 2))),
         result.limit());
@@ -46,7 +46,7 @@ public class ImageStreamReaderUtilsTest {
 
     ByteBuffer result =
         imageStreamReaderUtils.yuv420ThreePlanesToNV21(
-            mockImage.getPlanes(), mockImage.getWidth(), mockImage.getHeight());
+            FrameImage.of(mockImage).getPlanes(), mockImage.getWidth(), mockImage.getHeight());
     Assert.assertEquals(
         ((long) imageWidth * imageHeight) + (2 * ((long) (imageWidth / 2) * (imageHeight / 2))),
         result.limit());
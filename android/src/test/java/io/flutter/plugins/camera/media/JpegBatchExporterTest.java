@@ -0,0 +1,137 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class JpegBatchExporterTest {
+  private static List<String> exportAndWait(
+      JpegBatchExporter exporter, List<JpegBatchExporter.Item> items)
+      throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(1);
+    final AtomicReference<List<String>> errors = new AtomicReference<>();
+    exporter.export(
+        items,
+        result -> {
+          errors.set(result);
+          done.countDown();
+        });
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    return errors.get();
+  }
+
+  @Test
+  public void export_reportsFailuresPerItemInOrder() throws InterruptedException {
+    JpegBatchExporter exporter = new JpegBatchExporter(3);
+    List<JpegBatchExporter.Item> items = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      final int index = i;
+      items.add(
+          scratch -> {
+            if (index % 3 == 1) {
+              throw new IOException("failed " + index);
+            }
+          });
+    }
+
+    List<String> errors = exportAndWait(exporter, items);
+
+    assertEquals(10, errors.size());
+    for (int i = 0; i < 10; i++) {
+      if (i % 3 == 1) {
+        assertEquals("failed " + i, errors.get(i));
+      } else {
+        assertNull(errors.get(i));
+      }
+    }
+    exporter.shutdown();
+  }
+
+  @Test
+  public void export_encodesConcurrentlyWithOneScratchPerThread() throws InterruptedException {
+    JpegBatchExporter exporter = new JpegBatchExporter(3);
+    final CountDownLatch allStarted = new CountDownLatch(3);
+    final AtomicInteger failures = new AtomicInteger();
+    final Map<Thread, JpegBatchExporter.Scratch> scratchOf =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+    List<JpegBatchExporter.Item> items = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      items.add(
+          scratch -> {
+            JpegBatchExporter.Scratch previous = scratchOf.put(Thread.currentThread(), scratch);
+            if (previous != null && previous != scratch) {
+              failures.incrementAndGet();
+            }
+            allStarted.countDown();
+            // Only completes if all three items run at the same time.
+            if (!allStarted.await(5, TimeUnit.SECONDS)) {
+              throw new IllegalStateException("Items did not run concurrently");
+            }
+          });
+    }
+
+    List<String> errors = exportAndWait(exporter, items);
+
+    assertEquals(Arrays.asList(null, null, null), errors);
+    assertEquals(0, failures.get());
+    Set<JpegBatchExporter.Scratch> distinct =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+    distinct.addAll(scratchOf.values());
+    assertEquals(3, distinct.size());
+    exporter.shutdown();
+  }
+
+  @Test
+  public void export_emptyBatchCompletesImmediately() throws InterruptedException {
+    JpegBatchExporter exporter = new JpegBatchExporter(2);
+
+    assertTrue(exportAndWait(exporter, new ArrayList<>()).isEmpty());
+    exporter.shutdown();
+  }
+
+  @Test
+  public void export_afterShutdownFailsEveryItem() throws InterruptedException {
+    JpegBatchExporter exporter = new JpegBatchExporter(2);
+    AtomicInteger encoded = new AtomicInteger();
+    exporter.shutdown();
+    List<JpegBatchExporter.Item> items = new ArrayList<>();
+    items.add(scratch -> encoded.incrementAndGet());
+    items.add(scratch -> encoded.incrementAndGet());
+
+    List<String> errors = exportAndWait(exporter, items);
+
+    assertEquals(
+        Arrays.asList("The JPEG exporter is shut down", "The JPEG exporter is shut down"), errors);
+    assertEquals(0, encoded.get());
+  }
+
+  @Test
+  public void scratch_reusesLargeEnoughBuffers() {
+    JpegBatchExporter.Scratch scratch = new JpegBatchExporter.Scratch();
+
+    byte[] nv21 = scratch.nv21(100);
+    assertSame(nv21, scratch.nv21(50));
+    assertEquals(200, scratch.nv21(200).length);
+    byte[] rotated = scratch.rotated(100);
+    assertSame(rotated, scratch.rotated(100));
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LumaStatsTest {
+  private static final int WIDTH = 8;
+  private static final int HEIGHT = 4;
+
+  @Test
+  public void addRow_collectsHistogramMeanAndClipping() {
+    LumaStats stats = new LumaStats(1, 1, 1);
+    stats.begin(WIDTH, HEIGHT);
+    // Half the pixels black, half white.
+    byte[] row = {0, 0, 0, 0, (byte) 255, (byte) 255, (byte) 255, (byte) 255};
+    for (int y = 0; y < HEIGHT; y++) {
+      stats.addRow(row, WIDTH, y);
+    }
+
+    assertEquals(WIDTH * HEIGHT, stats.getSampleCount());
+    assertEquals(16, stats.getHistogramBin(0));
+    assertEquals(16, stats.getHistogramBin(255));
+    assertEquals(127.5, stats.getMean(), 1e-9);
+    assertEquals(0.5, stats.getClippedShadowFraction(), 1e-9);
+    assertEquals(0.5, stats.getClippedHighlightFraction(), 1e-9);
+  }
+
+  @Test
+  public void addRow_splitsFrameIntoTiles() {
+    LumaStats stats = new LumaStats(2, 2, 1);
+    stats.begin(WIDTH, HEIGHT);
+    for (int y = 0; y < HEIGHT; y++) {
+      byte[] row = new byte[WIDTH];
+      for (int x = 0; x < WIDTH; x++) {
+        row[x] = (byte) ((x < WIDTH / 2 ? 10 : 20) + (y < HEIGHT / 2 ? 0 : 100));
+      }
+      stats.addRow(row, WIDTH, y);
+    }
+
+    assertEquals(10, stats.getTileMean(0, 0), 1e-9);
+    assertEquals(20, stats.getTileMean(1, 0), 1e-9);
+    assertEquals(110, stats.getTileMean(0, 1), 1e-9);
+    assertEquals(120, stats.getTileMean(1, 1), 1e-9);
+  }
+
+  @Test
+  public void addRow_samplesEveryStepPixels() {
+    LumaStats stats = new LumaStats(1, 1, 2);
+    stats.begin(WIDTH, HEIGHT);
+    for (int y = 0; y < HEIGHT; y++) {
+      stats.addRow(new byte[WIDTH], WIDTH, y);
+    }
+
+    assertEquals((WIDTH / 2) * (HEIGHT / 2), stats.getSampleCount());
+  }
+
+  @Test
+  public void begin_clearsPreviousFrame() {
+    LumaStats stats = new LumaStats(1, 1, 1);
+    stats.begin(WIDTH, HEIGHT);
+    stats.addRow(new byte[WIDTH], WIDTH, 0);
+
+    stats.begin(WIDTH, HEIGHT);
+
+    assertEquals(0, stats.getSampleCount());
+    assertEquals(0, stats.getHistogramBin(0));
+  }
+
+  @Test
+  public void toArray_packsHeaderHistogramAndTiles() {
+    LumaStats stats = new LumaStats(2, 1, 1);
+    stats.begin(WIDTH, HEIGHT);
+    stats.addRow(new byte[] {1, 1, 1, 1, 3, 3, 3, 3}, WIDTH, 0);
+
+    long[] packed = stats.toArray(1234L);
+
+    assertEquals(LumaStats.HEADER_SIZE + LumaStats.BINS + 4, packed.length);
+    assertEquals(1234L, packed[LumaStats.FIELD_SENSOR_TIMESTAMP]);
+    assertEquals(WIDTH, packed[LumaStats.FIELD_SAMPLES]);
+    assertEquals(16, packed[LumaStats.FIELD_SUM]);
+    assertEquals(4, packed[LumaStats.HEADER_SIZE + 1]);
+    // Tile sums, then tile counts.
+    assertEquals(4, packed[LumaStats.HEADER_SIZE + LumaStats.BINS]);
+    assertEquals(12, packed[LumaStats.HEADER_SIZE + LumaStats.BINS + 1]);
+    assertEquals(4, packed[LumaStats.HEADER_SIZE + LumaStats.BINS + 2]);
+  }
+}
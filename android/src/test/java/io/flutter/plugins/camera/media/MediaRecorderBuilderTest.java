@@ -261,6 +261,39 @@ public class MediaRecorderBuilderTest {
     inOrder.verify(recorder).prepare();
   }
 
+  @Config(minSdk = 31)
+  @Test
+  public void build_shouldRecordAtTheHighSpeedSizeAndRate() throws IOException {
+    EncoderProfiles recorderProfile = mock(EncoderProfiles.class);
+    List<EncoderProfiles.VideoProfile> mockVideoProfiles =
+        List.of(getEmptyEncoderProfilesVideoProfile());
+    MediaRecorderBuilder.MediaRecorderFactory mockFactory =
+        mock(MediaRecorderBuilder.MediaRecorderFactory.class);
+    MediaRecorder mockMediaRecorder = mock(MediaRecorder.class);
+    String outputFilePath = "mock_video_file_path";
+    MediaRecorderBuilder builder =
+        new MediaRecorderBuilder(
+                recorderProfile,
+                mockFactory,
+                new MediaRecorderBuilder.RecordingParameters(
+                    outputFilePath, testFps, testVideoBitrate, null))
+            .setEnableAudio(false)
+            .setHighSpeed(1280, 720, 240);
+
+    when(mockFactory.makeMediaRecorder()).thenReturn(mockMediaRecorder);
+    when(recorderProfile.getVideoProfiles()).thenReturn(mockVideoProfiles);
+
+    MediaRecorder recorder = builder.build();
+
+    InOrder inOrder = inOrder(recorder);
+    inOrder.verify(recorder).setVideoEncodingBitRate(testVideoBitrate);
+    inOrder.verify(recorder).setVideoFrameRate(240);
+    inOrder.verify(recorder).setVideoSize(1280, 720);
+    inOrder.verify(recorder).setCaptureRate(240);
+    inOrder.verify(recorder).setOutputFile(outputFilePath);
+    inOrder.verify(recorder).prepare();
+  }
+
   private CamcorderProfile getEmptyCamcorderProfile() {
     try {
       Constructor<CamcorderProfile> constructor =
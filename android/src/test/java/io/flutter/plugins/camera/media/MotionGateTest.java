@@ -0,0 +1,86 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class MotionGateTest {
+  private static final int WIDTH = 640;
+  private static final int HEIGHT = 480;
+  private static final long SECOND_NS = 1_000_000_000L;
+
+  @Test
+  public void offer_passesFirstFrameAndDropsIdenticalFrames() {
+    MotionGate gate = new MotionGate(8, 0);
+    byte[] frame = uniformFrame(100);
+
+    assertTrue(offer(gate, frame, 0));
+    assertFalse(offer(gate, frame, SECOND_NS));
+    assertFalse(offer(gate, uniformFrame(104), 2 * SECOND_NS));
+  }
+
+  @Test
+  public void offer_passesFramesWithLocalMotion() {
+    MotionGate gate = new MotionGate(8, 0);
+    offer(gate, uniformFrame(100), 0);
+
+    // A bright object covering a single 80x80 block of the frame.
+    byte[] moved = uniformFrame(100);
+    for (int y = 0; y < 80; y++) {
+      for (int x = 0; x < 80; x++) {
+        moved[y * WIDTH + x] = (byte) 200;
+      }
+    }
+
+    assertTrue(offer(gate, moved, SECOND_NS));
+  }
+
+  @Test
+  public void offer_comparesAgainstLastPassedFrame() {
+    MotionGate gate = new MotionGate(8, 0);
+    offer(gate, uniformFrame(100), 0);
+
+    // Each step is below the threshold, but they add up.
+    assertFalse(offer(gate, uniformFrame(105), 1));
+    assertTrue(offer(gate, uniformFrame(110), 2));
+  }
+
+  @Test
+  public void offer_passesKeepAliveFrames() {
+    MotionGate gate = new MotionGate(8, 5 * SECOND_NS);
+    byte[] frame = uniformFrame(100);
+    offer(gate, frame, 0);
+
+    assertFalse(offer(gate, frame, 4 * SECOND_NS));
+    assertTrue(offer(gate, frame, 5 * SECOND_NS));
+    assertFalse(offer(gate, frame, 6 * SECOND_NS));
+  }
+
+  @Test
+  public void reset_passesNextFrame() {
+    MotionGate gate = new MotionGate(8, 0);
+    byte[] frame = uniformFrame(100);
+    offer(gate, frame, 0);
+
+    gate.reset();
+
+    assertTrue(offer(gate, frame, 1));
+  }
+
+  private static boolean offer(MotionGate gate, byte[] frame, long nowNs) {
+    return gate.offer(ByteBuffer.wrap(frame), WIDTH, 1, WIDTH, HEIGHT, nowNs);
+  }
+
+  private static byte[] uniformFrame(int luma) {
+    byte[] frame = new byte[WIDTH * HEIGHT];
+    Arrays.fill(frame, (byte) luma);
+    return frame;
+  }
+}
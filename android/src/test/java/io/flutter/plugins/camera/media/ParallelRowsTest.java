@@ -0,0 +1,145 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ParallelRowsTest {
+
+  @Test
+  public void forEachBand_coversEveryRowOnce() {
+    ParallelRows rows = new ParallelRows(4, 0);
+    int[] visits = new int[103];
+
+    rows.forEachBand(
+        visits.length,
+        1,
+        (start, end) -> {
+          for (int row = start; row < end; row++) {
+            visits[row]++;
+          }
+        });
+
+    for (int count : visits) {
+      assertEquals(1, count);
+    }
+    rows.shutdown();
+  }
+
+  @Test
+  public void forEachBand_keepsSmallPlanesOnCallingThread() {
+    ParallelRows rows = new ParallelRows(4, 1000);
+    AtomicInteger bands = new AtomicInteger();
+    Thread caller = Thread.currentThread();
+
+    rows.forEachBand(
+        10,
+        10,
+        (start, end) -> {
+          bands.incrementAndGet();
+          assertSame(caller, Thread.currentThread());
+          assertEquals(0, start);
+          assertEquals(10, end);
+        });
+
+    assertEquals(1, bands.get());
+    rows.shutdown();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void forEachBand_rethrowsFailuresOfWorkers() {
+    ParallelRows rows = new ParallelRows(2, 0);
+    try {
+      rows.forEachBand(
+          10,
+          1,
+          (start, end) -> {
+            if (start == 0) {
+              throw new IllegalArgumentException();
+            }
+          });
+    } finally {
+      rows.shutdown();
+    }
+  }
+
+  @Test
+  public void yuv420ThreePlanesToNV21_matchesSingleThreadedOutput() {
+    Image image = randomImage(640, 480);
+    ParallelRows rows = new ParallelRows(4, 0);
+
+    ByteBuffer expected = nv21(image, new ParallelRows(1, 0));
+    ByteBuffer actual = nv21(image, rows);
+
+    assertArrayEquals(expected.array(), actual.array());
+    rows.shutdown();
+  }
+
+  /**
+   * Prints the time to unpack a 12 MP frame with 1, 2, 4 and 8 threads, and the speedup over one
+   * thread. Thread counts above the available processors are skipped, since they only measure
+   * contention. Only runs if the CAMERA_BENCHMARK environment variable is set, e.g. {@code
+   * CAMERA_BENCHMARK=1 ./gradlew testDebugUnitTest --tests '*ParallelRowsTest*'}.
+   */
+  @Test
+  public void benchmark_unpackScalesWithThreads() {
+    assumeTrue(System.getenv("CAMERA_BENCHMARK") != null);
+    final int iterations = 20;
+    final int processors = Runtime.getRuntime().availableProcessors();
+    Image image = randomImage(4000, 3000);
+    System.out.println("ParallelRows on " + processors + " processors");
+
+    long singleThreadUs = 0;
+    for (int threads : new int[] {1, 2, 4, 8}) {
+      if (threads > processors) {
+        System.out.println("ParallelRows " + threads + " threads: skipped");
+        continue;
+      }
+      ParallelRows rows = new ParallelRows(threads, ParallelRows.DEFAULT_MIN_PARALLEL_PIXELS);
+      // Warm up the JIT and the workers.
+      for (int i = 0; i < 5; i++) {
+        nv21(image, rows);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        nv21(image, rows);
+      }
+      long perFrameUs = (System.nanoTime() - start) / iterations / 1000;
+      if (threads == 1) {
+        singleThreadUs = perFrameUs;
+      }
+      System.out.printf(
+          "ParallelRows %d threads: %d us/frame, %.2fx%n",
+          threads, perFrameUs, (double) singleThreadUs / Math.max(1, perFrameUs));
+      rows.shutdown();
+    }
+  }
+
+  private static ByteBuffer nv21(Image image, ParallelRows rows) {
+    return new ImageStreamReaderUtils(rows)
+        .yuv420ThreePlanesToNV21(
+            FrameImage.of(image).getPlanes(), image.getWidth(), image.getHeight());
+  }
+
+  /** An image whose U and V planes are not interleaved as NV21, so every plane is unpacked. */
+  private static Image randomImage(int width, int height) {
+    Image image = ImageStreamReaderTestUtils.getImage(width, height, 0, ImageFormat.YUV_420_888);
+    Random random = new Random(42);
+    for (Image.Plane plane : image.getPlanes()) {
+      random.nextBytes(plane.getBuffer().array());
+    }
+    return image;
+  }
+}
@@ -0,0 +1,272 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ReplayFrameSourceTest {
+  private static final int WIDTH = 4;
+  private static final int HEIGHT = 2;
+
+  /**
+   * A 4x2 frame with luma {@code base} to {@code base + 7}, a padded luma row stride and chroma
+   * planes with a pixel stride of 2.
+   */
+  private static FrameImage frame(int base) {
+    ByteBuffer y = ByteBuffer.allocate(6 + WIDTH);
+    ByteBuffer u = ByteBuffer.allocate(3);
+    ByteBuffer v = ByteBuffer.allocate(3);
+    for (int i = 0; i < WIDTH; i++) {
+      y.put(i, (byte) (base + i));
+      y.put(6 + i, (byte) (base + WIDTH + i));
+    }
+    u.put(0, (byte) 100).put(2, (byte) 101);
+    v.put(0, (byte) 200).put(2, (byte) 201);
+    return replayOf(y, 6, u, v).getFrame(0, 7L);
+  }
+
+  private static ReplayFrameSource replayOf(
+      ByteBuffer y, int yRowStride, ByteBuffer u, ByteBuffer v) {
+    FrameImage.Plane[] planes = {plane(y, yRowStride, 1), plane(u, 4, 2), plane(v, 4, 2)};
+    FrameImage image =
+        new FrameImage() {
+          @Override
+          public int getFormat() {
+            return 35;
+          }
+
+          @Override
+          public int getWidth() {
+            return WIDTH;
+          }
+
+          @Override
+          public int getHeight() {
+            return HEIGHT;
+          }
+
+          @Override
+          public long getTimestamp() {
+            return 7L;
+          }
+
+          @Override
+          public Plane[] getPlanes() {
+            return planes;
+          }
+
+          @Override
+          public void close() {}
+        };
+    try {
+      return ReplayFrameSource.read(new ByteArrayInputStream(record(image)));
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static FrameImage.Plane plane(ByteBuffer buffer, int rowStride, int pixelStride) {
+    return new FrameImage.Plane() {
+      @Override
+      public ByteBuffer getBuffer() {
+        return buffer;
+      }
+
+      @Override
+      public int getRowStride() {
+        return rowStride;
+      }
+
+      @Override
+      public int getPixelStride() {
+        return pixelStride;
+      }
+    };
+  }
+
+  private static byte[] record(FrameImage... images) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    for (FrameImage image : images) {
+      ReplayFrameSource.writeFrame(image, out);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static byte[] bytes(FrameImage.Plane plane) {
+    ByteBuffer buffer = plane.getBuffer().duplicate();
+    byte[] out = new byte[buffer.remaining()];
+    buffer.get(out);
+    return out;
+  }
+
+  @Test
+  public void read_restoresRecordedFrames() throws IOException {
+    ReplayFrameSource source =
+        ReplayFrameSource.read(new ByteArrayInputStream(record(frame(0), frame(50))));
+
+    assertEquals(2, source.getFrameCount());
+    FrameImage second = source.getFrame(1, 99L);
+    assertEquals(WIDTH, second.getWidth());
+    assertEquals(HEIGHT, second.getHeight());
+    assertEquals(99L, second.getTimestamp());
+    FrameImage.Plane[] planes = second.getPlanes();
+    assertEquals(6, planes[0].getRowStride());
+    assertEquals(1, planes[0].getPixelStride());
+    assertEquals(4, planes[1].getRowStride());
+    assertEquals(2, planes[1].getPixelStride());
+    assertEquals(50, bytes(planes[0])[0]);
+    assertEquals(57, bytes(planes[0])[9]);
+    assertArrayEquals(new byte[] {100, 0, 101}, bytes(planes[1]));
+  }
+
+  @Test
+  public void read_rejectsOtherData() {
+    assertThrows(
+        IOException.class,
+        () -> ReplayFrameSource.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4})));
+    assertThrows(
+        IOException.class, () -> ReplayFrameSource.read(new ByteArrayInputStream(new byte[0])));
+  }
+
+  @Test
+  public void play_loopsOverRecordingWithDeterministicTimestamps() throws IOException {
+    ReplayFrameSource source =
+        ReplayFrameSource.read(new ByteArrayInputStream(record(frame(0), frame(50))));
+    List<Long> timestamps = new ArrayList<>();
+    List<Integer> firstLuma = new ArrayList<>();
+
+    int played =
+        source.play(
+            5,
+            0,
+            frame -> {
+              timestamps.add(frame.getTimestamp());
+              firstLuma.add((int) frame.getPlanes()[0].getBuffer().get(0));
+              frame.close();
+            });
+
+    assertEquals(5, played);
+    long interval = ReplayFrameSource.DEFAULT_FRAME_INTERVAL_NS;
+    assertEquals(
+        List.of(interval, 2 * interval, 3 * interval, 4 * interval, 5 * interval), timestamps);
+    assertEquals(List.of(0, 50, 0, 50, 0), firstLuma);
+  }
+
+  @Test
+  public void play_returnsEarlyWhenStopped() throws IOException {
+    ReplayFrameSource source = ReplayFrameSource.read(new ByteArrayInputStream(record(frame(0))));
+    int[] received = {0};
+
+    int played =
+        source.play(
+            10,
+            0,
+            frame -> {
+              if (++received[0] == 3) {
+                source.stop();
+              }
+            });
+
+    assertEquals(3, played);
+  }
+
+  @Test
+  public void replayedFrames_convertToNv21() {
+    FrameImage image = frame(10);
+
+    ByteBuffer nv21 =
+        new ImageStreamReaderUtils(new ParallelRows(1, 0))
+            .yuv420ThreePlanesToNV21(image.getPlanes(), WIDTH, HEIGHT);
+
+    assertArrayEquals(
+        new byte[] {10, 11, 12, 13, 14, 15, 16, 17, (byte) 200, 100, (byte) 201, 101},
+        nv21.array());
+  }
+
+  @Test
+  public void getFrame_returnsIndependentBuffers() throws IOException {
+    ReplayFrameSource source = ReplayFrameSource.read(new ByteArrayInputStream(record(frame(0))));
+
+    ByteBuffer consumed = source.getFrame(0, 0L).getPlanes()[0].getBuffer();
+    consumed.get(new byte[consumed.remaining()]);
+
+    assertEquals(10, source.getFrame(0, 0L).getPlanes()[0].getBuffer().remaining());
+  }
+
+  /**
+   * Prints the time to replay a 1080p recording through the NV21 conversion of the image stream.
+   * Only runs if the CAMERA_BENCHMARK environment variable is set, e.g. {@code CAMERA_BENCHMARK=1
+   * ./gradlew testDebugUnitTest --tests '*ReplayFrameSourceTest*'}.
+   */
+  @Test
+  public void benchmark_replayThroughNv21Conversion() throws IOException {
+    assumeTrue(System.getenv("CAMERA_BENCHMARK") != null);
+    final int width = 1920;
+    final int height = 1080;
+    // Planar chroma, so the conversion interleaves every chroma row.
+    ByteBuffer y = ByteBuffer.allocate(width * height);
+    ByteBuffer u = ByteBuffer.allocate(width * height / 4);
+    ByteBuffer v = ByteBuffer.allocate(width * height / 4);
+    FrameImage.Plane[] planes = {
+      plane(y, width, 1), plane(u, width / 2, 1), plane(v, width / 2, 1)
+    };
+    FrameImage image =
+        new FrameImage() {
+          @Override
+          public int getFormat() {
+            return 35;
+          }
+
+          @Override
+          public int getWidth() {
+            return width;
+          }
+
+          @Override
+          public int getHeight() {
+            return height;
+          }
+
+          @Override
+          public long getTimestamp() {
+            return 0L;
+          }
+
+          @Override
+          public Plane[] getPlanes() {
+            return planes;
+          }
+
+          @Override
+          public void close() {}
+        };
+    ReplayFrameSource source = ReplayFrameSource.read(new ByteArrayInputStream(record(image)));
+    ImageStreamReaderUtils utils = new ImageStreamReaderUtils();
+    ReplayFrameSource.FrameSink sink =
+        frame -> utils.yuv420ThreePlanesToNV21(frame.getPlanes(), width, height);
+
+    // Warm up the JIT and the workers.
+    source.play(20, 0, sink);
+    final int frames = 200;
+    long start = System.nanoTime();
+    source.play(frames, 0, sink);
+    long perFrameUs = (System.nanoTime() - start) / frames / 1000;
+    System.out.println("Replay 1080p to NV21: " + perFrameUs + " us/frame");
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RetainedFramesTest {
+
+  @Test
+  public void get_returnsRetainedFrame() {
+    RetainedFrames frames = new RetainedFrames(24);
+    byte[] nv21 = new byte[12];
+
+    long handle = frames.retain(nv21, 4, 2);
+
+    RetainedFrames.Frame frame = frames.get(handle);
+    assertSame(nv21, frame.nv21);
+    assertEquals(4, frame.width);
+    assertEquals(2, frame.height);
+  }
+
+  @Test
+  public void retain_evictsOldestFramesBeyondTheByteBudget() {
+    RetainedFrames frames = new RetainedFrames(24);
+    long first = frames.retain(new byte[12], 4, 2);
+    long second = frames.retain(new byte[12], 4, 2);
+    long third = frames.retain(new byte[12], 4, 2);
+
+    assertNull(frames.get(first));
+    assertNotNull(frames.get(second));
+    assertNotNull(frames.get(third));
+    assertEquals(2, frames.size());
+    assertEquals(24, frames.getRetainedBytes());
+  }
+
+  @Test
+  public void retain_keepsTheNewestFrameEvenIfItExceedsTheBudget() {
+    RetainedFrames frames = new RetainedFrames(24);
+    long small = frames.retain(new byte[12], 4, 2);
+    long large = frames.retain(new byte[48], 8, 4);
+
+    assertNull(frames.get(small));
+    assertNotNull(frames.get(large));
+    assertEquals(48, frames.getRetainedBytes());
+  }
+
+  @Test
+  public void release_dropsFrameOnce() {
+    RetainedFrames frames = new RetainedFrames(24);
+    long handle = frames.retain(new byte[12], 4, 2);
+
+    assertTrue(frames.release(handle));
+    assertFalse(frames.release(handle));
+    assertNull(frames.get(handle));
+    assertEquals(0, frames.getRetainedBytes());
+  }
+
+  @Test
+  public void releaseAll_dropsAllFramesWithoutReusingHandles() {
+    RetainedFrames frames = new RetainedFrames(24);
+    long handle = frames.retain(new byte[12], 4, 2);
+
+    frames.releaseAll();
+
+    assertEquals(0, frames.size());
+    assertNotEquals(handle, frames.retain(new byte[12], 4, 2));
+  }
+}
@@ -0,0 +1,109 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class RgbaFrameImageTest {
+  /** An RGBA frame of one color with {@code padding} extra bytes per row. */
+  private static ByteBuffer rgba(int width, int height, int padding, int r, int g, int b) {
+    final int rowStride = width * 4 + padding;
+    final ByteBuffer buffer = ByteBuffer.allocate(rowStride * height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        final int p = y * rowStride + x * 4;
+        buffer.put(p, (byte) r);
+        buffer.put(p + 1, (byte) g);
+        buffer.put(p + 2, (byte) b);
+        buffer.put(p + 3, (byte) 255);
+      }
+    }
+    return buffer;
+  }
+
+  private static int sample(FrameImage.Plane plane, int index) {
+    return plane.getBuffer().get(index) & 0xFF;
+  }
+
+  @Test
+  public void convert_keepsGrayNeutral() {
+    RgbaFrameImage frame =
+        RgbaFrameImage.convert(
+            rgba(4, 2, 0, 90, 90, 90), 16, 4, 2, 7, new RgbaFrameImage.Workspace(), null);
+
+    assertEquals(90, sample(frame.getPlanes()[0], 0));
+    assertEquals(128, sample(frame.getPlanes()[1], 0));
+    assertEquals(128, sample(frame.getPlanes()[2], 1));
+    assertEquals(7, frame.getTimestamp());
+  }
+
+  @Test
+  public void convert_matchesBt601FullRange() {
+    RgbaFrameImage frame =
+        RgbaFrameImage.convert(
+            rgba(2, 2, 0, 255, 0, 0), 8, 2, 2, 0, new RgbaFrameImage.Workspace(), null);
+
+    assertEquals(76, sample(frame.getPlanes()[0], 0));
+    assertEquals(85, sample(frame.getPlanes()[1], 0));
+    assertEquals(255, sample(frame.getPlanes()[2], 0));
+  }
+
+  @Test
+  public void convert_skipsRowPaddingAndAveragesChroma() {
+    ByteBuffer buffer = rgba(4, 2, 12, 0, 0, 0);
+    // The top right pixel is white; its chroma block averages it with three black pixels.
+    buffer.put(3 * 4, (byte) 255).put(3 * 4 + 1, (byte) 255).put(3 * 4 + 2, (byte) 255);
+
+    RgbaFrameImage frame =
+        RgbaFrameImage.convert(buffer, 28, 4, 2, 0, new RgbaFrameImage.Workspace(), null);
+
+    FrameImage.Plane luma = frame.getPlanes()[0];
+    assertEquals(4, luma.getRowStride());
+    assertEquals(1, luma.getPixelStride());
+    assertEquals(255, sample(luma, 3));
+    assertEquals(0, sample(luma, 4 + 3));
+    assertEquals(2, frame.getPlanes()[1].getRowStride());
+    assertEquals(128, sample(frame.getPlanes()[1], 1));
+    assertEquals(0, buffer.position());
+  }
+
+  @Test
+  public void convert_reusesTheWorkspace() {
+    RgbaFrameImage.Workspace workspace = new RgbaFrameImage.Workspace();
+    RgbaFrameImage first =
+        RgbaFrameImage.convert(rgba(2, 2, 0, 10, 10, 10), 8, 2, 2, 0, workspace, null);
+    RgbaFrameImage second =
+        RgbaFrameImage.convert(rgba(2, 2, 0, 20, 20, 20), 8, 2, 2, 0, workspace, null);
+
+    assertEquals(20, sample(first.getPlanes()[0], 0));
+    assertEquals(20, sample(second.getPlanes()[0], 0));
+  }
+
+  @Test
+  public void close_closesTheSource() {
+    AtomicBoolean closed = new AtomicBoolean(false);
+    RgbaFrameImage.Workspace workspace = new RgbaFrameImage.Workspace();
+
+    RgbaFrameImage.convert(rgba(2, 2, 0, 0, 0, 0), 8, 2, 2, 0, workspace, () -> closed.set(true))
+        .close();
+
+    assertTrue(closed.get());
+  }
+
+  @Test
+  public void convert_rejectsOddSizes() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            RgbaFrameImage.convert(
+                rgba(3, 2, 0, 0, 0, 0), 12, 3, 2, 0, new RgbaFrameImage.Workspace(), null));
+  }
+}
@@ -0,0 +1,132 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import org.junit.Test;
+
+public class SharedFrameRingTest {
+  private static final int SLOT_BYTES = SharedFrameRing.SLOT_HEADER_SIZE + 6;
+
+  private static File newFile() throws IOException {
+    final File file = File.createTempFile("frames", ".ring");
+    file.deleteOnExit();
+    return file;
+  }
+
+  /** Maps the ring the way a reader in another process would. */
+  private static ByteBuffer read(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      return raf.getChannel()
+          .map(FileChannel.MapMode.READ_ONLY, 0, raf.length())
+          .order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  private static int slotBase(int slot) {
+    return SharedFrameRing.HEADER_SIZE + slot * SLOT_BYTES;
+  }
+
+  @Test
+  public void constructor_writesHeader() throws IOException {
+    File file = newFile();
+    new SharedFrameRing(file, 3, 6);
+
+    ByteBuffer ring = read(file);
+
+    assertEquals(SharedFrameRing.HEADER_SIZE + 3 * SLOT_BYTES, ring.capacity());
+    assertEquals(SharedFrameRing.MAGIC, ring.getInt(SharedFrameRing.HEADER_MAGIC));
+    assertEquals(SharedFrameRing.VERSION, ring.getInt(SharedFrameRing.HEADER_VERSION));
+    assertEquals(3, ring.getInt(SharedFrameRing.HEADER_SLOT_COUNT));
+    assertEquals(
+        SharedFrameRing.SLOT_HEADER_SIZE, ring.getInt(SharedFrameRing.HEADER_SLOT_HEADER_SIZE));
+    assertEquals(6, ring.getInt(SharedFrameRing.HEADER_SLOT_CAPACITY));
+    assertEquals(0, ring.getLong(SharedFrameRing.HEADER_LATEST_SEQUENCE));
+    assertEquals(0, ring.getLong(slotBase(0) + SharedFrameRing.SLOT_SEQUENCE));
+  }
+
+  @Test
+  public void write_storesFrameAndMetadataInNextSlot() throws IOException {
+    File file = newFile();
+    SharedFrameRing ring = new SharedFrameRing(file, 3, 6);
+
+    ring.write(new byte[6], 2, 2, 1L);
+    long sequence = ring.write(new byte[] {1, 2, 3, 4, 5, 6}, 2, 2, 42L);
+
+    assertEquals(2, sequence);
+    assertEquals(1, ring.slotOf(sequence));
+    ByteBuffer mapped = read(file);
+    int base = slotBase(1);
+    assertEquals(2, mapped.getLong(base + SharedFrameRing.SLOT_SEQUENCE));
+    assertEquals(2, mapped.getInt(base + SharedFrameRing.SLOT_WIDTH));
+    assertEquals(2, mapped.getInt(base + SharedFrameRing.SLOT_HEIGHT));
+    assertEquals(
+        SharedFrameRing.FORMAT_NV21, mapped.getInt(base + SharedFrameRing.SLOT_FORMAT));
+    assertEquals(2, mapped.getInt(base + SharedFrameRing.SLOT_ROW_STRIDE));
+    assertEquals(6, mapped.getInt(base + SharedFrameRing.SLOT_DATA_SIZE));
+    assertEquals(42L, mapped.getLong(base + SharedFrameRing.SLOT_SENSOR_TIMESTAMP));
+    for (int i = 0; i < 6; i++) {
+      assertEquals(i + 1, mapped.get(base + SharedFrameRing.SLOT_HEADER_SIZE + i));
+    }
+    assertEquals(2, mapped.getLong(SharedFrameRing.HEADER_LATEST_SEQUENCE));
+  }
+
+  @Test
+  public void write_wrapsAroundTheRing() throws IOException {
+    File file = newFile();
+    SharedFrameRing ring = new SharedFrameRing(file, 3, 6);
+
+    long sequence = 0;
+    for (int i = 0; i < 4; i++) {
+      sequence = ring.write(new byte[6], 2, 2, i);
+    }
+
+    assertEquals(4, sequence);
+    assertEquals(0, ring.slotOf(sequence));
+    assertEquals(4, read(file).getLong(slotBase(0) + SharedFrameRing.SLOT_SEQUENCE));
+  }
+
+  @Test
+  public void write_rejectsFramesLargerThanSlots() throws IOException {
+    File file = newFile();
+    SharedFrameRing ring = new SharedFrameRing(file, 3, 6);
+
+    assertEquals(-1, ring.write(new byte[24], 4, 4, 0L));
+    assertEquals(0, read(file).getLong(SharedFrameRing.HEADER_LATEST_SEQUENCE));
+  }
+
+  @Test
+  public void close_deletesFile() throws IOException {
+    File file = newFile();
+    SharedFrameRing ring = new SharedFrameRing(file, 2, 6);
+
+    ring.close();
+
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void close_keepsReaderMappingsAndRejectsLaterWrites() throws IOException {
+    File file = newFile();
+    SharedFrameRing ring = new SharedFrameRing(file, 2, 6);
+    ring.write(new byte[6], 2, 2, 0L);
+    ByteBuffer reader = read(file);
+
+    ring.close();
+    ring.close();
+
+    assertEquals(1, reader.getLong(SharedFrameRing.HEADER_LATEST_SEQUENCE));
+    assertThrows(IllegalStateException.class, () -> ring.write(new byte[6], 2, 2, 0L));
+  }
+}
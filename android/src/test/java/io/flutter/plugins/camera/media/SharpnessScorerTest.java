@@ -0,0 +1,63 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class SharpnessScorerTest {
+  private static final int WIDTH = 32;
+  private static final int HEIGHT = 32;
+
+  @Test
+  public void score_isZeroForFlatFrame() {
+    byte[] luma = new byte[WIDTH * HEIGHT];
+    Arrays.fill(luma, (byte) 128);
+
+    assertEquals(0, new SharpnessScorer(1).score(luma, WIDTH, HEIGHT), 0);
+  }
+
+  @Test
+  public void score_isHigherForHardEdgesThanForGradient() {
+    byte[] checkerboard = new byte[WIDTH * HEIGHT];
+    byte[] gradient = new byte[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        checkerboard[y * WIDTH + x] = (byte) (((x / 2 + y / 2) & 1) == 0 ? 0 : 255);
+        gradient[y * WIDTH + x] = (byte) (x * 8);
+      }
+    }
+
+    SharpnessScorer scorer = new SharpnessScorer(1);
+    assertTrue(scorer.score(checkerboard, WIDTH, HEIGHT) > scorer.score(gradient, WIDTH, HEIGHT));
+  }
+
+  @Test
+  public void score_onlyLooksAtRegionOfInterest() {
+    byte[] luma = new byte[WIDTH * HEIGHT];
+    // Detail only in the left half.
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH / 2; x++) {
+        luma[y * WIDTH + x] = (byte) ((x & 1) == 0 ? 0 : 255);
+      }
+    }
+
+    assertTrue(new SharpnessScorer(1, 0f, 0f, 0.5f, 1f).score(luma, WIDTH, HEIGHT) > 0);
+    assertEquals(0, new SharpnessScorer(1, 0.6f, 0f, 1f, 1f).score(luma, WIDTH, HEIGHT), 0);
+  }
+
+  @Test
+  public void score_isZeroWhenFrameIsSmallerThanStep() {
+    assertEquals(0, new SharpnessScorer(8).score(new byte[16], 4, 4), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_rejectsEmptyRegion() {
+    new SharpnessScorer(1, 0.5f, 0f, 0.5f, 1f);
+  }
+}
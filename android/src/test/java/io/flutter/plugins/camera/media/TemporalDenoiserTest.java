@@ -0,0 +1,198 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class TemporalDenoiserTest {
+  private static final int WIDTH = 64;
+  private static final int HEIGHT = 48;
+
+  /** A textured scene; {@code (x, y)} of the frame shows scene point {@code (x + dx, y + dy)}. */
+  private static int scene(int x, int y) {
+    return 60 + (int) (30 * Math.sin(x * 0.4) + 30 * Math.cos(y * 0.3) + (x * y % 7) * 4);
+  }
+
+  private static byte[] frame(int width, int height, int dx, int dy, int noise, Random random) {
+    byte[] nv21 = new byte[width * height * 3 / 2];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int value = scene(x + dx, y + dy);
+        if (noise > 0) {
+          value += random.nextInt(2 * noise + 1) - noise;
+        }
+        nv21[y * width + x] = (byte) Math.max(0, Math.min(255, value));
+      }
+    }
+    for (int i = width * height; i < nv21.length; i += 2) {
+      nv21[i] = (byte) 120;
+      nv21[i + 1] = (byte) 130;
+    }
+    return nv21;
+  }
+
+  /** Mean absolute luma difference to the noise-free scene, away from the borders. */
+  private static double error(byte[] nv21) {
+    long sum = 0;
+    int count = 0;
+    for (int y = 8; y < HEIGHT - 8; y++) {
+      for (int x = 8; x < WIDTH - 8; x++) {
+        sum += Math.abs((nv21[y * WIDTH + x] & 0xFF) - scene(x, y));
+        count++;
+      }
+    }
+    return (double) sum / count;
+  }
+
+  private static TemporalDenoiser newDenoiser(int capacity) {
+    return new TemporalDenoiser(capacity, new ParallelRows(2, 0));
+  }
+
+  @Test
+  public void denoise_returnsNullWithoutFrames() {
+    assertNull(newDenoiser(4).denoise(0, true));
+  }
+
+  @Test
+  public void denoise_averagesIdenticalFramesExactly() {
+    TemporalDenoiser denoiser = newDenoiser(4);
+    byte[] frame = frame(WIDTH, HEIGHT, 0, 0, 0, null);
+    for (int i = 0; i < 4; i++) {
+      denoiser.offer(frame, WIDTH, HEIGHT, i);
+    }
+
+    byte[] out = denoiser.denoise(0, true);
+
+    for (int i = 0; i < frame.length; i++) {
+      assertEquals(frame[i], out[i]);
+    }
+  }
+
+  @Test
+  public void denoise_reducesNoise() {
+    Random random = new Random(1);
+    TemporalDenoiser denoiser = newDenoiser(8);
+    byte[] single = null;
+    for (int i = 0; i < 8; i++) {
+      single = frame(WIDTH, HEIGHT, 0, 0, 12, random);
+      denoiser.offer(single, WIDTH, HEIGHT, i);
+    }
+
+    double singleError = error(single);
+    double denoisedError = error(denoiser.denoise(0, false));
+
+    // Averaging 8 frames divides the noise by about sqrt(8).
+    assertTrue(denoisedError < singleError / 2);
+  }
+
+  @Test
+  public void denoise_alignsShiftedFramesToNewest() {
+    TemporalDenoiser denoiser = newDenoiser(3);
+    // Oldest first; the newest frame is unshifted.
+    denoiser.offer(frame(WIDTH, HEIGHT, 8, -4, 0, null), WIDTH, HEIGHT, 0);
+    denoiser.offer(frame(WIDTH, HEIGHT, -4, 4, 0, null), WIDTH, HEIGHT, 1);
+    denoiser.offer(frame(WIDTH, HEIGHT, 0, 0, 0, null), WIDTH, HEIGHT, 2);
+
+    double aligned = error(denoiser.denoise(0, true));
+    double unaligned = error(denoiser.denoise(0, false));
+
+    assertEquals(0.0, aligned, 0.5);
+    assertTrue(unaligned > 2);
+  }
+
+  @Test
+  public void denoise_keepsNewestFrameWhereFramesDiffer() {
+    TemporalDenoiser denoiser = newDenoiser(2);
+    byte[] older = frame(WIDTH, HEIGHT, 0, 0, 0, null);
+    byte[] newest = older.clone();
+    // An object that moved in since the older frame.
+    newest[10 * WIDTH + 10] = (byte) 250;
+    older[10 * WIDTH + 10] = (byte) 20;
+    denoiser.offer(older, WIDTH, HEIGHT, 0);
+    denoiser.offer(newest, WIDTH, HEIGHT, 1);
+
+    assertEquals(250, denoiser.denoise(0, false)[10 * WIDTH + 10] & 0xFF);
+  }
+
+  @Test
+  public void denoise_usesNewestFramesOnly() {
+    TemporalDenoiser denoiser = newDenoiser(3);
+    byte[] dark = new byte[WIDTH * HEIGHT * 3 / 2];
+    byte[] bright = new byte[WIDTH * HEIGHT * 3 / 2];
+    Arrays.fill(dark, (byte) 10);
+    Arrays.fill(bright, (byte) 30);
+    denoiser.offer(dark, WIDTH, HEIGHT, 0);
+    denoiser.offer(bright, WIDTH, HEIGHT, 1);
+    denoiser.offer(bright, WIDTH, HEIGHT, 2);
+    denoiser.offer(bright, WIDTH, HEIGHT, 3);
+
+    assertEquals(3, denoiser.getFrameCount());
+    assertEquals(3L, denoiser.getNewestTimestampNs());
+    assertEquals(30, denoiser.denoise(2, false)[0]);
+  }
+
+  @Test
+  public void denoise_reusesItsOutput() {
+    TemporalDenoiser denoiser = newDenoiser(2);
+    denoiser.offer(frame(WIDTH, HEIGHT, 0, 0, 0, null), WIDTH, HEIGHT, 0);
+
+    assertSame(denoiser.denoise(0, true), denoiser.denoise(0, true));
+  }
+
+  @Test
+  public void bestShift_findsTranslation() {
+    int[] reference = new int[40];
+    int[] shifted = new int[40];
+    for (int i = 0; i < 40; i++) {
+      reference[i] = (i * 37) % 23;
+      shifted[i] = ((i - 3) * 37 % 23 + 23) % 23;
+    }
+
+    // shifted[j + 3] matches reference[j], in profile samples of 4 pixels.
+    assertEquals(12, TemporalDenoiser.bestShift(reference, shifted));
+  }
+
+  @Test
+  public void constructor_rejectsCapacityOutsideRange() {
+    assertThrows(IllegalArgumentException.class, () -> newDenoiser(1));
+    assertThrows(
+        IllegalArgumentException.class, () -> newDenoiser(TemporalDenoiser.MAX_FRAMES + 1));
+  }
+
+  /**
+   * Measures merging 8 1080p frames. Only runs if the CAMERA_BENCHMARK environment variable is
+   * set, e.g. {@code CAMERA_BENCHMARK=1 ./gradlew testDebugUnitTest --tests
+   * '*TemporalDenoiserTest*'}.
+   */
+  @Test
+  public void benchmark_denoise8Frames1080p() {
+    assumeTrue(System.getenv("CAMERA_BENCHMARK") != null);
+    TemporalDenoiser denoiser = new TemporalDenoiser(8, ParallelRows.getShared());
+    Random random = new Random(2);
+    for (int i = 0; i < 8; i++) {
+      denoiser.offer(frame(1920, 1080, i % 3, i % 2, 8, random), 1920, 1080, i);
+    }
+    denoiser.denoise(0, true);
+
+    final int runs = 20;
+    final long start = System.nanoTime();
+    for (int i = 0; i < runs; i++) {
+      denoiser.denoise(0, true);
+    }
+    final long elapsed = System.nanoTime() - start;
+    System.out.printf(
+        "TemporalDenoiser: %.2f ms per 8-frame 1080p snapshot on %d threads%n",
+        elapsed / 1e6 / runs, ParallelRows.getShared().getThreads());
+  }
+}
@@ -0,0 +1,216 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class TensorConverterTest {
+  private static final float[] ZERO = {0f, 0f, 0f};
+  private static final float[] ONE = {1f, 1f, 1f};
+
+  /** An NV21 frame whose luma is {@code 10 * y + x} and whose chroma is neutral. */
+  private static byte[] gradient(int width, int height) {
+    byte[] nv21 = new byte[width * height * 3 / 2];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        nv21[y * width + x] = (byte) (10 * y + x);
+      }
+    }
+    Arrays.fill(nv21, width * height, nv21.length, (byte) 128);
+    return nv21;
+  }
+
+  private static int red(ByteBuffer out, int width, int x, int y) {
+    return out.get((y * width + x) * 3) & 0xFF;
+  }
+
+  @Test
+  public void convert_neutralChromaCopiesLumaToAllChannels() {
+    TensorConverter converter =
+        new TensorConverter(4, 2, false, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+
+    ByteBuffer out = converter.convert(gradient(4, 2), 4, 2);
+
+    assertEquals(4 * 2 * 3, out.remaining());
+    for (int y = 0; y < 2; y++) {
+      for (int x = 0; x < 4; x++) {
+        int i = (y * 4 + x) * 3;
+        assertEquals(10 * y + x, out.get(i) & 0xFF);
+        assertEquals(10 * y + x, out.get(i + 1) & 0xFF);
+        assertEquals(10 * y + x, out.get(i + 2) & 0xFF);
+      }
+    }
+  }
+
+  @Test
+  public void convert_rotatesClockwise() {
+    TensorConverter converter =
+        new TensorConverter(2, 4, false, TensorConverter.Fit.LETTERBOX, 90, ZERO, ONE);
+
+    ByteBuffer out = converter.convert(gradient(4, 2), 4, 2);
+
+    // The bottom left source pixel ends up top left.
+    for (int y = 0; y < 4; y++) {
+      for (int x = 0; x < 2; x++) {
+        assertEquals(10 * (1 - x) + y, red(out, 2, x, y));
+      }
+    }
+  }
+
+  @Test
+  public void convert_rotatesBy180And270() {
+    TensorConverter half =
+        new TensorConverter(4, 2, false, TensorConverter.Fit.LETTERBOX, 180, ZERO, ONE);
+    TensorConverter threeQuarters =
+        new TensorConverter(2, 4, false, TensorConverter.Fit.LETTERBOX, 270, ZERO, ONE);
+
+    ByteBuffer flipped = half.convert(gradient(4, 2), 4, 2);
+    ByteBuffer turned = threeQuarters.convert(gradient(4, 2), 4, 2);
+
+    for (int y = 0; y < 2; y++) {
+      for (int x = 0; x < 4; x++) {
+        assertEquals(10 * (1 - y) + (3 - x), red(flipped, 4, x, y));
+      }
+    }
+    for (int y = 0; y < 4; y++) {
+      for (int x = 0; x < 2; x++) {
+        assertEquals(10 * x + (3 - y), red(turned, 2, x, y));
+      }
+    }
+  }
+
+  @Test
+  public void convert_letterboxPadsWithBlack() {
+    byte[] white = gradient(4, 2);
+    Arrays.fill(white, 0, 8, (byte) 255);
+    TensorConverter converter =
+        new TensorConverter(4, 4, false, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+
+    ByteBuffer out = converter.convert(white, 4, 2);
+
+    for (int x = 0; x < 4; x++) {
+      assertEquals(0, red(out, 4, x, 0));
+      assertEquals(255, red(out, 4, x, 1));
+      assertEquals(255, red(out, 4, x, 2));
+      assertEquals(0, red(out, 4, x, 3));
+    }
+  }
+
+  @Test
+  public void convert_centerCropKeepsTheMiddle() {
+    TensorConverter converter =
+        new TensorConverter(2, 2, false, TensorConverter.Fit.CENTER_CROP, 0, ZERO, ONE);
+
+    ByteBuffer out = converter.convert(gradient(4, 2), 4, 2);
+
+    assertEquals(1, red(out, 2, 0, 0));
+    assertEquals(2, red(out, 2, 1, 0));
+    assertEquals(11, red(out, 2, 0, 1));
+    assertEquals(12, red(out, 2, 1, 1));
+  }
+
+  @Test
+  public void convert_downscalesBySampling() {
+    TensorConverter converter =
+        new TensorConverter(2, 1, false, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+
+    ByteBuffer out = converter.convert(gradient(4, 2), 4, 2);
+
+    // Each output pixel samples the source pixel under its center.
+    assertEquals(2, out.remaining() / 3);
+    assertEquals(11, red(out, 2, 0, 0));
+    assertEquals(13, red(out, 2, 1, 0));
+  }
+
+  @Test
+  public void convert_convertsChroma() {
+    // Full range BT.601 red.
+    byte[] nv21 = new byte[2 * 2 * 3 / 2];
+    Arrays.fill(nv21, 0, 4, (byte) 76);
+    nv21[4] = (byte) 255;
+    nv21[5] = (byte) 85;
+    TensorConverter converter =
+        new TensorConverter(2, 2, false, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+
+    ByteBuffer out = converter.convert(nv21, 2, 2);
+
+    assertTrue(Math.abs((out.get(0) & 0xFF) - 255) <= 2);
+    assertTrue((out.get(1) & 0xFF) <= 2);
+    assertTrue((out.get(2) & 0xFF) <= 2);
+  }
+
+  @Test
+  public void convert_normalizesFloatOutput() {
+    byte[] white = gradient(4, 2);
+    Arrays.fill(white, 0, 8, (byte) 255);
+    float[] mean = {127.5f, 127.5f, 127.5f};
+    float[] std = {127.5f, 127.5f, 127.5f};
+    TensorConverter converter =
+        new TensorConverter(4, 4, true, TensorConverter.Fit.LETTERBOX, 0, mean, std);
+
+    ByteBuffer out = converter.convert(white, 4, 2);
+
+    assertEquals(4 * 4 * 3 * 4, out.remaining());
+    FloatBuffer floats = out.asFloatBuffer();
+    assertEquals(-1f, floats.get(0), 1e-6f);
+    assertEquals(1f, floats.get(4 * 3), 1e-6f);
+    assertEquals(1f, floats.get(2 * 4 * 3 + 2), 1e-6f);
+    assertEquals(-1f, floats.get(3 * 4 * 3), 1e-6f);
+  }
+
+  @Test
+  public void recycle_reusesBuffers() {
+    TensorConverter converter =
+        new TensorConverter(4, 2, false, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+
+    ByteBuffer first = converter.convert(gradient(4, 2), 4, 2);
+    converter.recycle(first);
+    ByteBuffer second = converter.convert(gradient(4, 2), 4, 2);
+
+    assertSame(first, second);
+    assertTrue(second.isDirect());
+    assertEquals(0, second.position());
+    assertEquals(converter.getByteSize(), second.limit());
+  }
+
+  @Test
+  public void toArray_copiesIntoRecycledArrays() {
+    TensorConverter converter =
+        new TensorConverter(4, 2, false, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+    ByteBuffer tensor = converter.convert(gradient(4, 2), 4, 2);
+
+    byte[] first = (byte[]) converter.toArray(tensor);
+    assertEquals(converter.getByteSize(), first.length);
+    assertEquals(tensor.get(5), first[5]);
+    assertEquals(0, tensor.position());
+    converter.recycleArray(first);
+
+    assertSame(first, converter.toArray(tensor));
+  }
+
+  @Test
+  public void toArray_returnsFloatsForFloatOutput() {
+    TensorConverter converter =
+        new TensorConverter(4, 2, true, TensorConverter.Fit.LETTERBOX, 0, ZERO, ONE);
+    ByteBuffer tensor = converter.convert(gradient(4, 2), 4, 2);
+
+    float[] floats = (float[]) converter.toArray(tensor);
+
+    assertEquals(4 * 2 * 3, floats.length);
+    assertEquals(tensor.asFloatBuffer().get(5), floats[5], 0f);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_rejectsUnsupportedRotation() {
+    new TensorConverter(4, 2, false, TensorConverter.Fit.LETTERBOX, 45, ZERO, ONE);
+  }
+}
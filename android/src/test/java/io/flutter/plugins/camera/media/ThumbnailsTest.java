@@ -0,0 +1,95 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.camera.media;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ThumbnailsTest {
+  /** An NV21 frame with luma {@code luma(x, y)} and constant chroma. */
+  private static byte[] frame(int width, int height, int v, int u) {
+    byte[] nv21 = new byte[width * height * 3 / 2];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        nv21[y * width + x] = (byte) luma(x, y);
+      }
+    }
+    for (int i = width * height; i < nv21.length; i += 2) {
+      nv21[i] = (byte) v;
+      nv21[i + 1] = (byte) u;
+    }
+    return nv21;
+  }
+
+  private static int luma(int x, int y) {
+    return (x / 8 + y / 8) % 2 == 0 ? 40 : 200;
+  }
+
+  @Test
+  public void pathFor_replacesExtension() {
+    assertEquals("/cache/CAP123_thumb.jpg", Thumbnails.pathFor("/cache/CAP123.jpg"));
+    assertEquals("/cache.d/picture_thumb.jpg", Thumbnails.pathFor("/cache.d/picture"));
+  }
+
+  @Test
+  public void downscaleNv21_fitsLongerSideAndKeepsEvenSize() {
+    Thumbnails.Nv21 thumbnail =
+        Thumbnails.downscaleNv21(frame(4032, 3024, 128, 128), 4032, 3024, 0, 256);
+
+    assertEquals(256, thumbnail.width);
+    assertEquals(192, thumbnail.height);
+    assertEquals(256 * 192 * 3 / 2, thumbnail.data.length);
+  }
+
+  @Test
+  public void downscaleNv21_averagesCoveredPixels() {
+    // Every thumbnail pixel covers one 8x8 checker square, or 2x2 of them.
+    Thumbnails.Nv21 same = Thumbnails.downscaleNv21(frame(64, 32, 10, 20), 64, 32, 0, 8);
+    Thumbnails.Nv21 mixed = Thumbnails.downscaleNv21(frame(64, 32, 10, 20), 64, 32, 0, 4);
+
+    assertEquals(40, same.data[0] & 0xFF);
+    assertEquals(200, same.data[1] & 0xFF);
+    assertEquals(120, mixed.data[0] & 0xFF);
+    assertEquals(10, same.data[same.width * same.height] & 0xFF);
+    assertEquals(20, same.data[same.width * same.height + 1] & 0xFF);
+  }
+
+  @Test
+  public void downscaleNv21_doesNotUpscale() {
+    Thumbnails.Nv21 thumbnail = Thumbnails.downscaleNv21(frame(16, 8, 1, 2), 16, 8, 0, 256);
+
+    assertEquals(16, thumbnail.width);
+    assertEquals(8, thumbnail.height);
+    assertArrayEquals(frame(16, 8, 1, 2), thumbnail.data);
+  }
+
+  @Test
+  public void rotate_turnsLumaAndChromaPairsClockwise() {
+    // 4x2 luma 0..7, chroma pairs (100, 101) and (102, 103).
+    byte[] nv21 = {0, 1, 2, 3, 4, 5, 6, 7, 100, 101, 102, 103};
+
+    Thumbnails.Nv21 rotated = Thumbnails.rotate(nv21, 4, 2, 90);
+
+    assertEquals(2, rotated.width);
+    assertEquals(4, rotated.height);
+    assertArrayEquals(
+        new byte[] {4, 0, 5, 1, 6, 2, 7, 3, 100, 101, 102, 103}, rotated.data);
+    assertArrayEquals(
+        new byte[] {7, 6, 5, 4, 3, 2, 1, 0, 102, 103, 100, 101},
+        Thumbnails.rotate(nv21, 4, 2, 180).data);
+    assertArrayEquals(
+        new byte[] {3, 7, 2, 6, 1, 5, 0, 4, 102, 103, 100, 101},
+        Thumbnails.rotate(nv21, 4, 2, 270).data);
+  }
+
+  @Test
+  public void sampleSize_decodesAtLeastTheThumbnailSize() {
+    assertEquals(8, Thumbnails.sampleSize(4032, 256));
+    assertEquals(1, Thumbnails.sampleSize(300, 256));
+    assertEquals(2, Thumbnails.sampleSize(512, 256));
+  }
+}
@@ -3,3 +3,14 @@
 // found in the LICENSE file.
 
 export 'src/android_camera.dart';
+export 'src/capture_stats.dart';
+export 'src/dataset_format.dart';
+export 'src/frame_metrics.dart';
+export 'src/high_speed_video_mode.dart';
+export 'src/history_frame.dart';
+export 'src/image_stream_format.dart';
+export 'src/jpeg_export_result.dart';
+export 'src/luma_stats.dart';
+export 'src/shared_frame_ring.dart';
+export 'src/tensor_frame.dart';
+export 'src/zoom_ramp_curve.dart';
@@ -4,15 +4,27 @@
 
 import 'dart:async';
 import 'dart:math';
+import 'dart:typed_data';
 
 import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
 import 'package:flutter/services.dart';
 import 'package:flutter/widgets.dart';
 import 'package:stream_transform/stream_transform.dart';
 
+import 'capture_stats.dart';
+import 'dataset_format.dart';
+import 'frame_metrics.dart';
+import 'high_speed_video_mode.dart';
+import 'history_frame.dart';
+import 'image_stream_format.dart';
+import 'jpeg_export_result.dart';
+import 'luma_stats.dart';
 import 'messages.g.dart';
+import 'shared_frame_ring.dart';
+import 'tensor_frame.dart';
 import 'type_conversion.dart';
 import 'utils.dart';
+import 'zoom_ramp_curve.dart';
 
 /// The Android implementation of [CameraPlatform] that uses method channels.
 class AndroidCamera extends CameraPlatform {
@@ -70,6 +82,10 @@ class AndroidCamera extends CameraPlatform {
   // The stream for vending frames to platform interface clients.
   StreamController<CameraImageData>? _framesStreamController;
 
+  // Native handles of frames that are still retained natively, see
+  // [saveFrameAsJpeg].
+  final Expando<int> _frameHandles = Expando<int>('frameHandle');
+
   @override
   Future<List<CameraDescription>> availableCameras() async {
     try {
@@ -210,12 +226,25 @@ class AndroidCamera extends CameraPlatform {
   @override
   Future<CameraImageData> capturePreviewFrame() async {
     final imageData = await _hostApi.capturePreviewFrame();
-    return cameraImageFromPlatformData(imageData as Map<dynamic, dynamic>);
+    return _retainedImageFromPlatformData(imageData as Map<dynamic, dynamic>);
   }
 
   @override
   Future<XFile> saveAsJpeg(CameraImageData imageData, String outputPath,
       int rotation, int quality) async {
+    final int? handle = frameHandleOf(imageData);
+    if (handle != null) {
+      try {
+        final String path = await _hostApi.saveFrameAsJpeg(
+            handle, outputPath, rotation, quality);
+        return XFile(path);
+      } on PlatformException catch (e) {
+        // The frame was released or evicted natively; send its bytes instead.
+        if (e.code != 'invalid_handle') {
+          rethrow;
+        }
+      }
+    }
     final filePath = await _hostApi.saveAsJpeg(
         imageDataToPlatformData(imageData).cast<String, Object>(),
         outputPath,
@@ -224,6 +253,39 @@ class AndroidCamera extends CameraPlatform {
     return XFile(filePath);
   }
 
+  /// Saves each of [frames] as a JPEG at the matching entry of [outputPaths].
+  ///
+  /// Unlike calling [saveAsJpeg] per frame, the whole batch takes a single
+  /// round trip and the frames are encoded in parallel on several encoder
+  /// threads. A frame that cannot be saved does not fail the others; the
+  /// results report every frame in order.
+  Future<List<JpegExportResult>> saveAsJpegBatch(
+    List<CameraImageData> frames,
+    List<String> outputPaths, {
+    int rotation = 0,
+    int quality = 100,
+  }) async {
+    if (frames.length != outputPaths.length) {
+      throw ArgumentError('Expected one output path per frame');
+    }
+    try {
+      final List<String?> errors = await _hostApi.saveAsJpegBatch(
+          frames
+              .map((CameraImageData frame) =>
+                  imageDataToPlatformData(frame).cast<String, Object>())
+              .toList(),
+          outputPaths,
+          rotation,
+          quality);
+      return <JpegExportResult>[
+        for (int i = 0; i < errors.length; i++)
+          JpegExportResult(outputPaths[i], errors[i]),
+      ];
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   @override
   Future<XFile> capturePreviewFrameJpeg(String outputPath,
       [int rotation = 0, int quality = 100]) async {
@@ -342,11 +404,23 @@ class AndroidCamera extends CameraPlatform {
         EventChannel('plugins.flutter.io/camera_android/framesStream');
     _platformImageStreamSubscription =
         framesEventChannel.receiveBroadcastStream().listen((dynamic imageData) {
-      _framesStreamController!
-          .add(cameraImageFromPlatformData(imageData as Map<dynamic, dynamic>));
+      _framesStreamController!.add(
+          _retainedImageFromPlatformData(imageData as Map<dynamic, dynamic>));
     });
   }
 
+  CameraImageData _retainedImageFromPlatformData(Map<dynamic, dynamic> data) {
+    final CameraImageData image = cameraImageFromPlatformData(data);
+    _frameHandles[image] = data['handle'] as int?;
+    return image;
+  }
+
+  HistoryFrame _historyFrameFromPlatformData(Map<Object?, Object?> data) {
+    final HistoryFrame frame = HistoryFrame.fromPlatformData(data);
+    _frameHandles[frame.image] = frame.handle;
+    return frame;
+  }
+
   FutureOr<void> _onFrameStreamCancel() async {
     await _hostApi.stopImageStream();
     await _platformImageStreamSubscription?.cancel();
@@ -442,6 +516,530 @@ class AndroidCamera extends CameraPlatform {
     }
   }
 
+  /// Smoothly changes the zoom level of the camera to [zoom].
+  ///
+  /// The ramp runs natively and advances once per preview frame, so no
+  /// repeated [setZoomLevel] calls are needed to animate the zoom. The zoom
+  /// level is interpolated over [duration] following [curve].
+  ///
+  /// The returned future completes once the target zoom level took effect, or
+  /// once the ramp is superseded by another zoom change.
+  Future<void> startZoomRamp(
+    int cameraId,
+    double zoom, {
+    Duration duration = const Duration(milliseconds: 300),
+    ZoomRampCurve curve = ZoomRampCurve.easeInOut,
+  }) async {
+    try {
+      await _hostApi.startZoomRamp(zoom, duration.inMilliseconds, curve.name);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Streams per-frame capture result statistics of the camera.
+  ///
+  /// Collection starts when the stream is listened to and stops when the
+  /// subscription is cancelled. Results are sent in batches of [batchSize]
+  /// frames, packed into a single [Int64List] per event.
+  Stream<CaptureStatsBatch> onCaptureStats(
+    int cameraId, {
+    int batchSize = 10,
+  }) {
+    const EventChannel captureStatsChannel =
+        EventChannel('plugins.flutter.io/camera_android/captureStats');
+    late final StreamController<CaptureStatsBatch> controller;
+    StreamSubscription<dynamic>? subscription;
+    controller = StreamController<CaptureStatsBatch>(
+      onListen: () async {
+        await _hostApi.startCaptureStats(batchSize);
+        subscription = captureStatsChannel.receiveBroadcastStream().listen(
+          (dynamic data) =>
+              controller.add(CaptureStatsBatch(data as Int64List)),
+          onError: controller.addError,
+        );
+      },
+      onCancel: () async {
+        await _hostApi.stopCaptureStats();
+        await subscription?.cancel();
+        subscription = null;
+      },
+    );
+    return controller.stream;
+  }
+
+  /// Streams brightness statistics of the frames of the camera.
+  ///
+  /// The statistics are computed natively while each frame is converted, so
+  /// no pixels are sent to Dart. Frames are accepted at the rate set by
+  /// `frameFps`. The frame is split into [tilesX] by [tilesY] tiles for
+  /// [LumaStats.tileMean], and every [step]-th pixel is sampled. Collection
+  /// starts when the stream is listened to and stops when the subscription is
+  /// cancelled; it keeps the frames output of the camera running.
+  Stream<LumaStats> onLumaStats(
+    int cameraId, {
+    int tilesX = 1,
+    int tilesY = 1,
+    int step = 1,
+  }) {
+    const EventChannel lumaStatsChannel =
+        EventChannel('plugins.flutter.io/camera_android/lumaStats');
+    late final StreamController<LumaStats> controller;
+    StreamSubscription<dynamic>? subscription;
+    controller = StreamController<LumaStats>(
+      onListen: () async {
+        await _hostApi.startLumaStats(tilesX, tilesY, step);
+        subscription = lumaStatsChannel.receiveBroadcastStream().listen(
+          (dynamic data) => controller.add(LumaStats(data as Int64List)),
+          onError: controller.addError,
+        );
+      },
+      onCancel: () async {
+        await _hostApi.stopLumaStats();
+        await subscription?.cancel();
+        subscription = null;
+      },
+    );
+    return controller.stream;
+  }
+
+  /// Enables or disables the motion gate of the frames stream.
+  ///
+  /// While enabled, frames are only converted and delivered to
+  /// [startListenFrames] if some 8x8 block of a 64x48 luma thumbnail differs
+  /// from the last delivered frame by a mean of more than [threshold] luma
+  /// levels, or if no frame was delivered for [keepAlive]. This also gates
+  /// [onLumaStats] and sharpness scoring, but never a pending
+  /// [capturePreviewFrame]. Gated frames are counted as `motionGated` drops
+  /// in [getFrameMetrics].
+  Future<void> setMotionGate(
+    int cameraId, {
+    required bool enabled,
+    double threshold = 8,
+    Duration keepAlive = const Duration(seconds: 5),
+  }) {
+    return _hostApi.setMotionGate(enabled, threshold, keepAlive.inMilliseconds);
+  }
+
+  /// Streams the frames of the camera converted into RGB model input.
+  ///
+  /// Each frame is converted from YUV, rotated clockwise by [rotation]
+  /// degrees, resized to [width] x [height] according to [fit] and, if
+  /// [float32], normalized as `(value - mean) / std` per channel, in a single
+  /// native pass, so only the tensor is sent to Dart. [mean] and [std] hold
+  /// one value per channel in the 0-255 range of the pixels; for example a
+  /// mean and std of 127.5 produce values from -1 to 1. Frames are accepted
+  /// at the rate set by `frameFps`. Conversion starts when the stream is
+  /// listened to and stops when the subscription is cancelled; it keeps the
+  /// frames output of the camera running.
+  Stream<TensorFrame> onTensorFrames(
+    int cameraId, {
+    required int width,
+    required int height,
+    bool float32 = false,
+    TensorFit fit = TensorFit.letterbox,
+    int rotation = 0,
+    List<double>? mean,
+    List<double>? std,
+  }) {
+    const EventChannel tensorStreamChannel =
+        EventChannel('plugins.flutter.io/camera_android/tensorStream');
+    late final StreamController<TensorFrame> controller;
+    StreamSubscription<dynamic>? subscription;
+    controller = StreamController<TensorFrame>(
+      onListen: () async {
+        try {
+          await _hostApi.startTensorStream(
+              width, height, float32, fit.name, rotation, mean, std);
+        } on PlatformException catch (e) {
+          controller.addError(CameraException(e.code, e.message));
+          return;
+        }
+        subscription = tensorStreamChannel.receiveBroadcastStream().listen(
+          (dynamic data) => controller.add(
+              TensorFrame.fromPlatformData(data as Map<Object?, Object?>)),
+          onError: controller.addError,
+        );
+      },
+      onCancel: () async {
+        await _hostApi.stopTensorStream();
+        await subscription?.cancel();
+        subscription = null;
+      },
+    );
+    return controller.stream;
+  }
+
+  /// Streams the frames of the camera through a ring of [slots] frames in
+  /// shared memory, for consumers that read pixels through FFI.
+  ///
+  /// Every accepted frame is written natively into the ring as NV21 and only
+  /// its slot is sent over the platform channel, so no pixels are copied into
+  /// Dart. A slot is overwritten [slots] frames later; check
+  /// [SharedFrame.isValid] after reading a frame. Frames are accepted at the
+  /// rate set by `frameFps`. The ring is created when the stream is listened
+  /// to and unmapped when the subscription is cancelled; it keeps the frames
+  /// output of the camera running.
+  Stream<SharedFrame> onSharedFrames(int cameraId, {int slots = 4}) {
+    const EventChannel frameRingChannel =
+        EventChannel('plugins.flutter.io/camera_android/frameRing');
+    late final StreamController<SharedFrame> controller;
+    StreamSubscription<dynamic>? subscription;
+    SharedFrameRing? ring;
+    controller = StreamController<SharedFrame>(
+      onListen: () async {
+        try {
+          ring = SharedFrameRing.open(await _hostApi.startFrameRing(slots));
+        } on PlatformException catch (e) {
+          controller.addError(CameraException(e.code, e.message));
+          return;
+        } on CameraException catch (e) {
+          await _hostApi.stopFrameRing();
+          controller.addError(e);
+          return;
+        }
+        subscription = frameRingChannel.receiveBroadcastStream().listen(
+          (dynamic data) {
+            final Int64List event = data as Int64List;
+            final SharedFrame? frame = ring?.frame(event[0]);
+            // Skips frames that were overwritten before they were announced.
+            if (frame != null && frame.sequence == event[1]) {
+              controller.add(frame);
+            }
+          },
+          onError: controller.addError,
+        );
+      },
+      onCancel: () async {
+        await _hostApi.stopFrameRing();
+        await subscription?.cancel();
+        subscription = null;
+        ring?.close();
+        ring = null;
+      },
+    );
+    return controller.stream;
+  }
+
+  /// Starts recording every frame of the camera to local storage, at the
+  /// sensor frame rate.
+  ///
+  /// Frames are converted to [format] and appended to preallocated segment
+  /// files of [segmentBytes] bytes in [directory], `segment-00000.bin` and on,
+  /// next to an `index.bin` with the sensor timestamp, exposure time, ISO,
+  /// size and file position of every frame; see `DatasetRecorder` for the
+  /// layout. A [segmentBytes] of 0 uses 256 MB segments. Replaces a running
+  /// recording; call [stopDatasetRecording] to complete it.
+  Future<void> startDatasetRecording(
+    int cameraId,
+    String directory, {
+    DatasetFormat format = DatasetFormat.nv21,
+    int segmentBytes = 0,
+  }) async {
+    try {
+      await _hostApi.startDatasetRecording(
+          directory, format.name, segmentBytes);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Stops the recording started by [startDatasetRecording] once its files
+  /// are complete, and returns the number of recorded frames.
+  Future<int> stopDatasetRecording(int cameraId) async {
+    try {
+      return await _hostApi.stopDatasetRecording();
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Changes the format of the frames of [onStreamedFrameAvailable].
+  ///
+  /// The conversion runs natively; [ImageStreamFormat.rgba8888] uses libyuv,
+  /// so overlays can upload frames without converting them in Dart. The
+  /// format can be changed while streaming, and is kept until the camera is
+  /// disposed. Throws a [CameraException] if the camera was initialized with
+  /// [ImageFormatGroup.jpeg].
+  Future<void> setImageStreamFormat(
+    int cameraId,
+    ImageStreamFormat format,
+  ) async {
+    try {
+      await _hostApi.setImageStreamFormat(imageStreamFormatToPlatform(format));
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Sets whether the image and frames streams encode frames on a background
+  /// thread instead of the platform thread, which is the default.
+  ///
+  /// Only the hand-off of the encoded frame then waits for the platform
+  /// thread, and a frame still waiting for it is replaced by a newer one. The
+  /// setting applies to streams listened to afterwards; compare both modes
+  /// with the `mainThreadSend` latency of [getFrameMetrics].
+  Future<void> setBackgroundStreamEncoding(int cameraId, bool enabled) {
+    return _hostApi.setBackgroundStreamEncoding(enabled);
+  }
+
+  /// Returns latency histograms and dropped frame counters of the image and
+  /// frame streams of the camera.
+  Future<FrameMetrics> getFrameMetrics(int cameraId) async {
+    return FrameMetrics.fromPlatformData(await _hostApi.getFrameMetrics());
+  }
+
+  /// Clears the metrics returned by [getFrameMetrics].
+  Future<void> resetFrameMetrics(int cameraId) {
+    return _hostApi.resetFrameMetrics();
+  }
+
+  /// Writes an upright JPEG thumbnail with a longer side of at most [maxSide]
+  /// pixels next to every picture saved by [takePicture] and
+  /// [capturePreviewFrameJpeg], at [thumbnailOf] the picture. A [maxSide] of 0
+  /// disables thumbnails.
+  ///
+  /// Thumbnails are downscaled natively from the frame before it is encoded,
+  /// or decoded at a reduced size from the picture, so showing one does not
+  /// require decoding the full picture. They are written before the picture
+  /// is returned; a thumbnail that could not be written is missing.
+  Future<void> setThumbnailSize(int cameraId, int maxSide) {
+    return _hostApi.setThumbnailSize(maxSide);
+  }
+
+  /// The thumbnail written next to [picture], see [setThumbnailSize].
+  static XFile thumbnailOf(XFile picture) {
+    final String path = picture.path;
+    final int dot = path.lastIndexOf('.');
+    final String base =
+        dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+    return XFile('${base}_thumb.jpg');
+  }
+
+  /// Enables or disables zero shutter lag pictures.
+  ///
+  /// While enabled, the last [depth] full-resolution frames are kept, using at
+  /// most [maxMemoryBytes] of memory, and [takePicture] encodes the newest of
+  /// them, the last frame exposed before the call, instead of running the
+  /// focus and metering sequence.
+  /// This keeps the frames output of the camera running, which costs power.
+  Future<void> setZeroShutterLag(
+    int cameraId, {
+    required bool enabled,
+    int depth = 3,
+    int maxMemoryBytes = 64 * 1024 * 1024,
+  }) {
+    return _hostApi.setZeroShutterLag(enabled, depth, maxMemoryBytes);
+  }
+
+  /// Keeps the last [depth] full-resolution frames natively, using at most
+  /// [maxMemoryBytes] of memory, so they can be looked up with
+  /// [getFrameNearest], [getFrameById] and [getFramesInRange].
+  ///
+  /// A [depth] of 0 stops recording. Recording keeps the frames output of
+  /// the camera running, which costs power.
+  Future<void> setFrameHistory(
+    int cameraId, {
+    required int depth,
+    int maxMemoryBytes = 64 * 1024 * 1024,
+  }) {
+    return _hostApi.setFrameHistory(depth, maxMemoryBytes);
+  }
+
+  /// Returns the history frame whose sensor timestamp is closest to
+  /// [sensorTimestamp], or null if the history is empty.
+  Future<HistoryFrame?> getFrameNearest(
+    int cameraId,
+    int sensorTimestamp,
+  ) async {
+    final Map<String, Object>? data =
+        await _hostApi.getFrameNearest(sensorTimestamp);
+    return data == null ? null : _historyFrameFromPlatformData(data);
+  }
+
+  /// Returns the history frame with the given [frameId], or null if it is no
+  /// longer held.
+  Future<HistoryFrame?> getFrameById(int cameraId, int frameId) async {
+    final Map<String, Object>? data = await _hostApi.getFrameById(frameId);
+    return data == null ? null : _historyFrameFromPlatformData(data);
+  }
+
+  /// Returns all history frames with a sensor timestamp between [start] and
+  /// [end] (inclusive, in nanoseconds), oldest first.
+  Future<List<HistoryFrame>> getFramesInRange(
+    int cameraId,
+    int start,
+    int end,
+  ) async {
+    final List<Map<String, Object>> frames =
+        await _hostApi.getFramesInRange(start, end);
+    return frames.map(_historyFrameFromPlatformData).toList();
+  }
+
+  /// Returns the native handle of a frame received from
+  /// [capturePreviewFrame], the frame history or, while
+  /// [setRetainStreamFrames] is enabled, [startListenFrames], or null if
+  /// [image] has none.
+  ///
+  /// The native side holds on to the last frames it sent, up to 48 MB; a
+  /// handle stays valid until it is passed to [releaseFrame] or newer frames
+  /// evict it.
+  int? frameHandleOf(CameraImageData image) => _frameHandles[image];
+
+  /// Whether frames of [startListenFrames] are retained natively, so
+  /// [saveAsJpeg] and [saveFrameAsJpeg] can encode them by handle instead of
+  /// sending their pixels back. Off by default, as the stream runs at capture
+  /// size and retaining its frames holds on to native memory.
+  Future<void> setRetainStreamFrames(int cameraId, bool retain) {
+    return _hostApi.setRetainStreamFrames(retain);
+  }
+
+  /// Encodes the frame with the given native [handle] as a JPEG at
+  /// [outputPath], without sending its pixels back to the platform.
+  ///
+  /// Throws a [CameraException] with code `invalid_handle` if the frame is no
+  /// longer retained.
+  Future<XFile> saveFrameAsJpeg(
+    int cameraId,
+    int handle,
+    String outputPath, {
+    int rotation = 0,
+    int quality = 100,
+  }) async {
+    try {
+      final String path = await _hostApi.saveFrameAsJpeg(
+          handle, outputPath, rotation, quality);
+      return XFile(path);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Releases the native frame with the given [handle] early.
+  Future<void> releaseFrame(int cameraId, int handle) {
+    return _hostApi.releaseFrame(handle);
+  }
+
+  /// Enables or disables sharpness scoring of the frames stream, used by
+  /// [captureBestFrameJpeg].
+  ///
+  /// While enabled, every accepted frame is scored by the variance of the
+  /// Laplacian of its luma, sampled every [step] pixels within [roi], and up
+  /// to [maxFrames] recent frames are kept natively. [roi] is given in
+  /// fractions of the frame; null scores the whole frame. Scoring keeps the
+  /// frames output of the camera running, which costs power.
+  Future<void> setSharpnessScoring(
+    int cameraId, {
+    required bool enabled,
+    int maxFrames = 4,
+    int step = 4,
+    Rect? roi,
+  }) {
+    return _hostApi.setSharpnessScoring(
+      enabled,
+      maxFrames,
+      step,
+      roi == null ? null : <double>[roi.left, roi.top, roi.right, roi.bottom],
+    );
+  }
+
+  /// Saves the sharpest frame accepted within the last [window] as a JPEG at
+  /// [outputPath], e.g. for document capture.
+  ///
+  /// Requires [setSharpnessScoring]; throws a [CameraException] with code
+  /// `no_frame` if no frame was scored within [window].
+  Future<XFile> captureBestFrameJpeg(
+    int cameraId,
+    String outputPath, {
+    Duration window = const Duration(seconds: 1),
+    int rotation = 0,
+    int quality = 100,
+  }) async {
+    try {
+      final String path = await _hostApi.captureBestFrameJpeg(
+          window.inMilliseconds, outputPath, rotation, quality);
+      return XFile(path);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Keeps the last [frames] accepted frames natively, from 2 to 16, for
+  /// [captureDenoisedFrameJpeg]. A [frames] of 0 stops keeping them.
+  ///
+  /// Frames are kept as they are accepted, at the rate set by `frameFps`;
+  /// a higher rate keeps the averaged frames closer together. Keeping frames
+  /// keeps the frames output of the camera running, which costs power.
+  Future<void> setDenoiseHistory(int cameraId, int frames) async {
+    try {
+      await _hostApi.setDenoiseHistory(frames);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Saves the average of the last [frames] kept frames, or of all of them if
+  /// 0, as a JPEG at [outputPath], for a cleaner picture in low light than a
+  /// single preview frame.
+  ///
+  /// With [align], frames are shifted to match the newest one first, which
+  /// compensates hand shake; samples that still differ from the newest frame,
+  /// such as moving objects, are taken from the newest frame. Requires
+  /// [setDenoiseHistory]; throws a [CameraException] with code `no_frame` if
+  /// no frame was kept.
+  Future<XFile> captureDenoisedFrameJpeg(
+    int cameraId,
+    String outputPath, {
+    int frames = 0,
+    bool align = true,
+    int rotation = 0,
+    int quality = 100,
+  }) async {
+    try {
+      final String path = await _hostApi.captureDenoisedFrameJpeg(
+          outputPath, rotation, quality, frames, align);
+      return XFile(path);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Switches the camera to a constrained high speed session recording at the
+  /// supported frame rate closest to [fps], such as 120 or 240, or back to a
+  /// regular session if [fps] is 0.
+  ///
+  /// Recordings get every frame, at the largest supported size up to the
+  /// capture size of the resolution preset. The preview and the frames output
+  /// run at [analysisFps] instead, taking evenly spaced frames, or every frame
+  /// if [analysisFps] is 0; while recording, the camera delivers them at about
+  /// 30 fps at most. Pictures and image streams are not available in a high
+  /// speed session, and it cannot be changed while recording.
+  ///
+  /// Returns the selected mode, or null if high speed video was disabled.
+  /// Throws a [CameraException] with code `highSpeedVideoUnsupported` if the
+  /// camera has no high speed video configuration.
+  Future<HighSpeedVideoMode?> setHighSpeedVideo(
+    int cameraId,
+    int fps, {
+    int analysisFps = 30,
+  }) async {
+    try {
+      final List<int> mode =
+          await _hostApi.setHighSpeedVideo(fps, analysisFps);
+      if (mode.isEmpty) {
+        return null;
+      }
+      return HighSpeedVideoMode(
+        width: mode[0],
+        height: mode[1],
+        fps: mode[2],
+        analysisFps: analysisFps > 0 ? min(analysisFps, mode[2]) : mode[2],
+      );
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   @override
   Future<void> pausePreview(int cameraId) async {
     await _hostApi.pausePreview();
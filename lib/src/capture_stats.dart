@@ -0,0 +1,74 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+/// A batch of per-frame capture result statistics, as delivered by
+/// `AndroidCamera.onCaptureStats`.
+///
+/// The values are kept in the flat array sent by the platform; [operator []]
+/// returns lightweight views into it. Values the device does not report are
+/// `-1`.
+///
+/// Mirrors `CaptureStatsBatcher` on the Android side.
+class CaptureStatsBatch {
+  /// Wraps the flat array received from the platform.
+  CaptureStatsBatch(this.data) : assert(data.length % stride == 0);
+
+  /// Number of values per frame.
+  static const int stride = 10;
+
+  /// The flat array holding [stride] values per frame.
+  final Int64List data;
+
+  /// Number of frames in this batch.
+  int get length => data.length ~/ stride;
+
+  /// The statistics of the [index]th frame of this batch.
+  CaptureStats operator [](int index) {
+    RangeError.checkValidIndex(index, this);
+    return CaptureStats._(data, index * stride);
+  }
+}
+
+/// The capture result statistics of a single frame.
+class CaptureStats {
+  const CaptureStats._(this._data, this._offset);
+
+  final Int64List _data;
+  final int _offset;
+
+  /// Sensor timestamp of the start of exposure, in nanoseconds.
+  int get sensorTimestamp => _data[_offset];
+
+  /// Frame number assigned by the camera framework.
+  int get frameNumber => _data[_offset + 1];
+
+  /// `CaptureResult.CONTROL_AE_STATE`.
+  int get aeState => _data[_offset + 2];
+
+  /// `CaptureResult.CONTROL_AF_STATE`.
+  int get afState => _data[_offset + 3];
+
+  /// `CaptureResult.CONTROL_AWB_STATE`.
+  int get awbState => _data[_offset + 4];
+
+  /// Lens focus distance in diopters, or `null` if not reported.
+  double? get focusDistance {
+    final int microDiopters = _data[_offset + 5];
+    return microDiopters < 0 ? null : microDiopters / 1000000;
+  }
+
+  /// Frame duration, in nanoseconds.
+  int get frameDuration => _data[_offset + 6];
+
+  /// Rolling shutter skew, in nanoseconds.
+  int get rollingShutterSkew => _data[_offset + 7];
+
+  /// Exposure time, in nanoseconds.
+  int get exposureTime => _data[_offset + 8];
+
+  /// Sensor sensitivity (ISO).
+  int get sensitivity => _data[_offset + 9];
+}
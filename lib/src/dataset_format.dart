@@ -0,0 +1,18 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The pixel layout of frames recorded by
+/// `AndroidCamera.startDatasetRecording`.
+///
+/// Frames are stored without row padding, `width` pixels per row.
+enum DatasetFormat {
+  /// NV21, `width * height * 3 / 2` bytes per frame.
+  nv21,
+
+  /// The luma plane only, `width * height` bytes per frame.
+  yOnly,
+
+  /// Packed 8-bit RGB, `width * height * 3` bytes per frame.
+  rgb,
+}
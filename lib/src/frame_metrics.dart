@@ -0,0 +1,108 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// A snapshot of the frame pipeline metrics of a camera, as returned by
+/// `AndroidCamera.getFrameMetrics`.
+///
+/// Mirrors `FrameMetrics` on the Android side.
+class FrameMetrics {
+  /// Creates a snapshot from its parts.
+  const FrameMetrics({
+    required this.sensorToAccept,
+    required this.acceptToConverted,
+    required this.convertedToDelivered,
+    required this.mainThreadSend,
+    required this.drops,
+    required this.delivered,
+  });
+
+  /// Parses the map sent by the platform.
+  factory FrameMetrics.fromPlatformData(Map<String, Object?> data) {
+    final Map<Object?, Object?> latency =
+        data['latency']! as Map<Object?, Object?>;
+    LatencySummary summary(String key) => LatencySummary.fromPlatformData(
+        latency[key]! as Map<Object?, Object?>);
+    return FrameMetrics(
+      sensorToAccept: summary('sensorToAccept'),
+      acceptToConverted: summary('acceptToConverted'),
+      convertedToDelivered: summary('convertedToDelivered'),
+      mainThreadSend: summary('mainThreadSend'),
+      drops: (data['drops']! as Map<Object?, Object?>).cast<String, int>(),
+      delivered: data['delivered']! as int,
+    );
+  }
+
+  /// Time from the sensor timestamp of a frame until the plugin accepted it.
+  ///
+  /// Empty on devices whose sensor timestamps are not in the realtime clock.
+  final LatencySummary sensorToAccept;
+
+  /// Time spent converting accepted frames for Dart.
+  final LatencySummary acceptToConverted;
+
+  /// Time from the end of the conversion until the frame was handed to Dart.
+  final LatencySummary convertedToDelivered;
+
+  /// Time the platform thread spent handing each frame to Dart.
+  ///
+  /// Includes encoding the frame unless background stream encoding is
+  /// enabled, see `AndroidCamera.setBackgroundStreamEncoding`.
+  final LatencySummary mainThreadSend;
+
+  /// Number of dropped frames per pipeline stage.
+  ///
+  /// The keys are `throttled`, `motionGated`, `conversionFailed`,
+  /// `collectedBeforeDelivery`, `supersededBeforeDelivery`, `rendererOverrun`
+  /// and `datasetWriterBusy`.
+  final Map<String, int> drops;
+
+  /// Number of frames handed to Dart.
+  final int delivered;
+}
+
+/// A summary of a latency histogram.
+///
+/// Percentiles are upper bounds with at most a factor of two error.
+class LatencySummary {
+  /// Creates a summary from its parts.
+  const LatencySummary({
+    required this.count,
+    required this.mean,
+    required this.p50,
+    required this.p90,
+    required this.p99,
+    required this.max,
+  });
+
+  /// Parses the map sent by the platform.
+  factory LatencySummary.fromPlatformData(Map<Object?, Object?> data) {
+    Duration micros(String key) => Duration(microseconds: data[key]! as int);
+    return LatencySummary(
+      count: data['count']! as int,
+      mean: micros('meanMicros'),
+      p50: micros('p50Micros'),
+      p90: micros('p90Micros'),
+      p99: micros('p99Micros'),
+      max: micros('maxMicros'),
+    );
+  }
+
+  /// Number of samples.
+  final int count;
+
+  /// Mean latency.
+  final Duration mean;
+
+  /// Median latency.
+  final Duration p50;
+
+  /// 90th percentile latency.
+  final Duration p90;
+
+  /// 99th percentile latency.
+  final Duration p99;
+
+  /// Highest latency seen.
+  final Duration max;
+}
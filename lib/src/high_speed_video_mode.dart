@@ -0,0 +1,31 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The configuration of a constrained high speed session, see
+/// `AndroidCamera.setHighSpeedVideo`.
+class HighSpeedVideoMode {
+  /// Creates a mode recording [width]x[height] at [fps] frames per second.
+  const HighSpeedVideoMode({
+    required this.width,
+    required this.height,
+    required this.fps,
+    required this.analysisFps,
+  });
+
+  /// The width of recorded videos.
+  final int width;
+
+  /// The height of recorded videos.
+  final int height;
+
+  /// The frame rate videos are recorded at.
+  final int fps;
+
+  /// The frame rate of the preview and the frame pipeline.
+  final int analysisFps;
+
+  @override
+  String toString() =>
+      'HighSpeedVideoMode(${width}x$height @ $fps fps, analysis $analysisFps fps)';
+}
@@ -0,0 +1,41 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
+
+import 'type_conversion.dart';
+
+/// A full-resolution frame taken from the native frame history, see
+/// `AndroidCamera.setFrameHistory`.
+class HistoryFrame {
+  /// Creates a frame from its parts.
+  const HistoryFrame({
+    required this.frameId,
+    required this.sensorTimestamp,
+    required this.image,
+    this.handle,
+  });
+
+  /// Parses the map sent by the platform.
+  factory HistoryFrame.fromPlatformData(Map<Object?, Object?> data) {
+    return HistoryFrame(
+      frameId: data['frameId']! as int,
+      sensorTimestamp: data['sensorTimestamp']! as int,
+      image: cameraImageFromPlatformData(data),
+      handle: data['handle'] as int?,
+    );
+  }
+
+  /// Sequence number of the frame in the history, increasing by one per frame.
+  final int frameId;
+
+  /// Sensor timestamp of the start of exposure, in nanoseconds.
+  final int sensorTimestamp;
+
+  /// The pixels of the frame, in NV21.
+  final CameraImageData image;
+
+  /// Native handle of the frame, see `AndroidCamera.saveFrameAsJpeg`.
+  final int? handle;
+}
@@ -0,0 +1,25 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The format of the frames of the image stream, see
+/// `AndroidCamera.setImageStreamFormat`.
+///
+/// All of these are converted from the YUV420 frames of the camera, so the
+/// format can be changed while streaming.
+enum ImageStreamFormat {
+  /// Three planes of YUV420, as received from the camera.
+  yuv420,
+
+  /// A single NV21 plane.
+  nv21,
+
+  /// A single plane of RGBA8888 pixels, with rows of exactly `width * 4`
+  /// bytes.
+  ///
+  /// The plane can be passed to `decodeImageFromPixels` with
+  /// `PixelFormat.rgba8888` as is. The image format group of these frames is
+  /// [ImageFormatGroup.unknown], with a raw format of 42
+  /// (`android.graphics.ImageFormat.FLEX_RGBA_8888`).
+  rgba8888,
+}
@@ -0,0 +1,23 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
+
+/// The outcome of saving one frame of `AndroidCamera.saveAsJpegBatch`.
+class JpegExportResult {
+  /// Creates the result of saving a frame to [path].
+  const JpegExportResult(this.path, [this.error]);
+
+  /// The path the frame was to be saved to.
+  final String path;
+
+  /// Why the frame could not be saved, or null if it was.
+  final String? error;
+
+  /// Whether the frame was saved.
+  bool get isSuccess => error == null;
+
+  /// The saved file, or null if the frame could not be saved.
+  XFile? get file => isSuccess ? XFile(path) : null;
+}
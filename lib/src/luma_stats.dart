@@ -0,0 +1,85 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+/// Brightness statistics of a single frame, as delivered by
+/// `AndroidCamera.onLumaStats`.
+///
+/// The values are kept in the flat array sent by the platform; the getters
+/// read from it without copying. Only every `step`-th pixel in both directions
+/// is sampled.
+///
+/// Mirrors `LumaStats` on the Android side.
+class LumaStats {
+  /// Wraps the flat array received from the platform.
+  LumaStats(this.data)
+      : assert(data.length >= _headerSize + bins),
+        assert(data.length ==
+            _headerSize + bins + 2 * data[_tilesXIndex] * data[_tilesYIndex]);
+
+  /// Number of histogram bins.
+  static const int bins = 256;
+
+  static const int _headerSize = 7;
+  static const int _tilesXIndex = 5;
+  static const int _tilesYIndex = 6;
+
+  /// The flat array sent by the platform.
+  final Int64List data;
+
+  /// Sensor timestamp of the start of exposure, in nanoseconds.
+  int get sensorTimestamp => data[0];
+
+  /// Width of the frame, in pixels.
+  int get width => data[1];
+
+  /// Height of the frame, in pixels.
+  int get height => data[2];
+
+  /// Number of sampled pixels.
+  int get sampleCount => data[3];
+
+  /// Number of tile columns of [tileMean].
+  int get tilesX => data[_tilesXIndex];
+
+  /// Number of tile rows of [tileMean].
+  int get tilesY => data[_tilesYIndex];
+
+  /// Mean luma, from 0 to 255.
+  double get mean => sampleCount == 0 ? 0 : data[4] / sampleCount;
+
+  /// Number of sampled pixels per luma value, indexed 0 to 255.
+  Int64List get histogram =>
+      Int64List.sublistView(data, _headerSize, _headerSize + bins);
+
+  /// Fraction of samples at or below [threshold].
+  double clippedShadows({int threshold = 4}) =>
+      _fraction(0, threshold.clamp(0, bins - 1));
+
+  /// Fraction of samples at or above [threshold].
+  double clippedHighlights({int threshold = 251}) =>
+      _fraction(threshold.clamp(0, bins - 1), bins - 1);
+
+  /// Mean luma of the tile in column [x] and row [y].
+  double tileMean(int x, int y) {
+    RangeError.checkValueInInterval(x, 0, tilesX - 1, 'x');
+    RangeError.checkValueInInterval(y, 0, tilesY - 1, 'y');
+    final int tiles = tilesX * tilesY;
+    final int index = _headerSize + bins + y * tilesX + x;
+    final int count = data[index + tiles];
+    return count == 0 ? 0 : data[index] / count;
+  }
+
+  double _fraction(int from, int to) {
+    if (sampleCount == 0) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = from; i <= to; i++) {
+      count += data[_headerSize + i];
+    }
+    return count / sampleCount;
+  }
+}
@@ -0,0 +1,190 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:ffi';
+import 'dart:io';
+import 'dart:typed_data';
+
+import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
+import 'package:ffi/ffi.dart';
+
+// Layout of the ring file, mirroring `SharedFrameRing` on the Android side.
+const int _magic = 0x47524643;
+const int _headerSize = 64;
+const int _headerMagic = 0;
+const int _headerSlotCount = 8;
+const int _headerSlotHeaderSize = 12;
+const int _headerSlotCapacity = 16;
+const int _slotSequence = 0;
+const int _slotWidth = 8;
+const int _slotHeight = 12;
+const int _slotRowStride = 20;
+const int _slotDataSize = 24;
+const int _slotSensorTimestamp = 32;
+
+const int _oReadOnly = 0;
+const int _protRead = 1;
+const int _mapShared = 1;
+
+typedef _OpenNative = Int32 Function(Pointer<Utf8> path, Int32 flags);
+typedef _Open = int Function(Pointer<Utf8> path, int flags);
+typedef _CloseNative = Int32 Function(Int32 fd);
+typedef _Close = int Function(int fd);
+typedef _MmapNative = Pointer<Void> Function(Pointer<Void> address,
+    IntPtr length, Int32 prot, Int32 flags, Int32 fd, IntPtr offset);
+typedef _Mmap = Pointer<Void> Function(
+    Pointer<Void> address, int length, int prot, int flags, int fd, int offset);
+typedef _MunmapNative = Int32 Function(Pointer<Void> address, IntPtr length);
+typedef _Munmap = int Function(Pointer<Void> address, int length);
+
+final DynamicLibrary _libc = DynamicLibrary.process();
+final _Open _open = _libc.lookupFunction<_OpenNative, _Open>('open');
+final _Close _close = _libc.lookupFunction<_CloseNative, _Close>('close');
+final _Mmap _mmap = _libc.lookupFunction<_MmapNative, _Mmap>('mmap');
+final _Munmap _munmap = _libc.lookupFunction<_MunmapNative, _Munmap>('munmap');
+
+/// A ring of frames in shared memory written by the camera, read through FFI
+/// by `AndroidCamera.onSharedFrames`.
+///
+/// The ring is a memory-mapped file; frame pixels are never copied into Dart.
+class SharedFrameRing {
+  SharedFrameRing._(this._address, this._length, this._view)
+      : slotCount = _view.getInt32(_headerSlotCount, Endian.little),
+        _slotHeaderSize = _view.getInt32(_headerSlotHeaderSize, Endian.little),
+        slotCapacity = _view.getInt32(_headerSlotCapacity, Endian.little);
+
+  /// Maps the ring file at [path] for reading.
+  ///
+  /// Throws a [CameraException] if the file can't be mapped or is no ring.
+  factory SharedFrameRing.open(String path) {
+    final int length = File(path).lengthSync();
+    final Pointer<Utf8> nativePath = path.toNativeUtf8();
+    final int fd = _open(nativePath, _oReadOnly);
+    malloc.free(nativePath);
+    if (fd < 0) {
+      throw CameraException('frameRingFailed', 'Could not open $path');
+    }
+    final Pointer<Void> address =
+        _mmap(nullptr, length, _protRead, _mapShared, fd, 0);
+    // The mapping stays valid after the file is closed.
+    _close(fd);
+    // MAP_FAILED is (void *) -1, which reads as unsigned on 32-bit devices.
+    if (address.address == -1 || address.address == 0xFFFFFFFF) {
+      throw CameraException('frameRingFailed', 'Could not map $path');
+    }
+    final Pointer<Uint8> bytes = address.cast<Uint8>();
+    final ByteData view = ByteData.sublistView(bytes.asTypedList(length));
+    if (length < _headerSize ||
+        view.getInt32(_headerMagic, Endian.little) != _magic) {
+      _munmap(address, length);
+      throw CameraException('frameRingFailed', '$path is no frame ring');
+    }
+    return SharedFrameRing._(bytes, length, view);
+  }
+
+  final Pointer<Uint8> _address;
+  final int _length;
+  final ByteData _view;
+  final int _slotHeaderSize;
+  bool _closed = false;
+
+  /// Number of slots of the ring.
+  final int slotCount;
+
+  /// Largest frame a slot can hold, in bytes.
+  final int slotCapacity;
+
+  /// Returns the frame in [slot], or null if it is empty or being written.
+  SharedFrame? frame(int slot) {
+    if (_closed || slot < 0 || slot >= slotCount) {
+      return null;
+    }
+    final int base = _slotBase(slot);
+    final int sequence = _sequenceOf(slot);
+    if (sequence <= 0) {
+      return null;
+    }
+    final SharedFrame frame = SharedFrame._(
+      this,
+      slot: slot,
+      sequence: sequence,
+      width: _view.getInt32(base + _slotWidth, Endian.little),
+      height: _view.getInt32(base + _slotHeight, Endian.little),
+      rowStride: _view.getInt32(base + _slotRowStride, Endian.little),
+      sensorTimestamp:
+          _view.getInt64(base + _slotSensorTimestamp, Endian.little),
+      data: _address + base + _slotHeaderSize,
+      length: _view.getInt32(base + _slotDataSize, Endian.little),
+    );
+    // The header was rewritten while reading it.
+    return frame.isValid ? frame : null;
+  }
+
+  /// Unmaps the ring. Frames of the ring must not be used afterwards.
+  void close() {
+    if (_closed) {
+      return;
+    }
+    _closed = true;
+    _munmap(_address.cast<Void>(), _length);
+  }
+
+  int _slotBase(int slot) =>
+      _headerSize + slot * (_slotHeaderSize + slotCapacity);
+
+  int _sequenceOf(int slot) =>
+      _view.getInt64(_slotBase(slot) + _slotSequence, Endian.little);
+}
+
+/// A frame in a [SharedFrameRing].
+///
+/// The pixels are NV21: [height] rows of [rowStride] luma bytes, followed by
+/// `height / 2` rows of interleaved V and U bytes. They stay in shared memory
+/// and are overwritten once the camera wraps around the ring, so check
+/// [isValid] after reading them and discard the result if it is false.
+class SharedFrame {
+  SharedFrame._(
+    this._ring, {
+    required this.slot,
+    required this.sequence,
+    required this.width,
+    required this.height,
+    required this.rowStride,
+    required this.sensorTimestamp,
+    required this.data,
+    required this.length,
+  });
+
+  final SharedFrameRing _ring;
+
+  /// Index of the slot holding the frame.
+  final int slot;
+
+  /// Number of the frame, counting from 1 since the ring was created.
+  final int sequence;
+
+  /// Width of the frame, in pixels.
+  final int width;
+
+  /// Height of the frame, in pixels.
+  final int height;
+
+  /// Bytes per row of both planes.
+  final int rowStride;
+
+  /// Sensor timestamp of the start of exposure, in nanoseconds.
+  final int sensorTimestamp;
+
+  /// Address of the pixels, for native code.
+  final Pointer<Uint8> data;
+
+  /// Size of the pixels, in bytes.
+  final int length;
+
+  /// The pixels, viewed without copying.
+  Uint8List get bytes => data.asTypedList(length);
+
+  /// Whether the slot still holds this frame.
+  bool get isValid => !_ring._closed && _ring._sequenceOf(slot) == sequence;
+}
@@ -0,0 +1,60 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+/// How a frame is fitted into the tensor size of
+/// `AndroidCamera.onTensorFrames` when the aspect ratios differ.
+///
+/// Mirrors `TensorConverter.Fit` on the Android side.
+enum TensorFit {
+  /// Scales the whole frame to fit, padding the borders with black.
+  letterbox,
+
+  /// Scales the frame to fill the tensor, cropping the borders.
+  centerCrop,
+}
+
+/// A frame converted natively into RGB model input, as delivered by
+/// `AndroidCamera.onTensorFrames`.
+///
+/// The pixels are laid out as NHWC with a batch size of one: [height] rows of
+/// [width] pixels of red, green and blue.
+class TensorFrame {
+  /// Creates a frame from its parts.
+  const TensorFrame({
+    required this.width,
+    required this.height,
+    required this.sensorTimestamp,
+    required this.data,
+  });
+
+  /// Parses the map sent by the platform.
+  factory TensorFrame.fromPlatformData(Map<Object?, Object?> data) {
+    return TensorFrame(
+      width: data['width']! as int,
+      height: data['height']! as int,
+      sensorTimestamp: data['sensorTimestamp']! as int,
+      data: data['data']! as TypedData,
+    );
+  }
+
+  /// Width of the tensor, in pixels.
+  final int width;
+
+  /// Height of the tensor, in pixels.
+  final int height;
+
+  /// Sensor timestamp of the start of exposure, in nanoseconds.
+  final int sensorTimestamp;
+
+  /// The pixels, as a [Uint8List] or, for float output, a [Float32List].
+  final TypedData data;
+
+  /// The pixels as bytes, or null for float output.
+  Uint8List? get uint8 => data is Uint8List ? data as Uint8List : null;
+
+  /// The normalized pixels, or null for byte output.
+  Float32List? get float32 => data is Float32List ? data as Float32List : null;
+}
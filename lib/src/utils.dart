@@ -7,6 +7,7 @@ import 'dart:math';
 import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
 import 'package:flutter/services.dart';
 
+import 'image_stream_format.dart';
 import 'messages.g.dart';
 
 /// Converts a [PlatformCameraLensDirection] to [CameraLensDirection].
@@ -140,6 +141,18 @@ PlatformImageFormatGroup imageFormatGroupToPlatform(ImageFormatGroup format) {
   return PlatformImageFormatGroup.yuv420;
 }
 
+/// Converts an [ImageStreamFormat] to [PlatformImageFormatGroup].
+PlatformImageFormatGroup imageStreamFormatToPlatform(ImageStreamFormat format) {
+  switch (format) {
+    case ImageStreamFormat.yuv420:
+      return PlatformImageFormatGroup.yuv420;
+    case ImageStreamFormat.nv21:
+      return PlatformImageFormatGroup.nv21;
+    case ImageStreamFormat.rgba8888:
+      return PlatformImageFormatGroup.rgba8888;
+  }
+}
+
 /// Converts a [FlashMode] to [PlatformFlashMode].
 PlatformFlashMode flashModeToPlatform(FlashMode mode) {
   switch (mode) {
@@ -0,0 +1,21 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The easing applied to a native zoom ramp started with
+/// `AndroidCamera.startZoomRamp`.
+///
+/// Mirrors `ZoomRampCurve` on the Android side.
+enum ZoomRampCurve {
+  /// Constant speed.
+  linear,
+
+  /// Starts slowly and accelerates towards the target.
+  easeIn,
+
+  /// Starts quickly and decelerates towards the target.
+  easeOut,
+
+  /// Accelerates during the first half and decelerates during the second.
+  easeInOut,
+}
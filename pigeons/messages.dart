@@ -102,12 +102,16 @@ enum PlatformImageFormatGroup {
   yuv420,
   jpeg,
   nv21,
+  rgba8888,
 }
 
 /// Pigeon equivalent of [FlashMode].
 enum PlatformFlashMode { off, auto, always, torch }
 
 /// Handles calls from Dart to the native side.
+///
+/// Methods that send or receive whole frames run on a background task queue,
+/// so the frames are not encoded or decoded on the platform thread.
 @HostApi()
 abstract class CameraApi {
   /// Returns the list of available cameras.
@@ -136,6 +140,7 @@ abstract class CameraApi {
 
   /// Capture a preview frame and return it as a map
   @async
+  @TaskQueue(type: TaskQueueType.serialBackgroundThread)
   Map<String, Object> capturePreviewFrame();
 
   /// Capture a preview frame and return it as a jpeg
@@ -144,6 +149,7 @@ abstract class CameraApi {
 
   /// Save a preview frame to the given path.
   @async
+  @TaskQueue(type: TaskQueueType.serialBackgroundThread)
   String saveAsJpeg(Map<String, Object> imageData, String outputPath,
       int rotation, int quality);
 
@@ -229,6 +235,152 @@ abstract class CameraApi {
   ///
   /// This should be called only while video recording is active.
   void setDescriptionWhileRecording(String description);
+
+  /// Smoothly changes the zoom level to [zoom] over [durationMs] milliseconds,
+  /// following the easing [curve] (`linear`, `easeIn`, `easeOut` or `easeInOut`).
+  ///
+  /// Completes once the target zoom level is reflected in a capture result, or
+  /// when the ramp is superseded by another zoom change.
+  @async
+  void startZoomRamp(double zoom, int durationMs, String curve);
+
+  /// Starts streaming per-frame capture result statistics in batches of
+  /// [batchSize] results.
+  void startCaptureStats(int batchSize);
+
+  /// Stops the capture result statistics stream.
+  void stopCaptureStats();
+
+  /// Returns latency histograms and dropped frame counters of the frame
+  /// pipeline.
+  Map<String, Object> getFrameMetrics();
+
+  /// Clears the frame pipeline metrics.
+  void resetFrameMetrics();
+
+  /// Enables or disables zero shutter lag pictures, keeping up to [depth]
+  /// full-resolution frames and at most [maxMemoryBytes] of pixel data.
+  void setZeroShutterLag(bool enabled, int depth, int maxMemoryBytes);
+
+  /// Keeps the last [depth] full-resolution frames, using at most
+  /// [maxMemoryBytes] of pixel data, for frame history lookups.
+  void setFrameHistory(int depth, int maxMemoryBytes);
+
+  /// Returns the history frame whose sensor timestamp is closest to
+  /// [timestampNs], or null if the history is empty.
+  @async
+  @TaskQueue(type: TaskQueueType.serialBackgroundThread)
+  Map<String, Object>? getFrameNearest(int timestampNs);
+
+  /// Returns the history frame with the given id, or null if it is no longer
+  /// held.
+  @async
+  @TaskQueue(type: TaskQueueType.serialBackgroundThread)
+  Map<String, Object>? getFrameById(int frameId);
+
+  /// Returns all history frames with a sensor timestamp in
+  /// [startNs, endNs], oldest first.
+  @async
+  @TaskQueue(type: TaskQueueType.serialBackgroundThread)
+  List<Map<String, Object>> getFramesInRange(int startNs, int endNs);
+
+  /// Encodes a frame retained by its handle as a JPEG at [outputPath].
+  @async
+  String saveFrameAsJpeg(
+      int handle, String outputPath, int rotation, int quality);
+
+  /// Releases a frame retained for [saveFrameAsJpeg].
+  void releaseFrame(int handle);
+
+  /// Scores the sharpness of every accepted frame and keeps up to [maxFrames]
+  /// candidates for [captureBestFrameJpeg]. [roi] is
+  /// `[left, top, right, bottom]` in fractions of the frame, or null for the
+  /// whole frame.
+  void setSharpnessScoring(
+      bool enabled, int maxFrames, int step, List<double>? roi);
+
+  /// Saves the sharpest frame accepted within the last [windowMs] as a JPEG at
+  /// [outputPath].
+  @async
+  String captureBestFrameJpeg(
+      int windowMs, String outputPath, int rotation, int quality);
+
+  /// Starts collecting luma statistics of every accepted frame, split into
+  /// [tilesX] by [tilesY] tiles and sampled every [step] pixels, and sending
+  /// them on the luma stats event channel.
+  void startLumaStats(int tilesX, int tilesY, int step);
+
+  /// Stops collecting luma statistics.
+  void stopLumaStats();
+
+  /// Only converts and delivers frames whose luma differs from the last
+  /// delivered frame by more than [threshold] in some block, plus one frame
+  /// every [keepAliveMs].
+  void setMotionGate(bool enabled, double threshold, int keepAliveMs);
+
+  /// Starts converting accepted frames into [width] x [height] RGB model input
+  /// on the tensor stream, as bytes or, if [float32], floats normalized with
+  /// [mean] and [std]. [fit] is `letterbox` or `centerCrop`.
+  void startTensorStream(int width, int height, bool float32, String fit,
+      int rotation, List<double>? mean, List<double>? std);
+
+  /// Stops the tensor stream.
+  void stopTensorStream();
+
+  /// Changes the format of the image stream frames without reinitializing.
+  void setImageStreamFormat(PlatformImageFormatGroup format);
+
+  /// Sets whether the image and frames streams encode frames off the platform
+  /// thread. Applies to streams listened to afterwards.
+  void setBackgroundStreamEncoding(bool enabled);
+
+  /// Starts writing accepted frames into a shared memory ring of [slotCount]
+  /// slots and returns the path of its file.
+  String startFrameRing(int slotCount);
+
+  /// Stops writing frames into the shared memory ring.
+  void stopFrameRing();
+
+  /// Starts recording every frame in [format] (`nv21`, `yOnly` or `rgb`) to
+  /// segment files of [segmentBytes] bytes and an index in [directory].
+  void startDatasetRecording(String directory, String format, int segmentBytes);
+
+  /// Stops the dataset recording and returns the number of recorded frames.
+  @async
+  int stopDatasetRecording();
+
+  /// Saves each of [frames] as a JPEG at the matching entry of [outputPaths],
+  /// encoding them in parallel. Returns one entry per frame: null if it was
+  /// saved, or the error message.
+  @async
+  @TaskQueue(type: TaskQueueType.serialBackgroundThread)
+  List<String?> saveAsJpegBatch(List<Map<String, Object>> frames,
+      List<String> outputPaths, int rotation, int quality);
+
+  /// Writes an upright thumbnail with a longer side of at most [maxSide]
+  /// pixels next to every saved picture; 0 disables thumbnails.
+  void setThumbnailSize(int maxSide);
+
+  /// Keeps the last [frames] accepted frames, from 2 to 16, for
+  /// [captureDenoisedFrameJpeg]; 0 stops keeping them.
+  void setDenoiseHistory(int frames);
+
+  /// Saves the average of the last [frames] kept frames, or all of them if 0,
+  /// as a JPEG at [outputPath], aligning them first if [align] is true.
+  @async
+  String captureDenoisedFrameJpeg(
+      String outputPath, int rotation, int quality, int frames, bool align);
+
+  /// Switches to constrained high speed sessions at the supported frame rate
+  /// closest to [fps], or back to regular sessions if 0, with the preview and
+  /// frame pipeline at [analysisFps].
+  ///
+  /// Returns the width, height and frame rate, or an empty list if disabled.
+  List<int> setHighSpeedVideo(int fps, int analysisFps);
+
+  /// Whether frames of the frames stream keep a native handle for
+  /// [saveFrameAsJpeg]; off by default.
+  void setRetainStreamFrames(bool retain);
 }
 
 /// Handles calls from native side to Dart that are not camera-specific.
@@ -4,11 +4,19 @@
 
 import 'dart:async';
 import 'dart:math';
+import 'dart:typed_data';
 
 import 'package:async/async.dart';
 import 'package:camera_android_frame/src/messages.g.dart';
 import 'package:camera_android_frame/src/utils.dart';
 import 'package:camera_android_frame/src/android_camera.dart';
+import 'package:camera_android_frame/src/capture_stats.dart';
+import 'package:camera_android_frame/src/dataset_format.dart';
+import 'package:camera_android_frame/src/frame_metrics.dart';
+import 'package:camera_android_frame/src/high_speed_video_mode.dart';
+import 'package:camera_android_frame/src/history_frame.dart';
+import 'package:camera_android_frame/src/luma_stats.dart';
+import 'package:camera_android_frame/src/tensor_frame.dart';
 import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
 import 'package:flutter/services.dart';
 import 'package:flutter/widgets.dart';
@@ -755,5 +763,358 @@ void main() {
       verify(mockCameraApi.startImageStream()).called(1);
       verify(mockCameraApi.stopImageStream()).called(1);
     });
+
+    test('Should get the frame metrics', () async {
+      // Arrange
+      when(mockCameraApi.getFrameMetrics())
+          .thenAnswer((_) async => frameMetricsPlatformData());
+
+      // Act
+      final FrameMetrics metrics = await camera.getFrameMetrics(cameraId);
+
+      // Assert
+      expect(metrics.delivered, 42);
+      expect(metrics.mainThreadSend.p99, const Duration(microseconds: 900));
+    });
+
+    test('Should reset the frame metrics', () async {
+      // Arrange
+      // Act
+      await camera.resetFrameMetrics(cameraId);
+
+      // Assert
+      verify(mockCameraApi.resetFrameMetrics()).called(1);
+    });
+
+    test('Should start and stop capture stats with the stream', () async {
+      // Arrange
+      // Act
+      final StreamSubscription<CaptureStatsBatch> subscription = camera
+          .onCaptureStats(cameraId, batchSize: 5)
+          .listen((CaptureStatsBatch batch) {});
+      await Future<void>.delayed(Duration.zero);
+      await subscription.cancel();
+
+      // Assert
+      verify(mockCameraApi.startCaptureStats(5)).called(1);
+      verify(mockCameraApi.stopCaptureStats()).called(1);
+    });
+
+    test('Should start and stop luma stats with the stream', () async {
+      // Arrange
+      // Act
+      final StreamSubscription<LumaStats> subscription = camera
+          .onLumaStats(cameraId, tilesX: 4, tilesY: 3, step: 2)
+          .listen((LumaStats stats) {});
+      await Future<void>.delayed(Duration.zero);
+      await subscription.cancel();
+
+      // Assert
+      verify(mockCameraApi.startLumaStats(4, 3, 2)).called(1);
+      verify(mockCameraApi.stopLumaStats()).called(1);
+    });
+
+    test('Should start and stop the tensor stream with the stream', () async {
+      // Arrange
+      // Act
+      final StreamSubscription<TensorFrame> subscription = camera
+          .onTensorFrames(cameraId,
+              width: 224,
+              height: 224,
+              float32: true,
+              fit: TensorFit.centerCrop,
+              rotation: 90,
+              mean: <double>[127.5, 127.5, 127.5],
+              std: <double>[127.5, 127.5, 127.5])
+          .listen((TensorFrame frame) {});
+      await Future<void>.delayed(Duration.zero);
+      await subscription.cancel();
+
+      // Assert
+      verify(mockCameraApi.startTensorStream(
+          224,
+          224,
+          true,
+          'centerCrop',
+          90,
+          <double>[127.5, 127.5, 127.5],
+          <double>[127.5, 127.5, 127.5])).called(1);
+      verify(mockCameraApi.stopTensorStream()).called(1);
+    });
+
+    test('Should return null when the history has no nearest frame', () async {
+      // Arrange
+      when(mockCameraApi.getFrameNearest(100)).thenAnswer((_) async => null);
+
+      // Act
+      final HistoryFrame? frame = await camera.getFrameNearest(cameraId, 100);
+
+      // Assert
+      expect(frame, isNull);
+    });
+
+    test('Should get history frames and keep their handles', () async {
+      // Arrange
+      when(mockCameraApi.getFrameById(7))
+          .thenAnswer((_) async => historyFramePlatformData(7, handle: 3));
+      when(mockCameraApi.getFramesInRange(100, 300)).thenAnswer((_) async =>
+          <Map<String, Object>>[
+            historyFramePlatformData(1),
+            historyFramePlatformData(2)
+          ]);
+
+      // Act
+      final HistoryFrame frame = (await camera.getFrameById(cameraId, 7))!;
+      final List<HistoryFrame> frames =
+          await camera.getFramesInRange(cameraId, 100, 300);
+
+      // Assert
+      expect(frame.frameId, 7);
+      expect(camera.frameHandleOf(frame.image), 3);
+      expect(frames.map((HistoryFrame historyFrame) => historyFrame.frameId),
+          <int>[1, 2]);
+      expect(camera.frameHandleOf(frames[0].image), isNull);
+    });
+
+    test('Should set high speed video and return the selected mode',
+        () async {
+      // Arrange
+      when(mockCameraApi.setHighSpeedVideo(240, 60))
+          .thenAnswer((_) async => <int>[1280, 720, 240]);
+
+      // Act
+      final HighSpeedVideoMode? mode =
+          await camera.setHighSpeedVideo(cameraId, 240, analysisFps: 60);
+
+      // Assert
+      expect(mode!.width, 1280);
+      expect(mode.height, 720);
+      expect(mode.fps, 240);
+      expect(mode.analysisFps, 60);
+    });
+
+    test('Should return null when high speed video is disabled', () async {
+      // Arrange
+      when(mockCameraApi.setHighSpeedVideo(0, 30))
+          .thenAnswer((_) async => <int>[]);
+
+      // Act
+      final HighSpeedVideoMode? mode =
+          await camera.setHighSpeedVideo(cameraId, 0);
+
+      // Assert
+      expect(mode, isNull);
+    });
+
+    test(
+        'Should throw CameraException when high speed video is not supported',
+        () async {
+      // Arrange
+      when(mockCameraApi.setHighSpeedVideo(960, 30)).thenThrow(
+          PlatformException(code: 'highSpeedVideoUnsupported'));
+
+      // Act & assert
+      expect(
+          () => camera.setHighSpeedVideo(cameraId, 960),
+          throwsA(isA<CameraException>().having((CameraException e) => e.code,
+              'code', 'highSpeedVideoUnsupported')));
+    });
+
+    test('Should start a dataset recording', () async {
+      // Arrange
+      // Act
+      await camera.startDatasetRecording(cameraId, '/test/dataset',
+          format: DatasetFormat.yOnly, segmentBytes: 1024);
+
+      // Assert
+      verify(mockCameraApi.startDatasetRecording(
+              '/test/dataset', 'yOnly', 1024))
+          .called(1);
+    });
+
+    test(
+        'Should throw CameraException when a dataset recording cannot start',
+        () async {
+      // Arrange
+      when(mockCameraApi.startDatasetRecording('/test/dataset', 'nv21', 0))
+          .thenThrow(PlatformException(
+              code: 'datasetRecordingFailed', message: 'Read-only'));
+
+      // Act & assert
+      expect(
+          () => camera.startDatasetRecording(cameraId, '/test/dataset'),
+          throwsA(isA<CameraException>()
+              .having((CameraException e) => e.code, 'code',
+                  'datasetRecordingFailed')
+              .having((CameraException e) => e.description, 'description',
+                  'Read-only')));
+    });
+
+    test('Should stop a dataset recording and return the frame count',
+        () async {
+      // Arrange
+      when(mockCameraApi.stopDatasetRecording()).thenAnswer((_) async => 120);
+
+      // Act
+      final int frames = await camera.stopDatasetRecording(cameraId);
+
+      // Assert
+      expect(frames, 120);
+    });
+  });
+
+  group('Platform Data Tests', () {
+    test('Should parse frame metrics', () {
+      final FrameMetrics metrics =
+          FrameMetrics.fromPlatformData(frameMetricsPlatformData());
+
+      expect(metrics.sensorToAccept.count, 0);
+      expect(metrics.acceptToConverted.count, 10);
+      expect(metrics.acceptToConverted.mean, const Duration(microseconds: 100));
+      expect(metrics.acceptToConverted.p50, const Duration(microseconds: 200));
+      expect(metrics.acceptToConverted.p90, const Duration(microseconds: 300));
+      expect(metrics.acceptToConverted.p99, const Duration(microseconds: 900));
+      expect(metrics.acceptToConverted.max, const Duration(microseconds: 1000));
+      expect(metrics.convertedToDelivered.count, 10);
+      expect(metrics.drops['throttled'], 3);
+      expect(metrics.drops['datasetWriterBusy'], 1);
+      expect(metrics.delivered, 42);
+    });
+
+    test('Should parse capture stats batches', () {
+      final CaptureStatsBatch batch =
+          CaptureStatsBatch(Int64List.fromList(<int>[
+        // Timestamp, frame number, AE, AF and AWB states, focus distance in
+        // micro-diopters, frame duration, shutter skew, exposure and ISO.
+        1000, 1, 2, 3, 4, 2500000, 33000000, 10000, 8000000, 400,
+        2000, 2, 2, 4, 3, -1, 33000000, 10000, 9000000, 800,
+      ]));
+
+      expect(batch.length, 2);
+      expect(batch[0].sensorTimestamp, 1000);
+      expect(batch[0].frameNumber, 1);
+      expect(batch[0].aeState, 2);
+      expect(batch[0].afState, 3);
+      expect(batch[0].awbState, 4);
+      expect(batch[0].focusDistance, 2.5);
+      expect(batch[0].frameDuration, 33000000);
+      expect(batch[0].rollingShutterSkew, 10000);
+      expect(batch[0].exposureTime, 8000000);
+      expect(batch[0].sensitivity, 400);
+      expect(batch[1].sensorTimestamp, 2000);
+      expect(batch[1].focusDistance, isNull);
+      expect(batch[1].sensitivity, 800);
+      expect(() => batch[2], throwsRangeError);
+    });
+
+    test('Should parse luma stats', () {
+      // Timestamp, size, sample count, luma sum and 2x1 tiles.
+      final Int64List data = Int64List(7 + LumaStats.bins + 2 * 2 * 1);
+      data.setAll(0, <int>[1000, 4, 2, 8, 8 * 100, 2, 1]);
+      data[7 + 0] = 2;
+      data[7 + 100] = 4;
+      data[7 + 255] = 2;
+      // Luma sums of both tiles, then their sample counts.
+      data.setAll(7 + LumaStats.bins, <int>[4 * 50, 4 * 150, 4, 4]);
+
+      final LumaStats stats = LumaStats(data);
+
+      expect(stats.sensorTimestamp, 1000);
+      expect(stats.width, 4);
+      expect(stats.height, 2);
+      expect(stats.sampleCount, 8);
+      expect(stats.mean, 100);
+      expect(stats.histogram[100], 4);
+      expect(stats.clippedShadows(), 0.25);
+      expect(stats.clippedHighlights(), 0.25);
+      expect(stats.tilesX, 2);
+      expect(stats.tilesY, 1);
+      expect(stats.tileMean(0, 0), 50);
+      expect(stats.tileMean(1, 0), 150);
+      expect(() => stats.tileMean(2, 0), throwsRangeError);
+    });
+
+    test('Should parse byte and float tensor frames', () {
+      final TensorFrame bytes =
+          TensorFrame.fromPlatformData(<Object?, Object?>{
+        'width': 2,
+        'height': 1,
+        'sensorTimestamp': 1000,
+        'data': Uint8List.fromList(<int>[1, 2, 3, 4, 5, 6]),
+      });
+      final TensorFrame floats =
+          TensorFrame.fromPlatformData(<Object?, Object?>{
+        'width': 1,
+        'height': 1,
+        'sensorTimestamp': 2000,
+        'data': Float32List.fromList(<double>[-1, 0, 1]),
+      });
+
+      expect(bytes.width, 2);
+      expect(bytes.height, 1);
+      expect(bytes.sensorTimestamp, 1000);
+      expect(bytes.uint8, <int>[1, 2, 3, 4, 5, 6]);
+      expect(bytes.float32, isNull);
+      expect(floats.sensorTimestamp, 2000);
+      expect(floats.float32, <double>[-1, 0, 1]);
+      expect(floats.uint8, isNull);
+    });
+
+    test('Should parse history frames', () {
+      final HistoryFrame frame =
+          HistoryFrame.fromPlatformData(historyFramePlatformData(7, handle: 3));
+
+      expect(frame.frameId, 7);
+      expect(frame.sensorTimestamp, 7000);
+      expect(frame.handle, 3);
+      expect(frame.image.width, 4);
+      expect(frame.image.height, 2);
+      expect(frame.image.format.group, ImageFormatGroup.nv21);
+      expect(frame.image.planes.single.bytes.length, 12);
+    });
   });
 }
+
+Map<String, Object> latencyPlatformData(int count) {
+  return <String, Object>{
+    'count': count,
+    'meanMicros': count == 0 ? 0 : 100,
+    'p50Micros': count == 0 ? 0 : 200,
+    'p90Micros': count == 0 ? 0 : 300,
+    'p99Micros': count == 0 ? 0 : 900,
+    'maxMicros': count == 0 ? 0 : 1000,
+  };
+}
+
+Map<String, Object> frameMetricsPlatformData() {
+  return <String, Object>{
+    'latency': <String, Object>{
+      'sensorToAccept': latencyPlatformData(0),
+      'acceptToConverted': latencyPlatformData(10),
+      'convertedToDelivered': latencyPlatformData(10),
+      'mainThreadSend': latencyPlatformData(10),
+    },
+    'drops': <String, Object>{'throttled': 3, 'datasetWriterBusy': 1},
+    'delivered': 42,
+  };
+}
+
+Map<String, Object> historyFramePlatformData(int frameId, {int? handle}) {
+  return <String, Object>{
+    'frameId': frameId,
+    'sensorTimestamp': frameId * 1000,
+    'format': 17,
+    'width': 4,
+    'height': 2,
+    'planes': <Object>[
+      <String, Object>{
+        'bytes': Uint8List(12),
+        'bytesPerRow': 4,
+        'bytesPerPixel': 1,
+        'width': 4,
+        'height': 2,
+      },
+    ],
+    if (handle != null) 'handle': handle,
+  };
+}
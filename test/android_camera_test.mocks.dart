@@ -136,6 +136,121 @@ class MockCameraApi extends _i1.Mock implements _i2.CameraApi {
         )),
       ) as _i4.Future<String>);
 
+  @override
+  _i4.Future<Map<String, Object>> capturePreviewFrame() => (super.noSuchMethod(
+        Invocation.method(
+          #capturePreviewFrame,
+          [],
+        ),
+        returnValue: _i4.Future<Map<String, Object>>.value(<String, Object>{}),
+        returnValueForMissingStub: _i4.Future<Map<String, Object>>.value(
+            <String, Object>{}),
+      ) as _i4.Future<Map<String, Object>>);
+
+  @override
+  _i4.Future<String> capturePreviewFrameJpeg(
+    String? outputPath,
+    int? rotation,
+    int? quality,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #capturePreviewFrameJpeg,
+          [
+            outputPath,
+            rotation,
+            quality,
+          ],
+        ),
+        returnValue: _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #capturePreviewFrameJpeg,
+            [
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+        returnValueForMissingStub:
+            _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #capturePreviewFrameJpeg,
+            [
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+      ) as _i4.Future<String>);
+
+  @override
+  _i4.Future<String> saveAsJpeg(
+    Map<String, Object>? imageData,
+    String? outputPath,
+    int? rotation,
+    int? quality,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #saveAsJpeg,
+          [
+            imageData,
+            outputPath,
+            rotation,
+            quality,
+          ],
+        ),
+        returnValue: _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #saveAsJpeg,
+            [
+              imageData,
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+        returnValueForMissingStub:
+            _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #saveAsJpeg,
+            [
+              imageData,
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+      ) as _i4.Future<String>);
+
+  @override
+  _i4.Future<void> startListenFrames() => (super.noSuchMethod(
+        Invocation.method(
+          #startListenFrames,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> stopListenFrames() => (super.noSuchMethod(
+        Invocation.method(
+          #stopListenFrames,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
   @override
   _i4.Future<void> startVideoRecording(bool? enableStream) =>
       (super.noSuchMethod(
@@ -365,4 +480,545 @@ class MockCameraApi extends _i1.Mock implements _i2.CameraApi {
         returnValue: _i4.Future<void>.value(),
         returnValueForMissingStub: _i4.Future<void>.value(),
       ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> startZoomRamp(
+    double? zoom,
+    int? durationMs,
+    String? curve,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #startZoomRamp,
+          [
+            zoom,
+            durationMs,
+            curve,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> startCaptureStats(int? batchSize) => (super.noSuchMethod(
+        Invocation.method(
+          #startCaptureStats,
+          [batchSize],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> stopCaptureStats() => (super.noSuchMethod(
+        Invocation.method(
+          #stopCaptureStats,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<Map<String, Object>> getFrameMetrics() => (super.noSuchMethod(
+        Invocation.method(
+          #getFrameMetrics,
+          [],
+        ),
+        returnValue: _i4.Future<Map<String, Object>>.value(<String, Object>{}),
+        returnValueForMissingStub: _i4.Future<Map<String, Object>>.value(
+            <String, Object>{}),
+      ) as _i4.Future<Map<String, Object>>);
+
+  @override
+  _i4.Future<void> resetFrameMetrics() => (super.noSuchMethod(
+        Invocation.method(
+          #resetFrameMetrics,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setZeroShutterLag(
+    bool? enabled,
+    int? depth,
+    int? maxMemoryBytes,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setZeroShutterLag,
+          [
+            enabled,
+            depth,
+            maxMemoryBytes,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setFrameHistory(
+    int? depth,
+    int? maxMemoryBytes,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setFrameHistory,
+          [
+            depth,
+            maxMemoryBytes,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<Map<String, Object>?> getFrameNearest(int? timestampNs) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #getFrameNearest,
+          [timestampNs],
+        ),
+        returnValue: _i4.Future<Map<String, Object>?>.value(),
+        returnValueForMissingStub: _i4.Future<Map<String, Object>?>.value(),
+      ) as _i4.Future<Map<String, Object>?>);
+
+  @override
+  _i4.Future<Map<String, Object>?> getFrameById(int? frameId) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #getFrameById,
+          [frameId],
+        ),
+        returnValue: _i4.Future<Map<String, Object>?>.value(),
+        returnValueForMissingStub: _i4.Future<Map<String, Object>?>.value(),
+      ) as _i4.Future<Map<String, Object>?>);
+
+  @override
+  _i4.Future<List<Map<String, Object>>> getFramesInRange(
+    int? startNs,
+    int? endNs,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #getFramesInRange,
+          [
+            startNs,
+            endNs,
+          ],
+        ),
+        returnValue: _i4.Future<List<Map<String, Object>>>.value(
+            <Map<String, Object>>[]),
+        returnValueForMissingStub: _i4.Future<List<Map<String, Object>>>.value(
+            <Map<String, Object>>[]),
+      ) as _i4.Future<List<Map<String, Object>>>);
+
+  @override
+  _i4.Future<String> saveFrameAsJpeg(
+    int? handle,
+    String? outputPath,
+    int? rotation,
+    int? quality,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #saveFrameAsJpeg,
+          [
+            handle,
+            outputPath,
+            rotation,
+            quality,
+          ],
+        ),
+        returnValue: _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #saveFrameAsJpeg,
+            [
+              handle,
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+        returnValueForMissingStub:
+            _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #saveFrameAsJpeg,
+            [
+              handle,
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+      ) as _i4.Future<String>);
+
+  @override
+  _i4.Future<void> releaseFrame(int? handle) => (super.noSuchMethod(
+        Invocation.method(
+          #releaseFrame,
+          [handle],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setSharpnessScoring(
+    bool? enabled,
+    int? maxFrames,
+    int? step,
+    List<double>? roi,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setSharpnessScoring,
+          [
+            enabled,
+            maxFrames,
+            step,
+            roi,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<String> captureBestFrameJpeg(
+    int? windowMs,
+    String? outputPath,
+    int? rotation,
+    int? quality,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #captureBestFrameJpeg,
+          [
+            windowMs,
+            outputPath,
+            rotation,
+            quality,
+          ],
+        ),
+        returnValue: _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #captureBestFrameJpeg,
+            [
+              windowMs,
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+        returnValueForMissingStub:
+            _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #captureBestFrameJpeg,
+            [
+              windowMs,
+              outputPath,
+              rotation,
+              quality,
+            ],
+          ),
+        )),
+      ) as _i4.Future<String>);
+
+  @override
+  _i4.Future<void> startLumaStats(
+    int? tilesX,
+    int? tilesY,
+    int? step,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #startLumaStats,
+          [
+            tilesX,
+            tilesY,
+            step,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> stopLumaStats() => (super.noSuchMethod(
+        Invocation.method(
+          #stopLumaStats,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setMotionGate(
+    bool? enabled,
+    double? threshold,
+    int? keepAliveMs,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setMotionGate,
+          [
+            enabled,
+            threshold,
+            keepAliveMs,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> startTensorStream(
+    int? width,
+    int? height,
+    bool? float32,
+    String? fit,
+    int? rotation,
+    List<double>? mean,
+    List<double>? std,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #startTensorStream,
+          [
+            width,
+            height,
+            float32,
+            fit,
+            rotation,
+            mean,
+            std,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> stopTensorStream() => (super.noSuchMethod(
+        Invocation.method(
+          #stopTensorStream,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setImageStreamFormat(_i2.PlatformImageFormatGroup? format) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setImageStreamFormat,
+          [format],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setBackgroundStreamEncoding(bool? enabled) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setBackgroundStreamEncoding,
+          [enabled],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<String> startFrameRing(int? slotCount) => (super.noSuchMethod(
+        Invocation.method(
+          #startFrameRing,
+          [slotCount],
+        ),
+        returnValue: _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #startFrameRing,
+            [slotCount],
+          ),
+        )),
+        returnValueForMissingStub:
+            _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #startFrameRing,
+            [slotCount],
+          ),
+        )),
+      ) as _i4.Future<String>);
+
+  @override
+  _i4.Future<void> stopFrameRing() => (super.noSuchMethod(
+        Invocation.method(
+          #stopFrameRing,
+          [],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> startDatasetRecording(
+    String? directory,
+    String? format,
+    int? segmentBytes,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #startDatasetRecording,
+          [
+            directory,
+            format,
+            segmentBytes,
+          ],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<int> stopDatasetRecording() => (super.noSuchMethod(
+        Invocation.method(
+          #stopDatasetRecording,
+          [],
+        ),
+        returnValue: _i4.Future<int>.value(0),
+        returnValueForMissingStub: _i4.Future<int>.value(0),
+      ) as _i4.Future<int>);
+
+  @override
+  _i4.Future<List<String?>> saveAsJpegBatch(
+    List<Map<String, Object>>? frames,
+    List<String>? outputPaths,
+    int? rotation,
+    int? quality,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #saveAsJpegBatch,
+          [
+            frames,
+            outputPaths,
+            rotation,
+            quality,
+          ],
+        ),
+        returnValue: _i4.Future<List<String?>>.value(<String?>[]),
+        returnValueForMissingStub: _i4.Future<List<String?>>.value(<String?>[]),
+      ) as _i4.Future<List<String?>>);
+
+  @override
+  _i4.Future<void> setThumbnailSize(int? maxSide) => (super.noSuchMethod(
+        Invocation.method(
+          #setThumbnailSize,
+          [maxSide],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<void> setDenoiseHistory(int? frames) => (super.noSuchMethod(
+        Invocation.method(
+          #setDenoiseHistory,
+          [frames],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
+
+  @override
+  _i4.Future<String> captureDenoisedFrameJpeg(
+    String? outputPath,
+    int? rotation,
+    int? quality,
+    int? frames,
+    bool? align,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #captureDenoisedFrameJpeg,
+          [
+            outputPath,
+            rotation,
+            quality,
+            frames,
+            align,
+          ],
+        ),
+        returnValue: _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #captureDenoisedFrameJpeg,
+            [
+              outputPath,
+              rotation,
+              quality,
+              frames,
+              align,
+            ],
+          ),
+        )),
+        returnValueForMissingStub:
+            _i4.Future<String>.value(_i3.dummyValue<String>(
+          this,
+          Invocation.method(
+            #captureDenoisedFrameJpeg,
+            [
+              outputPath,
+              rotation,
+              quality,
+              frames,
+              align,
+            ],
+          ),
+        )),
+      ) as _i4.Future<String>);
+
+  @override
+  _i4.Future<List<int>> setHighSpeedVideo(
+    int? fps,
+    int? analysisFps,
+  ) =>
+      (super.noSuchMethod(
+        Invocation.method(
+          #setHighSpeedVideo,
+          [
+            fps,
+            analysisFps,
+          ],
+        ),
+        returnValue: _i4.Future<List<int>>.value(<int>[]),
+        returnValueForMissingStub: _i4.Future<List<int>>.value(<int>[]),
+      ) as _i4.Future<List<int>>);
+
+  @override
+  _i4.Future<void> setRetainStreamFrames(bool? retain) => (super.noSuchMethod(
+        Invocation.method(
+          #setRetainStreamFrames,
+          [retain],
+        ),
+        returnValue: _i4.Future<void>.value(),
+        returnValueForMissingStub: _i4.Future<void>.value(),
+      ) as _i4.Future<void>);
 }
@@ -0,0 +1,151 @@
+// Copyright 2013 The Flutter Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+// The ring is mapped with the mmap of libc.
+@TestOn('!windows')
+library;
+
+import 'dart:io';
+import 'dart:typed_data';
+
+import 'package:camera_android_frame/src/shared_frame_ring.dart';
+import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+// Layout of `SharedFrameRing` on the Android side.
+const int _magic = 0x47524643;
+const int _headerSize = 64;
+const int _slotHeaderSize = 64;
+const int _slotCount = 3;
+const int _slotCapacity = 6;
+
+int _slotBase(int slot) =>
+    _headerSize + slot * (_slotHeaderSize + _slotCapacity);
+
+void main() {
+  late Directory directory;
+  late File file;
+
+  /// Writes into the file in place, as the camera writes into its mapping.
+  void writeAt(int offset, ByteData data) {
+    // Append mode keeps the contents and still allows seeking.
+    final RandomAccessFile raf = file.openSync(mode: FileMode.append);
+    raf.setPositionSync(offset);
+    raf.writeFromSync(data.buffer.asUint8List());
+    raf.closeSync();
+  }
+
+  void writeSequence(int slot, int sequence) {
+    writeAt(_slotBase(slot),
+        ByteData(8)..setInt64(0, sequence, Endian.little));
+  }
+
+  /// Writes a complete 2x2 frame with pixels [pixels] into [slot].
+  void writeSlot(int slot, int sequence, List<int> pixels) {
+    final ByteData data = ByteData(_slotHeaderSize + _slotCapacity)
+      ..setInt64(0, sequence, Endian.little)
+      ..setInt32(8, 2, Endian.little)
+      ..setInt32(12, 2, Endian.little)
+      ..setInt32(16, 17, Endian.little)
+      ..setInt32(20, 2, Endian.little)
+      ..setInt32(24, pixels.length, Endian.little)
+      ..setInt64(32, 1000 + sequence, Endian.little);
+    for (int i = 0; i < pixels.length; i++) {
+      data.setUint8(_slotHeaderSize + i, pixels[i]);
+    }
+    writeAt(_slotBase(slot), data);
+    writeAt(24, ByteData(8)..setInt64(0, sequence, Endian.little));
+  }
+
+  setUp(() {
+    directory = Directory.systemTemp.createTempSync('frame_ring');
+    file = File('${directory.path}/frames.ring');
+    final ByteData header = ByteData(_slotBase(_slotCount))
+      ..setInt32(0, _magic, Endian.little)
+      ..setInt32(4, 1, Endian.little)
+      ..setInt32(8, _slotCount, Endian.little)
+      ..setInt32(12, _slotHeaderSize, Endian.little)
+      ..setInt32(16, _slotCapacity, Endian.little);
+    file.writeAsBytesSync(header.buffer.asUint8List());
+  });
+
+  tearDown(() {
+    directory.deleteSync(recursive: true);
+  });
+
+  test('open reads the header', () {
+    final SharedFrameRing ring = SharedFrameRing.open(file.path);
+
+    expect(ring.slotCount, _slotCount);
+    expect(ring.slotCapacity, _slotCapacity);
+    ring.close();
+  });
+
+  test('open throws for a file that is no ring', () {
+    file.writeAsBytesSync(Uint8List(_headerSize));
+
+    expect(() => SharedFrameRing.open(file.path),
+        throwsA(isA<CameraException>()));
+  });
+
+  test('frame returns the frame of a complete slot', () {
+    writeSlot(1, 5, <int>[1, 2, 3, 4, 5, 6]);
+    final SharedFrameRing ring = SharedFrameRing.open(file.path);
+
+    final SharedFrame frame = ring.frame(1)!;
+
+    expect(frame.slot, 1);
+    expect(frame.sequence, 5);
+    expect(frame.width, 2);
+    expect(frame.height, 2);
+    expect(frame.rowStride, 2);
+    expect(frame.sensorTimestamp, 1005);
+    expect(frame.length, 6);
+    expect(frame.bytes, <int>[1, 2, 3, 4, 5, 6]);
+    expect(frame.isValid, isTrue);
+    ring.close();
+  });
+
+  test('frame returns null for empty, torn and unknown slots', () {
+    writeSlot(1, 5, <int>[1, 2, 3, 4, 5, 6]);
+    // The camera marks a slot with -1 while writing it.
+    writeSequence(1, -1);
+    final SharedFrameRing ring = SharedFrameRing.open(file.path);
+
+    expect(ring.frame(0), isNull);
+    expect(ring.frame(1), isNull);
+    expect(ring.frame(-1), isNull);
+    expect(ring.frame(_slotCount), isNull);
+    ring.close();
+  });
+
+  test('isValid turns false once the slot is rewritten', () {
+    writeSlot(0, 1, <int>[1, 2, 3, 4, 5, 6]);
+    final SharedFrameRing ring = SharedFrameRing.open(file.path);
+    final SharedFrame frame = ring.frame(0)!;
+
+    // A write starting after the frame was read.
+    writeSequence(0, -1);
+    expect(frame.isValid, isFalse);
+
+    // The camera wrapped around and completed a newer frame in the slot.
+    writeSlot(0, 1 + _slotCount, <int>[9, 9, 9, 9, 9, 9]);
+    expect(frame.isValid, isFalse);
+    expect(ring.frame(0)!.sequence, 1 + _slotCount);
+    expect(ring.frame(0)!.bytes, <int>[9, 9, 9, 9, 9, 9]);
+    ring.close();
+  });
+
+  test('close invalidates the frames of the ring', () {
+    writeSlot(2, 3, <int>[1, 2, 3, 4, 5, 6]);
+    final SharedFrameRing ring = SharedFrameRing.open(file.path);
+    final SharedFrame frame = ring.frame(2)!;
+
+    ring.close();
+    ring.close();
+
+    expect(frame.isValid, isFalse);
+    expect(ring.frame(2), isNull);
+  });
+}
@@ -2,6 +2,7 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'package:camera_android_frame/src/image_stream_format.dart';
 import 'package:camera_android_frame/src/messages.g.dart';
 import 'package:camera_android_frame/src/utils.dart';
 import 'package:camera_platform_interface_frame/camera_platform_interface_frame.dart';
@@ -55,5 +56,14 @@ void main() {
       expect(focusModeFromPlatform(PlatformFocusMode.auto), FocusMode.auto);
       expect(focusModeFromPlatform(PlatformFocusMode.locked), FocusMode.locked);
     });
+
+    test('imageStreamFormatToPlatform() should convert correctly', () {
+      expect(imageStreamFormatToPlatform(ImageStreamFormat.yuv420),
+          PlatformImageFormatGroup.yuv420);
+      expect(imageStreamFormatToPlatform(ImageStreamFormat.nv21),
+          PlatformImageFormatGroup.nv21);
+      expect(imageStreamFormatToPlatform(ImageStreamFormat.rgba8888),
+          PlatformImageFormatGroup.rgba8888);
+    });
   });
 }